@@ -0,0 +1,45 @@
+package edu.umich.med.michr.track.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of the request parameter names, done several times for every tracking request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StandardParameterBenchmark {
+  // servlet containers report the method in upper case, the lower case one shows the cost of normalizing it
+  @Param({"GET", "POST", "get"})
+  private String method;
+
+  @Benchmark
+  public String getName() {
+    return StandardParameter.CLIENT_ID.getName(method);
+  }
+
+  /**
+   * All the names, as {@code RequestUtil.extractCustomAttributes} looks them up.
+   */
+  @Benchmark
+  public void getName_allParameters(Blackhole blackhole) {
+    for (StandardParameter parameter : StandardParameter.values()) {
+      blackhole.consume(parameter.getName(method));
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.config.ClientCacheProperties;
+import edu.umich.med.michr.track.domain.ClientConfiguration;
+import edu.umich.med.michr.track.util.OriginMatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client configuration lookups from many request threads at once, against a single shared service.
+ * <p>
+ * The repository answers from memory and every client is loaded during the setup, so the lookups measure the unknown
+ * client id cache, the membership filter of the snapshot and the Caffeine cache. The {@code update} group adds a
+ * thread applying configuration changes while the others keep looking clients up.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientConfigurationServiceBenchmark {
+  private static final int THREADS = 8;
+
+  @Param({"100", "10000"})
+  private int clients;
+
+  private ClientConfigurationServiceImpl service;
+  private List<ClientConfiguration> configurations;
+
+  @Setup
+  public void setUp() {
+    configurations = InMemoryClientConfigurationRepository.createClients(clients);
+    service = new ClientConfigurationServiceImpl(InMemoryClientConfigurationRepository.of(configurations),
+        new ClientCacheProperties(Duration.ofMinutes(5), 10_000, 0.01, 10_000, Duration.ofMinutes(10)),
+        Clock.systemUTC(), new SimpleMeterRegistry());
+    service.refresh();
+    for (int i = 0; i < clients; i++) {
+      service.getOriginMatcher(InMemoryClientConfigurationRepository.getClientId(i));
+    }
+  }
+
+  @Benchmark
+  @Threads(THREADS)
+  public OriginMatcher getOriginMatcher_known() {
+    return service.getOriginMatcher(randomClientId());
+  }
+
+  /**
+   * Ids that are not configured, most of them rejected by the membership filter without a cache lookup.
+   */
+  @Benchmark
+  @Threads(THREADS)
+  public OriginMatcher getOriginMatcher_unknown() {
+    return service.getOriginMatcher("unknown-" + ThreadLocalRandom.current().nextInt(clients));
+  }
+
+  @Benchmark
+  @Group("update")
+  @GroupThreads(THREADS - 1)
+  public OriginMatcher update_lookup() {
+    return service.getOriginMatcher(randomClientId());
+  }
+
+  @Benchmark
+  @Group("update")
+  @GroupThreads(1)
+  public void update_change() {
+    final ClientConfiguration configuration = configurations.get(ThreadLocalRandom.current().nextInt(clients));
+    service.onClientConfigurationChanged(
+        new ClientConfigurationChangedEvent(configuration, configuration.getAuthorizedOrigins()));
+  }
+
+  private String randomClientId() {
+    return InMemoryClientConfigurationRepository.getClientId(ThreadLocalRandom.current().nextInt(clients));
+  }
+}
@@ -0,0 +1,61 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.domain.ClientConfiguration;
+import edu.umich.med.michr.track.repository.ClientConfigurationRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A {@link ClientConfigurationRepository} answering the queries of {@link ClientConfigurationServiceImpl} from memory,
+ * so the benchmarks measure the lookups rather than a database.
+ */
+final class InMemoryClientConfigurationRepository {
+  private InMemoryClientConfigurationRepository() {}
+
+  static ClientConfigurationRepository of(List<ClientConfiguration> configurations) {
+    final Map<String, ClientConfiguration> byId = configurations.stream()
+        .collect(Collectors.toUnmodifiableMap(ClientConfiguration::getId, Function.identity()));
+    final List<String> ids = List.copyOf(byId.keySet());
+    final List<AuthorizedOriginCount> origins = configurations.stream()
+        .flatMap(configuration -> configuration.getAuthorizedOrigins().stream())
+        .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+        .entrySet().stream()
+        .map(entry -> new AuthorizedOriginCount(entry.getKey(), entry.getValue()))
+        .toList();
+
+    return (ClientConfigurationRepository) Proxy.newProxyInstance(ClientConfigurationRepository.class.getClassLoader(),
+        new Class<?>[]{ClientConfigurationRepository.class}, (proxy, method, arguments) -> switch (method.getName()) {
+          case "findAllIds" -> ids;
+          case "countClientsByAuthorizedOrigin" -> origins;
+          case "findAllWithOriginsByIdIn" -> ((Collection<?>) arguments[0]).stream()
+              .map(byId::get)
+              .filter(Objects::nonNull)
+              .toList();
+          default -> throw new UnsupportedOperationException(method.getName());
+        });
+  }
+
+  /**
+   * @return the configurations of {@code count} clients, each authorized for its own origin
+   */
+  static List<ClientConfiguration> createClients(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> new ClientConfiguration(getClientId(i), "Client " + i, List.of(getOrigin(i))))
+        .toList();
+  }
+
+  static String getClientId(int i) {
+    return "client-" + i;
+  }
+
+  static String getOrigin(int i) {
+    return "https://site" + i + ".example.org";
+  }
+}
@@ -0,0 +1,93 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.config.ClientCacheProperties;
+import edu.umich.med.michr.track.exception.ValidationException;
+import edu.umich.med.michr.track.util.RequestUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Origin validation of a tracking request, for each way the origin can be resolved and for a rejected request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OriginValidatorBenchmark {
+  private static final int CLIENTS = 100;
+
+  private OriginValidatorImpl validator;
+  private MockHttpServletRequest originRequest;
+  private MockHttpServletRequest refererRequest;
+  private MockHttpServletRequest emailIdRequest;
+  private MockHttpServletRequest rejectedRequest;
+
+  @Setup
+  public void setUp() {
+    final ClientConfigurationServiceImpl service = new ClientConfigurationServiceImpl(
+        InMemoryClientConfigurationRepository.of(InMemoryClientConfigurationRepository.createClients(CLIENTS)),
+        new ClientCacheProperties(Duration.ofMinutes(5), 10_000, 0.01, 10_000, Duration.ofMinutes(10)),
+        Clock.systemUTC(), new SimpleMeterRegistry());
+    service.refresh();
+    validator = new OriginValidatorImpl(service, new RequestUtil());
+
+    final String clientId = InMemoryClientConfigurationRepository.getClientId(7);
+    final String origin = InMemoryClientConfigurationRepository.getOrigin(7);
+    originRequest = createRequest("POST", "clientId", clientId);
+    originRequest.addHeader(HttpHeaders.ORIGIN, origin);
+    refererRequest = createRequest("POST", "clientId", clientId);
+    refererRequest.addHeader(HttpHeaders.REFERER, origin + "/articles/2024/index.html?utm_source=mail");
+    emailIdRequest = createRequest("GET", "client-id", clientId);
+    emailIdRequest.addParameter("email-id", origin);
+    rejectedRequest = createRequest("POST", "clientId", clientId);
+    rejectedRequest.addHeader(HttpHeaders.ORIGIN, "https://not-authorized.example.org");
+  }
+
+  @Benchmark
+  public void validate_origin() {
+    validator.validate(originRequest);
+  }
+
+  @Benchmark
+  public void validate_refererFallback() {
+    validator.validate(refererRequest);
+  }
+
+  @Benchmark
+  public void validate_emailIdFallback() {
+    validator.validate(emailIdRequest);
+  }
+
+  @Benchmark
+  public ValidationException validate_rejected() {
+    try {
+      validator.validate(rejectedRequest);
+      throw new IllegalStateException("The request was expected to be rejected");
+    } catch (ValidationException e) {
+      return e;
+    }
+  }
+
+  private static MockHttpServletRequest createRequest(String method, String clientIdParameter, String clientId) {
+    final MockHttpServletRequest request = new MockHttpServletRequest(method, "/track");
+    request.addParameter(clientIdParameter, clientId);
+    return request;
+  }
+}
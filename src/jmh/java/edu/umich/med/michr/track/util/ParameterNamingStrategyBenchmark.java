@@ -0,0 +1,42 @@
+package edu.umich.med.michr.track.util;
+
+import edu.umich.med.michr.track.domain.StandardParameter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolution of the request parameter name of a {@link StandardParameter} by the naming strategies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParameterNamingStrategyBenchmark {
+  @Param({"CLIENT_ID", "PAGE"})
+  private StandardParameter parameter;
+
+  private final ParameterNamingStrategy camelCase = new CamelCaseNamingStrategy();
+  private final ParameterNamingStrategy hyphenSeparated = new HyphenSeparatedNamingStrategy();
+
+  @Benchmark
+  public String camelCase() {
+    return camelCase.resolve(parameter);
+  }
+
+  @Benchmark
+  public String hyphenSeparated() {
+    return hyphenSeparated.resolve(parameter);
+  }
+}
@@ -0,0 +1,75 @@
+package edu.umich.med.michr.track.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction of the custom attributes and of the client address, done for every tracking request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestUtilBenchmark {
+  @Param({"GET", "POST"})
+  private String method;
+
+  @Param({"0", "5", "20"})
+  private int customAttributes;
+
+  private final RequestUtil requestUtil = new RequestUtil();
+  private MockHttpServletRequest request;
+  private MockHttpServletRequest forwardedRequest;
+  private MockHttpServletRequest proxyRequest;
+
+  @Setup
+  public void setUp() {
+    request = new MockHttpServletRequest(method, "/track");
+    final boolean get = "GET".equals(method);
+    request.addParameter(get ? "client-id" : "clientId", "d2c1e4a7-63c5-4dfd-a392-35636f7ce5ac");
+    request.addParameter(get ? "user-id" : "userId", "user-1");
+    request.addParameter(get ? "event-type" : "eventType", "page-view");
+    request.addParameter("page", "/index.html");
+    for (int i = 0; i < customAttributes; i++) {
+      request.addParameter("attribute" + i, "value" + i);
+    }
+    request.setRemoteAddr("10.0.0.1");
+
+    forwardedRequest = new MockHttpServletRequest(method, "/track");
+    forwardedRequest.addHeader("X-Forwarded-For", "192.168.1.10");
+    // the first two headers are missing or unknown, so every candidate header is read
+    proxyRequest = new MockHttpServletRequest(method, "/track");
+    proxyRequest.addHeader("Proxy-Client-IP", "unknown");
+    proxyRequest.setRemoteAddr("10.0.0.2");
+  }
+
+  @Benchmark
+  public Map<String, String> extractCustomAttributes() {
+    return requestUtil.extractCustomAttributes(request);
+  }
+
+  @Benchmark
+  public String extractIpAddress_forwarded() {
+    return requestUtil.extractIpAddress(forwardedRequest);
+  }
+
+  @Benchmark
+  public String extractIpAddress_remoteAddress() {
+    return requestUtil.extractIpAddress(proxyRequest);
+  }
+}
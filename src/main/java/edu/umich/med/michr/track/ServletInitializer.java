@@ -1,13 +1,15 @@
 package edu.umich.med.michr.track;
 
 import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.boot.web.servlet.support.SpringBootServletInitializer;
 
 public class ServletInitializer extends SpringBootServletInitializer {
 
   @Override
   protected SpringApplicationBuilder configure(SpringApplicationBuilder application) {
-    return application.sources(TrackApplication.class);
+    return application.sources(TrackApplication.class)
+        .applicationStartup(new BufferingApplicationStartup(TrackApplication.STARTUP_STEP_CAPACITY));
   }
 
 }
@@ -2,10 +2,24 @@ package edu.umich.med.michr.track;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class TrackApplication {
+  // enough for every startup step of this application, the steps past the capacity are dropped
+  static final int STARTUP_STEP_CAPACITY = 4096;
+
   public static void main(String[] args) {
-    SpringApplication.run(TrackApplication.class, args);
+    // the executable jar is not deployed to a shared container, Log4j can keep its per thread buffers and log without
+    // allocating (set before anything logs)
+    if (System.getProperty("log4j2.isWebapp") == null) {
+      System.setProperty("log4j2.isWebapp", "false");
+    }
+    final SpringApplication application = new SpringApplication(TrackApplication.class);
+    // records the duration of each startup step, served by the actuator startup endpoint
+    application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+    application.run(args);
   }
 }
@@ -0,0 +1,12 @@
+package edu.umich.med.michr.track.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the administration endpoints.
+ *
+ * @param enabled whether the administration endpoints are registered at all
+ * @param token the value callers must send in the {@code X-Admin-Token} header, requests are rejected while it is blank
+ */
+@ConfigurationProperties(prefix = "track.admin")
+public record AdminProperties(boolean enabled, String token) {}
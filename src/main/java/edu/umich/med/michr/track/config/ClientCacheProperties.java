@@ -0,0 +1,18 @@
+package edu.umich.med.michr.track.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tuning for the in-memory client configuration cache.
+ *
+ * @param unknownIdTtl how long a client id that could not be found is rejected without another lookup
+ * @param unknownIdMaxSize the maximum number of unknown client ids remembered at once
+ * @param filterFalsePositiveRate the false positive rate the client id membership filter is sized for
+ * @param maxSize the maximum number of client configurations kept in memory, the least used ones are evicted first
+ * @param refreshAfterWrite how old a cached client configuration may get before it is reloaded in the background
+ */
+@ConfigurationProperties(prefix = "track.client-cache")
+public record ClientCacheProperties(Duration unknownIdTtl, int unknownIdMaxSize, double filterFalsePositiveRate,
+                                    int maxSize, Duration refreshAfterWrite) {}
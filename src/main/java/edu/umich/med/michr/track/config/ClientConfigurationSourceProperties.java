@@ -0,0 +1,12 @@
+package edu.umich.med.michr.track.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Where client configurations are read from.
+ *
+ * @param source {@code database} (the default) or {@code file}
+ * @param file the path of the client configuration properties file, used when the source is {@code file}
+ */
+@ConfigurationProperties(prefix = "track.client-config")
+public record ClientConfigurationSourceProperties(String source, String file) {}
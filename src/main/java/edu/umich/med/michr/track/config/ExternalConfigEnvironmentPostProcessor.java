@@ -22,6 +22,11 @@ import java.util.Optional;
 public class ExternalConfigEnvironmentPostProcessor implements EnvironmentPostProcessor {
   private static final Logger logger = LoggerFactory.getLogger(ExternalConfigEnvironmentPostProcessor.class);
 
+  /**
+   * Prefix of the names of the property sources added to the environment.
+   */
+  public static final String PROPERTY_SOURCE_PREFIX = "externalConfig:";
+
   private final ConfigurationSourceProvider sourceProvider;
   private final PropertyFilter propertyFilter;
 
@@ -31,7 +36,6 @@ public class ExternalConfigEnvironmentPostProcessor implements EnvironmentPostPr
    *
    * @see org.springframework.core.io.support.SpringFactoriesLoader
    */
-  @SuppressWarnings("unused")
   public ExternalConfigEnvironmentPostProcessor() {
     this(new DefaultConfigurationSourceProvider(), new EnvPropertyFilter());
   }
@@ -48,21 +52,37 @@ public class ExternalConfigEnvironmentPostProcessor implements EnvironmentPostPr
     final String env = System.getProperty(ConfigConstants.ENV);
     logger.info("Processing external configuration with env={}", env);
 
-    List<ConfigurationSource> sources = sourceProvider.getConfigurationSources();
-
     // later sources override earlier ones
-    sources.forEach(source ->
-        processConfigurationSource(source, env, environment)
-    );
+    loadExternalProperties(env).forEach(propSource -> addToEnvironment(propSource, environment));
+  }
+
+  /**
+   * Runs the loading pipeline over all the configuration sources: skips unavailable or empty sources and applies the
+   * environment filter. Also used to reload the external configuration while the application is running.
+   *
+   * @param env the environment to filter the properties by, may be {@code null}
+   * @return the loaded property sources, in order of increasing precedence
+   */
+  public List<PropertySource> loadExternalProperties(String env) {
+    return sourceProvider.getConfigurationSources().stream()
+        .map(source -> loadConfigurationSource(source, env))
+        .flatMap(Optional::stream)
+        .toList();
+  }
+
+  /**
+   * @return the configuration sources the external configuration is loaded from, in order of increasing precedence
+   */
+  public List<ConfigurationSource> getConfigurationSources() {
+    return sourceProvider.getConfigurationSources();
   }
 
-  private void processConfigurationSource(ConfigurationSource source, String env, ConfigurableEnvironment environment) {
-    Optional.of(source)
+  private Optional<PropertySource> loadConfigurationSource(ConfigurationSource source, String env) {
+    return Optional.of(source)
         .filter(this::isSourceAvailable)
         .flatMap(this::loadPropertiesSafely)
         .filter(this::hasPropertiesOrLog)
-        .map(propSource -> applyFilteringIfNeeded(propSource, env))
-        .ifPresent(propSource -> addToEnvironment(propSource, environment));
+        .map(propSource -> applyFilteringIfNeeded(propSource, env));
   }
 
   private boolean isSourceAvailable(ConfigurationSource source) {
@@ -134,7 +154,7 @@ public class ExternalConfigEnvironmentPostProcessor implements EnvironmentPostPr
   private void addToEnvironment(PropertySource propSource, ConfigurableEnvironment environment) {
     environment.getPropertySources().addLast(
         new PropertiesPropertySource(
-            "externalConfig:" + propSource.sourceName(),
+            PROPERTY_SOURCE_PREFIX + propSource.sourceName(),
             propSource.properties()
         )
     );
@@ -4,6 +4,7 @@ import edu.umich.med.michr.track.service.ClientConfigurationService;
 import jakarta.inject.Inject;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
@@ -21,11 +22,33 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 @Configuration
 public class CorsConfig {
 
+  public static final String TRACKING_ENDPOINT = "/analytics/events";
+
+  /*
+   * The filters of the tracking endpoint run ahead of every other filter, in this order: the CORS preflight filter
+   * answers preflight requests first, so they are neither counted as load nor run in a warm-up transaction; the ingest
+   * load filter counts the requests in flight; the warm-up filter then runs the rest of the chain, the controller and
+   * the service included, in its rollback-only transaction.
+   */
+  public static final int PREFLIGHT_FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE;
+  public static final int INGEST_LOAD_FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 1;
+  public static final int WARM_UP_FILTER_ORDER = Ordered.HIGHEST_PRECEDENCE + 2;
+
   private final ClientConfigurationService clientConfigService;
+  private final CorsProperties corsProperties;
 
   @Inject
-  public CorsConfig(ClientConfigurationService clientConfigService) {
+  public CorsConfig(ClientConfigurationService clientConfigService, CorsProperties corsProperties) {
     this.clientConfigService = clientConfigService;
+    this.corsProperties = corsProperties;
+  }
+
+  @Bean
+  public DynamicCorsConfiguration dynamicCorsConfiguration() {
+    DynamicCorsConfiguration configuration = new DynamicCorsConfiguration(clientConfigService);
+    configuration.applyDefaultSettings();
+    configuration.setMaxAge(corsProperties.maxAge());
+    return configuration;
   }
 
   /**
@@ -34,10 +57,8 @@ public class CorsConfig {
    */
   @Bean
   public CorsConfigurationSource corsConfigurationSource() {
-    DynamicCorsConfiguration configuration = new DynamicCorsConfiguration(clientConfigService);
-    configuration.applyDefaultSettings();
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
-    source.registerCorsConfiguration("/analytics/events", configuration);
+    source.registerCorsConfiguration(TRACKING_ENDPOINT, dynamicCorsConfiguration());
     return source;
   }
 }
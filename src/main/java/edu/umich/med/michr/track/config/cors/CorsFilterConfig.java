@@ -1,6 +1,8 @@
 package edu.umich.med.michr.track.config.cors;
 
+import edu.umich.med.michr.track.service.ClientConfigurationService;
 import jakarta.servlet.Filter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -19,4 +21,19 @@ public class CorsFilterConfig {
   public Filter corsFilter() {
     return new CorsFilter(corsConfigurationSource);
   }
+
+  /**
+   * Registers the {@link CorsPreflightFilter} for the tracking endpoint ahead of all other filters so preflight
+   * requests are answered without going through the rest of the filter chain, see {@link CorsConfig#PREFLIGHT_FILTER_ORDER}.
+   */
+  @Bean
+  public FilterRegistrationBean<CorsPreflightFilter> corsPreflightFilter(ClientConfigurationService clientConfigurationService,
+                                                                         DynamicCorsConfiguration dynamicCorsConfiguration,
+                                                                         CorsProperties corsProperties) {
+    FilterRegistrationBean<CorsPreflightFilter> registration = new FilterRegistrationBean<>(
+        new CorsPreflightFilter(clientConfigurationService, dynamicCorsConfiguration, corsProperties));
+    registration.addUrlPatterns(CorsConfig.TRACKING_ENDPOINT);
+    registration.setOrder(CorsConfig.PREFLIGHT_FILTER_ORDER);
+    return registration;
+  }
 }
@@ -0,0 +1,108 @@
+package edu.umich.med.michr.track.config.cors;
+
+import edu.umich.med.michr.track.domain.StandardParameter;
+import edu.umich.med.michr.track.service.ClientConfigurationService;
+import edu.umich.med.michr.track.util.OriginMatcher;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Answers CORS preflight ({@code OPTIONS}) requests for the tracking endpoint before they reach Spring's
+ * {@link org.springframework.web.filter.CorsFilter}.
+ * <p>
+ * All the response headers that do not depend on the request are computed once from the {@link CorsConfiguration}.
+ * Whether the origin is allowed is checked by the precompiled {@link OriginMatcher} of the client when the preflight
+ * carries a client id in its query string and by the one of all clients otherwise, a hash lookup for exact origins that
+ * needs no cache in front of it. An
+ * {@code Access-Control-Max-Age} header lets browsers reuse the answer so they preflight far less often.
+ * </p>
+ * <p>
+ * Non-preflight requests pass through untouched and are still handled by the regular CORS processing.
+ * </p>
+ */
+public class CorsPreflightFilter extends OncePerRequestFilter {
+  private static final byte[] REJECTED_BODY = "Invalid CORS request".getBytes(StandardCharsets.UTF_8);
+  private static final String VARY_HEADERS = String.join(", ",
+      HttpHeaders.ORIGIN, HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+
+  private final ClientConfigurationService clientConfigurationService;
+  private final CorsConfiguration corsConfiguration;
+  private final List<String> allowedMethods;
+  private final String allowMethodsHeader;
+  private final boolean allowAnyHeader;
+  private final String allowHeadersHeader;
+  private final String maxAgeHeader;
+
+  public CorsPreflightFilter(ClientConfigurationService clientConfigurationService, CorsConfiguration corsConfiguration,
+                             CorsProperties properties) {
+    this.clientConfigurationService = clientConfigurationService;
+    this.corsConfiguration = corsConfiguration;
+    this.allowedMethods = corsConfiguration.getAllowedMethods() == null ? List.of() : List.copyOf(corsConfiguration.getAllowedMethods());
+    this.allowMethodsHeader = String.join(",", allowedMethods);
+    final List<String> allowedHeaders = corsConfiguration.getAllowedHeaders() == null ? List.of() : corsConfiguration.getAllowedHeaders();
+    this.allowAnyHeader = allowedHeaders.contains(CorsConfiguration.ALL);
+    this.allowHeadersHeader = String.join(",", allowedHeaders);
+    this.maxAgeHeader = Long.toString(properties.maxAge().toSeconds());
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !CorsUtils.isPreFlightRequest(request);
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    final String origin = request.getHeader(HttpHeaders.ORIGIN);
+    final String requestMethod = request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD);
+
+    response.setHeader(HttpHeaders.VARY, VARY_HEADERS);
+    if (!allowedMethods.contains(requestMethod) || !isAllowed(getClientId(request), origin)) {
+      response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+      response.getOutputStream().write(REJECTED_BODY);
+      return;
+    }
+
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+    response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS, allowMethodsHeader);
+    final String requestHeaders = request.getHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS);
+    if (requestHeaders != null && !requestHeaders.isEmpty()) {
+      // with credentials a literal "*" is not honored by browsers, echo the requested headers instead
+      response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS, allowAnyHeader ? requestHeaders : allowHeadersHeader);
+    }
+    if (Boolean.TRUE.equals(corsConfiguration.getAllowCredentials())) {
+      response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+    }
+    response.setHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE, maxAgeHeader);
+  }
+
+  private boolean isAllowed(String clientId, String origin) {
+    final OriginMatcher matcher = clientId == null
+        ? clientConfigurationService.getAllAuthorizedOriginsMatcher()
+        : clientConfigurationService.getOriginMatcher(clientId);
+    // unknown client ids are already rejected in constant time by the client configuration service
+    return matcher != null && matcher.matches(origin);
+  }
+
+  // Preflights only carry the query string of the actual request, which uses the GET (hyphen separated) names for
+  // pixel requests and the POST (camel case) names for fetch/beacon requests.
+  private static String getClientId(HttpServletRequest request) {
+    String clientId = request.getParameter(StandardParameter.CLIENT_ID.getName(HttpMethod.GET.name()));
+    if (clientId == null || clientId.isEmpty()) {
+      clientId = request.getParameter(StandardParameter.CLIENT_ID.getName(HttpMethod.POST.name()));
+    }
+    return clientId == null || clientId.isEmpty() ? null : clientId;
+  }
+}
@@ -0,0 +1,13 @@
+package edu.umich.med.michr.track.config.cors;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Tuning for CORS handling.
+ *
+ * @param maxAge how long browsers may cache a preflight response ({@code Access-Control-Max-Age})
+ */
+@ConfigurationProperties(prefix = "track.cors")
+public record CorsProperties(Duration maxAge) {}
@@ -4,7 +4,6 @@ import edu.umich.med.michr.track.service.ClientConfigurationService;
 import org.springframework.web.cors.CorsConfiguration;
 
 import java.util.List;
-import java.util.Set;
 
 /**
  * A class that dynamically checks allowed origins for CORS requests.
@@ -23,8 +22,9 @@ public class DynamicCorsConfiguration extends CorsConfiguration {
   }
 
   /**
-   * Called by Spring for each CORS request to validate the {@code Origin} header. Returns the origin
-   * if allowed, or {@code null} if not.
+   * Called by Spring for each CORS request to validate the {@code Origin} header against the pre-compiled matcher of
+   * all authorized origins (case-insensitive, wildcard patterns supported). Returns the origin if allowed, or
+   * {@code null} if not.
    *
    * @param requestOrigin the origin from the request's {@code Origin} header
    * @return the origin if allowed, otherwise {@code null}
@@ -34,16 +34,23 @@ public class DynamicCorsConfiguration extends CorsConfiguration {
     if (requestOrigin == null) {
       return null;
     }
-    Set<String> allowedOrigins = clientConfigurationService.getAllAuthorizedOrigins();
-    if (allowedOrigins.contains(requestOrigin)) {
+    if (clientConfigurationService.getAllAuthorizedOriginsMatcher().matches(requestOrigin)) {
       return requestOrigin;
     }
     return null;
   }
 
+  /**
+   * Credentials are allowed unless a client authorizes any origin. Decided per request from the cached origins, so the
+   * configuration is created without a database lookup and follows client configuration changes.
+   */
+  @Override
+  public Boolean getAllowCredentials() {
+    return !clientConfigurationService.getAllAuthorizedOrigins().contains("*");
+  }
+
   public void applyDefaultSettings() {
     setAllowedMethods(List.of("GET", "POST"));
     setAllowedHeaders(List.of("*"));
-    setAllowCredentials(!clientConfigurationService.getAllAuthorizedOrigins().contains("*"));
   }
 }
@@ -0,0 +1,14 @@
+package edu.umich.med.michr.track.config.reload;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the external configuration reload.
+ *
+ * @param enabled whether the external configuration files are watched for changes
+ * @param settleTime how long to wait for further writes to a changed file before reloading it
+ */
+@ConfigurationProperties(prefix = "track.config-reload")
+public record ConfigReloadProperties(boolean enabled, Duration settleTime) {}
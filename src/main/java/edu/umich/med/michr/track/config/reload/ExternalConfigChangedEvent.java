@@ -0,0 +1,17 @@
+package edu.umich.med.michr.track.config.reload;
+
+import java.util.Map;
+
+/**
+ * Published after the external configuration files were reloaded and their changes were applied.
+ *
+ * @param changes the effective value changes by property name
+ */
+public record ExternalConfigChangedEvent(Map<String, PropertyChange> changes) {
+
+  /**
+   * @param oldValue the value before the reload, {@code null} if the property was not set
+   * @param newValue the value after the reload, {@code null} if the property was removed
+   */
+  public record PropertyChange(String oldValue, String newValue) {}
+}
@@ -0,0 +1,205 @@
+package edu.umich.med.michr.track.config.reload;
+
+import edu.umich.med.michr.track.config.ConfigConstants;
+import edu.umich.med.michr.track.config.ExternalConfigEnvironmentPostProcessor;
+import edu.umich.med.michr.track.config.PropertySource;
+import edu.umich.med.michr.track.config.source.FileConfigurationSource;
+import edu.umich.med.michr.track.util.FileChangeWatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MutablePropertySources;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Reloads the external configuration files when they change, without restarting the application.
+ * <p>
+ * The files resolved by {@link ExternalConfigEnvironmentPostProcessor} (user home, {@code TRACK_CONFIG_FILE} and
+ * {@code -Dconfig}) are watched. On a change the same loading and environment filtering pipeline runs again, the
+ * {@code externalConfig:} property sources are replaced and the effective value of every property they define is
+ * compared with its previous value. The {@link RuntimeTunable} beans affected by the changes validate and apply the
+ * new values, then an {@link ExternalConfigChangedEvent} is published. A rejected change restores the previous
+ * property sources.
+ * </p>
+ * <p>
+ * Only beans implementing {@link RuntimeTunable} are retuned; everything else keeps the values it was created with
+ * until the next restart. They are looked up on the first reload, so they are not created at startup.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "track.config-reload", name = "enabled", havingValue = "true")
+public class ExternalConfigReloader {
+  private static final Logger logger = LoggerFactory.getLogger(ExternalConfigReloader.class);
+
+  private final ConfigurableEnvironment environment;
+  private final ExternalConfigEnvironmentPostProcessor externalConfigLoader;
+  private final Supplier<List<RuntimeTunable>> tunables;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ConfigReloadProperties properties;
+  private FileChangeWatcher watcher;
+
+  @Inject
+  public ExternalConfigReloader(ConfigurableEnvironment environment, ObjectProvider<RuntimeTunable> tunables,
+                                ApplicationEventPublisher eventPublisher, ConfigReloadProperties properties) {
+    this(environment, new ExternalConfigEnvironmentPostProcessor(), () -> tunables.orderedStream().toList(),
+        eventPublisher, properties);
+  }
+
+  ExternalConfigReloader(ConfigurableEnvironment environment, ExternalConfigEnvironmentPostProcessor externalConfigLoader,
+                         List<RuntimeTunable> tunables, ApplicationEventPublisher eventPublisher,
+                         ConfigReloadProperties properties) {
+    this(environment, externalConfigLoader, () -> tunables, eventPublisher, properties);
+  }
+
+  private ExternalConfigReloader(ConfigurableEnvironment environment,
+                                 ExternalConfigEnvironmentPostProcessor externalConfigLoader,
+                                 Supplier<List<RuntimeTunable>> tunables, ApplicationEventPublisher eventPublisher,
+                                 ConfigReloadProperties properties) {
+    this.environment = environment;
+    this.externalConfigLoader = externalConfigLoader;
+    this.tunables = tunables;
+    this.eventPublisher = eventPublisher;
+    this.properties = properties;
+  }
+
+  @PostConstruct
+  public void startWatching() throws IOException {
+    final List<Path> files = externalConfigLoader.getConfigurationSources().stream()
+        .filter(FileConfigurationSource.class::isInstance)
+        .map(source -> ((FileConfigurationSource) source).getFilePath())
+        .filter(Objects::nonNull)
+        .map(Path::of)
+        .toList();
+    watcher = FileChangeWatcher.start("external-config-watcher", files, properties.settleTime(), this::reload);
+    logger.info("Watching external configuration files for changes: {}", watcher.isWatching() ? files : "none found");
+  }
+
+  @PreDestroy
+  public void stopWatching() throws IOException {
+    if (watcher != null) {
+      watcher.close();
+    }
+  }
+
+  /**
+   * Reloads the external configuration and applies the changes.
+   *
+   * @return false if the changes were rejected and the previous configuration restored
+   */
+  public synchronized boolean reload() {
+    final MutablePropertySources propertySources = environment.getPropertySources();
+    final List<org.springframework.core.env.PropertySource<?>> previous = getExternalPropertySources(propertySources);
+    final List<org.springframework.core.env.PropertySource<?>> reloaded =
+        externalConfigLoader.loadExternalProperties(System.getProperty(ConfigConstants.ENV)).stream()
+            .map(ExternalConfigReloader::toSpringPropertySource)
+            .toList();
+
+    final Set<String> names = getPropertyNames(previous);
+    names.addAll(getPropertyNames(reloaded));
+    final Map<String, String> oldValues = getValues(names);
+    replace(propertySources, previous, reloaded);
+    final Map<String, ExternalConfigChangedEvent.PropertyChange> changes = getChanges(oldValues);
+    if (changes.isEmpty()) {
+      logger.debug("External configuration files changed without changing any property");
+      return true;
+    }
+
+    final List<RuntimeTunable> affected = tunables.get().stream()
+        .filter(tunable -> changes.keySet().stream().anyMatch(tunable::isAffectedBy))
+        .toList();
+    final List<RuntimeTunable> applied = new ArrayList<>();
+    try {
+      affected.forEach(tunable -> tunable.validate(environment));
+      for (RuntimeTunable tunable : affected) {
+        tunable.apply(environment);
+        applied.add(tunable);
+      }
+    } catch (RuntimeException e) {
+      logger.error("Rejected external configuration change of {}, restoring the previous configuration", changes.keySet(), e);
+      replace(propertySources, reloaded, previous);
+      applied.forEach(this::reapply);
+      return false;
+    }
+
+    logger.info("Applied external configuration changes: {}", changes.keySet());
+    eventPublisher.publishEvent(new ExternalConfigChangedEvent(changes));
+    return true;
+  }
+
+  private void reapply(RuntimeTunable tunable) {
+    try {
+      tunable.apply(environment);
+    } catch (RuntimeException e) {
+      logger.error("Failed to restore the previous configuration of {}", tunable.getClass().getSimpleName(), e);
+    }
+  }
+
+  private Map<String, String> getValues(Set<String> names) {
+    final Map<String, String> values = new HashMap<>();
+    for (String name : names) {
+      values.put(name, environment.getProperty(name));
+    }
+    return values;
+  }
+
+  private Map<String, ExternalConfigChangedEvent.PropertyChange> getChanges(Map<String, String> oldValues) {
+    final Map<String, ExternalConfigChangedEvent.PropertyChange> changes = new TreeMap<>();
+    oldValues.forEach((name, oldValue) -> {
+      final String newValue = environment.getProperty(name);
+      if (!Objects.equals(oldValue, newValue)) {
+        changes.put(name, new ExternalConfigChangedEvent.PropertyChange(oldValue, newValue));
+      }
+    });
+    return changes;
+  }
+
+  private static List<org.springframework.core.env.PropertySource<?>> getExternalPropertySources(MutablePropertySources propertySources) {
+    return propertySources.stream()
+        .filter(source -> source.getName().startsWith(ExternalConfigEnvironmentPostProcessor.PROPERTY_SOURCE_PREFIX))
+        .toList();
+  }
+
+  // the external property sources always have the lowest precedence, in their original order
+  private static void replace(MutablePropertySources propertySources,
+                              List<org.springframework.core.env.PropertySource<?>> current,
+                              List<org.springframework.core.env.PropertySource<?>> replacement) {
+    current.forEach(source -> propertySources.remove(source.getName()));
+    replacement.forEach(propertySources::addLast);
+  }
+
+  private static Set<String> getPropertyNames(List<org.springframework.core.env.PropertySource<?>> sources) {
+    final Set<String> names = new HashSet<>();
+    for (org.springframework.core.env.PropertySource<?> source : sources) {
+      if (source instanceof EnumerablePropertySource<?> enumerable) {
+        names.addAll(Arrays.asList(enumerable.getPropertyNames()));
+      }
+    }
+    return names;
+  }
+
+  private static org.springframework.core.env.PropertySource<?> toSpringPropertySource(PropertySource source) {
+    return new PropertiesPropertySource(
+        ExternalConfigEnvironmentPostProcessor.PROPERTY_SOURCE_PREFIX + source.sourceName(), source.properties());
+  }
+}
@@ -0,0 +1,97 @@
+package edu.umich.med.michr.track.config.reload;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.inject.Inject;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Resizes the Hikari connection pool when the {@code spring.datasource.hikari.*} sizing and timeout properties change.
+ * Does nothing when the application uses another connection pool (e.g. Oracle UCP).
+ */
+@Component
+@Lazy
+public class HikariPoolTunable implements RuntimeTunable {
+  private static final ConfigurationPropertyName HIKARI = ConfigurationPropertyName.of("spring.datasource.hikari");
+  private static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+  private static final String MINIMUM_IDLE = "spring.datasource.hikari.minimum-idle";
+  private static final String CONNECTION_TIMEOUT = "spring.datasource.hikari.connection-timeout";
+  private static final String IDLE_TIMEOUT = "spring.datasource.hikari.idle-timeout";
+  private static final String MAX_LIFETIME = "spring.datasource.hikari.max-lifetime";
+  // Hikari's own lower bound for the connection timeout
+  private static final long MINIMUM_CONNECTION_TIMEOUT = 250;
+
+  private final HikariDataSource dataSource;
+
+  @Inject
+  public HikariPoolTunable(DataSource dataSource) {
+    this.dataSource = unwrap(dataSource);
+  }
+
+  @Override
+  public boolean isAffectedBy(String propertyName) {
+    return dataSource != null && HIKARI.isAncestorOf(ConfigurationPropertyName.adapt(propertyName, '.'));
+  }
+
+  @Override
+  public void validate(Environment environment) {
+    final Settings settings = Settings.of(environment, dataSource.getHikariConfigMXBean());
+    if (settings.maximumPoolSize() < 1) {
+      throw new IllegalArgumentException(MAXIMUM_POOL_SIZE + " must be at least 1");
+    }
+    if (settings.minimumIdle() < 0 || settings.minimumIdle() > settings.maximumPoolSize()) {
+      throw new IllegalArgumentException(MINIMUM_IDLE + " must be between 0 and " + MAXIMUM_POOL_SIZE);
+    }
+    if (settings.connectionTimeout() < MINIMUM_CONNECTION_TIMEOUT) {
+      throw new IllegalArgumentException(CONNECTION_TIMEOUT + " must be at least " + MINIMUM_CONNECTION_TIMEOUT + "ms");
+    }
+    if (settings.idleTimeout() < 0 || settings.maxLifetime() < 0) {
+      throw new IllegalArgumentException(IDLE_TIMEOUT + " and " + MAX_LIFETIME + " can not be negative");
+    }
+  }
+
+  @Override
+  public void apply(Environment environment) {
+    final HikariConfigMXBean pool = dataSource.getHikariConfigMXBean();
+    final Settings settings = Settings.of(environment, pool);
+    // grow the maximum first so the minimum never exceeds it while both change
+    if (settings.maximumPoolSize() >= pool.getMaximumPoolSize()) {
+      pool.setMaximumPoolSize(settings.maximumPoolSize());
+      pool.setMinimumIdle(settings.minimumIdle());
+    } else {
+      pool.setMinimumIdle(settings.minimumIdle());
+      pool.setMaximumPoolSize(settings.maximumPoolSize());
+    }
+    pool.setConnectionTimeout(settings.connectionTimeout());
+    pool.setIdleTimeout(settings.idleTimeout());
+    pool.setMaxLifetime(settings.maxLifetime());
+  }
+
+  private static HikariDataSource unwrap(DataSource dataSource) {
+    try {
+      return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+    } catch (SQLException e) {
+      return null;
+    }
+  }
+
+  // properties that are not set keep the current value of the pool
+  private record Settings(int maximumPoolSize, int minimumIdle, long connectionTimeout, long idleTimeout, long maxLifetime) {
+    static Settings of(Environment environment, HikariConfigMXBean pool) {
+      final Binder binder = Binder.get(environment);
+      return new Settings(
+          binder.bind(MAXIMUM_POOL_SIZE, Integer.class).orElse(pool.getMaximumPoolSize()),
+          binder.bind(MINIMUM_IDLE, Integer.class).orElse(pool.getMinimumIdle()),
+          binder.bind(CONNECTION_TIMEOUT, Long.class).orElse(pool.getConnectionTimeout()),
+          binder.bind(IDLE_TIMEOUT, Long.class).orElse(pool.getIdleTimeout()),
+          binder.bind(MAX_LIFETIME, Long.class).orElse(pool.getMaxLifetime()));
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package edu.umich.med.michr.track.config.reload;
+
+import jakarta.inject.Inject;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Applies changes of the {@code logging.level.*} properties. A logger whose level property is removed goes back to
+ * inheriting the level of its parent.
+ */
+@Component
+@Lazy
+public class LogLevelTunable implements RuntimeTunable {
+  private static final String PREFIX = "logging.level";
+  private static final Bindable<Map<String, String>> LEVELS = Bindable.mapOf(String.class, String.class);
+
+  private final LoggingSystem loggingSystem;
+  private final Set<String> configuredLoggers = new HashSet<>();
+
+  @Inject
+  public LogLevelTunable(LoggingSystem loggingSystem) {
+    this.loggingSystem = loggingSystem;
+  }
+
+  @Override
+  public boolean isAffectedBy(String propertyName) {
+    return propertyName.startsWith(PREFIX + ".");
+  }
+
+  @Override
+  public void validate(Environment environment) {
+    getLevels(environment).forEach((logger, level) -> toLogLevel(level));
+  }
+
+  @Override
+  public synchronized void apply(Environment environment) {
+    final Map<String, String> levels = getLevels(environment);
+    levels.forEach((logger, level) -> loggingSystem.setLogLevel(toLoggerName(logger), toLogLevel(level)));
+    for (String logger : configuredLoggers) {
+      if (!levels.containsKey(logger)) {
+        loggingSystem.setLogLevel(toLoggerName(logger), null);
+      }
+    }
+    configuredLoggers.clear();
+    configuredLoggers.addAll(levels.keySet());
+  }
+
+  private static Map<String, String> getLevels(Environment environment) {
+    return Binder.get(environment).bind(PREFIX, LEVELS).orElse(Map.of());
+  }
+
+  private static String toLoggerName(String logger) {
+    return "root".equalsIgnoreCase(logger) ? LoggingSystem.ROOT_LOGGER_NAME : logger;
+  }
+
+  private static LogLevel toLogLevel(String level) {
+    try {
+      return LogLevel.valueOf(level.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid log level: " + level, e);
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package edu.umich.med.michr.track.config.reload;
+
+import org.springframework.core.env.Environment;
+
+/**
+ * Implemented by beans that can take new configuration values without a restart.
+ * <p>
+ * When the external configuration changes, every tunable affected by one of the changed properties is first asked to
+ * validate the new values and then to apply them. If any validation or application fails, the previous configuration
+ * is restored in the environment and applied again to the tunables that already took the new values.
+ * </p>
+ */
+public interface RuntimeTunable {
+
+  /**
+   * @param propertyName the name of a property whose value changed
+   * @return true if this bean uses the property
+   */
+  boolean isAffectedBy(String propertyName);
+
+  /**
+   * Checks that the values in the environment can be applied.
+   *
+   * @throws IllegalArgumentException if a value is invalid
+   */
+  void validate(Environment environment);
+
+  /**
+   * Applies the values in the environment.
+   */
+  void apply(Environment environment);
+}
@@ -47,4 +47,11 @@ public class FileConfigurationSource implements ConfigurationSource {
   public String getSourceName() {
     return filePath;
   }
+
+  /**
+   * @return the path of the file, {@code null} if no file is configured
+   */
+  public String getFilePath() {
+    return filePath;
+  }
 }
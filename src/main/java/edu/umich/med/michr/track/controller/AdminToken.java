@@ -0,0 +1,41 @@
+package edu.umich.med.michr.track.controller;
+
+import edu.umich.med.michr.track.config.AdminProperties;
+import edu.umich.med.michr.track.exception.ValidationException;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * The token the administration endpoints require in the {@value #HEADER} header.
+ */
+public final class AdminToken {
+  public static final String HEADER = "X-Admin-Token";
+
+  private final byte[] token;
+
+  public AdminToken(AdminProperties properties) {
+    this.token = properties.token() == null || properties.token().isBlank()
+        ? null
+        : properties.token().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return whether the token matches, never when none is configured
+   */
+  public boolean matches(String token) {
+    // constant time comparison so the token can not be guessed from response times
+    return this.token != null && token != null
+        && MessageDigest.isEqual(this.token, token.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @throws ValidationException with a 401 status if the token is missing, does not match or none is configured
+   */
+  void verify(String token) {
+    if (!matches(token)) {
+      throw new ValidationException("Invalid admin token", HttpStatus.UNAUTHORIZED);
+    }
+  }
+}
@@ -1,10 +1,18 @@
 package edu.umich.med.michr.track.controller;
 
+import edu.umich.med.michr.track.exception.RejectionReason;
+import edu.umich.med.michr.track.exception.ValidationException;
+import edu.umich.med.michr.track.health.IngestLoadMonitor;
+import edu.umich.med.michr.track.limiter.WriteConcurrencyLimiter;
+import edu.umich.med.michr.track.metrics.IngestMetrics;
+import edu.umich.med.michr.track.metrics.IngestStage;
+import edu.umich.med.michr.track.metrics.StageTimer;
 import edu.umich.med.michr.track.service.AnalyticsEventService;
 import edu.umich.med.michr.track.service.OriginValidator;
 import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,19 +26,29 @@ public class AnalyticsEventController {
 
   private final OriginValidator originValidator;
   private final AnalyticsEventService analyticsEventService;
+  private final IngestLoadMonitor loadMonitor;
+  private final IngestMetrics ingestMetrics;
+  private final StageTimer stageTimer;
+  private final WriteConcurrencyLimiter writeLimiter;
 
   @Inject
-  public AnalyticsEventController(OriginValidator originValidator, AnalyticsEventService analyticsEventService) {
+  public AnalyticsEventController(OriginValidator originValidator, AnalyticsEventService analyticsEventService,
+                                  IngestLoadMonitor loadMonitor, IngestMetrics ingestMetrics, StageTimer stageTimer,
+                                  WriteConcurrencyLimiter writeLimiter) {
     this.originValidator = originValidator;
     this.analyticsEventService = analyticsEventService;
+    this.loadMonitor = loadMonitor;
+    this.ingestMetrics = ingestMetrics;
+    this.stageTimer = stageTimer;
+    this.writeLimiter = writeLimiter;
   }
 
   @PostMapping(value = "/events", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
   public ResponseEntity<Void> post(HttpServletRequest request) {
 
-    originValidator.validate(request);
+    validateOrigin(request);
 
-    analyticsEventService.processAndSaveEvent(request);
+    save(request);
 
     return ResponseEntity.noContent().build();
   }
@@ -38,9 +56,9 @@ public class AnalyticsEventController {
   @GetMapping("/events")
   public ResponseEntity<byte[]> get(HttpServletRequest request) {
 
-    originValidator.validate(request);
+    validateOrigin(request);
 
-    analyticsEventService.processAndSaveEvent(request);
+    save(request);
 
     // Create headers with precise cache control
     HttpHeaders headers = new HttpHeaders();
@@ -57,6 +75,42 @@ public class AnalyticsEventController {
     return ResponseEntity.ok().headers(headers).body(TRACKING_PIXEL);
   }
 
+  private void validateOrigin(HttpServletRequest request) {
+    final long start = System.nanoTime();
+    originValidator.validate(request);
+    stageTimer.record(IngestStage.ORIGIN_VALIDATION, start);
+  }
+
+  // timed and limited here so the latency includes the commit and no connection is held while waiting for a permit
+  private void save(HttpServletRequest request) {
+    if (!writeLimiter.tryAcquire()) {
+      throw new ValidationException("Too many events are being saved, try again later", HttpStatus.SERVICE_UNAVAILABLE,
+          RejectionReason.OVERLOADED);
+    }
+    final long start = System.nanoTime();
+    // the permit is returned whatever is thrown, Errors included, otherwise it would be lost for good
+    long elapsed = -1;
+    boolean invalid = false;
+    try {
+      analyticsEventService.processAndSaveEvent(request);
+      stageTimer.recordSinceMark(IngestStage.COMMIT);
+      elapsed = System.nanoTime() - start;
+    } catch (ValidationException e) {
+      invalid = true;
+      throw e;
+    } finally {
+      if (elapsed >= 0) {
+        writeLimiter.onSuccess(elapsed);
+      } else if (invalid) {
+        writeLimiter.onIgnored();
+      } else {
+        writeLimiter.onDropped();
+      }
+    }
+    loadMonitor.recordPersistence(elapsed);
+    ingestMetrics.recordPersistence(elapsed);
+  }
+
   private static final byte[] TRACKING_PIXEL = new byte[] {
       // GIF header for a 1x1 transparent pixel
       (byte)0x47, (byte)0x49, (byte)0x46, (byte)0x38, (byte)0x39, (byte)0x61,
@@ -0,0 +1,79 @@
+package edu.umich.med.michr.track.controller;
+
+import edu.umich.med.michr.track.config.AdminProperties;
+import edu.umich.med.michr.track.domain.ClientConfiguration;
+import edu.umich.med.michr.track.service.ClientConfigurationAdminService;
+import jakarta.inject.Inject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Creates and updates client configurations. Changes are effective for tracking requests as soon as they are saved.
+ * <p>
+ * Only registered when {@code track.admin.enabled} is true and client configurations come from the database, and every
+ * request must carry the configured admin token.
+ * </p>
+ */
+@RestController
+@Lazy
+@RequestMapping("/admin/clients")
+@ConditionalOnExpression("${track.admin.enabled:false} and '${track.client-config.source:database}' == 'database'")
+public class ClientConfigurationAdminController {
+  static final String ADMIN_TOKEN_HEADER = AdminToken.HEADER;
+
+  private final ClientConfigurationAdminService adminService;
+  private final AdminToken adminToken;
+
+  @Inject
+  public ClientConfigurationAdminController(ClientConfigurationAdminService adminService, AdminProperties properties) {
+    this.adminService = adminService;
+    this.adminToken = new AdminToken(properties);
+  }
+
+  @PostMapping
+  public ResponseEntity<ClientConfiguration> create(@RequestHeader(name = ADMIN_TOKEN_HEADER, required = false) String token,
+                                                    @RequestBody ClientConfigurationRequest request) {
+    authorize(token);
+    return ResponseEntity.status(HttpStatus.CREATED)
+        .body(adminService.createClient(request.id(), request.name(), request.authorizedOrigins()));
+  }
+
+  @PutMapping("/{id}")
+  public ResponseEntity<ClientConfiguration> update(@RequestHeader(name = ADMIN_TOKEN_HEADER, required = false) String token,
+                                                    @PathVariable String id,
+                                                    @RequestBody ClientConfigurationRequest request) {
+    authorize(token);
+    return ResponseEntity.ok(adminService.updateClient(id, request.name(), request.authorizedOrigins()));
+  }
+
+  @PostMapping("/{id}/origins")
+  public ResponseEntity<ClientConfiguration> addOrigin(@RequestHeader(name = ADMIN_TOKEN_HEADER, required = false) String token,
+                                                       @PathVariable String id,
+                                                       @RequestParam String origin) {
+    authorize(token);
+    return ResponseEntity.ok(adminService.addAuthorizedOrigin(id, origin));
+  }
+
+  @DeleteMapping("/{id}/origins")
+  public ResponseEntity<ClientConfiguration> removeOrigin(@RequestHeader(name = ADMIN_TOKEN_HEADER, required = false) String token,
+                                                          @PathVariable String id,
+                                                          @RequestParam String origin) {
+    authorize(token);
+    return ResponseEntity.ok(adminService.removeAuthorizedOrigin(id, origin));
+  }
+
+  private void authorize(String token) {
+    adminToken.verify(token);
+  }
+}
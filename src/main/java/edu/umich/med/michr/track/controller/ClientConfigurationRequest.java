@@ -0,0 +1,8 @@
+package edu.umich.med.michr.track.controller;
+
+import java.util.List;
+
+/**
+ * Request body of the client configuration administration endpoints. The id is only read when a client is created.
+ */
+public record ClientConfigurationRequest(String id, String name, List<String> authorizedOrigins) {}
@@ -0,0 +1,96 @@
+package edu.umich.med.michr.track.controller;
+
+import edu.umich.med.michr.track.config.AdminProperties;
+import edu.umich.med.michr.track.domain.Funnel;
+import edu.umich.med.michr.track.funnel.FunnelReport;
+import edu.umich.med.michr.track.service.FunnelService;
+import jakarta.inject.Inject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Defines the conversion funnels of a client and reports how many users went through their steps.
+ * <p>
+ * Only registered when {@code track.admin.enabled} is true, and every request must carry the configured admin token.
+ * </p>
+ */
+@RestController
+@Lazy
+@RequestMapping("/admin/clients/{clientId}/funnels")
+@ConditionalOnProperty(prefix = "track.admin", name = "enabled", havingValue = "true")
+public class FunnelController {
+
+  private final FunnelService funnelService;
+  private final AdminToken adminToken;
+
+  @Inject
+  public FunnelController(FunnelService funnelService, AdminProperties properties) {
+    this.funnelService = funnelService;
+    this.adminToken = new AdminToken(properties);
+  }
+
+  @GetMapping
+  public ResponseEntity<List<Funnel>> list(@RequestHeader(name = AdminToken.HEADER, required = false) String token,
+                                           @PathVariable String clientId) {
+    adminToken.verify(token);
+    return ResponseEntity.ok(funnelService.getFunnels(clientId));
+  }
+
+  @GetMapping("/{id}")
+  public ResponseEntity<Funnel> get(@RequestHeader(name = AdminToken.HEADER, required = false) String token,
+                                    @PathVariable String clientId, @PathVariable Long id) {
+    adminToken.verify(token);
+    return ResponseEntity.ok(funnelService.getFunnel(clientId, id));
+  }
+
+  @PostMapping
+  public ResponseEntity<Funnel> create(@RequestHeader(name = AdminToken.HEADER, required = false) String token,
+                                       @PathVariable String clientId, @RequestBody FunnelRequest request) {
+    adminToken.verify(token);
+    return ResponseEntity.status(HttpStatus.CREATED)
+        .body(funnelService.createFunnel(clientId, request.name(), request.windowMinutes(), request.steps()));
+  }
+
+  @PutMapping("/{id}")
+  public ResponseEntity<Funnel> update(@RequestHeader(name = AdminToken.HEADER, required = false) String token,
+                                       @PathVariable String clientId, @PathVariable Long id,
+                                       @RequestBody FunnelRequest request) {
+    adminToken.verify(token);
+    return ResponseEntity.ok(
+        funnelService.updateFunnel(clientId, id, request.name(), request.windowMinutes(), request.steps()));
+  }
+
+  @DeleteMapping("/{id}")
+  public ResponseEntity<Void> delete(@RequestHeader(name = AdminToken.HEADER, required = false) String token,
+                                     @PathVariable String clientId, @PathVariable Long id) {
+    adminToken.verify(token);
+    funnelService.deleteFunnel(clientId, id);
+    return ResponseEntity.noContent().build();
+  }
+
+  /**
+   * Evaluates the funnel over the events from {@code from} (inclusive) to {@code to} (exclusive), ISO-8601 instants.
+   */
+  @GetMapping("/{id}/report")
+  public ResponseEntity<FunnelReport> report(@RequestHeader(name = AdminToken.HEADER, required = false) String token,
+                                             @PathVariable String clientId, @PathVariable Long id,
+                                             @RequestParam Instant from, @RequestParam Instant to) {
+    adminToken.verify(token);
+    return ResponseEntity.ok(funnelService.evaluate(clientId, id, from, to));
+  }
+}
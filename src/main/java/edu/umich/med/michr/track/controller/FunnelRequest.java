@@ -0,0 +1,10 @@
+package edu.umich.med.michr.track.controller;
+
+import edu.umich.med.michr.track.domain.FunnelStep;
+
+import java.util.List;
+
+/**
+ * Request body of the funnel endpoints.
+ */
+public record FunnelRequest(String name, int windowMinutes, List<FunnelStep> steps) {}
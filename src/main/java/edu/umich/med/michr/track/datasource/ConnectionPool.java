@@ -0,0 +1,22 @@
+package edu.umich.med.michr.track.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects the connection pool of the transactions started by the annotated method, or by every method of the annotated
+ * class, instead of routing them by their read-only flag. Work that takes part in a transaction that already has a
+ * connection keeps using it.
+ * <p>
+ * Only applies to calls through the Spring proxy of a bean, and only when {@code track.datasource.pools.enabled=true}.
+ * </p>
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConnectionPool {
+  PoolRole value();
+}
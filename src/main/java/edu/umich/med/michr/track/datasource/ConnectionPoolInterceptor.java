@@ -0,0 +1,34 @@
+package edu.umich.med.michr.track.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Selects the pool named by the {@link ConnectionPool} annotation of the method, or else of its class, for the duration
+ * of the call.
+ */
+class ConnectionPoolInterceptor implements MethodInterceptor {
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    final Class<?> targetClass = invocation.getThis() == null ? null : AopUtils.getTargetClass(invocation.getThis());
+    final Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+    ConnectionPool annotation = AnnotatedElementUtils.findMergedAnnotation(method, ConnectionPool.class);
+    if (annotation == null && targetClass != null) {
+      annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, ConnectionPool.class);
+    }
+    if (annotation == null) {
+      return invocation.proceed();
+    }
+    final PoolRole previous = PoolRoutingDataSource.select(annotation.value());
+    try {
+      return invocation.proceed();
+    } finally {
+      PoolRoutingDataSource.restore(previous);
+    }
+  }
+}
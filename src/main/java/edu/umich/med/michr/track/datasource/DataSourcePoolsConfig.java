@@ -0,0 +1,114 @@
+package edu.umich.med.michr.track.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Replaces the single connection pool with a {@link PoolRoutingDataSource} over an ingest, a read and a background
+ * Hikari pool, enabled with {@code track.datasource.pools.enabled=true}.
+ * <p>
+ * The ingest pool is the pool Spring Boot would have created from {@code spring.datasource.*}, and keeps its runtime
+ * tuning, health checks and metrics. The read and background pools start from the same settings and take their size,
+ * connection timeout and optionally their database from {@link DataSourcePoolsProperties}; the read pool only hands out
+ * read-only connections. Every pool reports the {@code hikaricp.connections.*} metrics under its own pool name.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "track.datasource.pools", name = "enabled", havingValue = "true")
+public class DataSourcePoolsConfig {
+  static final String HIKARI_PREFIX = "spring.datasource.hikari";
+  static final String INGEST_POOL_NAME = "track-ingest";
+  static final String READ_POOL_NAME = "track-read";
+  static final String BACKGROUND_POOL_NAME = "track-background";
+
+  // declared as a plain data source, the JDBC profiler may wrap it
+  @Bean
+  public DataSource dataSource(DataSourceProperties dataSourceProperties, DataSourcePoolsProperties properties,
+                                          Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+    if (dataSourceProperties.getType() != null && !HikariDataSource.class.equals(dataSourceProperties.getType())) {
+      throw new IllegalStateException("track.datasource.pools.enabled=true needs Hikari connection pools, "
+          + "spring.datasource.type is " + dataSourceProperties.getType().getName());
+    }
+    final Binder binder = Binder.get(environment);
+    final HikariDataSource ingest = createPool(dataSourceProperties, binder);
+    if (ingest.getPoolName() == null) {
+      ingest.setPoolName(INGEST_POOL_NAME);
+    }
+    final HikariDataSource read = createPool(dataSourceProperties, binder);
+    configure(read, properties.read(), READ_POOL_NAME, meterRegistry);
+    read.setReadOnly(true);
+    final HikariDataSource background = createPool(dataSourceProperties, binder);
+    configure(background, properties.background(), BACKGROUND_POOL_NAME, meterRegistry);
+    return new PoolRoutingDataSource(Map.of(PoolRole.INGEST, ingest, PoolRole.READ, read, PoolRole.BACKGROUND, background));
+  }
+
+  /**
+   * Applies {@link ConnectionPool} to the beans that carry it, ahead of the transaction interceptor.
+   */
+  @Bean
+  @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+  public static Advisor connectionPoolAdvisor() {
+    final ComposablePointcut pointcut = new ComposablePointcut(AnnotationMatchingPointcut.forClassAnnotation(ConnectionPool.class))
+        .union(AnnotationMatchingPointcut.forMethodAnnotation(ConnectionPool.class));
+    final DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new ConnectionPoolInterceptor());
+    advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    return advisor;
+  }
+
+  // the data source Spring Boot creates with the spring.datasource.hikari settings
+  private static HikariDataSource createPool(DataSourceProperties dataSourceProperties, Binder binder) {
+    final HikariDataSource pool = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    binder.bind(HIKARI_PREFIX, Bindable.ofInstance(pool));
+    return pool;
+  }
+
+  private static void configure(HikariDataSource pool, DataSourcePoolsProperties.Pool settings, String name,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+    if (StringUtils.hasText(settings.url())) {
+      pool.setJdbcUrl(settings.url());
+    }
+    if (StringUtils.hasText(settings.username())) {
+      pool.setUsername(settings.username());
+    }
+    if (StringUtils.hasText(settings.password())) {
+      pool.setPassword(settings.password());
+    }
+    pool.setMaximumPoolSize(settings.maximumPoolSize());
+    pool.setMinimumIdle(settings.minimumIdle());
+    pool.setConnectionTimeout(settings.connectionTimeout().toMillis());
+    pool.setPoolName(name);
+    // Spring Boot only binds the metrics of the pool the data source bean unwraps to
+    pool.setMetricsTrackerFactory(micrometerTrackerFactory(meterRegistry));
+  }
+
+  private static MetricsTrackerFactory micrometerTrackerFactory(ObjectProvider<MeterRegistry> meterRegistry) {
+    return (poolName, poolStats) -> {
+      final MeterRegistry registry = meterRegistry.getIfAvailable();
+      return registry == null
+          ? new IMetricsTracker() {}
+          : new MicrometerMetricsTrackerFactory(registry).create(poolName, poolStats);
+    };
+  }
+}
@@ -0,0 +1,28 @@
+package edu.umich.med.michr.track.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the connection pools besides the ingest pool, which keeps the {@code spring.datasource.*} settings. The
+ * other pools start from the same {@code spring.datasource.hikari} settings and replace the ones below.
+ *
+ * @param enabled whether read-only transactions and background work get pools of their own
+ * @param read the pool of read-only transactions and reports
+ * @param background the pool of the work that runs outside of requests
+ */
+@ConfigurationProperties(prefix = "track.datasource.pools")
+public record DataSourcePoolsProperties(boolean enabled, Pool read, Pool background) {
+
+  /**
+   * @param url the JDBC URL of the pool, e.g. of a read replica; blank for {@code spring.datasource.url}
+   * @param username the user of {@code url}, blank for {@code spring.datasource.username}
+   * @param password the password of {@code username}, blank for {@code spring.datasource.password}
+   * @param maximumPoolSize the most connections of the pool
+   * @param minimumIdle the idle connections the pool keeps
+   * @param connectionTimeout how long a caller waits for a connection before it fails
+   */
+  public record Pool(String url, String username, String password, int maximumPoolSize, int minimumIdle,
+                     Duration connectionTimeout) {}
+}
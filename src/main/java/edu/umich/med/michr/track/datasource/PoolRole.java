@@ -0,0 +1,21 @@
+package edu.umich.med.michr.track.datasource;
+
+/**
+ * The connection pools the database work is split across when {@code track.datasource.pools.enabled=true}, so one
+ * kind of work can not use up the connections of another.
+ */
+public enum PoolRole {
+  /**
+   * The {@code spring.datasource.hikari} pool: tracking requests, every read-write transaction and the reads that take
+   * part in one.
+   */
+  INGEST,
+  /**
+   * Read-only transactions and reports, on a read replica when one is configured.
+   */
+  READ,
+  /**
+   * Work that runs outside of requests, e.g. the secondary event sinks.
+   */
+  BACKGROUND
+}
@@ -0,0 +1,129 @@
+package edu.umich.med.michr.track.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Hands out connections from one pool per {@link PoolRole}.
+ * <p>
+ * The pool is chosen when a statement first needs the physical connection, not when the connection is requested: a
+ * transaction manager asks for it before the transaction is marked read-only. It is the pool selected for the thread
+ * with {@link ConnectionPool} or {@link #runWith(PoolRole, Runnable)}, otherwise the read pool in a read-only
+ * transaction and the ingest pool everywhere else.
+ * </p>
+ * <p>
+ * It unwraps to the ingest pool, so the Hikari tuning, the ingest health checks and the pool metrics of the single data
+ * source bean keep applying to the pool of the tracking requests. Closing it closes every pool.
+ * </p>
+ */
+public class PoolRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+  private static final ThreadLocal<PoolRole> SELECTED = new ThreadLocal<>();
+
+  private final Map<PoolRole, DataSource> pools;
+
+  public PoolRoutingDataSource(Map<PoolRole, ? extends DataSource> pools) {
+    this.pools = new EnumMap<>(pools);
+    for (PoolRole role : PoolRole.values()) {
+      if (!this.pools.containsKey(role)) {
+        throw new IllegalArgumentException("No connection pool for " + role);
+      }
+    }
+    final Router router = new Router();
+    router.setTargetDataSources(new HashMap<>(this.pools));
+    router.setDefaultTargetDataSource(this.pools.get(PoolRole.INGEST));
+    router.afterPropertiesSet();
+    setTargetDataSource(router);
+  }
+
+  public DataSource getPool(PoolRole role) {
+    return pools.get(role);
+  }
+
+  /**
+   * @return the pool a statement run by the current thread gets its connection from
+   */
+  public static PoolRole getCurrentRole() {
+    final PoolRole selected = SELECTED.get();
+    if (selected != null) {
+      return selected;
+    }
+    return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? PoolRole.READ : PoolRole.INGEST;
+  }
+
+  /**
+   * Runs the action with the connections of its transactions taken from the given pool.
+   */
+  public static void runWith(PoolRole role, Runnable action) {
+    final PoolRole previous = select(role);
+    try {
+      action.run();
+    } finally {
+      restore(previous);
+    }
+  }
+
+  /**
+   * Calls the action with the connections of its transactions taken from the given pool.
+   */
+  public static <T> T callWith(PoolRole role, Supplier<T> action) {
+    final PoolRole previous = select(role);
+    try {
+      return action.get();
+    } finally {
+      restore(previous);
+    }
+  }
+
+  /**
+   * @return the pool selected before, to pass to {@link #restore(PoolRole)}
+   */
+  static PoolRole select(PoolRole role) {
+    final PoolRole previous = SELECTED.get();
+    SELECTED.set(role);
+    return previous;
+  }
+
+  static void restore(PoolRole previous) {
+    if (previous == null) {
+      SELECTED.remove();
+    } else {
+      SELECTED.set(previous);
+    }
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    return iface.isInstance(this) ? iface.cast(this) : getPool(PoolRole.INGEST).unwrap(iface);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return iface.isInstance(this) || getPool(PoolRole.INGEST).isWrapperFor(iface);
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (DataSource pool : pools.values()) {
+      if (pool instanceof Closeable closeable) {
+        closeable.close();
+      }
+    }
+  }
+
+  private static class Router extends AbstractRoutingDataSource {
+    @Override
+    protected Object determineCurrentLookupKey() {
+      return getCurrentRole();
+    }
+  }
+}
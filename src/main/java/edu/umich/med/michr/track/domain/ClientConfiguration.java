@@ -14,12 +14,21 @@ public class ClientConfiguration {
   @Column(name = "NAME")
   private String name;
 
-  @ElementCollection(fetch = FetchType.EAGER)
+  // loaded with the client by the queries that need them, see ClientConfigurationRepository
+  @ElementCollection(fetch = FetchType.LAZY)
   @CollectionTable(name = "AUTHORIZED_CLIENT_ORIGIN",
       joinColumns = @JoinColumn(name = "CLIENT_ID"))
   @Column(name = "AUTHORIZED_ORIGIN")
   private List<String> authorizedOrigins;
 
+  public ClientConfiguration() {}
+
+  public ClientConfiguration(String id, String name, List<String> authorizedOrigins) {
+    this.id = id;
+    this.name = name;
+    this.authorizedOrigins = authorizedOrigins;
+  }
+
   public String getId() {
     return id;
   }
@@ -28,7 +37,15 @@ public class ClientConfiguration {
     return name;
   }
 
+  public void setName(String name) {
+    this.name = name;
+  }
+
   public List<String> getAuthorizedOrigins() {
     return authorizedOrigins;
   }
+
+  public void setAuthorizedOrigins(List<String> authorizedOrigins) {
+    this.authorizedOrigins = authorizedOrigins;
+  }
 }
@@ -0,0 +1,78 @@
+package edu.umich.med.michr.track.domain;
+
+import jakarta.persistence.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A conversion funnel of a client: the steps a user has to go through in order, all within {@code windowMinutes} of
+ * the first one, e.g. page A, then event B, then page C within 30 minutes.
+ */
+@Entity
+@Table(name = "FUNNEL", uniqueConstraints = @UniqueConstraint(name = "FUNNEL_CLIENT_NAME_UK",
+    columnNames = {"CLIENT_ID", "NAME"}))
+public class Funnel {
+
+  @Id
+  @Column(name = "ID")
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "funnelSeq")
+  @SequenceGenerator(name = "funnelSeq", sequenceName = "FUNNEL_SEQ", allocationSize = 1)
+  private Long id;
+
+  @Column(name = "CLIENT_ID", nullable = false)
+  private String clientId;
+
+  @Column(name = "NAME", nullable = false)
+  private String name;
+
+  @Column(name = "WINDOW_MINUTES", nullable = false)
+  private int windowMinutes;
+
+  @ElementCollection(fetch = FetchType.EAGER)
+  @CollectionTable(name = "FUNNEL_STEP", joinColumns = @JoinColumn(name = "FUNNEL_ID"))
+  @OrderColumn(name = "STEP_INDEX")
+  private List<FunnelStep> steps = new ArrayList<>();
+
+  // JPA requires a no-args constructor; set as protected to prevent direct use.
+  protected Funnel() {}
+
+  public Funnel(String clientId, String name, int windowMinutes, List<FunnelStep> steps) {
+    this.clientId = clientId;
+    this.name = name;
+    this.windowMinutes = windowMinutes;
+    this.steps = new ArrayList<>(steps);
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getClientId() {
+    return clientId;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public int getWindowMinutes() {
+    return windowMinutes;
+  }
+
+  public void setWindowMinutes(int windowMinutes) {
+    this.windowMinutes = windowMinutes;
+  }
+
+  public List<FunnelStep> getSteps() {
+    return steps;
+  }
+
+  public void setSteps(List<FunnelStep> steps) {
+    this.steps = new ArrayList<>(steps);
+  }
+}
@@ -0,0 +1,30 @@
+package edu.umich.med.michr.track.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+/**
+ * A step of a {@link Funnel}: a view of a page or an event of a type.
+ *
+ * @param kind whether the value is matched against the page or the event type
+ * @param value the page or event type, matched exactly
+ */
+@Embeddable
+public record FunnelStep(
+    @Enumerated(EnumType.STRING) @Column(name = "STEP_KIND", nullable = false, length = 16) Kind kind,
+    @Column(name = "STEP_VALUE", nullable = false) String value) {
+
+  public enum Kind {
+    PAGE,
+    EVENT
+  }
+
+  /**
+   * @return whether an event of the given type on the given page completes this step
+   */
+  public boolean matches(String eventType, String page) {
+    return value.equals(kind == Kind.PAGE ? page : eventType);
+  }
+}
@@ -0,0 +1,99 @@
+package edu.umich.med.michr.track.domain;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * The summary of a visit of a user to a client site: the events of the user without a gap longer than the inactivity
+ * timeout between them.
+ */
+@Entity
+@Table(name = "USER_SESSION", indexes = {
+    @Index(name = "USER_SESSION_CLIENT_START_IDX", columnList = "CLIENT_ID, START_TIME"),
+    @Index(name = "USER_SESSION_CLIENT_USER_IDX", columnList = "CLIENT_ID, USER_ID")
+})
+public class UserSession {
+
+  @Id
+  @Column(name = "ID")
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "userSessionSeq")
+  @SequenceGenerator(name = "userSessionSeq", sequenceName = "USER_SESSION_SEQ", allocationSize = 50)
+  private Long id;
+
+  @Column(name = "CLIENT_ID", nullable = false)
+  private String clientId;
+
+  @Column(name = "USER_ID", nullable = false, length = 36)
+  private String userId;
+
+  @Column(name = "START_TIME", nullable = false)
+  private Instant startTime;
+
+  @Column(name = "END_TIME", nullable = false)
+  private Instant endTime;
+
+  @Column(name = "ENTRY_PAGE", nullable = false)
+  private String entryPage;
+
+  @Column(name = "EXIT_PAGE", nullable = false)
+  private String exitPage;
+
+  // pages viewed, a page counts again only once another page was viewed in between
+  @Column(name = "PAGE_COUNT", nullable = false)
+  private int pageCount;
+
+  @Column(name = "EVENT_COUNT", nullable = false)
+  private int eventCount;
+
+  // JPA requires a no-args constructor; set as protected to prevent direct use.
+  protected UserSession() {}
+
+  public UserSession(String clientId, String userId, Instant startTime, Instant endTime, String entryPage,
+                     String exitPage, int pageCount, int eventCount) {
+    this.clientId = clientId;
+    this.userId = userId;
+    this.startTime = startTime;
+    this.endTime = endTime;
+    this.entryPage = entryPage;
+    this.exitPage = exitPage;
+    this.pageCount = pageCount;
+    this.eventCount = eventCount;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getClientId() {
+    return clientId;
+  }
+
+  public String getUserId() {
+    return userId;
+  }
+
+  public Instant getStartTime() {
+    return startTime;
+  }
+
+  public Instant getEndTime() {
+    return endTime;
+  }
+
+  public String getEntryPage() {
+    return entryPage;
+  }
+
+  public String getExitPage() {
+    return exitPage;
+  }
+
+  public int getPageCount() {
+    return pageCount;
+  }
+
+  public int getEventCount() {
+    return eventCount;
+  }
+}
@@ -1,5 +1,7 @@
 package edu.umich.med.michr.track.exception;
 
+import edu.umich.med.michr.track.metrics.IngestMetrics;
+import jakarta.inject.Inject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
@@ -9,6 +11,13 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
+  private final IngestMetrics ingestMetrics;
+
+  @Inject
+  public GlobalExceptionHandler(IngestMetrics ingestMetrics) {
+    this.ingestMetrics = ingestMetrics;
+  }
+
   @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
   public ResponseEntity<String> handleHttpMediaTypeNotSupportedException(HttpMediaTypeNotSupportedException ex) {
     return ResponseEntity
@@ -18,6 +27,10 @@ public class GlobalExceptionHandler {
 
   @ExceptionHandler(ValidationException.class)
   public ResponseEntity<String> handleValidationException(ValidationException ex) {
+    // the administration and funnel requests are not tracking requests and stay out of the rejection metric
+    if (ex.getReason() != null) {
+      ingestMetrics.recordRejection(ex);
+    }
     return ResponseEntity.status(ex.getStatus()).body(ex.getMessage());
   }
 
@@ -0,0 +1,21 @@
+package edu.umich.med.michr.track.exception;
+
+import java.util.Locale;
+
+/**
+ * Why a tracking request was rejected, a fixed set of values that can be used as a metric tag unlike the exception messages.
+ */
+public enum RejectionReason {
+  MISSING_CLIENT_ID,
+  UNKNOWN_CLIENT,
+  MISSING_ORIGIN,
+  ORIGIN_NOT_ALLOWED,
+  MISSING_PARAMETER,
+  OVERLOADED;
+
+  private final String tagValue = name().toLowerCase(Locale.ROOT);
+
+  public String getTagValue() {
+    return tagValue;
+  }
+}
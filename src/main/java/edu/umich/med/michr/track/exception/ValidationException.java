@@ -2,16 +2,34 @@ package edu.umich.med.michr.track.exception;
 
 import org.springframework.http.HttpStatus;
 
+/**
+ * A request that can not be processed, answered with the given status. Rejections of tracking requests carry the
+ * {@link RejectionReason} they are counted under, the other requests (administration, funnels) have none and are not
+ * counted as rejections.
+ */
 public class ValidationException extends RuntimeException {
 
   private final HttpStatus status;
+  private final RejectionReason reason;
 
   public ValidationException(String message, HttpStatus status) {
+    this(message, status, null);
+  }
+
+  public ValidationException(String message, HttpStatus status, RejectionReason reason) {
     super(message);
     this.status = status;
+    this.reason = reason;
   }
 
   public HttpStatus getStatus() {
     return status;
   }
+
+  /**
+   * @return why a tracking request was rejected, {@code null} for the other requests
+   */
+  public RejectionReason getReason() {
+    return reason;
+  }
 }
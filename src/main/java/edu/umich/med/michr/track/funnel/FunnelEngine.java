@@ -0,0 +1,140 @@
+package edu.umich.med.michr.track.funnel;
+
+import edu.umich.med.michr.track.domain.Funnel;
+import edu.umich.med.michr.track.repository.FunnelEventRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Counts how far the users of a client got through a funnel in a period, from the analytics events.
+ * <p>
+ * The users are hashed into {@code partitions} partitions that are evaluated in parallel by a fork/join pool of as
+ * many threads. Every partition streams its users' events ordered by user and time, in a read-only transaction of its
+ * own that takes a connection of the read pool, and runs them through a {@link FunnelMatcher} in a single pass. Only
+ * the count of users per furthest step is kept, so the memory used does not depend on the number of events. The pool
+ * is shared by all evaluations, at most {@code partitions} read connections are used for funnels at any time.
+ * </p>
+ */
+@Component
+@Lazy
+public class FunnelEngine {
+  private static final Logger logger = LoggerFactory.getLogger(FunnelEngine.class);
+
+  private final FunnelEventRepository repository;
+  private final TransactionTemplate readOnlyTransaction;
+  private final int partitions;
+  private final ForkJoinPool pool;
+
+  @Inject
+  public FunnelEngine(FunnelEventRepository repository, PlatformTransactionManager transactionManager,
+                      FunnelProperties properties) {
+    if (properties.partitions() <= 0) {
+      throw new IllegalArgumentException("The number of funnel partitions must be positive");
+    }
+    this.repository = repository;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+    this.partitions = properties.partitions();
+    this.pool = new ForkJoinPool(partitions, pool -> {
+      final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName("funnel-" + thread.getPoolIndex());
+      return thread;
+    }, null, false);
+  }
+
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    pool.shutdownNow();
+    pool.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Evaluates the funnel over the events in {@code [from, to)}. A user counts for the furthest step reached by events
+   * in the period, the ones before it are not looked at.
+   */
+  public FunnelReport evaluate(Funnel funnel, Instant from, Instant to) {
+    final long start = System.nanoTime();
+    final long[] usersByFurthestStep = pool.invoke(new Partitions(funnel, from, to, 0, partitions));
+    logger.debug("Evaluated funnel {} of client {} from {} to {} in {} ms", funnel.getId(), funnel.getClientId(), from,
+        to, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    return FunnelReport.of(funnel.getId(), funnel.getName(), from, to, funnel.getWindowMinutes(), funnel.getSteps(),
+        usersByFurthestStep);
+  }
+
+  private long[] evaluatePartition(Funnel funnel, Instant from, Instant to, int partition) {
+    return readOnlyTransaction.execute(status -> {
+      final long[] usersByFurthestStep = new long[funnel.getSteps().size()];
+      final FunnelMatcher matcher =
+          new FunnelMatcher(funnel.getSteps(), TimeUnit.MINUTES.toMillis(funnel.getWindowMinutes()));
+      try (Stream<FunnelEvent> events = repository.streamByUserHash(funnel.getClientId(), from, to, partitions - 1,
+          partition)) {
+        String userId = null;
+        for (Iterator<FunnelEvent> iterator = events.iterator(); iterator.hasNext(); ) {
+          final FunnelEvent event = iterator.next();
+          if (!event.userId().equals(userId)) {
+            count(matcher, usersByFurthestStep);
+            matcher.reset();
+            userId = event.userId();
+          }
+          matcher.accept(event.eventType(), event.page(), event.eventTime().toEpochMilli());
+        }
+        count(matcher, usersByFurthestStep);
+      }
+      return usersByFurthestStep;
+    });
+  }
+
+  private static void count(FunnelMatcher matcher, long[] usersByFurthestStep) {
+    if (matcher.getReached() >= 0) {
+      usersByFurthestStep[matcher.getReached()]++;
+    }
+  }
+
+  // splits the partitions in halves down to single ones and adds up their counts
+  private class Partitions extends RecursiveTask<long[]> {
+    private final Funnel funnel;
+    private final Instant from;
+    private final Instant to;
+    private final int first;
+    private final int end;
+
+    Partitions(Funnel funnel, Instant from, Instant to, int first, int end) {
+      this.funnel = funnel;
+      this.from = from;
+      this.to = to;
+      this.first = first;
+      this.end = end;
+    }
+
+    @Override
+    protected long[] compute() {
+      if (end - first == 1) {
+        return evaluatePartition(funnel, from, to, first);
+      }
+      final int middle = (first + end) >>> 1;
+      final Partitions left = new Partitions(funnel, from, to, first, middle);
+      final Partitions right = new Partitions(funnel, from, to, middle, end);
+      left.fork();
+      final long[] counts = right.compute();
+      final long[] leftCounts = left.join();
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] += leftCounts[i];
+      }
+      return counts;
+    }
+  }
+}
@@ -0,0 +1,8 @@
+package edu.umich.med.michr.track.funnel;
+
+import java.time.Instant;
+
+/**
+ * The columns of an analytics event a funnel is evaluated on, read without loading the event or its attributes.
+ */
+public record FunnelEvent(String userId, String eventType, String page, Instant eventTime) {}
@@ -0,0 +1,78 @@
+package edu.umich.med.michr.track.funnel;
+
+import edu.umich.med.michr.track.domain.FunnelStep;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Follows one user at a time through the steps of a funnel, fed the user's events in time order.
+ * <p>
+ * For every step it remembers the latest time a chain of events that reached the step started, the latest being the
+ * one with the most time left in the window. An event of step {@code i} extends the chain of step {@code i - 1} when
+ * it is at most the window after that chain started; the steps are checked from the last one down so an event only
+ * moves a chain one step. An event of the first step starts a new chain. The furthest step reached is therefore the
+ * furthest any single start within the window could reach, in one pass over the events and without keeping them.
+ * </p>
+ * <p>
+ * Not thread-safe, every partition evaluates its users with a matcher of its own.
+ * </p>
+ */
+class FunnelMatcher {
+  private static final long NOT_REACHED = Long.MIN_VALUE;
+
+  private final FunnelStep[] steps;
+  private final long windowMillis;
+  // the start of the latest chain that reached each step
+  private final long[] starts;
+  private int reached;
+
+  FunnelMatcher(List<FunnelStep> steps, long windowMillis) {
+    this.steps = steps.toArray(new FunnelStep[0]);
+    this.windowMillis = windowMillis;
+    this.starts = new long[this.steps.length];
+    reset();
+  }
+
+  /**
+   * Forgets the current user, before the events of the next one.
+   */
+  void reset() {
+    Arrays.fill(starts, NOT_REACHED);
+    reached = -1;
+  }
+
+  /**
+   * Moves the current user on with the next event.
+   */
+  void accept(String eventType, String page, long timeMillis) {
+    if (isComplete()) {
+      return;
+    }
+    for (int i = steps.length - 1; i > 0; i--) {
+      if (starts[i - 1] != NOT_REACHED && timeMillis - starts[i - 1] <= windowMillis
+          && steps[i].matches(eventType, page)) {
+        starts[i] = starts[i - 1];
+        reached = Math.max(reached, i);
+      }
+    }
+    if (steps[0].matches(eventType, page)) {
+      starts[0] = timeMillis;
+      reached = Math.max(reached, 0);
+    }
+  }
+
+  /**
+   * @return the index of the furthest step the current user reached, -1 if not even the first one
+   */
+  int getReached() {
+    return reached;
+  }
+
+  /**
+   * @return whether the current user reached the last step, the remaining events of the user do not matter
+   */
+  boolean isComplete() {
+    return reached == steps.length - 1;
+  }
+}
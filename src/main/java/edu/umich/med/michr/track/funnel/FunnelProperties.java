@@ -0,0 +1,15 @@
+package edu.umich.med.michr.track.funnel;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the funnel evaluation.
+ *
+ * @param partitions the partitions the users are hashed into, each read and evaluated in parallel on a read connection
+ * @param maxSteps the most steps of a funnel
+ * @param maxRange the longest period a funnel can be evaluated for at once
+ */
+@ConfigurationProperties(prefix = "track.funnels")
+public record FunnelProperties(int partitions, int maxSteps, Duration maxRange) {}
@@ -0,0 +1,55 @@
+package edu.umich.med.michr.track.funnel;
+
+import edu.umich.med.michr.track.domain.FunnelStep;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How many users went through every step of a funnel.
+ *
+ * @param funnelId the id of the funnel
+ * @param name the name of the funnel
+ * @param from the start of the evaluated period, inclusive
+ * @param to the end of the evaluated period, exclusive
+ * @param windowMinutes the time allowed from the first to the last step
+ * @param steps the result of every step, in order
+ */
+public record FunnelReport(Long funnelId, String name, Instant from, Instant to, int windowMinutes, List<Step> steps) {
+
+  /**
+   * @param kind whether the step is a page or an event
+   * @param value the page or event type
+   * @param users the users who reached the step
+   * @param dropOff the users who reached the previous step but not this one, 0 for the first step
+   * @param conversionFromPrevious the share of the users of the previous step who reached this one
+   * @param conversionFromStart the share of the users of the first step who reached this one
+   */
+  public record Step(FunnelStep.Kind kind, String value, long users, long dropOff, double conversionFromPrevious,
+                     double conversionFromStart) {}
+
+  /**
+   * Builds the report from the number of users whose furthest step was each step.
+   */
+  static FunnelReport of(Long funnelId, String name, Instant from, Instant to, int windowMinutes,
+                         List<FunnelStep> steps, long[] usersByFurthestStep) {
+    final long[] reached = new long[steps.size()];
+    long users = 0;
+    for (int i = steps.size() - 1; i >= 0; i--) {
+      users += usersByFurthestStep[i];
+      reached[i] = users;
+    }
+    final List<Step> results = new ArrayList<>(steps.size());
+    for (int i = 0; i < steps.size(); i++) {
+      final long previous = i == 0 ? reached[0] : reached[i - 1];
+      results.add(new Step(steps.get(i).kind(), steps.get(i).value(), reached[i], previous - reached[i],
+          share(reached[i], previous), share(reached[i], reached[0])));
+    }
+    return new FunnelReport(funnelId, name, from, to, windowMinutes, List.copyOf(results));
+  }
+
+  private static double share(long part, long whole) {
+    return whole == 0 ? 0 : (double) part / whole;
+  }
+}
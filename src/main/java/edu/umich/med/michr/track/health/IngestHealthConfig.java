@@ -0,0 +1,73 @@
+package edu.umich.med.michr.track.health;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import edu.umich.med.michr.track.config.cors.CorsConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class IngestHealthConfig {
+
+  /**
+   * Registers the {@link IngestLoadFilter} for the tracking endpoint, right after the CORS preflight filter so
+   * preflight requests are not counted.
+   */
+  @Bean
+  public FilterRegistrationBean<IngestLoadFilter> ingestLoadFilter(IngestLoadMonitor loadMonitor) {
+    FilterRegistrationBean<IngestLoadFilter> registration = new FilterRegistrationBean<>(new IngestLoadFilter(loadMonitor));
+    registration.addUrlPatterns(CorsConfig.TRACKING_ENDPOINT);
+    registration.setOrder(CorsConfig.INGEST_LOAD_FILTER_ORDER);
+    return registration;
+  }
+
+  /**
+   * Installs the {@link IngestMetricsTrackerFactory} on the Hikari data source before its pool is started. Spring Boot
+   * only binds the Micrometer pool metrics ({@code hikaricp.connections.*}) to a data source without a tracker factory,
+   * so they are chained here instead.
+   */
+  @Bean
+  public static BeanPostProcessor ingestMetricsTrackerInstaller(ObjectProvider<IngestLoadMonitor> loadMonitor,
+                                                                ObjectProvider<MeterRegistry> meterRegistry) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        final HikariDataSource dataSource = bean instanceof DataSource wrapper ? unwrap(wrapper) : null;
+        // a Dropwizard metric registry can not be combined with a tracker factory
+        if (dataSource != null && dataSource.getMetricRegistry() == null) {
+          final MetricsTrackerFactory configured = dataSource.getMetricsTrackerFactory();
+          dataSource.setMetricsTrackerFactory(new IngestMetricsTrackerFactory(loadMonitor::getObject,
+              configured != null ? configured : micrometerTrackerFactory(meterRegistry)));
+        }
+        return bean;
+      }
+    };
+  }
+
+  // the data source may already be wrapped, e.g. by the JDBC profiler
+  private static HikariDataSource unwrap(DataSource dataSource) {
+    try {
+      return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+    } catch (SQLException e) {
+      return null;
+    }
+  }
+
+  private static MetricsTrackerFactory micrometerTrackerFactory(ObjectProvider<MeterRegistry> meterRegistry) {
+    return (poolName, poolStats) -> {
+      final MeterRegistry registry = meterRegistry.getIfAvailable();
+      return registry == null
+          ? new IMetricsTracker() {}
+          : new MicrometerMetricsTrackerFactory(registry).create(poolName, poolStats);
+    };
+  }
+}
@@ -0,0 +1,168 @@
+package edu.umich.med.michr.track.health;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes the node out of service while the ingest path is saturated.
+ * <p>
+ * Once the application is ready the {@link IngestLoadMonitor} signals are checked every
+ * {@code track.ingest-health.check-interval}. When one of them reaches its high threshold the readiness state changes to
+ * {@link ReadinessState#REFUSING_TRAFFIC}, so {@code /actuator/health/readiness} fails and the load balancer drains the
+ * node while it still works. It changes back to {@link ReadinessState#ACCEPTING_TRAFFIC} after every signal stayed at
+ * or below its low threshold for the recovery time. Readiness changes made by others (e.g. the shutdown) are left alone.
+ * </p>
+ * <p>
+ * As a health indicator ({@code ingest}) it reports the current signals and which of them saturated the node.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "track.ingest-health", name = "enabled", havingValue = "true")
+public class IngestHealthIndicator implements HealthIndicator {
+  private static final Logger logger = LoggerFactory.getLogger(IngestHealthIndicator.class);
+
+  private final IngestLoadMonitor loadMonitor;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ApplicationAvailability applicationAvailability;
+  private final IngestHealthProperties properties;
+  private final Clock clock;
+  private volatile List<String> saturatingSignals = List.of();
+  private long lowSince = -1;
+  private ScheduledExecutorService scheduler;
+
+  @Inject
+  public IngestHealthIndicator(IngestLoadMonitor loadMonitor, ApplicationEventPublisher eventPublisher,
+                               ApplicationAvailability applicationAvailability, IngestHealthProperties properties,
+                               Clock clock) {
+    this.loadMonitor = loadMonitor;
+    this.eventPublisher = eventPublisher;
+    this.applicationAvailability = applicationAvailability;
+    this.properties = properties;
+    this.clock = clock;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void startChecking() {
+    if (scheduler == null) {
+      final long interval = properties.checkInterval().toMillis();
+      scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("ingest-health").factory());
+      scheduler.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  @EventListener(ContextClosedEvent.class)
+  public synchronized void stopChecking() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Override
+  public Health health() {
+    final IngestLoad load = loadMonitor.getLoad();
+    final List<String> signals = saturatingSignals;
+    return (signals.isEmpty() ? Health.up() : Health.outOfService())
+        .withDetail("poolUtilization", load.poolUtilization())
+        .withDetail("poolWaitMillis", load.poolWait().toMillis())
+        .withDetail("persistenceLatencyMillis", load.persistenceLatency().toMillis())
+        .withDetail("inFlight", load.inFlight())
+        .withDetail("rejectionRate", load.rejectionRate())
+        .withDetail("saturatedBy", signals)
+        .build();
+  }
+
+  /**
+   * @return true while the node is taken out of service
+   */
+  public boolean isSaturated() {
+    return !saturatingSignals.isEmpty();
+  }
+
+  synchronized void check() {
+    try {
+      final IngestLoad load = loadMonitor.getLoad();
+      final List<String> highSignals = getHighSignals(load);
+      if (!isSaturated()) {
+        if (!highSignals.isEmpty()) {
+          saturatingSignals = highSignals;
+          lowSince = -1;
+          logger.warn("Ingest path saturated by {}, refusing traffic: {}", highSignals, load);
+          AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        }
+        return;
+      }
+
+      if (!highSignals.isEmpty()) {
+        saturatingSignals = highSignals;
+      }
+      if (!isLow(load)) {
+        lowSince = -1;
+        return;
+      }
+      final long now = clock.millis();
+      if (lowSince < 0) {
+        lowSince = now;
+      }
+      if (now - lowSince >= properties.recoveryTime().toMillis()) {
+        saturatingSignals = List.of();
+        logger.info("Ingest path recovered, accepting traffic: {}", load);
+        // only undo our own change, e.g. the shutdown also refuses traffic
+        final AvailabilityChangeEvent<ReadinessState> last = applicationAvailability.getLastChangeEvent(ReadinessState.class);
+        if (last != null && last.getSource() == this) {
+          AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+        }
+      }
+    } catch (RuntimeException e) {
+      logger.error("Failed to check the ingest load", e);
+    }
+  }
+
+  private List<String> getHighSignals(IngestLoad load) {
+    final List<String> signals = new ArrayList<>();
+    if (properties.poolUtilization().isHigh(load.poolUtilization())) {
+      signals.add("poolUtilization");
+    }
+    if (properties.poolWait().isHigh(load.poolWait())) {
+      signals.add("poolWait");
+    }
+    if (properties.persistenceLatency().isHigh(load.persistenceLatency())) {
+      signals.add("persistenceLatency");
+    }
+    if (properties.inFlight().isHigh(load.inFlight())) {
+      signals.add("inFlight");
+    }
+    if (properties.rejectionRate().isHigh(load.rejectionRate())) {
+      signals.add("rejectionRate");
+    }
+    return List.copyOf(signals);
+  }
+
+  private boolean isLow(IngestLoad load) {
+    return properties.poolUtilization().isLow(load.poolUtilization())
+        && properties.poolWait().isLow(load.poolWait())
+        && properties.persistenceLatency().isLow(load.persistenceLatency())
+        && properties.inFlight().isLow(load.inFlight())
+        && properties.rejectionRate().isLow(load.rejectionRate());
+  }
+}
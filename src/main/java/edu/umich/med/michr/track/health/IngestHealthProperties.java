@@ -0,0 +1,49 @@
+package edu.umich.med.michr.track.health;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Thresholds that decide when the node is too saturated to take more tracking traffic.
+ * <p>
+ * The node stops accepting traffic as soon as one signal reaches its {@code high} threshold, and accepts it again once
+ * every signal stayed at or below its {@code low} threshold for {@code recoveryTime}. The gap between the two
+ * thresholds keeps the readiness state from flapping around a single limit.
+ * </p>
+ *
+ * @param enabled whether the readiness state follows the ingest load
+ * @param checkInterval how often the signals are checked
+ * @param recoveryTime how long all signals must stay low before the node accepts traffic again
+ * @param halfLife how fast the averaged signals fade out once they are no longer sampled
+ * @param poolUtilization the share of the maximum connection pool size in use
+ * @param poolWait the average time to get a connection from the pool
+ * @param persistenceLatency the average time to save an event, including the commit
+ * @param inFlight the number of tracking requests being processed
+ * @param rejectionRate the average share of tracking requests that failed with a server error
+ */
+@ConfigurationProperties(prefix = "track.ingest-health")
+public record IngestHealthProperties(boolean enabled, Duration checkInterval, Duration recoveryTime, Duration halfLife,
+                                     Limit poolUtilization, DurationLimit poolWait, DurationLimit persistenceLatency,
+                                     Limit inFlight, Limit rejectionRate) {
+
+  public record Limit(double high, double low) {
+    boolean isHigh(double value) {
+      return value >= high;
+    }
+
+    boolean isLow(double value) {
+      return value <= low;
+    }
+  }
+
+  public record DurationLimit(Duration high, Duration low) {
+    boolean isHigh(Duration value) {
+      return value.compareTo(high) >= 0;
+    }
+
+    boolean isLow(Duration value) {
+      return value.compareTo(low) <= 0;
+    }
+  }
+}
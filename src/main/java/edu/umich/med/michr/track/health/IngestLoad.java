@@ -0,0 +1,15 @@
+package edu.umich.med.michr.track.health;
+
+import java.time.Duration;
+
+/**
+ * The load signals of the ingest path at one point in time.
+ *
+ * @param poolUtilization the share of the maximum connection pool size in use, 0 without a Hikari pool
+ * @param poolWait the average time to get a connection from the pool
+ * @param persistenceLatency the average time to save an event, including the commit
+ * @param inFlight the number of tracking requests being processed
+ * @param rejectionRate the average share of tracking requests that failed with a server error
+ */
+public record IngestLoad(double poolUtilization, Duration poolWait, Duration persistenceLatency, int inFlight,
+                         double rejectionRate) {}
@@ -0,0 +1,33 @@
+package edu.umich.med.michr.track.health;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Counts the tracking requests in flight and those failing with a server error for the {@link IngestLoadMonitor}.
+ */
+public class IngestLoadFilter extends OncePerRequestFilter {
+  private final IngestLoadMonitor loadMonitor;
+
+  public IngestLoadFilter(IngestLoadMonitor loadMonitor) {
+    this.loadMonitor = loadMonitor;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    loadMonitor.requestStarted();
+    boolean rejected = true;
+    try {
+      filterChain.doFilter(request, response);
+      rejected = response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    } finally {
+      loadMonitor.requestFinished(rejected);
+    }
+  }
+}
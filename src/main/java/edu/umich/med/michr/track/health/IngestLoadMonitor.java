@@ -0,0 +1,82 @@
+package edu.umich.med.michr.track.health;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import edu.umich.med.michr.track.util.Ewma;
+import jakarta.inject.Inject;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the load signals of the ingest path: tracking requests in flight and failing, the time to save events and
+ * the state of the Hikari connection pool.
+ * <p>
+ * Latencies and the rejection rate are exponentially weighted moving averages that fade out while they are not
+ * sampled, so a node that stopped receiving traffic does not stay saturated on stale values.
+ * </p>
+ */
+@Component
+public class IngestLoadMonitor {
+  // weight of a single sample, with ~10 samples making up most of the average
+  static final double ALPHA = 0.1;
+
+  private final HikariDataSource hikariDataSource;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Ewma persistenceLatencyNanos;
+  private final Ewma poolWaitNanos;
+  private final Ewma rejectionRate;
+
+  @Inject
+  public IngestLoadMonitor(DataSource dataSource, IngestHealthProperties properties) {
+    this.hikariDataSource = unwrap(dataSource);
+    this.persistenceLatencyNanos = new Ewma(ALPHA, properties.halfLife());
+    this.poolWaitNanos = new Ewma(ALPHA, properties.halfLife());
+    this.rejectionRate = new Ewma(ALPHA, properties.halfLife());
+  }
+
+  public void requestStarted() {
+    inFlight.incrementAndGet();
+  }
+
+  /**
+   * @param rejected whether the request failed with a server error
+   */
+  public void requestFinished(boolean rejected) {
+    inFlight.decrementAndGet();
+    rejectionRate.update(rejected ? 1 : 0);
+  }
+
+  public void recordPersistence(long nanos) {
+    persistenceLatencyNanos.update(nanos);
+  }
+
+  public void recordConnectionWait(long nanos) {
+    poolWaitNanos.update(nanos);
+  }
+
+  public IngestLoad getLoad() {
+    return new IngestLoad(getPoolUtilization(), Duration.ofNanos((long) poolWaitNanos.get()),
+        Duration.ofNanos((long) persistenceLatencyNanos.get()), inFlight.get(), rejectionRate.get());
+  }
+
+  private double getPoolUtilization() {
+    // the pool only exists once the first connection was requested
+    final HikariPoolMXBean pool = hikariDataSource == null ? null : hikariDataSource.getHikariPoolMXBean();
+    if (pool == null) {
+      return 0;
+    }
+    return (double) pool.getActiveConnections() / hikariDataSource.getMaximumPoolSize();
+  }
+
+  private static HikariDataSource unwrap(DataSource dataSource) {
+    try {
+      return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+    } catch (SQLException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package edu.umich.med.michr.track.health;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.function.Supplier;
+
+/**
+ * Reports the time to get a connection from the Hikari pool to the {@link IngestLoadMonitor}, and passes everything
+ * to the tracker factory that was configured before, if any. The monitor is only looked up when the pool starts.
+ */
+class IngestMetricsTrackerFactory implements MetricsTrackerFactory {
+  private final Supplier<IngestLoadMonitor> loadMonitor;
+  private final MetricsTrackerFactory delegate;
+
+  IngestMetricsTrackerFactory(Supplier<IngestLoadMonitor> loadMonitor, MetricsTrackerFactory delegate) {
+    this.loadMonitor = loadMonitor;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public IMetricsTracker create(String poolName, PoolStats poolStats) {
+    final IMetricsTracker next = delegate == null ? null : delegate.create(poolName, poolStats);
+    final IngestLoadMonitor monitor = loadMonitor.get();
+    return new IMetricsTracker() {
+      @Override
+      public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+        if (next != null) {
+          next.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+      }
+
+      @Override
+      public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+        monitor.recordConnectionWait(elapsedAcquiredNanos);
+        if (next != null) {
+          next.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+        }
+      }
+
+      @Override
+      public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+        if (next != null) {
+          next.recordConnectionUsageMillis(elapsedBorrowedMillis);
+        }
+      }
+
+      @Override
+      public void recordConnectionTimeout() {
+        if (next != null) {
+          next.recordConnectionTimeout();
+        }
+      }
+
+      @Override
+      public void close() {
+        if (next != null) {
+          next.close();
+        }
+      }
+    };
+  }
+}
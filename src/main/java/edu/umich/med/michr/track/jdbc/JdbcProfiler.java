@@ -0,0 +1,266 @@
+package edu.umich.med.michr.track.jdbc;
+
+import jakarta.inject.Inject;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.StatementType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Profiles every JDBC statement executed through the data sources wrapped by {@link JdbcProfilerConfig}.
+ * <p>
+ * Executions are grouped by statement shape: the SQL of a prepared statement as is, the SQL of a plain statement with
+ * its literals replaced by {@code ?}. Per shape the execution time goes into an HdrHistogram, next to the number of
+ * failed and batch executions, the batch sizes and the rows affected. The number of shapes is capped by
+ * {@code track.jdbc-profiler.max-statements}; past it every new shape is counted under {@value #OTHER}. The shape of a
+ * plain statement is remembered for the same number of distinct SQL strings, so a statement repeated verbatim is only
+ * normalized once.
+ * </p>
+ * <p>
+ * The execution time is the one datasource-proxy measured, {@link ExecutionInfo#getElapsedTime()}, which the proxy
+ * created by {@link JdbcProfilerConfig} reports in nanoseconds.
+ * </p>
+ * <p>
+ * Executions taking at least {@code track.jdbc-profiler.slow-threshold} are also captured with their parameter values
+ * in a ring buffer of {@code track.jdbc-profiler.slow-capacity} entries. Unlike logging the bind parameters, only the
+ * slow executions pay for formatting them. The values are masked as {@value #MASKED} unless
+ * {@code track.jdbc-profiler.capture-parameters} is set, only {@code null} values are shown as they are.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "track.jdbc-profiler", name = "enabled", havingValue = "true")
+public class JdbcProfiler implements QueryExecutionListener {
+  static final String OTHER = "other statements";
+  // a batch of many different plain statements is captured with the parameters of its first entries only
+  static final int MAX_CAPTURED_BATCH_ENTRIES = 10;
+  static final String MASKED = "?";
+
+  private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+  private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+  private static final double MICROS_PER_MILLI = 1_000.0;
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private final JdbcProfilerProperties properties;
+  private final Clock clock;
+  private final long slowThresholdNanos;
+  private final ConcurrentMap<String, Shape> shapes = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, String> normalizedSql = new ConcurrentHashMap<>();
+  private final SlowStatement[] slowStatements;
+  private long slowStatementCount;
+
+  @Inject
+  public JdbcProfiler(JdbcProfilerProperties properties, Clock clock) {
+    this.properties = properties;
+    this.clock = clock;
+    this.slowThresholdNanos = properties.slowThreshold().toNanos();
+    this.slowStatements = new SlowStatement[properties.slowCapacity()];
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    // the proxy measures the execution
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    final long elapsed = execInfo.getElapsedTime();
+    getShape(execInfo, queryInfoList).record(execInfo, elapsed);
+    if (elapsed >= slowThresholdNanos && slowStatements.length > 0) {
+      capture(execInfo, queryInfoList, elapsed);
+    }
+  }
+
+  /**
+   * @return the recorded statement shapes, the ones that took the most time first
+   */
+  public List<StatementStats> getStatementStats() {
+    return shapes.values().stream()
+        .map(Shape::toStats)
+        .sorted(Comparator.comparingDouble(StatementStats::totalTime).reversed())
+        .toList();
+  }
+
+  /**
+   * @return the captured slow statements, the latest first
+   */
+  public synchronized List<SlowStatement> getSlowStatements() {
+    final int size = (int) Math.min(slowStatementCount, slowStatements.length);
+    final List<SlowStatement> latestFirst = new ArrayList<>(size);
+    for (long i = slowStatementCount - 1; i >= slowStatementCount - size; i--) {
+      latestFirst.add(slowStatements[(int) (i % slowStatements.length)]);
+    }
+    return latestFirst;
+  }
+
+  /**
+   * Forgets everything recorded so far.
+   */
+  public synchronized void reset() {
+    shapes.clear();
+    normalizedSql.clear();
+    Arrays.fill(slowStatements, null);
+    slowStatementCount = 0;
+  }
+
+  private Shape getShape(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    final String key = getShapeKey(execInfo.getStatementType(), queryInfoList);
+    final Shape existing = shapes.get(key);
+    if (existing != null) {
+      return existing;
+    }
+    return shapes.computeIfAbsent(shapes.size() < properties.maxStatements() ? key : OTHER, Shape::new);
+  }
+
+  String getShapeKey(StatementType statementType, List<QueryInfo> queryInfoList) {
+    if (queryInfoList.size() == 1) {
+      final String sql = queryInfoList.get(0).getQuery();
+      return statementType == StatementType.STATEMENT ? getNormalized(sql) : sql;
+    }
+    final StringBuilder key = new StringBuilder();
+    for (QueryInfo queryInfo : queryInfoList) {
+      if (!key.isEmpty()) {
+        key.append(";\n");
+      }
+      key.append(statementType == StatementType.STATEMENT ? getNormalized(queryInfo.getQuery()) : queryInfo.getQuery());
+    }
+    return key.toString();
+  }
+
+  // past the cap the statements are normalized every time, like the shapes past it are counted together
+  private String getNormalized(String sql) {
+    final String cached = normalizedSql.get(sql);
+    if (cached != null) {
+      return cached;
+    }
+    final String normalized = normalize(sql);
+    if (normalizedSql.size() < properties.maxStatements()) {
+      normalizedSql.putIfAbsent(sql, normalized);
+    }
+    return normalized;
+  }
+
+  static String normalize(String sql) {
+    final String withoutStrings = STRING_LITERAL.matcher(sql).replaceAll("?");
+    final String withoutNumbers = NUMBER_LITERAL.matcher(withoutStrings).replaceAll("?");
+    return WHITESPACE.matcher(withoutNumbers).replaceAll(" ").trim();
+  }
+
+  private void capture(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, long elapsed) {
+    final List<String> statements = new ArrayList<>(queryInfoList.size());
+    final List<List<String>> parameters = new ArrayList<>();
+    for (QueryInfo queryInfo : queryInfoList) {
+      statements.add(queryInfo.getQuery());
+      for (List<ParameterSetOperation> parameterSet : queryInfo.getParametersList()) {
+        if (parameters.size() == MAX_CAPTURED_BATCH_ENTRIES) {
+          break;
+        }
+        parameters.add(formatParameters(parameterSet));
+      }
+    }
+    final SlowStatement slowStatement = new SlowStatement(clock.instant(), String.join(";\n", statements),
+        parameters, elapsed / NANOS_PER_MILLI, execInfo.isBatch() ? execInfo.getBatchSize() : 0, execInfo.isSuccess(),
+        Thread.currentThread().getName());
+    synchronized (this) {
+      slowStatements[(int) (slowStatementCount++ % slowStatements.length)] = slowStatement;
+    }
+  }
+
+  private List<String> formatParameters(List<ParameterSetOperation> parameterSet) {
+    return parameterSet.stream()
+        .filter(operation -> operation.getArgs().length > 0)
+        // by parameter index, the named parameters of callable statements last
+        .sorted(Comparator.comparingInt(operation -> operation.getArgs()[0] instanceof Integer index ? index : Integer.MAX_VALUE))
+        .map(this::formatParameter)
+        .toList();
+  }
+
+  private String formatParameter(ParameterSetOperation operation) {
+    if (ParameterSetOperation.isSetNullParameterOperation(operation) || operation.getArgs().length < 2) {
+      return "null";
+    }
+    if (!properties.captureParameters()) {
+      return MASKED;
+    }
+    final String value = String.valueOf(operation.getArgs()[1]);
+    return value.length() > properties.maxParameterLength()
+        ? value.substring(0, properties.maxParameterLength()) + "..."
+        : value;
+  }
+
+  static long getRowsAffected(Object result) {
+    if (result instanceof Integer count) {
+      return Math.max(count, 0);
+    }
+    if (result instanceof Long count) {
+      return Math.max(count, 0);
+    }
+    long rows = 0;
+    if (result instanceof int[] counts) {
+      for (int count : counts) {
+        rows += Math.max(count, 0);
+      }
+    } else if (result instanceof long[] counts) {
+      for (long count : counts) {
+        rows += Math.max(count, 0);
+      }
+    }
+    return rows;
+  }
+
+  private static final class Shape {
+    private final String sql;
+    private final ConcurrentHistogram micros = new ConcurrentHistogram(1, HIGHEST_TRACKABLE_MICROS, 2);
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder batchExecutions = new LongAdder();
+    private final LongAdder batchStatements = new LongAdder();
+    private final LongAdder rowsAffected = new LongAdder();
+
+    private Shape(String sql) {
+      this.sql = sql;
+    }
+
+    private void record(ExecutionInfo execInfo, long elapsedNanos) {
+      micros.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), 1), HIGHEST_TRACKABLE_MICROS));
+      totalNanos.add(elapsedNanos);
+      if (!execInfo.isSuccess()) {
+        errors.increment();
+      }
+      if (execInfo.isBatch()) {
+        batchExecutions.increment();
+        batchStatements.add(execInfo.getBatchSize());
+      }
+      rowsAffected.add(getRowsAffected(execInfo.getResult()));
+    }
+
+    private StatementStats toStats() {
+      final Histogram histogram = micros.copy();
+      final long batches = batchExecutions.sum();
+      return new StatementStats(sql, histogram.getTotalCount(), errors.sum(), totalNanos.sum() / NANOS_PER_MILLI,
+          histogram.getMean() / MICROS_PER_MILLI,
+          histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+          histogram.getValueAtPercentile(90) / MICROS_PER_MILLI,
+          histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+          histogram.getMaxValue() / MICROS_PER_MILLI,
+          batches, batches == 0 ? 0 : (double) batchStatements.sum() / batches, rowsAffected.sum());
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package edu.umich.med.michr.track.jdbc;
+
+import edu.umich.med.michr.track.config.AdminProperties;
+import edu.umich.med.michr.track.controller.AdminToken;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.NanoTimeStopwatchFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.autoconfigure.endpoint.web.WebEndpointProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Wraps every data source (Hikari or UCP) in a datasource-proxy {@link ProxyDataSource} that reports each statement
+ * execution to the {@link JdbcProfiler}. The proxy unwraps to the pool, so the pool tuning and health checks still find
+ * it. Enabled with {@code track.jdbc-profiler.enabled=true}.
+ * <p>
+ * The {@code /actuator/jdbc} endpoint requires the admin token, like the administration endpoints.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "track.jdbc-profiler", name = "enabled", havingValue = "true")
+public class JdbcProfilerConfig {
+
+  // the profiler is looked up on the first statement, not while the data source is created
+  @Bean
+  public static BeanPostProcessor jdbcProfilerProxy(ObjectProvider<JdbcProfiler> profiler) {
+    final Supplier<JdbcProfiler> listener = SingletonSupplier.of(profiler::getObject);
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+          return createProxy(dataSource, beanName, new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+              listener.get().beforeQuery(execInfo, queryInfoList);
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+              listener.get().afterQuery(execInfo, queryInfoList);
+            }
+          });
+        }
+        return bean;
+      }
+    };
+  }
+
+  @Bean
+  public FilterRegistrationBean<JdbcProfilerEndpointFilter> jdbcProfilerEndpointFilter(AdminProperties adminProperties,
+                                                                                       WebEndpointProperties endpointProperties) {
+    FilterRegistrationBean<JdbcProfilerEndpointFilter> registration = new FilterRegistrationBean<>(
+        new JdbcProfilerEndpointFilter(new AdminToken(adminProperties)));
+    registration.addUrlPatterns(endpointProperties.getBasePath() + "/jdbc", endpointProperties.getBasePath() + "/jdbc/*");
+    return registration;
+  }
+
+  /**
+   * Wraps the data source in a proxy that reports the statements to the listener, with
+   * {@link ExecutionInfo#getElapsedTime()} in nanoseconds instead of the milliseconds of the default stopwatch.
+   */
+  static ProxyDataSource createProxy(DataSource dataSource, String name, QueryExecutionListener listener) {
+    final ProxyDataSource proxy = ProxyDataSourceBuilder.create(dataSource)
+        .name(name)
+        .listener(listener)
+        .build();
+    proxy.setProxyConfig(ProxyConfig.Builder.from(proxy.getProxyConfig())
+        .stopwatchFactory(new NanoTimeStopwatchFactory())
+        .build());
+    return proxy;
+  }
+}
@@ -0,0 +1,42 @@
+package edu.umich.med.michr.track.jdbc;
+
+import jakarta.inject.Inject;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code /actuator/jdbc}: the statements profiled by the {@link JdbcProfiler}, the ones that took the most time first,
+ * and the latest slow statements with their parameters. {@code DELETE /actuator/jdbc} starts over. Both require the
+ * admin token, see {@link JdbcProfilerEndpointFilter}.
+ */
+@Component
+@Endpoint(id = "jdbc")
+@ConditionalOnProperty(prefix = "track.jdbc-profiler", name = "enabled", havingValue = "true")
+public class JdbcProfilerEndpoint {
+  private final JdbcProfiler profiler;
+  private final JdbcProfilerProperties properties;
+
+  @Inject
+  public JdbcProfilerEndpoint(JdbcProfiler profiler, JdbcProfilerProperties properties) {
+    this.profiler = profiler;
+    this.properties = properties;
+  }
+
+  @ReadOperation
+  public JdbcProfile profile() {
+    return new JdbcProfile(properties.slowThreshold(), profiler.getStatementStats(), profiler.getSlowStatements());
+  }
+
+  @DeleteOperation
+  public void reset() {
+    profiler.reset();
+  }
+
+  public record JdbcProfile(Duration slowThreshold, List<StatementStats> statements, List<SlowStatement> slowStatements) {}
+}
@@ -0,0 +1,32 @@
+package edu.umich.med.michr.track.jdbc;
+
+import edu.umich.med.michr.track.controller.AdminToken;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Answers requests to {@code /actuator/jdbc} without the admin token in the {@value AdminToken#HEADER} header with a
+ * 401, the profile shows the statements of the application and the slow ones may carry their parameters.
+ */
+public class JdbcProfilerEndpointFilter extends OncePerRequestFilter {
+  private final AdminToken adminToken;
+
+  public JdbcProfilerEndpointFilter(AdminToken adminToken) {
+    this.adminToken = adminToken;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (!adminToken.matches(request.getHeader(AdminToken.HEADER))) {
+      response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid admin token");
+      return;
+    }
+    filterChain.doFilter(request, response);
+  }
+}
@@ -0,0 +1,20 @@
+package edu.umich.med.michr.track.jdbc;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the {@link JdbcProfiler}.
+ *
+ * @param enabled whether the data sources are wrapped in a proxy that profiles every statement
+ * @param maxStatements the maximum number of distinct statements profiled individually, the others are profiled together
+ * @param slowThreshold statements running at least this long are captured with their parameters
+ * @param slowCapacity the number of slow statements kept, the oldest ones are overwritten
+ * @param maxParameterLength longer parameter values of captured statements are truncated to this many characters
+ * @param captureParameters whether the parameter values of slow statements are kept, otherwise they are masked as
+ *                          {@code ?}, they hold user ids, addresses and pages of the tracked visitors
+ */
+@ConfigurationProperties(prefix = "track.jdbc-profiler")
+public record JdbcProfilerProperties(boolean enabled, int maxStatements, Duration slowThreshold, int slowCapacity,
+                                     int maxParameterLength, boolean captureParameters) {}
@@ -0,0 +1,18 @@
+package edu.umich.med.michr.track.jdbc;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A statement that ran longer than {@code track.jdbc-profiler.slow-threshold}.
+ *
+ * @param time when the execution ended
+ * @param sql the statement as executed
+ * @param parameters the parameter values per batch entry, in parameter index order
+ * @param elapsed the execution time in milliseconds
+ * @param batchSize the number of statements in the batch, 0 when it was not a batch
+ * @param success whether the execution succeeded
+ * @param thread the thread that executed it
+ */
+public record SlowStatement(Instant time, String sql, List<List<String>> parameters, double elapsed, int batchSize,
+                            boolean success, String thread) {}
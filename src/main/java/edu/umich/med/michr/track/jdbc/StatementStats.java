@@ -0,0 +1,21 @@
+package edu.umich.med.michr.track.jdbc;
+
+/**
+ * What the {@link JdbcProfiler} recorded for one statement shape, durations in milliseconds.
+ *
+ * @param sql the statement, literals of plain statements replaced with {@code ?}
+ * @param executions the number of times it was executed
+ * @param errors the number of executions that failed
+ * @param totalTime the time spent executing it
+ * @param mean the mean execution time
+ * @param p50 the median execution time
+ * @param p90 the 90th percentile of the execution time
+ * @param p99 the 99th percentile of the execution time
+ * @param max the longest execution time
+ * @param batchExecutions the number of executions that ran a batch
+ * @param meanBatchSize the mean number of statements per batch execution
+ * @param rowsAffected the rows inserted, updated or deleted, as reported by the driver
+ */
+public record StatementStats(String sql, long executions, long errors, double totalTime, double mean, double p50,
+                             double p90, double p99, double max, long batchExecutions, double meanBatchSize,
+                             long rowsAffected) {}
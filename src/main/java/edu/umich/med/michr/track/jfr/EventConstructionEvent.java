@@ -0,0 +1,50 @@
+package edu.umich.med.michr.track.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Extracting the parameters of a tracking request and building the analytics event from them.
+ */
+@Name(EventConstructionEvent.NAME)
+@Label("Event Construction")
+@Description("Extracting the request parameters and building the analytics event")
+@Category({"Track", "Ingest"})
+@StackTrace(false)
+public final class EventConstructionEvent extends jdk.jfr.Event {
+  public static final String NAME = "edu.umich.med.michr.track.EventConstruction";
+
+  @Label("Client Id")
+  String clientId;
+
+  @Label("Event Type")
+  String eventType;
+
+  @Label("Custom Attributes")
+  int attributeCount;
+
+  @Label("Payload Size")
+  @Description("Characters of the extracted parameter values, headers and custom attributes")
+  @DataAmount(DataAmount.BYTES)
+  long payloadSize;
+
+  public void setClientId(String clientId) {
+    this.clientId = clientId;
+  }
+
+  public void setEventType(String eventType) {
+    this.eventType = eventType;
+  }
+
+  public void setAttributeCount(int attributeCount) {
+    this.attributeCount = attributeCount;
+  }
+
+  public void setPayloadSize(long payloadSize) {
+    this.payloadSize = payloadSize;
+  }
+}
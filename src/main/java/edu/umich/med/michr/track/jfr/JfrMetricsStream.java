@@ -0,0 +1,117 @@
+package edu.umich.med.michr.track.jfr;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Streams the ingest flight recorder events from a recording inside the application and turns them into metrics, so
+ * the numbers a recording would show are also available without one.
+ * <p>
+ * The recording only enables the {@link OriginValidationEvent}, {@link EventConstructionEvent} and
+ * {@link PersistenceEvent} events and keeps {@value #MAX_AGE_SECONDS} seconds of them. The events are read on the
+ * stream's own thread, about once a second, so the request threads only pay for committing them. The metrics publish
+ * their percentiles and maximum over the last {@code track.jfr.window}. The client id stays in the recording only, it
+ * is not a tag.
+ * </p>
+ * <p>
+ * Enabled with {@code track.jfr.streaming-enabled=true}. A recording started with {@code jcmd JFR.start} or
+ * {@code -XX:StartFlightRecording} records the same events independently.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "track.jfr", name = "streaming-enabled", havingValue = "true")
+public class JfrMetricsStream {
+  private static final Logger logger = LoggerFactory.getLogger(JfrMetricsStream.class);
+
+  public static final String ORIGIN_VALIDATION = "track.jfr.origin.validation";
+  public static final String EVENT_CONSTRUCTION = "track.jfr.event.construction";
+  public static final String EVENT_ATTRIBUTES = "track.jfr.event.attributes";
+  public static final String EVENT_PAYLOAD = "track.jfr.event.payload";
+  public static final String PERSISTENCE = "track.jfr.persistence";
+  public static final String PERSISTENCE_BATCH = "track.jfr.persistence.batch";
+  private static final long MAX_AGE_SECONDS = 60;
+
+  private final MeterRegistry registry;
+  private final JfrProperties properties;
+  private RecordingStream stream;
+
+  @Inject
+  public JfrMetricsStream(MeterRegistry registry, JfrProperties properties) {
+    this.registry = registry;
+    this.properties = properties;
+  }
+
+  @PostConstruct
+  public synchronized void start() {
+    if (stream != null) {
+      return;
+    }
+    stream = new RecordingStream();
+    stream.setMaxAge(Duration.ofSeconds(MAX_AGE_SECONDS));
+    stream.enable(OriginValidationEvent.class).withoutStackTrace().withoutThreshold();
+    stream.enable(EventConstructionEvent.class).withoutStackTrace().withoutThreshold();
+    stream.enable(PersistenceEvent.class).withoutStackTrace().withoutThreshold();
+    stream.onEvent(OriginValidationEvent.NAME, this::onOriginValidation);
+    stream.onEvent(EventConstructionEvent.NAME, this::onEventConstruction);
+    stream.onEvent(PersistenceEvent.NAME, this::onPersistence);
+    stream.onError(e -> logger.warn("Failed to read the ingest flight recorder events", e));
+    stream.startAsync();
+    logger.info("Streaming the ingest flight recorder events into metrics");
+  }
+
+  @PreDestroy
+  public synchronized void stop() {
+    if (stream != null) {
+      stream.close();
+      stream = null;
+    }
+  }
+
+  private void onOriginValidation(RecordedEvent event) {
+    timer(ORIGIN_VALIDATION, "Origin validation time from the flight recorder events",
+        "resolved_by", String.valueOf(event.getString("resolvedBy")), "result", String.valueOf(event.getString("result")))
+        .record(event.getDuration());
+  }
+
+  private void onEventConstruction(RecordedEvent event) {
+    timer(EVENT_CONSTRUCTION, "Event construction time from the flight recorder events").record(event.getDuration());
+    summary(EVENT_ATTRIBUTES, "Custom attributes per constructed event").record(event.getInt("attributeCount"));
+    summary(EVENT_PAYLOAD, "Characters of the values of a constructed event").record(event.getLong("payloadSize"));
+  }
+
+  private void onPersistence(RecordedEvent event) {
+    timer(PERSISTENCE, "Persistence time from the flight recorder events",
+        "committed", Boolean.toString(event.getBoolean("committed")))
+        .record(event.getDuration());
+    summary(PERSISTENCE_BATCH, "Events saved per transaction").record(event.getInt("batchSize"));
+  }
+
+  private Timer timer(String name, String description, String... tags) {
+    return Timer.builder(name)
+        .description(description)
+        .tags(tags)
+        .publishPercentiles(0.5, 0.9, 0.99)
+        .distributionStatisticExpiry(properties.window())
+        .register(registry);
+  }
+
+  private DistributionSummary summary(String name, String description) {
+    return DistributionSummary.builder(name)
+        .description(description)
+        .publishPercentiles(0.5, 0.9, 0.99)
+        .distributionStatisticExpiry(properties.window())
+        .register(registry);
+  }
+}
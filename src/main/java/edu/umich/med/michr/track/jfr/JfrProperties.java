@@ -0,0 +1,14 @@
+package edu.umich.med.michr.track.jfr;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the in-process consumer of the ingest flight recorder events.
+ *
+ * @param streamingEnabled whether the events are streamed from a recording inside the application into metrics
+ * @param window the time the percentiles and maximums of the metrics cover
+ */
+@ConfigurationProperties(prefix = "track.jfr")
+public record JfrProperties(boolean streamingEnabled, Duration window) {}
@@ -0,0 +1,47 @@
+package edu.umich.med.michr.track.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The authorization of a tracking request: which value the origin was resolved from and whether it was accepted.
+ */
+@Name(OriginValidationEvent.NAME)
+@Label("Origin Validation")
+@Description("Resolving the origin of a tracking request and matching it against the client configuration")
+@Category({"Track", "Ingest"})
+@StackTrace(false)
+public final class OriginValidationEvent extends jdk.jfr.Event {
+  public static final String NAME = "edu.umich.med.michr.track.OriginValidation";
+  public static final String ACCEPTED = "accepted";
+  public static final String RESOLVED_BY_ORIGIN = "origin";
+  public static final String RESOLVED_BY_REFERER = "referer";
+  public static final String RESOLVED_BY_EMAIL_ID = "email-id";
+  public static final String UNRESOLVED = "none";
+
+  @Label("Client Id")
+  String clientId;
+
+  @Label("Resolved By")
+  @Description("The header or parameter the origin was taken from: origin, referer, email-id or none")
+  String resolvedBy = UNRESOLVED;
+
+  @Label("Result")
+  @Description("accepted, or the reason the request was rejected")
+  String result;
+
+  public void setClientId(String clientId) {
+    this.clientId = clientId;
+  }
+
+  public void setResolvedBy(String resolvedBy) {
+    this.resolvedBy = resolvedBy;
+  }
+
+  public void setResult(String result) {
+    this.result = result;
+  }
+}
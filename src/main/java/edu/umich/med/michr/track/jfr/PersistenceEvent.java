@@ -0,0 +1,65 @@
+package edu.umich.med.michr.track.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Saving analytics events, from the repository call until the transaction completed.
+ */
+@Name(PersistenceEvent.NAME)
+@Label("Persistence")
+@Description("Saving analytics events including the flush and the commit")
+@Category({"Track", "Ingest"})
+@StackTrace(false)
+public final class PersistenceEvent extends jdk.jfr.Event {
+  public static final String NAME = "edu.umich.med.michr.track.Persistence";
+
+  @Label("Client Id")
+  @Description("The client of the events, null when a batch mixes clients")
+  String clientId;
+
+  @Label("Batch Size")
+  int batchSize;
+
+  @Label("Committed")
+  boolean committed;
+
+  public void setClientId(String clientId) {
+    this.clientId = clientId;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public void setCommitted(boolean committed) {
+    this.committed = committed;
+  }
+
+  /**
+   * Commits the event once the current transaction completed, so its duration includes the flush and the commit.
+   * Without a transaction synchronization the repository call committed on its own and the event is committed now.
+   */
+  public void commitAfterTransaction() {
+    if (!isEnabled()) {
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      committed = true;
+      commit();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        committed = status == STATUS_COMMITTED;
+        commit();
+      }
+    });
+  }
+}
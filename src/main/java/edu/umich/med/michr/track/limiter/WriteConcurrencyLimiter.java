@@ -0,0 +1,286 @@
+package edu.umich.med.michr.track.limiter;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Caps the number of tracking events saved at the same time at a limit that follows how fast the database commits them,
+ * so the saves do not queue up in the connection pool or the database when it slows down.
+ * <p>
+ * The latency of the saves, including the commit, is averaged over every {@code window}. A long-term average of these
+ * window averages, quick to follow lower and slow to follow higher latencies, stands for the latency of the database
+ * without queueing. The limit is recomputed at the end of each
+ * window, gradient style: multiplied by {@code tolerance} times the long-term average divided by the window average,
+ * between 0.5 and 1, plus its square root as headroom. A database that keeps up lets the limit grow by about its
+ * square root per window, but only while the saves in flight actually reached half of it. One that slows down
+ * shrinks it in proportion. A window with failed saves multiplies it by {@code backoffRatio}. Changes are smoothed and
+ * the limit stays between {@code minLimit} and {@code maxLimit}.
+ * </p>
+ * <p>
+ * Past the size of the ingest connection pool the saves would only queue for a connection, so the limit also stays at
+ * or below the pool's current {@code maximumPoolSize} (but not below {@code minLimit}). The size is read whenever the
+ * limit is recomputed, so a pool resized at runtime moves the cap with it.
+ * </p>
+ * <p>
+ * A save that finds the limit reached waits up to {@code maxWait} for another one to finish and is rejected after
+ * that. Taking and returning a permit neither locks nor allocates unless saves have to wait, and the limit is
+ * recomputed by the one caller that closes a window.
+ * </p>
+ */
+@Component
+public class WriteConcurrencyLimiter {
+  private static final Logger logger = LoggerFactory.getLogger(WriteConcurrencyLimiter.class);
+
+  public static final String LIMIT = "track.write.limit";
+  public static final String IN_FLIGHT = "track.write.in.flight";
+  public static final String LATENCY = "track.write.latency";
+  // the weight of a window average in the long-term average: a faster database is followed within a few windows, a
+  // slower one only over minutes, so the limit stays down while the database struggles but a lasting change is accepted
+  private static final double LONG_TERM_ALPHA_FASTER = 0.1;
+  private static final double LONG_TERM_ALPHA_SLOWER = 0.01;
+  private static final double MIN_GRADIENT = 0.5;
+
+  private final WriteLimiterProperties properties;
+  private final IntSupplier poolSize;
+  private final LongSupplier nanoTime;
+  private final long windowNanos;
+  private final long maxWaitNanos;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger peakInFlight = new AtomicInteger();
+  private final LongAdder windowLatencyNanos = new LongAdder();
+  private final LongAdder windowSamples = new LongAdder();
+  private final LongAdder windowDrops = new LongAdder();
+  private final AtomicLong windowEndNanos;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+  private volatile int waiting;
+  private volatile double limit;
+  private volatile double windowLatency;
+  // only written by the caller that closes a window
+  private volatile double longTermLatency;
+
+  @Inject
+  public WriteConcurrencyLimiter(WriteLimiterProperties properties, MeterRegistry registry, DataSource dataSource) {
+    this(properties, registry, getPoolSize(dataSource), System::nanoTime);
+  }
+
+  WriteConcurrencyLimiter(WriteLimiterProperties properties, MeterRegistry registry, IntSupplier poolSize,
+                          LongSupplier nanoTime) {
+    if (properties.minLimit() < 1 || properties.minLimit() > properties.initialLimit()
+        || properties.initialLimit() > properties.maxLimit()) {
+      throw new IllegalArgumentException("The write limits must satisfy 1 <= min-limit <= initial-limit <= max-limit");
+    }
+    if (properties.smoothing() <= 0 || properties.smoothing() > 1
+        || properties.backoffRatio() <= 0 || properties.backoffRatio() >= 1 || properties.tolerance() < 1) {
+      throw new IllegalArgumentException("The write limiter smoothing must be in (0, 1], its backoff ratio in (0, 1) "
+          + "and its tolerance at least 1");
+    }
+    this.properties = properties;
+    this.poolSize = poolSize;
+    this.nanoTime = nanoTime;
+    this.windowNanos = properties.window().toNanos();
+    this.maxWaitNanos = properties.maxWait().toNanos();
+    this.limit = Math.min(properties.initialLimit(), getMaxLimit());
+    this.windowEndNanos = new AtomicLong(nanoTime.getAsLong() + windowNanos);
+    Gauge.builder(LIMIT, this, WriteConcurrencyLimiter::getLimit)
+        .description("Tracking events that may be saved at the same time")
+        .register(registry);
+    Gauge.builder(IN_FLIGHT, inFlight, AtomicInteger::get)
+        .description("Tracking events being saved")
+        .register(registry);
+    Gauge.builder(LATENCY, this, limiter -> limiter.windowLatency / 1e9)
+        .description("Average time to save a tracking event during the last window")
+        .tag("average", "window")
+        .baseUnit("seconds")
+        .register(registry);
+    Gauge.builder(LATENCY, this, limiter -> limiter.longTermLatency / 1e9)
+        .description("Long-term average time to save a tracking event")
+        .tag("average", "long-term")
+        .baseUnit("seconds")
+        .register(registry);
+  }
+
+  /**
+   * Takes a permit to save an event, waiting up to {@code maxWait} for one. A permit that was taken has to be returned
+   * with exactly one of {@link #onSuccess}, {@link #onDropped} or {@link #onIgnored}.
+   *
+   * @return false if the limit was still reached after waiting, the event should not be saved
+   */
+  public boolean tryAcquire() {
+    if (!properties.enabled()) {
+      return true;
+    }
+    if (tryIncrement()) {
+      return true;
+    }
+    return maxWaitNanos > 0 && awaitPermit();
+  }
+
+  /**
+   * Returns the permit of a save that completed.
+   *
+   * @param latencyNanos how long the save took, including the commit
+   */
+  public void onSuccess(long latencyNanos) {
+    if (!properties.enabled()) {
+      return;
+    }
+    windowLatencyNanos.add(latencyNanos);
+    windowSamples.increment();
+    release();
+    closeWindowIfDue();
+  }
+
+  /**
+   * Returns the permit of a save that failed, e.g. because no connection was available in time.
+   */
+  public void onDropped() {
+    if (!properties.enabled()) {
+      return;
+    }
+    windowDrops.increment();
+    release();
+    closeWindowIfDue();
+  }
+
+  /**
+   * Returns the permit of a save that did not get to the database, e.g. because the request was invalid.
+   */
+  public void onIgnored() {
+    if (properties.enabled()) {
+      release();
+    }
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  private boolean tryIncrement() {
+    while (true) {
+      final int current = inFlight.get();
+      if (current >= (int) limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        peakInFlight.accumulateAndGet(current + 1, Math::max);
+        return true;
+      }
+    }
+  }
+
+  private boolean awaitPermit() {
+    lock.lock();
+    try {
+      // counted before trying again, so a save finishing meanwhile signals
+      waiting++;
+      long remaining = maxWaitNanos;
+      while (!tryIncrement()) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = released.awaitNanos(remaining);
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      waiting--;
+      lock.unlock();
+    }
+  }
+
+  private void release() {
+    inFlight.decrementAndGet();
+    if (waiting > 0) {
+      lock.lock();
+      try {
+        released.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private void closeWindowIfDue() {
+    final long now = nanoTime.getAsLong();
+    final long end = windowEndNanos.get();
+    if (now - end < 0 || windowSamples.sum() + windowDrops.sum() < properties.minWindowSamples()
+        || !windowEndNanos.compareAndSet(end, now + windowNanos)) {
+      return;
+    }
+    final long samples = windowSamples.sumThenReset();
+    final long latencyNanos = windowLatencyNanos.sumThenReset();
+    final long drops = windowDrops.sumThenReset();
+    final int peak = peakInFlight.getAndSet(inFlight.get());
+    update(samples, latencyNanos, drops, peak);
+  }
+
+  private void update(long samples, long latencyNanos, long drops, int peak) {
+    final double current = limit;
+    final double next;
+    if (drops > 0) {
+      next = current * properties.backoffRatio();
+    } else {
+      windowLatency = (double) latencyNanos / samples;
+      if (longTermLatency == 0) {
+        longTermLatency = windowLatency;
+      } else {
+        final double alpha = windowLatency < longTermLatency ? LONG_TERM_ALPHA_FASTER : LONG_TERM_ALPHA_SLOWER;
+        longTermLatency += alpha * (windowLatency - longTermLatency);
+      }
+      final double gradient = Math.max(MIN_GRADIENT,
+          Math.min(1, properties.tolerance() * longTermLatency / windowLatency));
+      // the limit did not hold the saves back, there is nothing to learn about a higher one
+      if (gradient == 1 && peak < current / 2) {
+        next = current;
+      } else {
+        final double target = current * gradient + Math.sqrt(current);
+        next = current + properties.smoothing() * (target - current);
+      }
+    }
+    limit = Math.max(properties.minLimit(), Math.min(getMaxLimit(), next));
+    if ((int) limit != (int) current) {
+      logger.debug("Write limit changed from {} to {}, window latency {} ms, long-term latency {} ms", (int) current,
+          (int) limit, TimeUnit.NANOSECONDS.toMillis((long) windowLatency),
+          TimeUnit.NANOSECONDS.toMillis((long) longTermLatency));
+    }
+  }
+
+  private int getMaxLimit() {
+    return Math.max(properties.minLimit(), Math.min(properties.maxLimit(), poolSize.getAsInt()));
+  }
+
+  // the ingest pool, the pool of the writes when the pools are split; other connection pools do not cap the limit
+  private static IntSupplier getPoolSize(DataSource dataSource) {
+    try {
+      if (dataSource.isWrapperFor(HikariDataSource.class)) {
+        return dataSource.unwrap(HikariDataSource.class)::getMaximumPoolSize;
+      }
+    } catch (SQLException e) {
+      logger.warn("Could not look up the connection pool, the write limit only follows max-limit", e);
+    }
+    return () -> Integer.MAX_VALUE;
+  }
+}
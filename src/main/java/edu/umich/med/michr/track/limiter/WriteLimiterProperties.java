@@ -0,0 +1,24 @@
+package edu.umich.med.michr.track.limiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the {@link WriteConcurrencyLimiter}.
+ *
+ * @param enabled whether the events saved concurrently are limited, without a limit every save goes straight to the pool
+ * @param initialLimit the limit until the first window is complete
+ * @param minLimit the limit never drops below this many saves
+ * @param maxLimit the limit never grows past this many saves, nor past the current maximum size of the ingest pool
+ * @param tolerance how many times the long-term average latency a window may take before the limit shrinks
+ * @param smoothing the share of a computed limit change that is applied at once, 1 applies all of it
+ * @param backoffRatio the limit is multiplied by this after a window with failed saves
+ * @param window how often the limit is recomputed from the latencies of the saves since the last time
+ * @param minWindowSamples a window is extended until it has this many saves
+ * @param maxWait how long a save waits for a permit once the limit is reached before it is rejected
+ */
+@ConfigurationProperties(prefix = "track.write-limiter")
+public record WriteLimiterProperties(boolean enabled, int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                     double smoothing, double backoffRatio, Duration window, int minWindowSamples,
+                                     Duration maxWait) {}
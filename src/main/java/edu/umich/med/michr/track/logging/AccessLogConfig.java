@@ -0,0 +1,28 @@
+package edu.umich.med.michr.track.logging;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Writes the access log of the embedded Tomcat through Log4j ({@link Log4jAccessLogValve}) instead of Tomcat's own
+ * valve. Enabled with {@code track.access-log.async=true}, together with {@code server.tomcat.accesslog.enabled=false};
+ * the line format is still {@code server.tomcat.accesslog.pattern}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "track.access-log", name = "async", havingValue = "true")
+public class AccessLogConfig {
+
+  @Bean
+  public WebServerFactoryCustomizer<TomcatServletWebServerFactory> log4jAccessLogCustomizer(ServerProperties serverProperties) {
+    return factory -> {
+      final Log4jAccessLogValve valve = new Log4jAccessLogValve();
+      valve.setPattern(serverProperties.getTomcat().getAccesslog().getPattern());
+      valve.setRequestAttributesEnabled(serverProperties.getTomcat().getAccesslog().isRequestAttributesEnabled());
+      factory.addEngineValves(valve);
+    };
+  }
+}
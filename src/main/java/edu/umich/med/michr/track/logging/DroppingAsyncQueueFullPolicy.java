@@ -0,0 +1,52 @@
+package edu.umich.med.michr.track.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.async.AsyncQueueFullPolicy;
+import org.apache.logging.log4j.core.async.EventRoute;
+import org.apache.logging.log4j.spi.StandardLevel;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What the async loggers do when their ring buffer is full, so logging never waits for the appenders.
+ * <p>
+ * Log4j's own policies either wait for a free slot or, with {@code Discard}, write the events above the threshold on
+ * the calling thread. This one drops every event, whatever its level, and counts the dropped events per level; the
+ * counts are published by {@link LoggingMetrics}. Only the events the background thread logs itself, e.g. an appender
+ * reporting an error, are written right away, that thread can not wait for the queue it is draining.
+ * </p>
+ * <p>
+ * The trade-off is that warnings and errors logged while the buffer is full are lost as well. Writing them on the
+ * request thread would put formatting and console I/O on the request path exactly when the node is saturated, and an
+ * error storm under load would then slow every request down. A full buffer shows up in
+ * {@code track_logging_dropped_total} with the levels of the lost events instead.
+ * </p>
+ * <p>
+ * Log4j creates the policy, it is selected with {@code log4j2.asyncQueueFullPolicy} in {@code log4j2.component.properties}.
+ * </p>
+ */
+public class DroppingAsyncQueueFullPolicy implements AsyncQueueFullPolicy {
+  private static final LongAdder[] DROPPED = new LongAdder[StandardLevel.values().length];
+
+  static {
+    for (int i = 0; i < DROPPED.length; i++) {
+      DROPPED[i] = new LongAdder();
+    }
+  }
+
+  @Override
+  public EventRoute getRoute(long backgroundThreadId, Level level) {
+    if (Thread.currentThread().threadId() == backgroundThreadId) {
+      return EventRoute.SYNCHRONOUS;
+    }
+    DROPPED[level.getStandardLevel().ordinal()].increment();
+    return EventRoute.DISCARD;
+  }
+
+  /**
+   * @return the number of events of the level dropped since the start
+   */
+  public static long getDropCount(StandardLevel level) {
+    return DROPPED[level.ordinal()].sum();
+  }
+}
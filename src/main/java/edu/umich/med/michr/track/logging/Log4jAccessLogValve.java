@@ -0,0 +1,46 @@
+package edu.umich.med.michr.track.logging;
+
+import org.apache.catalina.valves.AbstractAccessLogValve;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.Marker;
+import org.apache.logging.log4j.MarkerManager;
+import org.apache.logging.log4j.core.util.StringBuilderWriter;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Hands the Tomcat access log lines to a Log4j logger instead of writing them on the request thread, so with an async
+ * logger they share the ring buffer, the drop policy and the buffered appender of the application log.
+ * <p>
+ * The lines are logged to {@value #LOGGER_NAME} with the {@link #ACCESS} marker; the layout can select the plain
+ * {@code %m%n} pattern for them. The line is copied into a per thread buffer that the logger copies in turn, so nothing
+ * is allocated per request.
+ * </p>
+ */
+public class Log4jAccessLogValve extends AbstractAccessLogValve {
+  public static final String LOGGER_NAME = "http.access";
+  public static final Marker ACCESS = MarkerManager.getMarker("ACCESS");
+
+  private static final Logger logger = LogManager.getLogger(LOGGER_NAME);
+  private static final ThreadLocal<StringBuilderWriter> buffers = ThreadLocal.withInitial(StringBuilderWriter::new);
+
+  @Override
+  protected void log(CharArrayWriter message) {
+    if (!logger.isInfoEnabled()) {
+      return;
+    }
+    final StringBuilderWriter buffer = buffers.get();
+    final StringBuilder line = buffer.getBuilder();
+    line.setLength(0);
+    try {
+      message.writeTo(buffer);
+    } catch (IOException e) {
+      // not thrown by a StringBuilderWriter
+      throw new UncheckedIOException(e);
+    }
+    logger.info(ACCESS, line);
+  }
+}
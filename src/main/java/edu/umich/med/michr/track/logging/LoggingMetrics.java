@@ -0,0 +1,29 @@
+package edu.umich.med.michr.track.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.logging.log4j.spi.StandardLevel;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Publishes the log events dropped by {@link DroppingAsyncQueueFullPolicy} as {@value #DROPPED}, by level.
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+  public static final String DROPPED = "track.logging.dropped";
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    for (StandardLevel level : StandardLevel.values()) {
+      if (level != StandardLevel.OFF && level != StandardLevel.ALL) {
+        FunctionCounter.builder(DROPPED, level, DroppingAsyncQueueFullPolicy::getDropCount)
+            .description("Log events dropped because the async logging ring buffer was full")
+            .tag("level", level.name().toLowerCase(Locale.ROOT))
+            .register(registry);
+      }
+    }
+  }
+}
@@ -0,0 +1,125 @@
+package edu.umich.med.michr.track.metrics;
+
+import edu.umich.med.michr.track.exception.ValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.inject.Inject;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Metrics of the ingest path, next to the request ({@code http.server.requests}) and connection pool
+ * ({@code hikaricp.connections.*}) metrics Spring Boot provides:
+ * <ul>
+ *   <li>{@value #EVENTS}: committed events by client and event type</li>
+ *   <li>{@value #EVENT_ATTRIBUTES}: custom attributes per saved event, by client</li>
+ *   <li>{@value #PERSISTENCE}: time to save an event including the commit, as a histogram</li>
+ *   <li>{@value #REJECTIONS}: rejected requests by status and {@link edu.umich.med.michr.track.exception.RejectionReason}</li>
+ * </ul>
+ * The meters are created once per tag combination and kept, so recording on the hot path is a map lookup and an
+ * increment. The number of client and event type tag values is capped by {@link IngestMetricsProperties}.
+ */
+@Component
+public class IngestMetrics {
+  public static final String EVENTS = "track.events";
+  public static final String EVENT_ATTRIBUTES = "track.event.attributes";
+  public static final String PERSISTENCE = "track.event.persistence";
+  public static final String REJECTIONS = "track.rejections";
+  public static final String OTHER = "other";
+
+  private final MeterRegistry registry;
+  private final IngestMetricsProperties properties;
+  private final Timer persistence;
+  private final ConcurrentMap<String, ClientMeters> clients = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Counter> rejections = new ConcurrentHashMap<>();
+
+  @Inject
+  public IngestMetrics(MeterRegistry registry, IngestMetricsProperties properties) {
+    this.registry = registry;
+    this.properties = properties;
+    this.persistence = Timer.builder(PERSISTENCE)
+        .description("Time to save a tracking event, including the commit")
+        .publishPercentileHistogram()
+        .minimumExpectedValue(Duration.ofMillis(1))
+        .maximumExpectedValue(Duration.ofSeconds(10))
+        .register(registry);
+  }
+
+  public void recordPersistence(long nanos) {
+    persistence.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordEvent(String clientId, String eventType, int customAttributeCount) {
+    final ClientMeters meters = getCapped(clients, clientId, properties.maxClients(), ClientMeters::new);
+    meters.getEventCounter(eventType).increment();
+    meters.attributes.record(customAttributeCount);
+  }
+
+  /**
+   * Records a saved event once the current transaction committed, so an event whose flush or commit failed is not
+   * counted. Without a transaction synchronization the event was already stored and is recorded now.
+   */
+  public void recordEventAfterCommit(String clientId, String eventType, int customAttributeCount) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      recordEvent(clientId, eventType, customAttributeCount);
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        recordEvent(clientId, eventType, customAttributeCount);
+      }
+    });
+  }
+
+  public void recordRejection(ValidationException exception) {
+    final String status = Integer.toString(exception.getStatus().value());
+    final String reason = exception.getReason().getTagValue();
+    rejections.computeIfAbsent(status + ' ' + reason, key -> Counter.builder(REJECTIONS)
+            .description("Rejected requests")
+            .tag("status", status)
+            .tag("reason", reason)
+            .register(registry))
+        .increment();
+  }
+
+  // past the cap every new value shares the meters of OTHER, the cap may be exceeded by a few concurrent additions
+  private static <T> T getCapped(ConcurrentMap<String, T> meters, String tagValue, int cap, Function<String, T> factory) {
+    final T existing = meters.get(tagValue);
+    if (existing != null) {
+      return existing;
+    }
+    return meters.computeIfAbsent(meters.size() < cap ? tagValue : OTHER, factory);
+  }
+
+  private final class ClientMeters {
+    private final String clientId;
+    private final DistributionSummary attributes;
+    private final ConcurrentMap<String, Counter> eventCounters = new ConcurrentHashMap<>();
+
+    private ClientMeters(String clientId) {
+      this.clientId = clientId;
+      this.attributes = DistributionSummary.builder(EVENT_ATTRIBUTES)
+          .description("Custom attributes per tracking event")
+          .tag("client", clientId)
+          .register(registry);
+    }
+
+    private Counter getEventCounter(String eventType) {
+      return getCapped(eventCounters, eventType, properties.maxEventTypesPerClient(), type -> Counter.builder(EVENTS)
+          .description("Saved tracking events")
+          .tag("client", clientId)
+          .tag("event_type", type)
+          .register(registry));
+    }
+  }
+}
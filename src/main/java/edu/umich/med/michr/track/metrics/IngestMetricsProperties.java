@@ -0,0 +1,13 @@
+package edu.umich.med.michr.track.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Caps on the number of distinct tag values of the ingest metrics. Values past a cap are counted under
+ * {@value IngestMetrics#OTHER}, so a misbehaving client can not create an unbounded number of time series.
+ *
+ * @param maxClients the maximum number of client ids tagged individually
+ * @param maxEventTypesPerClient the maximum number of event types tagged individually per client
+ */
+@ConfigurationProperties(prefix = "track.metrics")
+public record IngestMetricsProperties(int maxClients, int maxEventTypesPerClient) {}
@@ -0,0 +1,25 @@
+package edu.umich.med.michr.track.metrics;
+
+import java.util.Locale;
+
+/**
+ * The stages of a tracking request timed by {@link StageTimer}, in the order they run.
+ */
+public enum IngestStage {
+  /** Resolving the origin of the request and matching it against the client configuration. */
+  ORIGIN_VALIDATION,
+  /** Reading the headers, standard and custom parameters and the client address from the request. */
+  PARAMETER_EXTRACTION,
+  /** Building the event entity from the extracted values. */
+  EVENT_BUILD,
+  /** The repository call, Hibernate queues the insert and may fetch identifiers from the sequence. */
+  PERSIST,
+  /** Flushing the insert and committing the transaction. */
+  COMMIT;
+
+  private final String key = name().toLowerCase(Locale.ROOT);
+
+  public String getKey() {
+    return key;
+  }
+}
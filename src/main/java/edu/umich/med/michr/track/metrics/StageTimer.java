@@ -0,0 +1,173 @@
+package edu.umich.med.michr.track.metrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long every {@link IngestStage} of a tracking request takes, so a slower percentile can be attributed to a
+ * stage.
+ * <p>
+ * Every stage records into an HdrHistogram {@link Recorder}: recording is wait free and does not allocate, so it stays
+ * on in production. Every {@code track.stage-timing.interval} the values recorded since the previous collection are
+ * moved into an interval histogram; the last {@code window-intervals} of them are kept, the oldest one is reused for the
+ * next collection. The percentiles are computed over the latest interval and over the whole window, which also means
+ * the values recorded by the warm-up fall out of the window after a while.
+ * </p>
+ * <p>
+ * A stage is timed by passing the {@link System#nanoTime()} it started at to {@link #record(IngestStage, long)}, which
+ * returns the time it ended at, the start of the next stage. {@link IngestStage#COMMIT} ends after the transactional
+ * service method returned, the time its body ended is kept per thread with {@link #mark()}.
+ * </p>
+ */
+@Component
+public class StageTimer {
+  private static final IngestStage[] STAGES = IngestStage.values();
+  // durations are recorded in nanoseconds, one microsecond is the finest resolution worth keeping
+  private static final long LOWEST_DISCERNIBLE_NANOS = 1_000;
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private final StageTimingProperties properties;
+  private final long highestTrackableNanos;
+  private final Recorder[] recorders;
+  private final ThreadLocal<long[]> marks = ThreadLocal.withInitial(() -> new long[1]);
+  private final Deque<Histogram[]> window = new ArrayDeque<>();
+  private ScheduledExecutorService scheduler;
+
+  @Inject
+  public StageTimer(StageTimingProperties properties) {
+    this.properties = properties;
+    this.highestTrackableNanos = properties.highestTrackableValue().toNanos();
+    this.recorders = new Recorder[STAGES.length];
+    for (int i = 0; i < recorders.length; i++) {
+      recorders[i] = new Recorder(LOWEST_DISCERNIBLE_NANOS, highestTrackableNanos, properties.significantDigits());
+    }
+  }
+
+  @PostConstruct
+  public synchronized void startCollecting() {
+    if (properties.enabled() && scheduler == null) {
+      final long interval = properties.interval().toMillis();
+      scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("stage-timing").factory());
+      scheduler.scheduleAtFixedRate(this::collect, interval, interval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @PreDestroy
+  public synchronized void stopCollecting() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Records the time since {@code startNanos} for the stage.
+   *
+   * @return the current {@link System#nanoTime()}
+   */
+  public long record(IngestStage stage, long startNanos) {
+    final long now = System.nanoTime();
+    if (properties.enabled()) {
+      recorders[stage.ordinal()].recordValue(Math.min(Math.max(now - startNanos, 0), highestTrackableNanos));
+    }
+    return now;
+  }
+
+  /**
+   * Remembers the current time for the calling thread, the start of the stage recorded by {@link #recordSinceMark}.
+   */
+  public void mark() {
+    if (properties.enabled()) {
+      marks.get()[0] = System.nanoTime();
+    }
+  }
+
+  /**
+   * Records the time since the last {@link #mark()} of the calling thread, if there is one, and clears the mark.
+   */
+  public void recordSinceMark(IngestStage stage) {
+    if (properties.enabled()) {
+      final long[] mark = marks.get();
+      if (mark[0] != 0) {
+        record(stage, mark[0]);
+        mark[0] = 0;
+      }
+    }
+  }
+
+  /**
+   * Moves the values recorded since the previous collection into a new interval of the window.
+   */
+  synchronized void collect() {
+    final Histogram[] recycled = window.size() >= properties.windowIntervals() ? window.removeFirst() : null;
+    final Histogram[] interval = new Histogram[STAGES.length];
+    for (int i = 0; i < interval.length; i++) {
+      interval[i] = recorders[i].getIntervalHistogram(recycled == null ? null : recycled[i]);
+    }
+    window.addLast(interval);
+  }
+
+  /**
+   * @return the percentiles of every stage in the latest collected interval
+   */
+  public synchronized Map<String, StageSummary> getLatestInterval() {
+    final Histogram[] latest = window.peekLast();
+    final Map<String, StageSummary> summaries = new LinkedHashMap<>();
+    for (IngestStage stage : STAGES) {
+      summaries.put(stage.getKey(), latest == null ? StageSummary.EMPTY : StageSummary.of(latest[stage.ordinal()]));
+    }
+    return summaries;
+  }
+
+  /**
+   * @return the percentiles of every stage over all intervals in the window
+   */
+  public synchronized Map<String, StageSummary> getWindow() {
+    final Map<String, StageSummary> summaries = new LinkedHashMap<>();
+    for (IngestStage stage : STAGES) {
+      final Histogram total = new Histogram(LOWEST_DISCERNIBLE_NANOS, highestTrackableNanos, properties.significantDigits());
+      window.forEach(interval -> total.add(interval[stage.ordinal()]));
+      summaries.put(stage.getKey(), StageSummary.of(total));
+    }
+    return summaries;
+  }
+
+  /**
+   * @return the time covered by the intervals in the window
+   */
+  public synchronized Duration getWindowDuration() {
+    return properties.interval().multipliedBy(window.size());
+  }
+
+  /**
+   * Latency percentiles of a stage in milliseconds.
+   */
+  public record StageSummary(long count, double mean, double p50, double p90, double p99, double p999, double max) {
+    static final StageSummary EMPTY = new StageSummary(0, 0, 0, 0, 0, 0, 0);
+
+    static StageSummary of(Histogram histogram) {
+      if (histogram.getTotalCount() == 0) {
+        return EMPTY;
+      }
+      return new StageSummary(histogram.getTotalCount(),
+          histogram.getMean() / NANOS_PER_MILLI,
+          histogram.getValueAtPercentile(50) / NANOS_PER_MILLI,
+          histogram.getValueAtPercentile(90) / NANOS_PER_MILLI,
+          histogram.getValueAtPercentile(99) / NANOS_PER_MILLI,
+          histogram.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+          histogram.getMaxValue() / NANOS_PER_MILLI);
+    }
+  }
+}
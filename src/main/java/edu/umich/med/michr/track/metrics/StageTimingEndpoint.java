@@ -0,0 +1,32 @@
+package edu.umich.med.michr.track.metrics;
+
+import jakarta.inject.Inject;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * {@code /actuator/stages}: the latency percentiles of every {@link IngestStage} in milliseconds, for the latest interval
+ * and for the whole window collected by {@link StageTimer}.
+ */
+@Component
+@Endpoint(id = "stages")
+public class StageTimingEndpoint {
+  private final StageTimer stageTimer;
+
+  @Inject
+  public StageTimingEndpoint(StageTimer stageTimer) {
+    this.stageTimer = stageTimer;
+  }
+
+  @ReadOperation
+  public StageTimings stages() {
+    return new StageTimings(stageTimer.getWindowDuration(), stageTimer.getLatestInterval(), stageTimer.getWindow());
+  }
+
+  public record StageTimings(Duration window, Map<String, StageTimer.StageSummary> latestInterval,
+                             Map<String, StageTimer.StageSummary> windowPercentiles) {}
+}
@@ -0,0 +1,18 @@
+package edu.umich.med.michr.track.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the per stage latency histograms of {@link StageTimer}.
+ *
+ * @param enabled whether the stages are timed
+ * @param interval how often the recorded values are collected into an interval histogram
+ * @param windowIntervals the number of collected intervals the percentiles are computed over
+ * @param highestTrackableValue the longest duration that can be recorded, longer ones are recorded as this value
+ * @param significantDigits the number of significant decimal digits kept for every value, 1 to 5
+ */
+@ConfigurationProperties(prefix = "track.stage-timing")
+public record StageTimingProperties(boolean enabled, Duration interval, int windowIntervals,
+                                    Duration highestTrackableValue, int significantDigits) {}
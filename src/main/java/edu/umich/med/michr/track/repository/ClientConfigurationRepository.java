@@ -1,8 +1,53 @@
 package edu.umich.med.michr.track.repository;
 
 import edu.umich.med.michr.track.domain.ClientConfiguration;
+import edu.umich.med.michr.track.service.AuthorizedOriginCount;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface ClientConfigurationRepository extends JpaRepository<ClientConfiguration, String> {}
+public interface ClientConfigurationRepository extends JpaRepository<ClientConfiguration, String> {
+  // rows fetched per round trip by the bulk queries, the driver defaults (10 for Oracle) are far too small for them
+  String BULK_FETCH_SIZE = "1000";
+
+  /**
+   * @return the ids of all clients, without loading the clients
+   */
+  @Query("select c.id from ClientConfiguration c")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BULK_FETCH_SIZE))
+  List<String> findAllIds();
+
+  /**
+   * @return every origin authorized for at least one client, each once with the number of clients it is authorized for
+   */
+  @Query("select new edu.umich.med.michr.track.service.AuthorizedOriginCount(o, count(c))"
+      + " from ClientConfiguration c join c.authorizedOrigins o group by o")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BULK_FETCH_SIZE))
+  List<AuthorizedOriginCount> countClientsByAuthorizedOrigin();
+
+  /**
+   * Loads the given clients together with their origins in a single query.
+   */
+  @Query("select distinct c from ClientConfiguration c left join fetch c.authorizedOrigins where c.id in :ids")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = BULK_FETCH_SIZE))
+  List<ClientConfiguration> findAllWithOriginsByIdIn(@Param("ids") Collection<String> ids);
+
+  /**
+   * Loads a client with its origins and locks it until the transaction ends, so concurrent changes of the same client
+   * are made one after the other and each sees the origins the previous one saved.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select c from ClientConfiguration c left join fetch c.authorizedOrigins where c.id = :id")
+  Optional<ClientConfiguration> findForUpdateById(@Param("id") String id);
+}
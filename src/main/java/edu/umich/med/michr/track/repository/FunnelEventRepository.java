@@ -0,0 +1,34 @@
+package edu.umich.med.michr.track.repository;
+
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import edu.umich.med.michr.track.funnel.FunnelEvent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Reads the analytics events funnels are evaluated on.
+ */
+@Repository
+public interface FunnelEventRepository extends org.springframework.data.repository.Repository<AnalyticsEvent, Long> {
+
+  /**
+   * Streams the events of the client in {@code [from, to)} for the users whose id hashes to the partition, ordered by
+   * user and time, so every user's events come in one run. {@code ORA_HASH(USER_ID, maxPartition)} spreads the users
+   * over {@code maxPartition + 1} partitions and is supported by Oracle and by H2 in Oracle mode. Must be called in a
+   * transaction and the stream closed.
+   */
+  @Query("select new edu.umich.med.michr.track.funnel.FunnelEvent(e.userId, e.eventType, e.page, e.eventTimestamp)"
+      + " from AnalyticsEvent e where e.clientId = :clientId and e.eventTimestamp >= :from and e.eventTimestamp < :to"
+      + " and function('ORA_HASH', e.userId, :maxPartition) = :partition order by e.userId, e.eventTimestamp")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ClientConfigurationRepository.BULK_FETCH_SIZE))
+  Stream<FunnelEvent> streamByUserHash(@Param("clientId") String clientId, @Param("from") Instant from,
+                                       @Param("to") Instant to, @Param("maxPartition") int maxPartition,
+                                       @Param("partition") int partition);
+}
@@ -0,0 +1,18 @@
+package edu.umich.med.michr.track.repository;
+
+import edu.umich.med.michr.track.domain.Funnel;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FunnelRepository extends JpaRepository<Funnel, Long> {
+
+  List<Funnel> findByClientIdOrderByName(String clientId);
+
+  Optional<Funnel> findByIdAndClientId(Long id, String clientId);
+
+  boolean existsByClientIdAndName(String clientId, String name);
+}
@@ -0,0 +1,27 @@
+package edu.umich.med.michr.track.repository;
+
+import edu.umich.med.michr.track.domain.UserSession;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UserSessionRepository extends JpaRepository<UserSession, Long> {
+
+  /**
+   * @return the sessions of the client that started in {@code [from, to)}, oldest first, read from the
+   * {@code (CLIENT_ID, START_TIME)} index
+   */
+  @Query("select s from UserSession s where s.clientId = :clientId and s.startTime >= :from and s.startTime < :to"
+      + " order by s.startTime")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = ClientConfigurationRepository.BULK_FETCH_SIZE))
+  List<UserSession> findByClientIdAndStartTimeBetween(@Param("clientId") String clientId, @Param("from") Instant from,
+                                                     @Param("to") Instant to);
+}
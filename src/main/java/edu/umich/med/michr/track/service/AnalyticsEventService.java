@@ -1,7 +1,13 @@
 package edu.umich.med.michr.track.service;
 
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
 import jakarta.servlet.http.HttpServletRequest;
 
 public interface AnalyticsEventService {
+  /**
+   * Builds the event described by the request without saving it.
+   */
+  AnalyticsEvent createAnalyticsEvent(HttpServletRequest request);
+
   void processAndSaveEvent(HttpServletRequest request);
 }
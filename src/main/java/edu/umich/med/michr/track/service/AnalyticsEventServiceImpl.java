@@ -2,8 +2,14 @@ package edu.umich.med.michr.track.service;
 
 import edu.umich.med.michr.track.domain.AnalyticsEvent;
 import edu.umich.med.michr.track.domain.StandardParameter;
+import edu.umich.med.michr.track.exception.RejectionReason;
 import edu.umich.med.michr.track.exception.ValidationException;
-import edu.umich.med.michr.track.repository.AnalyticsEventRepository;
+import edu.umich.med.michr.track.jfr.EventConstructionEvent;
+import edu.umich.med.michr.track.jfr.PersistenceEvent;
+import edu.umich.med.michr.track.metrics.IngestMetrics;
+import edu.umich.med.michr.track.metrics.IngestStage;
+import edu.umich.med.michr.track.metrics.StageTimer;
+import edu.umich.med.michr.track.sink.EventSinks;
 import edu.umich.med.michr.track.util.RequestUtil;
 import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,18 +24,27 @@ import java.util.Map;
 @Service
 public class AnalyticsEventServiceImpl implements AnalyticsEventService {
 
-  private final AnalyticsEventRepository repository;
+  private final EventSinks eventSinks;
   private final RequestUtil requestUtil;
   private final Clock clock;
+  private final IngestMetrics ingestMetrics;
+  private final StageTimer stageTimer;
 
   @Inject
-  public AnalyticsEventServiceImpl(AnalyticsEventRepository repository, RequestUtil requestUtil, Clock clock) {
-    this.repository = repository;
+  public AnalyticsEventServiceImpl(EventSinks eventSinks, RequestUtil requestUtil, Clock clock,
+                                   IngestMetrics ingestMetrics, StageTimer stageTimer) {
+    this.eventSinks = eventSinks;
     this.requestUtil = requestUtil;
     this.clock = clock;
+    this.ingestMetrics = ingestMetrics;
+    this.stageTimer = stageTimer;
   }
 
+  @Override
   public AnalyticsEvent createAnalyticsEvent(HttpServletRequest request) {
+    final long start = System.nanoTime();
+    final EventConstructionEvent constructionEvent = new EventConstructionEvent();
+    constructionEvent.begin();
     final String userAgent = request.getHeader("User-Agent");
     final String browserLanguage = request.getHeader("Accept-Language");
 
@@ -41,24 +56,62 @@ public class AnalyticsEventServiceImpl implements AnalyticsEventService {
     final Map<String, String> customAttributes = requestUtil.extractCustomAttributes(request);
 
     final String ipAddress = requestUtil.extractIpAddress(request);
+    final long extracted = stageTimer.record(IngestStage.PARAMETER_EXTRACTION, start);
 
-    return AnalyticsEvent.builder(clientId, userId, eventType, page, Instant.now(clock))
+    final AnalyticsEvent event = AnalyticsEvent.builder(clientId, userId, eventType, page, Instant.now(clock))
         .ipAddress(ipAddress)
         .userAgent(userAgent)
         .browserLanguage(browserLanguage)
         .customAttributes(customAttributes)
         .build();
+    stageTimer.record(IngestStage.EVENT_BUILD, extracted);
+    if (constructionEvent.shouldCommit()) {
+      constructionEvent.setClientId(clientId);
+      constructionEvent.setEventType(eventType);
+      constructionEvent.setAttributeCount(customAttributes.size());
+      constructionEvent.setPayloadSize(getPayloadSize(event));
+      constructionEvent.commit();
+    }
+    return event;
   }
 
+  @Override
   @Transactional
   public void processAndSaveEvent(HttpServletRequest request) {
-    repository.save(createAnalyticsEvent(request));
+    final AnalyticsEvent event = createAnalyticsEvent(request);
+    final long start = System.nanoTime();
+    final PersistenceEvent persistenceEvent = new PersistenceEvent();
+    persistenceEvent.begin();
+    eventSinks.write(event);
+    persistenceEvent.setClientId(event.getClientId());
+    persistenceEvent.setBatchSize(1);
+    persistenceEvent.commitAfterTransaction();
+    stageTimer.record(IngestStage.PERSIST, start);
+    // the commit starts when this method returns, the caller records it
+    stageTimer.mark();
+    ingestMetrics.recordEventAfterCommit(event.getClientId(), event.getEventType(), event.getCustomAttributes().size());
+  }
+
+  // characters of the stored values, only computed while a recording includes the event
+  private static long getPayloadSize(AnalyticsEvent event) {
+    long size = length(event.getClientId()) + length(event.getUserId()) + length(event.getEventType())
+        + length(event.getPage()) + length(event.getIpAddress()) + length(event.getUserAgent())
+        + length(event.getBrowserLanguage());
+    for (Map.Entry<String, String> attribute : event.getCustomAttributes().entrySet()) {
+      size += length(attribute.getKey()) + length(attribute.getValue());
+    }
+    return size;
+  }
+
+  private static int length(String value) {
+    return value == null ? 0 : value.length();
   }
 
   private String getAndValidateParameter(StandardParameter param, HttpServletRequest request) {
     String value = requestUtil.getParameterValue(param, request);
     if (value == null || value.isEmpty()) {
-      throw new ValidationException("Required param " + param.name() + " is missing", HttpStatus.BAD_REQUEST);
+      throw new ValidationException("Required param " + param.name() + " is missing", HttpStatus.BAD_REQUEST,
+          RejectionReason.MISSING_PARAMETER);
     }
     return value;
   }
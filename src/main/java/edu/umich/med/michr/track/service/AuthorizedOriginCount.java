@@ -0,0 +1,6 @@
+package edu.umich.med.michr.track.service;
+
+/**
+ * An authorized origin and the number of clients it is authorized for.
+ */
+public record AuthorizedOriginCount(String origin, long clientCount) {}
@@ -0,0 +1,30 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.domain.ClientConfiguration;
+
+import java.util.List;
+
+/**
+ * Maintains client configurations. Every change is published as a {@link ClientConfigurationChangedEvent} so the
+ * in-memory client configuration cache picks it up once it is committed.
+ */
+public interface ClientConfigurationAdminService {
+
+  /**
+   * @throws edu.umich.med.michr.track.exception.ValidationException if a client with the id already exists or the
+   * values are invalid
+   */
+  ClientConfiguration createClient(String id, String name, List<String> authorizedOrigins);
+
+  /**
+   * Replaces the name and the authorized origins of a client.
+   *
+   * @throws edu.umich.med.michr.track.exception.ValidationException if the client does not exist or the values are
+   * invalid
+   */
+  ClientConfiguration updateClient(String id, String name, List<String> authorizedOrigins);
+
+  ClientConfiguration addAuthorizedOrigin(String id, String origin);
+
+  ClientConfiguration removeAuthorizedOrigin(String id, String origin);
+}
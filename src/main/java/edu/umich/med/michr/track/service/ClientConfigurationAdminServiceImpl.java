@@ -0,0 +1,132 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.domain.ClientConfiguration;
+import edu.umich.med.michr.track.exception.ValidationException;
+import edu.umich.med.michr.track.repository.ClientConfigurationRepository;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@Lazy
+@ConditionalOnProperty(prefix = "track.client-config", name = "source", havingValue = "database", matchIfMissing = true)
+public class ClientConfigurationAdminServiceImpl implements ClientConfigurationAdminService {
+
+  private final ClientConfigurationRepository repository;
+  private final EntityManager entityManager;
+  private final ApplicationEventPublisher eventPublisher;
+
+  @Inject
+  public ClientConfigurationAdminServiceImpl(ClientConfigurationRepository repository, EntityManager entityManager,
+                                             ApplicationEventPublisher eventPublisher) {
+    this.repository = repository;
+    this.entityManager = entityManager;
+    this.eventPublisher = eventPublisher;
+  }
+
+  /**
+   * Inserts the client, {@code save} would merge a client with an assigned id and overwrite one created concurrently.
+   * The insert is flushed right away so only the request that actually created the client gets to publish the change,
+   * the others fail on the primary key.
+   */
+  @Override
+  @Transactional
+  public ClientConfiguration createClient(String id, String name, List<String> authorizedOrigins) {
+    if (id == null || id.isBlank()) {
+      throw new ValidationException("Client id is required", HttpStatus.BAD_REQUEST);
+    }
+    final ClientConfiguration configuration = new ClientConfiguration(id, name, normalizeOrigins(authorizedOrigins));
+    entityManager.persist(configuration);
+    try {
+      // flushed through the repository, which translates the primary key violation
+      repository.flush();
+    } catch (DataIntegrityViolationException e) {
+      throw new ValidationException("Client already exists: " + id, HttpStatus.CONFLICT);
+    }
+    publishChange(configuration, List.of());
+    return configuration;
+  }
+
+  @Override
+  @Transactional
+  public ClientConfiguration updateClient(String id, String name, List<String> authorizedOrigins) {
+    final ClientConfiguration configuration = findClient(id);
+    final List<String> previousOrigins = List.copyOf(configuration.getAuthorizedOrigins());
+    configuration.setName(name);
+    configuration.setAuthorizedOrigins(normalizeOrigins(authorizedOrigins));
+    return save(configuration, previousOrigins);
+  }
+
+  @Override
+  @Transactional
+  public ClientConfiguration addAuthorizedOrigin(String id, String origin) {
+    final ClientConfiguration configuration = findClient(id);
+    final List<String> previousOrigins = List.copyOf(configuration.getAuthorizedOrigins());
+    final List<String> origins = new ArrayList<>(previousOrigins);
+    origins.add(origin);
+    configuration.setAuthorizedOrigins(normalizeOrigins(origins));
+    return save(configuration, previousOrigins);
+  }
+
+  @Override
+  @Transactional
+  public ClientConfiguration removeAuthorizedOrigin(String id, String origin) {
+    final ClientConfiguration configuration = findClient(id);
+    final List<String> previousOrigins = List.copyOf(configuration.getAuthorizedOrigins());
+    final List<String> origins = new ArrayList<>(previousOrigins);
+    if (!origins.remove(normalizeOrigin(origin))) {
+      throw new ValidationException("Origin is not authorized for client " + id + ": " + origin, HttpStatus.NOT_FOUND);
+    }
+    configuration.setAuthorizedOrigins(origins);
+    return save(configuration, previousOrigins);
+  }
+
+  private ClientConfiguration findClient(String id) {
+    return repository.findForUpdateById(id)
+        .orElseThrow(() -> new ValidationException("Client not found: " + id, HttpStatus.NOT_FOUND));
+  }
+
+  private ClientConfiguration save(ClientConfiguration configuration, List<String> previousOrigins) {
+    final ClientConfiguration saved = repository.save(configuration);
+    publishChange(saved, previousOrigins);
+    return saved;
+  }
+
+  private void publishChange(ClientConfiguration configuration, List<String> previousOrigins) {
+    // publish a detached copy, the cache keeps it after the persistence context is gone
+    eventPublisher.publishEvent(new ClientConfigurationChangedEvent(
+        new ClientConfiguration(configuration.getId(), configuration.getName(),
+            List.copyOf(configuration.getAuthorizedOrigins())),
+        previousOrigins));
+  }
+
+  private static List<String> normalizeOrigins(List<String> origins) {
+    if (origins == null) {
+      return new ArrayList<>();
+    }
+    final Set<String> normalized = new LinkedHashSet<>();
+    for (String origin : origins) {
+      normalized.add(normalizeOrigin(origin));
+    }
+    return new ArrayList<>(normalized);
+  }
+
+  private static String normalizeOrigin(String origin) {
+    if (origin == null || origin.isBlank()) {
+      throw new ValidationException("Authorized origin can not be blank", HttpStatus.BAD_REQUEST);
+    }
+    final String trimmed = origin.trim();
+    return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+  }
+}
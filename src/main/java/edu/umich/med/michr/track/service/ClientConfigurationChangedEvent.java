@@ -0,0 +1,14 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.domain.ClientConfiguration;
+
+import java.util.List;
+
+/**
+ * Published when a client configuration is created or updated.
+ *
+ * @param configuration a detached copy of the configuration as it was saved
+ * @param previousAuthorizedOrigins the origins of the client before the change, empty for a new client
+ */
+public record ClientConfigurationChangedEvent(ClientConfiguration configuration,
+                                              List<String> previousAuthorizedOrigins) {}
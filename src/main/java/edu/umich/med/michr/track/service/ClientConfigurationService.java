@@ -1,10 +1,22 @@
 package edu.umich.med.michr.track.service;
 
 import edu.umich.med.michr.track.domain.ClientConfiguration;
+import edu.umich.med.michr.track.util.OriginMatcher;
 
 import java.util.Set;
 
 public interface ClientConfigurationService {
   ClientConfiguration getClientConfiguration(String id);
+
+  /**
+   * @return the compiled matcher for the authorized origins of the client, or {@code null} if the client is unknown
+   */
+  OriginMatcher getOriginMatcher(String clientId);
+
   Set<String> getAllAuthorizedOrigins();
+
+  /**
+   * @return the compiled matcher for the union of the authorized origins of all clients
+   */
+  OriginMatcher getAllAuthorizedOriginsMatcher();
 }
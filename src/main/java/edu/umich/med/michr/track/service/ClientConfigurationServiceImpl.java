@@ -1,50 +1,219 @@
 package edu.umich.med.michr.track.service;
 
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import edu.umich.med.michr.track.config.ClientCacheProperties;
+import edu.umich.med.michr.track.datasource.ConnectionPool;
+import edu.umich.med.michr.track.datasource.PoolRole;
 import edu.umich.med.michr.track.domain.ClientConfiguration;
 import edu.umich.med.michr.track.repository.ClientConfigurationRepository;
+import edu.umich.med.michr.track.util.OriginMatcher;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.List;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Serves client configurations from a bounded in-memory cache that is filled on first use.
+ * <p>
+ * Only the ids of all clients and the union of their origins are loaded up front, into a
+ * {@link ClientConfigurationSnapshot}; a configuration itself is loaded the first time its client id is looked up.
+ * Concurrent lookups of the same missing client share a single load, the least used configurations are evicted once
+ * the cache is full and cached configurations are reloaded in the background after a while, so memory and load cost
+ * follow the clients that are actually sending events rather than all the registered ones.
+ * </p>
+ * <p>
+ * Unknown client ids are rejected without touching the repository: first by the {@link UnknownClientIdCache} of ids
+ * that recently failed, then by the membership filter of the snapshot. An empty snapshot (e.g. when the database is
+ * populated after the context starts in development) is reloaded at most once per unknown id time to live, and the
+ * snapshot is always rebuilt once the application is ready.
+ * </p>
+ * <p>
+ * Changes made through {@link ClientConfigurationAdminService} are applied once their transaction commits by replacing
+ * only the affected client, and by counting its removed and added origins in the union, so they take effect without
+ * reading the other clients.
+ * </p>
+ * <p>
+ * Lookups run on behalf of tracking requests, so the clients are loaded with connections of the ingest pool even though
+ * the repository queries run in read-only transactions: a read pool exhausted by reports must not stall the ingest path.
+ * </p>
+ */
 @Service
+@ConnectionPool(PoolRole.INGEST)
+@ConditionalOnProperty(prefix = "track.client-config", name = "source", havingValue = "database", matchIfMissing = true)
 public class ClientConfigurationServiceImpl implements ClientConfigurationService {
+  private static final Logger logger = LoggerFactory.getLogger(ClientConfigurationServiceImpl.class);
+
+  public static final String CACHED = "track.clients.cached";
 
   private final ClientConfigurationRepository repository;
-  private Map<String, ClientConfiguration> clientConfigCache;
+  private final ClientCacheProperties properties;
+  private final Clock clock;
+  private final UnknownClientIdCache unknownClientIds;
+  private final LoadingCache<String, ClientEntry> clients;
+
+  private volatile ClientConfigurationSnapshot snapshot;
+  private volatile long snapshotLoadedAt;
 
   @Inject
-  public ClientConfigurationServiceImpl(ClientConfigurationRepository repository) {
+  public ClientConfigurationServiceImpl(ClientConfigurationRepository repository, ClientCacheProperties properties, Clock clock,
+                                       MeterRegistry registry) {
     this.repository = repository;
+    this.properties = properties;
+    this.clock = clock;
+    this.unknownClientIds = new UnknownClientIdCache(properties.unknownIdTtl(), properties.unknownIdMaxSize(), clock);
+    this.clients = Caffeine.newBuilder()
+        .maximumSize(properties.maxSize())
+        .refreshAfterWrite(properties.refreshAfterWrite())
+        .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+        .build(new ClientLoader());
+    Gauge.builder(CACHED, this, ClientConfigurationServiceImpl::getCachedClientCount)
+        .description("Client configurations held in memory")
+        .register(registry);
   }
 
   @Override
   public ClientConfiguration getClientConfiguration(String id) {
-    initCacheIfNeeded();
-    return clientConfigCache.get(id);
+    final ClientEntry entry = getEntryIfKnown(id);
+    return entry == null ? null : entry.configuration();
+  }
+
+  @Override
+  public OriginMatcher getOriginMatcher(String clientId) {
+    final ClientEntry entry = getEntryIfKnown(clientId);
+    return entry == null ? null : entry.originMatcher();
   }
 
   @Override
   public Set<String> getAllAuthorizedOrigins() {
-    initCacheIfNeeded();
+    return getSnapshot().getAllAuthorizedOrigins();
+  }
+
+  @Override
+  public OriginMatcher getAllAuthorizedOriginsMatcher() {
+    return getSnapshot().getAllAuthorizedOriginsMatcher();
+  }
 
-    return clientConfigCache.values().stream()
-        .flatMap(config -> config.getAuthorizedOrigins().stream())
-        .collect(Collectors.toSet());
+  /**
+   * Rebuilds the snapshot from the repository, forgets all the client ids previously found to be unknown and reloads
+   * the cached clients with a single bulk query.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void refresh() {
+    loadSnapshot();
+    unknownClientIds.clear();
+
+    final Set<String> cachedIds = Set.copyOf(clients.asMap().keySet());
+    if (!cachedIds.isEmpty()) {
+      final Map<String, ClientEntry> reloaded = loadClients(cachedIds);
+      clients.putAll(reloaded);
+      final Set<String> removed = new HashSet<>(cachedIds);
+      removed.removeAll(reloaded.keySet());
+      clients.invalidateAll(removed);
+    }
   }
 
-  private void initCacheIfNeeded() {
-    if (clientConfigCache == null || clientConfigCache.isEmpty()) {
-      List<ClientConfiguration> allConfigs = repository.findAll();
-      clientConfigCache = new ConcurrentHashMap<>();
+  /**
+   * Replaces the changed client in the cache and in the snapshot. Runs after the change is committed so lookups never
+   * see a change that is rolled back.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onClientConfigurationChanged(ClientConfigurationChangedEvent event) {
+    final ClientConfiguration configuration = event.configuration();
+    clients.put(configuration.getId(), ClientEntry.of(configuration));
+    final ClientConfigurationSnapshot current = snapshot;
+    // without a snapshot the first lookup loads the committed state from the repository
+    if (current != null) {
+      snapshot = current.with(configuration.getId(), event.previousAuthorizedOrigins(),
+          configuration.getAuthorizedOrigins());
+    }
+    unknownClientIds.forget(configuration.getId());
+    logger.debug("Client configuration updated: {}", configuration.getId());
+  }
 
-      for (ClientConfiguration config : allConfigs) {
-        clientConfigCache.put(config.getId(), config);
+  private long getCachedClientCount() {
+    clients.cleanUp();
+    return clients.estimatedSize();
+  }
+
+  /**
+   * @return the cached entry of the client, loading it if needed, or {@code null} after recording the rejection
+   */
+  private ClientEntry getEntryIfKnown(String clientId) {
+    if (clientId == null || unknownClientIds.rejectIfKnownUnknown(clientId)) {
+      return null;
+    }
+
+    final ClientEntry entry = getSnapshot().mightContain(clientId) ? clients.get(clientId) : null;
+    if (entry == null) {
+      logger.debug("Unknown client id, rejecting until it expires from the unknown client id cache: {}", clientId);
+      unknownClientIds.reject(clientId);
+    }
+    return entry;
+  }
+
+  private ClientConfigurationSnapshot getSnapshot() {
+    ClientConfigurationSnapshot current = snapshot;
+    if (current == null || (current.isEmpty() && isEmptySnapshotExpired())) {
+      synchronized (this) {
+        current = snapshot;
+        if (current == null || (current.isEmpty() && isEmptySnapshotExpired())) {
+          current = loadSnapshot();
+        }
       }
     }
+    return current;
+  }
+
+  private boolean isEmptySnapshotExpired() {
+    return clock.millis() - snapshotLoadedAt >= properties.unknownIdTtl().toMillis();
+  }
+
+  private ClientConfigurationSnapshot loadSnapshot() {
+    final ClientConfigurationSnapshot loaded = ClientConfigurationSnapshot.of(
+        repository.findAllIds(), repository.countClientsByAuthorizedOrigin(), properties.filterFalsePositiveRate());
+    snapshotLoadedAt = clock.millis();
+    snapshot = loaded;
+    return loaded;
+  }
+
+  private Map<String, ClientEntry> loadClients(Set<? extends String> clientIds) {
+    final Map<String, ClientEntry> loaded = new HashMap<>();
+    for (ClientConfiguration configuration : repository.findAllWithOriginsByIdIn(Set.copyOf(clientIds))) {
+      loaded.put(configuration.getId(), ClientEntry.of(configuration));
+    }
+    return loaded;
+  }
+
+  private class ClientLoader implements CacheLoader<String, ClientEntry> {
+    @Override
+    public ClientEntry load(String clientId) {
+      return loadClients(Set.of(clientId)).get(clientId);
+    }
+
+    @Override
+    public Map<String, ClientEntry> loadAll(Set<? extends String> clientIds) {
+      return loadClients(clientIds);
+    }
+  }
+
+  private record ClientEntry(ClientConfiguration configuration, OriginMatcher originMatcher) {
+    static ClientEntry of(ClientConfiguration configuration) {
+      return new ClientEntry(configuration, OriginMatcher.of(configuration.getAuthorizedOrigins()));
+    }
   }
 }
@@ -0,0 +1,113 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.util.OriginMatcher;
+import edu.umich.med.michr.track.util.StringBloomFilter;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, point in time view of the registered client ids and of the union of all authorized origins.
+ * <p>
+ * Only the ids and the distinct origins are kept, not the client configurations themselves, so its size grows by a few
+ * bits per registered client: a membership filter for cheap rejection of unknown client ids, and the union of all
+ * authorized origins together with its compiled {@link OriginMatcher}. The configurations of the clients that are
+ * actually in use are cached separately.
+ * </p>
+ * <p>
+ * Every origin of the union is kept with the number of clients it is authorized for, so a change of a single client is
+ * applied from its previous and new origins: an origin leaves the union only when no client is left that authorizes it.
+ * </p>
+ */
+final class ClientConfigurationSnapshot {
+  private final StringBloomFilter clientIdFilter;
+  private final boolean empty;
+  private final Map<String, Long> clientCountsByOrigin;
+  private final Set<String> allAuthorizedOrigins;
+  private final OriginMatcher allAuthorizedOriginsMatcher;
+
+  private ClientConfigurationSnapshot(StringBloomFilter clientIdFilter,
+                                      boolean empty,
+                                      Map<String, Long> clientCountsByOrigin,
+                                      OriginMatcher allAuthorizedOriginsMatcher) {
+    this.clientIdFilter = clientIdFilter;
+    this.empty = empty;
+    this.clientCountsByOrigin = clientCountsByOrigin;
+    this.allAuthorizedOrigins = Collections.unmodifiableSet(clientCountsByOrigin.keySet());
+    this.allAuthorizedOriginsMatcher = allAuthorizedOriginsMatcher;
+  }
+
+  static ClientConfigurationSnapshot of(Collection<String> clientIds, Collection<AuthorizedOriginCount> originCounts,
+                                        double falsePositiveRate) {
+    final Map<String, Long> counts = new HashMap<>();
+    for (AuthorizedOriginCount originCount : originCounts) {
+      counts.merge(originCount.origin(), originCount.clientCount(), Long::sum);
+    }
+    return new ClientConfigurationSnapshot(
+        StringBloomFilter.of(clientIds, falsePositiveRate),
+        clientIds.isEmpty(),
+        counts,
+        OriginMatcher.of(counts.keySet()));
+  }
+
+  /**
+   * Creates a copy of this snapshot that includes a client id whose authorized origins changed.
+   * <p>
+   * The membership filter is copied only for a client id it does not already report, the origin counts only when the
+   * origins of the client changed, and the matcher of all authorized origins is only recompiled when the union of
+   * origins changed.
+   * </p>
+   *
+   * @param previousOrigins the origins of the client before the change, empty for a new client
+   * @param origins the origins of the client after the change
+   */
+  ClientConfigurationSnapshot with(String clientId, Collection<String> previousOrigins, Collection<String> origins) {
+    final StringBloomFilter filter = clientIdFilter.mightContain(clientId) ? clientIdFilter : clientIdFilter.with(clientId);
+    final Set<String> removed = new HashSet<>(previousOrigins);
+    removed.removeAll(origins);
+    final Set<String> added = new HashSet<>(origins);
+    added.removeAll(previousOrigins);
+    if (removed.isEmpty() && added.isEmpty()) {
+      return new ClientConfigurationSnapshot(filter, false, clientCountsByOrigin, allAuthorizedOriginsMatcher);
+    }
+
+    final Map<String, Long> counts = new HashMap<>(clientCountsByOrigin);
+    boolean unionChanged = false;
+    for (String origin : removed) {
+      final Long count = counts.get(origin);
+      if (count != null && count > 1) {
+        counts.put(origin, count - 1);
+      } else if (count != null) {
+        counts.remove(origin);
+        unionChanged = true;
+      }
+    }
+    for (String origin : added) {
+      unionChanged |= counts.merge(origin, 1L, Long::sum) == 1;
+    }
+    return new ClientConfigurationSnapshot(filter, false, counts,
+        unionChanged ? OriginMatcher.of(counts.keySet()) : allAuthorizedOriginsMatcher);
+  }
+  /**
+   * @return {@code false} only if the client id is certainly not part of this snapshot
+   */
+  boolean mightContain(String clientId) {
+    return clientIdFilter.mightContain(clientId);
+  }
+
+  Set<String> getAllAuthorizedOrigins() {
+    return allAuthorizedOrigins;
+  }
+
+  OriginMatcher getAllAuthorizedOriginsMatcher() {
+    return allAuthorizedOriginsMatcher;
+  }
+
+  boolean isEmpty() {
+    return empty;
+  }
+}
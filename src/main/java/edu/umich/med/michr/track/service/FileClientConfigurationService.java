@@ -0,0 +1,204 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.config.ClientConfigurationSourceProperties;
+import edu.umich.med.michr.track.config.ConfigurationException;
+import edu.umich.med.michr.track.config.source.ConfigurationSource;
+import edu.umich.med.michr.track.config.source.FileConfigurationSource;
+import edu.umich.med.michr.track.domain.ClientConfiguration;
+import edu.umich.med.michr.track.util.FileChangeWatcher;
+import edu.umich.med.michr.track.util.OriginMatcher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Serves client configurations from a local properties file instead of the database, so validating the origin of a
+ * tracking request needs no database access at all.
+ * <p>
+ * The file is read through a {@link FileConfigurationSource} and lists every client as
+ * <pre>
+ * client.&lt;client id&gt;.name=My Site
+ * client.&lt;client id&gt;.origins=https://mysite.org,https://*.mysite.org
+ * </pre>
+ * It is parsed once into immutable lookup structures. A {@link FileChangeWatcher} reloads it when it changes and the new
+ * structures replace the old ones in a single reference swap, so lookups never see a partially loaded file. A file
+ * that can not be read keeps the previous configuration in place. Reloads and published changes are applied one at a
+ * time, so neither overwrites the other.
+ * </p>
+ * <p>
+ * Enabled with {@code track.client-config.source=file}.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(prefix = "track.client-config", name = "source", havingValue = "file")
+public class FileClientConfigurationService implements ClientConfigurationService {
+  private static final Logger logger = LoggerFactory.getLogger(FileClientConfigurationService.class);
+
+  static final String KEY_PREFIX = "client.";
+  static final String NAME_SUFFIX = ".name";
+  static final String ORIGINS_SUFFIX = ".origins";
+  // editors often truncate and then write a file, wait for the writes to settle before reading it
+  private static final Duration SETTLE_TIME = Duration.ofMillis(200);
+
+  private final ConfigurationSource source;
+  private final Path file;
+  private volatile Lookup lookup;
+  private FileChangeWatcher watcher;
+
+  @Inject
+  public FileClientConfigurationService(ClientConfigurationSourceProperties properties) throws ConfigurationException {
+    this(new FileConfigurationSource(properties.file()), Path.of(properties.file()));
+  }
+
+  FileClientConfigurationService(ConfigurationSource source, Path file) throws ConfigurationException {
+    if (!source.isAvailable()) {
+      throw new ConfigurationException("Client configuration file can not be read: " + source.getSourceName());
+    }
+    this.source = source;
+    this.file = file.toAbsolutePath();
+    this.lookup = Lookup.of(parse(source.loadProperties().properties()));
+    logger.info("Loaded {} client configurations from {}", lookup.configurationsById().size(), source.getSourceName());
+  }
+
+  @Override
+  public ClientConfiguration getClientConfiguration(String id) {
+    return id == null ? null : lookup.configurationsById().get(id);
+  }
+
+  @Override
+  public OriginMatcher getOriginMatcher(String clientId) {
+    return clientId == null ? null : lookup.originMatchersById().get(clientId);
+  }
+
+  @Override
+  public Set<String> getAllAuthorizedOrigins() {
+    return lookup.allAuthorizedOrigins();
+  }
+
+  @Override
+  public OriginMatcher getAllAuthorizedOriginsMatcher() {
+    return lookup.allAuthorizedOriginsMatcher();
+  }
+
+  /**
+   * Re-reads the file and swaps in the new configuration. The current configuration stays in place if the file can not
+   * be read.
+   *
+   * @return true if the file was loaded
+   */
+  public synchronized boolean reload() {
+    try {
+      if (!source.isAvailable()) {
+        logger.warn("Client configuration file can not be read, keeping the current configuration: {}", source.getSourceName());
+        return false;
+      }
+      lookup = Lookup.of(parse(source.loadProperties().properties()));
+      logger.info("Reloaded {} client configurations from {}", lookup.configurationsById().size(), source.getSourceName());
+      return true;
+    } catch (ConfigurationException e) {
+      logger.error("Failed to reload client configurations, keeping the current configuration", e);
+      return false;
+    }
+  }
+
+  /**
+   * Adds or replaces a client until the file is loaded again. With the file as the source only the ingest warm-up
+   * publishes changes, for a sandbox client that is dropped by the reload once the application is ready.
+   */
+  @EventListener
+  public synchronized void onClientConfigurationChanged(ClientConfigurationChangedEvent event) {
+    final Map<String, ClientConfiguration> configurations = new HashMap<>(lookup.configurationsById());
+    configurations.put(event.configuration().getId(), event.configuration());
+    lookup = Lookup.of(List.copyOf(configurations.values()));
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    reload();
+  }
+
+  @PostConstruct
+  public void startWatching() throws IOException {
+    watcher = FileChangeWatcher.start("client-config-watcher", List.of(file), SETTLE_TIME, this::reload);
+  }
+
+  @PreDestroy
+  public void stopWatching() throws IOException {
+    if (watcher != null) {
+      watcher.close();
+    }
+  }
+
+  /**
+   * Builds the client configurations defined by {@code client.<id>.name} and {@code client.<id>.origins} entries;
+   * other entries are ignored.
+   */
+  static List<ClientConfiguration> parse(Properties properties) {
+    final Map<String, String> names = new HashMap<>();
+    final Map<String, List<String>> origins = new HashMap<>();
+    for (String key : properties.stringPropertyNames()) {
+      if (!key.startsWith(KEY_PREFIX)) {
+        continue;
+      }
+      final String value = properties.getProperty(key);
+      if (key.endsWith(NAME_SUFFIX) && key.length() > KEY_PREFIX.length() + NAME_SUFFIX.length()) {
+        names.put(key.substring(KEY_PREFIX.length(), key.length() - NAME_SUFFIX.length()), value.trim());
+      } else if (key.endsWith(ORIGINS_SUFFIX) && key.length() > KEY_PREFIX.length() + ORIGINS_SUFFIX.length()) {
+        origins.put(key.substring(KEY_PREFIX.length(), key.length() - ORIGINS_SUFFIX.length()), splitOrigins(value));
+      }
+    }
+
+    final Set<String> clientIds = new HashSet<>(names.keySet());
+    clientIds.addAll(origins.keySet());
+    final List<ClientConfiguration> configurations = new ArrayList<>(clientIds.size());
+    for (String clientId : clientIds) {
+      configurations.add(new ClientConfiguration(clientId, names.get(clientId), origins.getOrDefault(clientId, List.of())));
+    }
+    return configurations;
+  }
+
+  private static List<String> splitOrigins(String value) {
+    return Arrays.stream(value.split(","))
+        .map(String::trim)
+        .filter(origin -> !origin.isEmpty())
+        .distinct()
+        .toList();
+  }
+
+  private record Lookup(Map<String, ClientConfiguration> configurationsById,
+                        Map<String, OriginMatcher> originMatchersById,
+                        Set<String> allAuthorizedOrigins,
+                        OriginMatcher allAuthorizedOriginsMatcher) {
+
+    static Lookup of(List<ClientConfiguration> configurations) {
+      final Map<String, ClientConfiguration> byId = new HashMap<>();
+      final Map<String, OriginMatcher> matchersById = new HashMap<>();
+      final Set<String> origins = new HashSet<>();
+      for (ClientConfiguration configuration : configurations) {
+        byId.put(configuration.getId(), configuration);
+        matchersById.put(configuration.getId(), OriginMatcher.of(configuration.getAuthorizedOrigins()));
+        origins.addAll(configuration.getAuthorizedOrigins());
+      }
+      final Set<String> allOrigins = Set.copyOf(origins);
+      return new Lookup(Map.copyOf(byId), Map.copyOf(matchersById), allOrigins, OriginMatcher.of(allOrigins));
+    }
+  }
+}
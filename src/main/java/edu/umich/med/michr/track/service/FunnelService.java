@@ -0,0 +1,45 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.domain.Funnel;
+import edu.umich.med.michr.track.domain.FunnelStep;
+import edu.umich.med.michr.track.funnel.FunnelReport;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Maintains the funnel definitions of the clients and evaluates them. Every method throws a
+ * {@link edu.umich.med.michr.track.exception.ValidationException} if the client or the funnel does not exist.
+ */
+public interface FunnelService {
+
+  /**
+   * @return the funnels of the client, by name
+   */
+  List<Funnel> getFunnels(String clientId);
+
+  Funnel getFunnel(String clientId, Long id);
+
+  /**
+   * @throws edu.umich.med.michr.track.exception.ValidationException if the client already has a funnel with the name
+   * or the values are invalid
+   */
+  Funnel createFunnel(String clientId, String name, int windowMinutes, List<FunnelStep> steps);
+
+  /**
+   * Replaces the name, window and steps of a funnel.
+   *
+   * @throws edu.umich.med.michr.track.exception.ValidationException if the client already has another funnel with the
+   * name or the values are invalid
+   */
+  Funnel updateFunnel(String clientId, Long id, String name, int windowMinutes, List<FunnelStep> steps);
+
+  void deleteFunnel(String clientId, Long id);
+
+  /**
+   * Counts the users that reached every step of the funnel with the events in {@code [from, to)}.
+   *
+   * @throws edu.umich.med.michr.track.exception.ValidationException if the period is empty or longer than allowed
+   */
+  FunnelReport evaluate(String clientId, Long id, Instant from, Instant to);
+}
@@ -0,0 +1,122 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.domain.Funnel;
+import edu.umich.med.michr.track.domain.FunnelStep;
+import edu.umich.med.michr.track.exception.ValidationException;
+import edu.umich.med.michr.track.funnel.FunnelEngine;
+import edu.umich.med.michr.track.funnel.FunnelProperties;
+import edu.umich.med.michr.track.funnel.FunnelReport;
+import edu.umich.med.michr.track.repository.FunnelRepository;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@Lazy
+public class FunnelServiceImpl implements FunnelService {
+
+  private final FunnelRepository repository;
+  private final ClientConfigurationService clientConfigurationService;
+  private final FunnelEngine engine;
+  private final FunnelProperties properties;
+
+  @Inject
+  public FunnelServiceImpl(FunnelRepository repository, ClientConfigurationService clientConfigurationService,
+                           FunnelEngine engine, FunnelProperties properties) {
+    this.repository = repository;
+    this.clientConfigurationService = clientConfigurationService;
+    this.engine = engine;
+    this.properties = properties;
+  }
+
+  @Override
+  public List<Funnel> getFunnels(String clientId) {
+    verifyClient(clientId);
+    return repository.findByClientIdOrderByName(clientId);
+  }
+
+  @Override
+  public Funnel getFunnel(String clientId, Long id) {
+    verifyClient(clientId);
+    return findFunnel(clientId, id);
+  }
+
+  @Override
+  @Transactional
+  public Funnel createFunnel(String clientId, String name, int windowMinutes, List<FunnelStep> steps) {
+    verifyClient(clientId);
+    validate(name, windowMinutes, steps);
+    if (repository.existsByClientIdAndName(clientId, name)) {
+      throw new ValidationException("Funnel already exists: " + name, HttpStatus.CONFLICT);
+    }
+    return repository.save(new Funnel(clientId, name, windowMinutes, steps));
+  }
+
+  @Override
+  @Transactional
+  public Funnel updateFunnel(String clientId, Long id, String name, int windowMinutes, List<FunnelStep> steps) {
+    verifyClient(clientId);
+    validate(name, windowMinutes, steps);
+    final Funnel funnel = findFunnel(clientId, id);
+    if (!funnel.getName().equals(name) && repository.existsByClientIdAndName(clientId, name)) {
+      throw new ValidationException("Funnel already exists: " + name, HttpStatus.CONFLICT);
+    }
+    funnel.setName(name);
+    funnel.setWindowMinutes(windowMinutes);
+    funnel.setSteps(steps);
+    return repository.save(funnel);
+  }
+
+  @Override
+  @Transactional
+  public void deleteFunnel(String clientId, Long id) {
+    verifyClient(clientId);
+    repository.delete(findFunnel(clientId, id));
+  }
+
+  @Override
+  public FunnelReport evaluate(String clientId, Long id, Instant from, Instant to) {
+    verifyClient(clientId);
+    if (from == null || to == null || !from.isBefore(to)) {
+      throw new ValidationException("The period must start before it ends", HttpStatus.BAD_REQUEST);
+    }
+    if (Duration.between(from, to).compareTo(properties.maxRange()) > 0) {
+      throw new ValidationException("The period can not be longer than " + properties.maxRange(),
+          HttpStatus.BAD_REQUEST);
+    }
+    return engine.evaluate(findFunnel(clientId, id), from, to);
+  }
+
+  private void verifyClient(String clientId) {
+    if (clientConfigurationService.getClientConfiguration(clientId) == null) {
+      throw new ValidationException("Client not found: " + clientId, HttpStatus.NOT_FOUND);
+    }
+  }
+
+  private Funnel findFunnel(String clientId, Long id) {
+    return repository.findByIdAndClientId(id, clientId)
+        .orElseThrow(() -> new ValidationException("Funnel not found: " + id, HttpStatus.NOT_FOUND));
+  }
+
+  private void validate(String name, int windowMinutes, List<FunnelStep> steps) {
+    if (name == null || name.isBlank()) {
+      throw new ValidationException("Funnel name is required", HttpStatus.BAD_REQUEST);
+    }
+    if (windowMinutes <= 0) {
+      throw new ValidationException("The window must be at least a minute", HttpStatus.BAD_REQUEST);
+    }
+    if (steps == null || steps.isEmpty() || steps.size() > properties.maxSteps()) {
+      throw new ValidationException("A funnel needs 1 to " + properties.maxSteps() + " steps", HttpStatus.BAD_REQUEST);
+    }
+    if (steps.stream().anyMatch(step -> step == null || step.kind() == null || step.value() == null
+        || step.value().isBlank())) {
+      throw new ValidationException("Every step needs a kind (PAGE or EVENT) and a value", HttpStatus.BAD_REQUEST);
+    }
+  }
+}
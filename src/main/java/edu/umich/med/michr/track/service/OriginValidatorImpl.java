@@ -1,8 +1,11 @@
 package edu.umich.med.michr.track.service;
 
-import edu.umich.med.michr.track.domain.ClientConfiguration;
 import edu.umich.med.michr.track.domain.StandardParameter;
+import edu.umich.med.michr.track.exception.RejectionReason;
 import edu.umich.med.michr.track.exception.ValidationException;
+import edu.umich.med.michr.track.jfr.OriginValidationEvent;
+import edu.umich.med.michr.track.util.OriginMatcher;
+import edu.umich.med.michr.track.util.RefererOriginExtractor;
 import edu.umich.med.michr.track.util.RequestUtil;
 import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,8 +16,6 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
-import java.util.Optional;
-
 @Service
 public class OriginValidatorImpl implements OriginValidator {
   private static final Logger logger = LoggerFactory.getLogger(OriginValidatorImpl.class);
@@ -30,65 +31,81 @@ public class OriginValidatorImpl implements OriginValidator {
 
   @Override
   public void validate(HttpServletRequest request) {
-    final String clientId = validateClientId(request);
-    String resolvedOrigin = resolveOrigin(request);
-    final ClientConfiguration clientConfiguration = getClientConfiguration(clientId);
-    validateResolvedOrigin(resolvedOrigin, clientConfiguration);
+    final OriginValidationEvent event = new OriginValidationEvent();
+    event.begin();
+    try {
+      final String clientId = validateClientId(request);
+      event.setClientId(clientId);
+      String resolvedOrigin = resolveOrigin(request, event);
+      final OriginMatcher authorizedOrigins = getAuthorizedOrigins(clientId);
+      validateResolvedOrigin(resolvedOrigin, authorizedOrigins);
+      event.setResult(OriginValidationEvent.ACCEPTED);
+    } catch (ValidationException e) {
+      event.setResult(e.getReason().getTagValue());
+      throw e;
+    } finally {
+      event.commit();
+    }
   }
 
   private String validateClientId(HttpServletRequest request) {
     final String clientId = requestUtil.getParameterValue(StandardParameter.CLIENT_ID, request);
     if (clientId == null || clientId.isEmpty()) {
-      throw new ValidationException("Origin ID could not be found in the request parameter, cannot authorize", HttpStatus.FORBIDDEN);
+      throw new ValidationException("Origin ID could not be found in the request parameter, cannot authorize", HttpStatus.FORBIDDEN,
+          RejectionReason.MISSING_CLIENT_ID);
     }
     return clientId;
   }
 
-  private ClientConfiguration getClientConfiguration(String clientId) {
-    final ClientConfiguration clientConfiguration = clientConfigurationService.getClientConfiguration(clientId);
-    if (clientConfiguration == null) {
-      throw new ValidationException("No allowed origins configuration found for the origin, can not authorize requests", HttpStatus.FORBIDDEN);
+  private OriginMatcher getAuthorizedOrigins(String clientId) {
+    final OriginMatcher authorizedOrigins = clientConfigurationService.getOriginMatcher(clientId);
+    if (authorizedOrigins == null) {
+      throw new ValidationException("No allowed origins configuration found for the origin, can not authorize requests", HttpStatus.FORBIDDEN,
+          RejectionReason.UNKNOWN_CLIENT);
     }
-    return clientConfiguration;
+    return authorizedOrigins;
   }
 
-  private String resolveOrigin(HttpServletRequest request) {
-    return getOriginFromHeader(request)
-        .or(() -> getOriginFromReferer(request))
-        .or(() -> getOriginFromEmailId(request))
-        .map(origin -> origin.endsWith("/") ? origin.substring(0, origin.length() - 1) : origin)
-        .orElseThrow(() -> new ValidationException("No Origin or Referer header found in the request", HttpStatus.FORBIDDEN));
-  }
-
-  private Optional<String> getOriginFromHeader(HttpServletRequest request) {
-    String origin = request.getHeader(HttpHeaders.ORIGIN);
-    return (origin != null && !origin.isEmpty()) ? Optional.of(origin) : Optional.empty();
-  }
+  /**
+   * Resolves the value to authorize the request with, in order of preference: the {@code Origin} header, the origin
+   * extracted from the {@code Referer} header and, for GET requests, the email id request parameter.
+   */
+  private String resolveOrigin(HttpServletRequest request, OriginValidationEvent event) {
+    final String origin = request.getHeader(HttpHeaders.ORIGIN);
+    if (origin != null && !origin.isEmpty()) {
+      event.setResolvedBy(OriginValidationEvent.RESOLVED_BY_ORIGIN);
+      return stripTrailingSlash(origin);
+    }
 
-  private Optional<String> getOriginFromReferer(HttpServletRequest request) {
-    String referer = request.getHeader(HttpHeaders.REFERER);
+    final String referer = request.getHeader(HttpHeaders.REFERER);
     if (referer != null && !referer.isEmpty()) {
       logger.debug("Origin header missing, using Referer header: {}", referer);
-      return Optional.of(referer);
+      event.setResolvedBy(OriginValidationEvent.RESOLVED_BY_REFERER);
+      final String refererOrigin = RefererOriginExtractor.extract(referer);
+      // a referer that is not an absolute URL can only match if it was registered verbatim
+      return refererOrigin != null ? refererOrigin : stripTrailingSlash(referer);
     }
-    return Optional.empty();
-  }
 
-  private Optional<String> getOriginFromEmailId(HttpServletRequest request) {
     if (request.getMethod().equals(HttpMethod.GET.name())) {
       final String emailId = requestUtil.getParameterValue(StandardParameter.EMAIL_ID, request);
       if (emailId != null && !emailId.isEmpty()) {
         logger.debug("Using email-id request parameter for request authorization: {}", emailId);
-        return Optional.of(emailId);
+        event.setResolvedBy(OriginValidationEvent.RESOLVED_BY_EMAIL_ID);
+        return stripTrailingSlash(emailId);
       }
     }
-    return Optional.empty();
+    throw new ValidationException("No Origin or Referer header found in the request", HttpStatus.FORBIDDEN,
+        RejectionReason.MISSING_ORIGIN);
+  }
+
+  private static String stripTrailingSlash(String origin) {
+    return origin.endsWith("/") ? origin.substring(0, origin.length() - 1) : origin;
   }
 
-  private void validateResolvedOrigin(String resolvedOrigin, ClientConfiguration clientConfiguration) {
-    if (clientConfiguration.getAuthorizedOrigins().stream().noneMatch(resolvedOrigin::equalsIgnoreCase)) {
+  private void validateResolvedOrigin(String resolvedOrigin, OriginMatcher authorizedOrigins) {
+    if (!authorizedOrigins.matches(resolvedOrigin)) {
       logger.debug("Resolved origin doesn't correspond to the authorized origin parameters, rejected the request: {}", resolvedOrigin);
-      throw new ValidationException("Origin is not allowed", HttpStatus.FORBIDDEN);
+      throw new ValidationException("Origin is not allowed", HttpStatus.FORBIDDEN, RejectionReason.ORIGIN_NOT_ALLOWED);
     }
   }
 }
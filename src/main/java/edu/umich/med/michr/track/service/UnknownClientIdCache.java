@@ -0,0 +1,79 @@
+package edu.umich.med.michr.track.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded, time limited record of client ids that are known not to exist.
+ * <p>
+ * Lets repeated requests carrying random or mistyped client ids be rejected without another lookup. Entries expire
+ * after the configured time to live so a client registered later is picked up, and the number of entries is capped so
+ * scanning traffic cannot grow the cache without limit.
+ * </p>
+ */
+class UnknownClientIdCache {
+  private final Map<String, Long> expiryByClientId = new ConcurrentHashMap<>();
+  private final long ttlMillis;
+  private final int maxSize;
+  private final Clock clock;
+
+  UnknownClientIdCache(Duration ttl, int maxSize, Clock clock) {
+    this.ttlMillis = ttl.toMillis();
+    this.maxSize = maxSize;
+    this.clock = clock;
+  }
+
+  /**
+   * Checks whether the client id was recently found to be unknown.
+   */
+  boolean rejectIfKnownUnknown(String clientId) {
+    final Long expiry = expiryByClientId.get(clientId);
+    if (expiry == null) {
+      return false;
+    }
+    if (expiry <= clock.millis()) {
+      expiryByClientId.remove(clientId, expiry);
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Records a client id that could not be resolved.
+   */
+  void reject(String clientId) {
+    final long now = clock.millis();
+    if (expiryByClientId.size() >= maxSize) {
+      evict(now);
+    }
+    expiryByClientId.put(clientId, now + ttlMillis);
+  }
+
+  /**
+   * Forgets a client id, e.g. because a client with that id was just registered.
+   */
+  void forget(String clientId) {
+    expiryByClientId.remove(clientId);
+  }
+
+  void clear() {
+    expiryByClientId.clear();
+  }
+
+  int size() {
+    return expiryByClientId.size();
+  }
+
+  // Drops expired entries first; if the cache is still full, drops arbitrary entries until there is room again.
+  private void evict(long now) {
+    expiryByClientId.values().removeIf(expiry -> expiry <= now);
+    final Iterator<String> iterator = expiryByClientId.keySet().iterator();
+    while (expiryByClientId.size() >= maxSize && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+}
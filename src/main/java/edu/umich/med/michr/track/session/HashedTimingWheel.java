@@ -0,0 +1,106 @@
+package edu.umich.med.michr.track.session;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schedules items for a deadline in constant time, at the precision of a tick.
+ * <p>
+ * The wheel is a ring of {@code wheelSize} buckets, one per tick. An item is added to the bucket of the tick its
+ * deadline falls in; a deadline more than a turn of the wheel away stays in the bucket for further turns. Advancing the
+ * wheel visits only the buckets of the ticks that passed and returns their items that are due, so the cost does not
+ * grow with the number of scheduled items or with how far their deadlines are. Items can not be cancelled: a caller
+ * whose deadline moved checks it when the item comes due and schedules it again.
+ * </p>
+ * <p>
+ * The methods are synchronized and never call out, so the wheel can be used from any thread while holding other
+ * locks.
+ * </p>
+ *
+ * @param <T> the type of the scheduled items
+ */
+public class HashedTimingWheel<T> {
+  private final long tickMillis;
+  private final int mask;
+  private final List<Entry<T>>[] buckets;
+  // the last tick advanced past, items are due once their tick is at most this one
+  private long currentTick;
+  private int size;
+
+  /**
+   * @param tick the precision of the deadlines
+   * @param wheelSize the number of buckets, a power of two
+   * @param startMillis the current time, deadlines before it are due on the next advance
+   */
+  @SuppressWarnings("unchecked")
+  public HashedTimingWheel(Duration tick, int wheelSize, long startMillis) {
+    if (tick.toMillis() <= 0) {
+      throw new IllegalArgumentException("The tick must be at least a millisecond");
+    }
+    if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+      throw new IllegalArgumentException("The wheel size must be a power of two");
+    }
+    this.tickMillis = tick.toMillis();
+    this.mask = wheelSize - 1;
+    this.buckets = new List[wheelSize];
+    for (int i = 0; i < wheelSize; i++) {
+      buckets[i] = new ArrayList<>();
+    }
+    this.currentTick = Math.floorDiv(startMillis, tickMillis);
+  }
+
+  /**
+   * Schedules the item for the deadline. A deadline that already passed is due on the next advance.
+   */
+  public synchronized void schedule(T item, long deadlineMillis) {
+    // rounded up so an item is never due before its deadline
+    final long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+    buckets[(int) (tick & mask)].add(new Entry<>(item, tick));
+    size++;
+  }
+
+  /**
+   * Moves the wheel to the given time.
+   *
+   * @return the items whose deadline, rounded up to the tick, is at most {@code nowMillis}
+   */
+  public synchronized List<T> advance(long nowMillis) {
+    final long targetTick = Math.floorDiv(nowMillis, tickMillis);
+    if (targetTick <= currentTick || size == 0) {
+      currentTick = Math.max(currentTick, targetTick);
+      return List.of();
+    }
+    final List<T> due = new ArrayList<>();
+    // a full turn visits every bucket, past that the same buckets would only be visited again
+    final long lastTick = Math.min(targetTick, currentTick + buckets.length);
+    for (long tick = currentTick + 1; tick <= lastTick; tick++) {
+      collectDue(buckets[(int) (tick & mask)], targetTick, due);
+    }
+    currentTick = targetTick;
+    size -= due.size();
+    return due;
+  }
+
+  /**
+   * @return the number of scheduled items
+   */
+  public synchronized int size() {
+    return size;
+  }
+
+  private static <T> void collectDue(List<Entry<T>> bucket, long targetTick, List<T> due) {
+    int kept = 0;
+    for (int i = 0; i < bucket.size(); i++) {
+      final Entry<T> entry = bucket.get(i);
+      if (entry.tick() <= targetTick) {
+        due.add(entry.item());
+      } else {
+        bucket.set(kept++, entry);
+      }
+    }
+    bucket.subList(kept, bucket.size()).clear();
+  }
+
+  private record Entry<T>(T item, long tick) {}
+}
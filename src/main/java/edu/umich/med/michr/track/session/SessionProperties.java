@@ -0,0 +1,19 @@
+package edu.umich.med.michr.track.session;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the sessionizer.
+ *
+ * @param enabled whether sessions are built from the saved events
+ * @param inactivityTimeout the time without events of a user after which the user's session ends
+ * @param maxOpenSessions the most sessions kept open, the events of further users are not sessionized
+ * @param tick how often ended sessions are looked for, the precision of the inactivity timeout
+ * @param wheelSize the ticks of the timing wheel, a power of two, best covering the inactivity timeout
+ * @param batchSize the most ended sessions saved in one transaction
+ */
+@ConfigurationProperties(prefix = "track.sessions")
+public record SessionProperties(boolean enabled, Duration inactivityTimeout, int maxOpenSessions, Duration tick,
+                                int wheelSize, int batchSize) {}
@@ -0,0 +1,271 @@
+package edu.umich.med.michr.track.session;
+
+import edu.umich.med.michr.track.datasource.PoolRole;
+import edu.umich.med.michr.track.datasource.PoolRoutingDataSource;
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import edu.umich.med.michr.track.domain.UserSession;
+import edu.umich.med.michr.track.repository.UserSessionRepository;
+import edu.umich.med.michr.track.sink.EventSink;
+import edu.umich.med.michr.track.sink.SinkWorker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the sessions of the users from their events as they are saved, so session reports read a
+ * {@link UserSession} row per visit instead of grouping the events.
+ * <p>
+ * It is a secondary {@link EventSink}: it gets the committed events from its {@link SinkWorker} thread, never on the
+ * request thread. The open session of every client id and user id is kept in a concurrent map of at most
+ * {@code maxOpenSessions} entries. A session ends once no event of the user came for the inactivity timeout,
+ * judged by the event times. An event coming later than that after the previous one ends the session right away and
+ * starts a new one.
+ * </p>
+ * <p>
+ * The inactivity timeouts are tracked by a {@link HashedTimingWheel} that a scheduler thread advances every tick. A
+ * session is only scheduled when it opens; when it comes due, the session is ended if its last event is older than the
+ * timeout and scheduled again for its new deadline otherwise, so an event costs no more than a map update. The ended
+ * sessions are saved by the scheduler thread in batches, with connections of the {@link PoolRole#BACKGROUND} pool. When
+ * the application stops, the open sessions are ended and saved as they are.
+ * </p>
+ * <p>
+ * Enabled with {@code track.sessions.enabled=true}. With several nodes behind the load balancer a user's events must
+ * reach the same node for the sessions to be complete.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "track.sessions", name = "enabled", havingValue = "true")
+public class SessionizingEventSink implements EventSink {
+  private static final Logger logger = LoggerFactory.getLogger(SessionizingEventSink.class);
+
+  public static final String NAME = "session";
+  public static final String OPEN = "track.sessions.open";
+  public static final String CLOSED = "track.sessions.closed";
+  public static final String DROPPED = "track.sessions.dropped";
+
+  private final UserSessionRepository repository;
+  private final Clock clock;
+  private final SessionProperties properties;
+  private final long timeoutMillis;
+  private final Map<SessionKey, OpenSession> sessions = new ConcurrentHashMap<>();
+  private final HashedTimingWheel<SessionKey> wheel;
+  private final Queue<UserSession> ended = new ConcurrentLinkedQueue<>();
+  private final Counter closed;
+  private final Counter droppedCapacity;
+  private final Counter droppedFailed;
+  private ScheduledExecutorService scheduler;
+
+  @Inject
+  public SessionizingEventSink(SessionProperties properties, UserSessionRepository repository, Clock clock,
+                               MeterRegistry registry) {
+    if (properties.inactivityTimeout().toMillis() <= 0 || properties.maxOpenSessions() <= 0
+        || properties.batchSize() <= 0) {
+      throw new IllegalArgumentException("The inactivity timeout, maximum open sessions and batch size of the"
+          + " sessions must be positive");
+    }
+    this.repository = repository;
+    this.clock = clock;
+    this.properties = properties;
+    this.timeoutMillis = properties.inactivityTimeout().toMillis();
+    this.wheel = new HashedTimingWheel<>(properties.tick(), properties.wheelSize(), clock.millis());
+    this.closed = Counter.builder(CLOSED).description("Sessions ended and saved").register(registry);
+    this.droppedCapacity = dropped(registry, "capacity");
+    this.droppedFailed = dropped(registry, "failed");
+    Gauge.builder(OPEN, sessions, Map::size).description("Sessions waiting for more events").register(registry);
+  }
+
+  @PostConstruct
+  public synchronized void start() {
+    if (scheduler == null) {
+      final long tick = properties.tick().toMillis();
+      scheduler = Executors.newSingleThreadScheduledExecutor(
+          Thread.ofPlatform().daemon().name("sessionizer").factory());
+      scheduler.scheduleWithFixedDelay(() -> PoolRoutingDataSource.runWith(PoolRole.BACKGROUND, this::expire),
+          tick, tick, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops the scheduler, then ends and saves every open session.
+   */
+  @PreDestroy
+  public synchronized void stop() throws InterruptedException {
+    if (scheduler != null) {
+      scheduler.shutdown();
+      if (!scheduler.awaitTermination(properties.tick().toMillis() * 10, TimeUnit.MILLISECONDS)) {
+        scheduler.shutdownNow();
+      }
+      scheduler = null;
+    }
+    for (SessionKey key : sessions.keySet()) {
+      final OpenSession session = sessions.remove(key);
+      if (session != null) {
+        ended.add(session.toUserSession(key));
+      }
+    }
+    PoolRoutingDataSource.runWith(PoolRole.BACKGROUND, this::save);
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void write(List<AnalyticsEvent> events) {
+    for (AnalyticsEvent event : events) {
+      add(event);
+    }
+  }
+
+  /**
+   * @return the number of open sessions
+   */
+  public int getOpenSessionCount() {
+    return sessions.size();
+  }
+
+  private void add(AnalyticsEvent event) {
+    final SessionKey key = new SessionKey(event.getClientId(), event.getUserId());
+    // only this thread opens sessions, the scheduler thread just ends them, so the size can only be lower than seen
+    if (sessions.size() >= properties.maxOpenSessions() && !sessions.containsKey(key)) {
+      droppedCapacity.increment();
+      return;
+    }
+    final long eventMillis = event.getEventTimestamp().toEpochMilli();
+    sessions.compute(key, (k, session) -> {
+      if (session == null) {
+        wheel.schedule(k, eventMillis + timeoutMillis);
+        return new OpenSession(event);
+      }
+      if (eventMillis - session.endMillis > timeoutMillis) {
+        // the scheduled check of the ended session stays, it will find the new one
+        ended.add(session.toUserSession(k));
+        return new OpenSession(event);
+      }
+      session.add(event);
+      return session;
+    });
+  }
+
+  /**
+   * Ends the sessions whose inactivity timeout passed, then saves every ended session.
+   */
+  void expire() {
+    try {
+      expire(clock.millis());
+      save();
+    } catch (RuntimeException e) {
+      // a failure must not cancel the scheduled task
+      logger.error("Failed to end sessions", e);
+    }
+  }
+
+  void expire(long nowMillis) {
+    for (SessionKey key : wheel.advance(nowMillis)) {
+      sessions.computeIfPresent(key, (k, session) -> {
+        final long deadline = session.endMillis + timeoutMillis;
+        if (deadline <= nowMillis) {
+          ended.add(session.toUserSession(k));
+          return null;
+        }
+        wheel.schedule(k, deadline);
+        return session;
+      });
+    }
+  }
+
+  void save() {
+    final List<UserSession> batch = new ArrayList<>(properties.batchSize());
+    UserSession session;
+    while ((session = ended.poll()) != null) {
+      batch.add(session);
+      if (batch.size() == properties.batchSize()) {
+        save(batch);
+      }
+    }
+    if (!batch.isEmpty()) {
+      save(batch);
+    }
+  }
+
+  private void save(List<UserSession> batch) {
+    try {
+      repository.saveAll(batch);
+      closed.increment(batch.size());
+    } catch (RuntimeException e) {
+      droppedFailed.increment(batch.size());
+      logger.error("Dropped {} ended sessions that could not be saved", batch.size(), e);
+    } finally {
+      batch.clear();
+    }
+  }
+
+  private static Counter dropped(MeterRegistry registry, String reason) {
+    return Counter.builder(DROPPED).description("Sessions not saved").tag("reason", reason).register(registry);
+  }
+
+  private record SessionKey(String clientId, String userId) {}
+
+  // only changed inside the compute calls of the session map, which also publish the changes between the threads
+  private static final class OpenSession {
+    private long startMillis;
+    private long endMillis;
+    private String entryPage;
+    private String exitPage;
+    private String lastPage;
+    private int pageCount = 1;
+    private int eventCount = 1;
+
+    OpenSession(AnalyticsEvent event) {
+      this.startMillis = event.getEventTimestamp().toEpochMilli();
+      this.endMillis = startMillis;
+      this.entryPage = event.getPage();
+      this.exitPage = entryPage;
+      this.lastPage = entryPage;
+    }
+
+    void add(AnalyticsEvent event) {
+      final long eventMillis = event.getEventTimestamp().toEpochMilli();
+      final String page = event.getPage();
+      // concurrent requests of a user may commit out of order
+      if (eventMillis < startMillis) {
+        startMillis = eventMillis;
+        entryPage = page;
+      }
+      if (eventMillis >= endMillis) {
+        endMillis = eventMillis;
+        exitPage = page;
+      }
+      if (!page.equals(lastPage)) {
+        pageCount++;
+        lastPage = page;
+      }
+      eventCount++;
+    }
+
+    UserSession toUserSession(SessionKey key) {
+      return new UserSession(key.clientId(), key.userId(), Instant.ofEpochMilli(startMillis),
+          Instant.ofEpochMilli(endMillis), entryPage, exitPage, pageCount, eventCount);
+    }
+  }
+}
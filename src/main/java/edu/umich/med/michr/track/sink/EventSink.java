@@ -0,0 +1,34 @@
+package edu.umich.med.michr.track.sink;
+
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+
+import java.util.List;
+
+/**
+ * A destination for the analytics events accepted by the tracking endpoints.
+ * <p>
+ * Every sink bean receives every event. The primary sink ({@code track.sinks.primary}) is written by the request
+ * thread, in the transaction of the request, so a failure fails the request. All the other sinks are secondary: they
+ * are handed the events once that transaction commits and write them in batches from a {@link SinkWorker} of their
+ * own, which never blocks the request.
+ * </p>
+ */
+public interface EventSink {
+  /**
+   * @return the name the sink is configured by, e.g. in {@code track.sinks.primary} and {@code track.sinks.overrides}
+   */
+  String getName();
+
+  /**
+   * Writes a batch of events. A secondary sink may get the same batch again if this fails, so a sink that can not
+   * write the batch as a whole should not write any of it.
+   */
+  void write(List<AnalyticsEvent> events);
+
+  /**
+   * Writes a single event, as a primary sink does for every request.
+   */
+  default void write(AnalyticsEvent event) {
+    write(List.of(event));
+  }
+}
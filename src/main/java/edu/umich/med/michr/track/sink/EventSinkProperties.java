@@ -0,0 +1,63 @@
+package edu.umich.med.michr.track.sink;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Configuration of the event sinks.
+ *
+ * @param primary the name of the sink written in the request transaction
+ * @param defaults how the events are handed to every secondary sink
+ * @param overrides the settings of {@code defaults} to replace for a secondary sink, by sink name
+ * @param file the local rolling file sink
+ * @param memory the in-memory sink
+ */
+@ConfigurationProperties(prefix = "track.sinks")
+public record EventSinkProperties(String primary, Dispatch defaults, Map<String, Dispatch> overrides, File file,
+                                  Memory memory) {
+
+  /**
+   * @return the settings of the given secondary sink
+   */
+  public Dispatch getDispatch(String sink) {
+    final Dispatch override = overrides == null ? null : overrides.get(sink);
+    return override == null ? defaults : override.withDefaults(defaults);
+  }
+
+  /**
+   * @param queueCapacity the events waiting for the sink, more are dropped
+   * @param batchSize the most events written at once
+   * @param maxAttempts the attempts to write a batch before it is dropped
+   * @param retryBackoff the wait before the second attempt, doubled before each further one
+   * @param shutdownTimeout how long the queued events may take to be written when the application stops
+   */
+  public record Dispatch(Integer queueCapacity, Integer batchSize, Integer maxAttempts, Duration retryBackoff,
+                         Duration shutdownTimeout) {
+    Dispatch withDefaults(Dispatch defaults) {
+      return new Dispatch(
+          queueCapacity != null ? queueCapacity : defaults.queueCapacity(),
+          batchSize != null ? batchSize : defaults.batchSize(),
+          maxAttempts != null ? maxAttempts : defaults.maxAttempts(),
+          retryBackoff != null ? retryBackoff : defaults.retryBackoff(),
+          shutdownTimeout != null ? shutdownTimeout : defaults.shutdownTimeout());
+    }
+  }
+
+  /**
+   * @param enabled whether the events are written to local files
+   * @param directory where the files are written
+   * @param maxFileSize the size at which the current file is rolled over
+   * @param maxHistory the rolled over files kept, the oldest ones are deleted
+   */
+  public record File(boolean enabled, Path directory, DataSize maxFileSize, int maxHistory) {}
+
+  /**
+   * @param enabled whether the latest events are kept in memory
+   * @param capacity the events kept, the oldest ones are discarded
+   */
+  public record Memory(boolean enabled, int capacity) {}
+}
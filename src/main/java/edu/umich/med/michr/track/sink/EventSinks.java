@@ -0,0 +1,91 @@
+package edu.umich.med.michr.track.sink;
+
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Fans the accepted events out to every {@link EventSink}.
+ * <p>
+ * The primary sink is written by the calling thread, in its transaction. Each secondary sink has a {@link SinkWorker}
+ * that is handed the event without blocking once the transaction commits, or right away without a transaction, so an
+ * event that is rolled back never reaches them. Without secondary sinks nothing is added to the request.
+ * </p>
+ */
+@Component
+public class EventSinks {
+  private static final Logger logger = LoggerFactory.getLogger(EventSinks.class);
+
+  private final EventSink primary;
+  private final List<SinkWorker> workers;
+
+  @Inject
+  public EventSinks(List<EventSink> sinks, EventSinkProperties properties, MeterRegistry registry) {
+    this.primary = sinks.stream()
+        .filter(sink -> sink.getName().equals(properties.primary()))
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException("No event sink named " + properties.primary()
+            + " for track.sinks.primary, the enabled ones are " + sinks.stream().map(EventSink::getName).toList()));
+    this.workers = sinks.stream()
+        .filter(sink -> sink != primary)
+        .map(sink -> new SinkWorker(sink, properties.getDispatch(sink.getName()), registry))
+        .toList();
+  }
+
+  @PostConstruct
+  public void start() {
+    workers.forEach(SinkWorker::start);
+    logger.info("Writing events to the {} sink, secondary sinks: {}", primary.getName(),
+        workers.stream().map(SinkWorker::getName).toList());
+  }
+
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    for (SinkWorker worker : workers) {
+      worker.stop();
+    }
+  }
+
+  /**
+   * Writes the event to the primary sink and queues it for the secondary sinks once the current transaction commits.
+   */
+  public void write(AnalyticsEvent event) {
+    primary.write(event);
+    if (workers.isEmpty()) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          dispatch(event);
+        }
+      });
+    } else {
+      dispatch(event);
+    }
+  }
+
+  public EventSink getPrimary() {
+    return primary;
+  }
+
+  public List<SinkWorker> getWorkers() {
+    return workers;
+  }
+
+  private void dispatch(AnalyticsEvent event) {
+    for (SinkWorker worker : workers) {
+      worker.offer(event);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package edu.umich.med.michr.track.sink;
+
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import jakarta.inject.Inject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the latest events in memory, for tests and for looking at the traffic of a development node without a
+ * database client. Enabled with {@code track.sinks.memory.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "track.sinks.memory", name = "enabled", havingValue = "true")
+public class InMemoryEventSink implements EventSink {
+  public static final String NAME = "memory";
+
+  private final int capacity;
+  private final Deque<AnalyticsEvent> events = new ArrayDeque<>();
+
+  @Inject
+  public InMemoryEventSink(EventSinkProperties properties) {
+    this(properties.memory().capacity());
+  }
+
+  public InMemoryEventSink(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity must be positive");
+    }
+    this.capacity = capacity;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public synchronized void write(List<AnalyticsEvent> batch) {
+    for (AnalyticsEvent event : batch) {
+      if (events.size() == capacity) {
+        events.removeFirst();
+      }
+      events.addLast(event);
+    }
+  }
+
+  /**
+   * @return the events kept, oldest first
+   */
+  public synchronized List<AnalyticsEvent> getEvents() {
+    return List.copyOf(events);
+  }
+
+  public synchronized void clear() {
+    events.clear();
+  }
+}
@@ -0,0 +1,39 @@
+package edu.umich.med.michr.track.sink;
+
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import edu.umich.med.michr.track.repository.AnalyticsEventRepository;
+import jakarta.inject.Inject;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Saves the events in the database through {@link AnalyticsEventRepository}. As the primary sink it joins the
+ * transaction of the request, as a secondary sink every batch is saved in a transaction of its own.
+ */
+@Component
+public class JpaEventSink implements EventSink {
+  public static final String NAME = "jpa";
+
+  private final AnalyticsEventRepository repository;
+
+  @Inject
+  public JpaEventSink(AnalyticsEventRepository repository) {
+    this.repository = repository;
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public void write(List<AnalyticsEvent> events) {
+    repository.saveAll(events);
+  }
+
+  @Override
+  public void write(AnalyticsEvent event) {
+    repository.save(event);
+  }
+}
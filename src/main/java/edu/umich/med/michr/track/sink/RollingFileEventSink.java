@@ -0,0 +1,156 @@
+package edu.umich.med.michr.track.sink;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Appends the events to a local file as JSON lines, one event per line.
+ * <p>
+ * The events go to {@value #CURRENT_FILE} in the configured directory. Before a write would take it over the maximum
+ * file size, the file is renamed to {@code events-<UTC time>.jsonl} and a new one is started; only the latest
+ * {@code maxHistory} renamed files are kept. Every batch is flushed to the operating system once written. Enabled with
+ * {@code track.sinks.file.enabled=true}.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "track.sinks.file", name = "enabled", havingValue = "true")
+public class RollingFileEventSink implements EventSink {
+  private static final Logger logger = LoggerFactory.getLogger(RollingFileEventSink.class);
+
+  public static final String NAME = "file";
+  static final String CURRENT_FILE = "events.jsonl";
+  static final String ROLLED_PREFIX = "events-";
+  static final String SUFFIX = ".jsonl";
+  private static final DateTimeFormatter ROLLED_TIME =
+      DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+  private static final byte[] LINE_SEPARATOR = {'\n'};
+
+  private final Path directory;
+  private final Path currentFile;
+  private final long maxFileSize;
+  private final int maxHistory;
+  private final ObjectMapper objectMapper;
+  private final Clock clock;
+  private OutputStream output;
+  private long size;
+
+  @Inject
+  public RollingFileEventSink(EventSinkProperties properties, ObjectMapper objectMapper, Clock clock) throws IOException {
+    this(properties.file().directory(), properties.file().maxFileSize().toBytes(), properties.file().maxHistory(),
+        objectMapper, clock);
+  }
+
+  RollingFileEventSink(Path directory, long maxFileSize, int maxHistory, ObjectMapper objectMapper, Clock clock)
+      throws IOException {
+    this.directory = directory.toAbsolutePath();
+    this.currentFile = this.directory.resolve(CURRENT_FILE);
+    this.maxFileSize = maxFileSize;
+    this.maxHistory = maxHistory;
+    this.objectMapper = objectMapper;
+    this.clock = clock;
+    Files.createDirectories(this.directory);
+    open();
+    logger.info("Writing events to {}", currentFile);
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public synchronized void write(List<AnalyticsEvent> events) {
+    try {
+      for (AnalyticsEvent event : events) {
+        final byte[] line = toJson(event);
+        if (size > 0 && size + line.length + LINE_SEPARATOR.length > maxFileSize) {
+          roll();
+        }
+        output.write(line);
+        output.write(LINE_SEPARATOR);
+        size += line.length + LINE_SEPARATOR.length;
+      }
+      output.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to write events to " + currentFile, e);
+    }
+  }
+
+  @PreDestroy
+  public synchronized void close() throws IOException {
+    output.close();
+  }
+
+  private byte[] toJson(AnalyticsEvent event) throws JsonProcessingException {
+    return objectMapper.writeValueAsString(EventLine.of(event)).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private void open() throws IOException {
+    output = new BufferedOutputStream(Files.newOutputStream(currentFile, StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND));
+    size = Files.size(currentFile);
+  }
+
+  private void roll() throws IOException {
+    output.close();
+    Path rolled = directory.resolve(ROLLED_PREFIX + ROLLED_TIME.format(clock.instant()) + SUFFIX);
+    for (int i = 1; Files.exists(rolled); i++) {
+      rolled = directory.resolve(ROLLED_PREFIX + ROLLED_TIME.format(clock.instant()) + "-" + i + SUFFIX);
+    }
+    Files.move(currentFile, rolled);
+    open();
+    deleteOldFiles();
+  }
+
+  // the names sort in the order the files were rolled over
+  private void deleteOldFiles() throws IOException {
+    final List<Path> rolled;
+    try (Stream<Path> files = Files.list(directory)) {
+      rolled = files
+          .filter(file -> {
+            final String name = file.getFileName().toString();
+            return name.startsWith(ROLLED_PREFIX) && name.endsWith(SUFFIX);
+          })
+          .sorted()
+          .toList();
+    }
+    for (int i = 0; i < rolled.size() - maxHistory; i++) {
+      Files.deleteIfExists(rolled.get(i));
+    }
+  }
+
+  /**
+   * The fields written for an event, independent of the mapping of the entity.
+   */
+  record EventLine(Long id, String clientId, String userId, String eventType, String page, Instant eventTime,
+                   String ipAddress, String userAgent, String browserLanguage, Map<String, String> attributes) {
+    static EventLine of(AnalyticsEvent event) {
+      return new EventLine(event.getId(), event.getClientId(), event.getUserId(), event.getEventType(), event.getPage(),
+          event.getEventTimestamp(), event.getIpAddress(), event.getUserAgent(), event.getBrowserLanguage(),
+          event.getCustomAttributes());
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package edu.umich.med.michr.track.sink;
+
+import edu.umich.med.michr.track.datasource.PoolRole;
+import edu.umich.med.michr.track.datasource.PoolRoutingDataSource;
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feeds a secondary {@link EventSink} from a bounded queue on a thread of its own, so a slow or failing sink only
+ * delays and loses its own events.
+ * <p>
+ * {@link #offer} never blocks: an event that does not fit in the queue is dropped and counted. The thread writes the
+ * queued events in batches of at most {@code batchSize}, without waiting for a batch to fill up. A batch that fails is
+ * retried after a backoff that doubles on every attempt, and dropped and counted after {@code maxAttempts}. When the
+ * application stops, the queued events are written for at most {@code shutdownTimeout}, the rest are dropped.
+ * </p>
+ * <p>
+ * A sink that writes to the database gets its connections from the {@link PoolRole#BACKGROUND} pool.
+ * </p>
+ */
+public class SinkWorker {
+  private static final Logger logger = LoggerFactory.getLogger(SinkWorker.class);
+
+  public static final String WRITTEN = "track.sink.written";
+  public static final String DROPPED = "track.sink.dropped";
+  public static final String RETRIES = "track.sink.retries";
+  public static final String QUEUED = "track.sink.queued";
+  public static final String WRITES = "track.sink.writes";
+  private static final long POLL_MILLIS = 100;
+
+  private final EventSink sink;
+  private final EventSinkProperties.Dispatch dispatch;
+  private final BlockingQueue<AnalyticsEvent> queue;
+  private final Thread thread;
+  private final Counter written;
+  private final Counter droppedQueueFull;
+  private final Counter droppedFailed;
+  private final Counter droppedShutdown;
+  private final Counter retries;
+  private final Timer writes;
+  private volatile boolean running = true;
+
+  public SinkWorker(EventSink sink, EventSinkProperties.Dispatch dispatch, MeterRegistry registry) {
+    if (dispatch.queueCapacity() <= 0 || dispatch.batchSize() <= 0 || dispatch.maxAttempts() <= 0) {
+      throw new IllegalArgumentException("The queue capacity, batch size and attempts of the " + sink.getName()
+          + " sink must be positive");
+    }
+    this.sink = sink;
+    this.dispatch = dispatch;
+    this.queue = new ArrayBlockingQueue<>(dispatch.queueCapacity());
+    this.thread = new Thread(() -> PoolRoutingDataSource.runWith(PoolRole.BACKGROUND, this::run),
+        "event-sink-" + sink.getName());
+    this.thread.setDaemon(true);
+
+    final String name = sink.getName();
+    this.written = Counter.builder(WRITTEN).description("Events written by a secondary sink")
+        .tag("sink", name).register(registry);
+    this.droppedQueueFull = dropped(registry, name, "queue-full");
+    this.droppedFailed = dropped(registry, name, "failed");
+    this.droppedShutdown = dropped(registry, name, "shutdown");
+    this.retries = Counter.builder(RETRIES).description("Failed batch writes of a secondary sink that were retried")
+        .tag("sink", name).register(registry);
+    this.writes = Timer.builder(WRITES).description("Time to write a batch to a secondary sink, including retries")
+        .tag("sink", name).register(registry);
+    Gauge.builder(QUEUED, queue, BlockingQueue::size).description("Events waiting for a secondary sink")
+        .tag("sink", name).register(registry);
+  }
+
+  public String getName() {
+    return sink.getName();
+  }
+
+  public void start() {
+    thread.start();
+  }
+
+  /**
+   * Queues the event without blocking.
+   *
+   * @return false if the queue is full and the event was dropped
+   */
+  public boolean offer(AnalyticsEvent event) {
+    if (queue.offer(event)) {
+      return true;
+    }
+    droppedQueueFull.increment();
+    return false;
+  }
+
+  /**
+   * Writes the queued events for at most the shutdown timeout, then stops the thread and drops what is left.
+   */
+  public void stop() throws InterruptedException {
+    running = false;
+    thread.join(dispatch.shutdownTimeout().toMillis());
+    if (thread.isAlive()) {
+      thread.interrupt();
+      thread.join(dispatch.shutdownTimeout().toMillis());
+    }
+    final int remaining = queue.size();
+    if (remaining > 0) {
+      queue.clear();
+      droppedShutdown.increment(remaining);
+      logger.warn("Dropped {} events not written to the {} sink before the shutdown timeout", remaining, getName());
+    }
+  }
+
+  /**
+   * @return the number of events waiting to be written
+   */
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  private void run() {
+    final List<AnalyticsEvent> batch = new ArrayList<>(dispatch.batchSize());
+    while (running || !queue.isEmpty()) {
+      try {
+        final AnalyticsEvent first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, dispatch.batchSize() - 1);
+        writes.record(() -> writeWithRetries(batch));
+      } catch (InterruptedException e) {
+        // only interrupted once the shutdown timeout has passed
+        Thread.currentThread().interrupt();
+        return;
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void writeWithRetries(List<AnalyticsEvent> batch) {
+    long backoffMillis = dispatch.retryBackoff().toMillis();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        sink.write(batch);
+        written.increment(batch.size());
+        return;
+      } catch (RuntimeException e) {
+        if (attempt >= dispatch.maxAttempts() || Thread.currentThread().isInterrupted()) {
+          droppedFailed.increment(batch.size());
+          logger.error("Dropped {} events after {} failed attempts to write them to the {} sink", batch.size(), attempt,
+              getName(), e);
+          return;
+        }
+        retries.increment();
+        logger.warn("Failed to write {} events to the {} sink, retrying in {} ms: {}", batch.size(), getName(),
+            backoffMillis, e.toString());
+      }
+      try {
+        Thread.sleep(backoffMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        droppedFailed.increment(batch.size());
+        return;
+      }
+      backoffMillis *= 2;
+    }
+  }
+
+  private static Counter dropped(MeterRegistry registry, String sink, String reason) {
+    return Counter.builder(DROPPED).description("Events a secondary sink did not get")
+        .tag("sink", sink).tag("reason", reason).register(registry);
+  }
+}
@@ -0,0 +1,77 @@
+package edu.umich.med.michr.track.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Exponentially weighted moving average of a stream of samples.
+ * <p>
+ * Every sample moves the average by {@code alpha} of its distance to the sample. After a pause in the samples the
+ * average decays towards zero with the given half-life, so a signal that stopped being sampled (e.g. the latency of a
+ * node that no longer receives traffic) fades out instead of keeping its last value forever.
+ * </p>
+ * <p>
+ * Samples are taken on hot paths from many threads: the average is kept as the bits of a double that every sample
+ * compares and sets, without a lock. Samples closer together than the half-life divided by {@value #DECAY_STEPS} skip
+ * the decay, so only the first sample after a pause and {@link #get()} compute it.
+ * </p>
+ */
+public final class Ewma {
+  // a pause shorter than the half-life divided by this decays the average by less than 1%
+  static final int DECAY_STEPS = 100;
+  private static final long UNSAMPLED = Double.doubleToRawLongBits(Double.NaN);
+
+  private final double alpha;
+  private final double halfLifeNanos;
+  private final long decayThresholdNanos;
+  private final LongSupplier nanoTime;
+  private final AtomicLong value = new AtomicLong(UNSAMPLED);
+  private volatile long lastSampleNanos;
+
+  public Ewma(double alpha, Duration halfLife) {
+    this(alpha, halfLife, System::nanoTime);
+  }
+
+  public Ewma(double alpha, Duration halfLife, LongSupplier nanoTime) {
+    if (alpha <= 0 || alpha > 1) {
+      throw new IllegalArgumentException("alpha must be in (0, 1]: " + alpha);
+    }
+    this.alpha = alpha;
+    this.halfLifeNanos = halfLife.toNanos();
+    this.decayThresholdNanos = halfLife.toNanos() / DECAY_STEPS;
+    this.nanoTime = nanoTime;
+  }
+
+  public void update(double sample) {
+    final long now = nanoTime.getAsLong();
+    final double decay = getDecay(now - lastSampleNanos, decayThresholdNanos);
+    lastSampleNanos = now;
+    long current;
+    double next;
+    do {
+      current = value.get();
+      if (current == UNSAMPLED) {
+        next = sample;
+      } else {
+        final double decayed = Double.longBitsToDouble(current) * decay;
+        next = decayed + alpha * (sample - decayed);
+      }
+    } while (!value.compareAndSet(current, Double.doubleToRawLongBits(next)));
+  }
+
+  /**
+   * @return the current average, 0 before the first sample
+   */
+  public double get() {
+    final long current = value.get();
+    if (current == UNSAMPLED) {
+      return 0;
+    }
+    return Double.longBitsToDouble(current) * getDecay(nanoTime.getAsLong() - lastSampleNanos, 0);
+  }
+
+  private double getDecay(long idle, long threshold) {
+    return idle <= threshold || halfLifeNanos <= 0 ? 1 : Math.pow(0.5, idle / halfLifeNanos);
+  }
+}
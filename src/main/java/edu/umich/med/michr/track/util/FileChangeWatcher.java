@@ -0,0 +1,136 @@
+package edu.umich.med.michr.track.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calls back when any of a set of files is created or modified.
+ * <p>
+ * The directories of the files are watched with a {@link WatchService} on a daemon thread. Editors and deployment
+ * tools often write a file in several steps, so the callback runs once the events stopped arriving for the settle
+ * time, and only once for all the events seen until then. Files whose directory does not exist are not watched.
+ * </p>
+ */
+public final class FileChangeWatcher implements Closeable {
+  private static final Logger logger = LoggerFactory.getLogger(FileChangeWatcher.class);
+
+  private final WatchService watchService;
+  private final Map<WatchKey, Set<Path>> fileNamesByKey;
+  private final long settleMillis;
+  private final Runnable onChange;
+  private final Thread thread;
+
+  private FileChangeWatcher(String name, WatchService watchService, Map<WatchKey, Set<Path>> fileNamesByKey,
+                            Duration settle, Runnable onChange) {
+    this.watchService = watchService;
+    this.fileNamesByKey = fileNamesByKey;
+    this.settleMillis = settle.toMillis();
+    this.onChange = onChange;
+    this.thread = fileNamesByKey.isEmpty() ? null : Thread.ofPlatform().daemon().name(name).start(this::watch);
+  }
+
+  /**
+   * Starts watching the files.
+   *
+   * @param name the name of the watcher thread
+   * @param files the files to watch
+   * @param settle how long to wait for more events before calling back
+   * @param onChange called on the watcher thread after a change
+   * @return the started watcher, to be closed when the files no longer need to be watched
+   */
+  public static FileChangeWatcher start(String name, Collection<Path> files, Duration settle, Runnable onChange)
+      throws IOException {
+    final WatchService watchService = FileSystems.getDefault().newWatchService();
+    final Map<Path, Set<Path>> fileNamesByDirectory = new HashMap<>();
+    for (Path file : files) {
+      final Path absolute = file.toAbsolutePath().normalize();
+      final Path directory = absolute.getParent();
+      if (directory != null && Files.isDirectory(directory)) {
+        fileNamesByDirectory.computeIfAbsent(directory, d -> new HashSet<>()).add(absolute.getFileName());
+      } else {
+        logger.debug("Not watching {}, its directory does not exist", absolute);
+      }
+    }
+
+    final Map<WatchKey, Set<Path>> fileNamesByKey = new HashMap<>();
+    for (Map.Entry<Path, Set<Path>> entry : fileNamesByDirectory.entrySet()) {
+      final WatchKey key = entry.getKey().register(watchService,
+          StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+      fileNamesByKey.put(key, Set.copyOf(entry.getValue()));
+    }
+    return new FileChangeWatcher(name, watchService, Map.copyOf(fileNamesByKey), settle, onChange);
+  }
+
+  /**
+   * @return true if at least one of the files is watched
+   */
+  public boolean isWatching() {
+    return thread != null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    watchService.close();
+    if (thread != null) {
+      thread.interrupt();
+    }
+  }
+
+  private void watch() {
+    try {
+      while (true) {
+        boolean changed = isFileChanged(watchService.take());
+        WatchKey next;
+        while ((next = watchService.poll(settleMillis, TimeUnit.MILLISECONDS)) != null) {
+          changed |= isFileChanged(next);
+        }
+        if (changed) {
+          runCallback();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ClosedWatchServiceException e) {
+      // closed
+    }
+  }
+
+  private boolean isFileChanged(WatchKey key) {
+    final Set<Path> fileNames = fileNamesByKey.getOrDefault(key, Set.of());
+    boolean changed = false;
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileNames.contains(event.context())) {
+        changed = true;
+      }
+    }
+    key.reset();
+    return changed;
+  }
+
+  private void runCallback() {
+    try {
+      onChange.run();
+    } catch (RuntimeException e) {
+      // keep watching, the next change may fix whatever failed
+      logger.error("Failed to handle a file change", e);
+    }
+  }
+}
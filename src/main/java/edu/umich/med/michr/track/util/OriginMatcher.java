@@ -0,0 +1,277 @@
+package edu.umich.med.michr.track.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pre-compiled, case-insensitive matcher for a list of authorized origins.
+ * <p>
+ * Supported entries:
+ * <ul>
+ *   <li>{@code *} authorizes every origin</li>
+ *   <li>Exact origins ({@code https://example.com}, {@code http://localhost:3000}) and any other opaque value such as
+ *   the email ids used for pixel tracking</li>
+ *   <li>Subdomain wildcards: {@code https://*.med.umich.edu} authorizes any host below {@code med.umich.edu} but not
+ *   {@code med.umich.edu} itself</li>
+ *   <li>Port wildcards: {@code http://localhost:*} authorizes the host on any port, including no port at all</li>
+ * </ul>
+ * Exact entries are kept lowercase in a hash set. Pattern entries are kept in a trie keyed by the host labels in
+ * reverse order ({@code edu -> umich -> med}), so a lookup walks at most one node per label of the requested host no
+ * matter how many origins are authorized.
+ * </p>
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ * </p>
+ */
+public final class OriginMatcher {
+  private static final String WILDCARD = "*";
+  private static final String SCHEME_SEPARATOR = "://";
+  private static final int DEFAULT_PORT = -1;
+  private static final int ANY_PORT = -2;
+
+  private static final OriginMatcher NONE = new OriginMatcher(false, Set.of(), null);
+
+  private final boolean matchAll;
+  private final Set<String> exactOrigins;
+  private final Node root;
+
+  private OriginMatcher(boolean matchAll, Set<String> exactOrigins, Node root) {
+    this.matchAll = matchAll;
+    this.exactOrigins = exactOrigins;
+    this.root = root;
+  }
+
+  /**
+   * Compiles the given authorized origin entries. {@code null} and blank entries are ignored.
+   */
+  public static OriginMatcher of(Collection<String> authorizedOrigins) {
+    if (authorizedOrigins == null || authorizedOrigins.isEmpty()) {
+      return NONE;
+    }
+    boolean matchAll = false;
+    final Set<String> exactOrigins = new HashSet<>();
+    final NodeBuilder rootBuilder = new NodeBuilder();
+    boolean hasPatterns = false;
+
+    for (String entry : authorizedOrigins) {
+      if (entry == null || entry.isBlank()) {
+        continue;
+      }
+      final String origin = entry.trim().toLowerCase(Locale.ROOT);
+      if (WILDCARD.equals(origin)) {
+        matchAll = true;
+      } else if (origin.indexOf('*') >= 0 && addPattern(rootBuilder, origin)) {
+        hasPatterns = true;
+      } else {
+        exactOrigins.add(origin);
+      }
+    }
+    return new OriginMatcher(matchAll, Set.copyOf(exactOrigins), hasPatterns ? rootBuilder.build() : null);
+  }
+
+  public static OriginMatcher none() {
+    return NONE;
+  }
+
+  /**
+   * @param origin an origin ({@code scheme://host[:port]}) or an opaque authorization value such as an email id
+   * @return true if the value is authorized by any of the compiled entries
+   */
+  public boolean matches(String origin) {
+    if (matchAll) {
+      return true;
+    }
+    if (origin == null || origin.isEmpty()) {
+      return false;
+    }
+    // toLowerCase returns the same instance when there is nothing to lower, which is the common case for origins
+    if (exactOrigins.contains(origin.toLowerCase(Locale.ROOT))) {
+      return true;
+    }
+    return root != null && matchesPattern(origin);
+  }
+
+  private boolean matchesPattern(String origin) {
+    final int schemeEnd = origin.indexOf(SCHEME_SEPARATOR);
+    if (schemeEnd <= 0) {
+      return false;
+    }
+    final int hostStart = schemeEnd + SCHEME_SEPARATOR.length();
+    final int portSeparator = findPortSeparator(origin, hostStart);
+    final int hostEnd = portSeparator < 0 ? origin.length() : portSeparator;
+    if (hostEnd <= hostStart) {
+      return false;
+    }
+    final int port = portSeparator < 0 ? DEFAULT_PORT : parsePort(origin, portSeparator + 1);
+    if (port == ANY_PORT) {
+      // not a valid port number, can not be an origin
+      return false;
+    }
+
+    Node node = root;
+    int labelEnd = hostEnd;
+    while (labelEnd > hostStart) {
+      final int labelStart = isBracketedHost(origin, hostStart, hostEnd) ? hostStart : origin.lastIndexOf('.', labelEnd - 1) + 1;
+      final int start = Math.max(labelStart, hostStart);
+      node = node.child(origin, start, labelEnd);
+      if (node == null) {
+        return false;
+      }
+      labelEnd = start - 1;
+      final boolean hasMoreLabels = labelEnd > hostStart;
+      if (hasMoreLabels && node.matchesSubdomain(origin, schemeEnd, port)) {
+        return true;
+      }
+    }
+    return node.matchesHost(origin, schemeEnd, port);
+  }
+
+  private static boolean isBracketedHost(String origin, int hostStart, int hostEnd) {
+    return origin.charAt(hostStart) == '[' && origin.charAt(hostEnd - 1) == ']';
+  }
+
+  // The port separator is the last ':' after the host, unless it is inside an IPv6 literal.
+  private static int findPortSeparator(String origin, int hostStart) {
+    final int colon = origin.lastIndexOf(':');
+    if (colon < hostStart) {
+      return -1;
+    }
+    final int bracket = origin.lastIndexOf(']');
+    return bracket > colon ? -1 : colon;
+  }
+
+  private static int parsePort(String value, int start) {
+    if (start >= value.length() || value.length() - start > 5) {
+      return ANY_PORT;
+    }
+    int port = 0;
+    for (int i = start; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        return ANY_PORT;
+      }
+      port = port * 10 + (c - '0');
+    }
+    return port;
+  }
+
+  private static boolean addPattern(NodeBuilder rootBuilder, String pattern) {
+    final int schemeEnd = pattern.indexOf(SCHEME_SEPARATOR);
+    if (schemeEnd <= 0) {
+      return false;
+    }
+    final String scheme = pattern.substring(0, schemeEnd);
+    final int hostStart = schemeEnd + SCHEME_SEPARATOR.length();
+    final int portSeparator = findPortSeparator(pattern, hostStart);
+    final String host = pattern.substring(hostStart, portSeparator < 0 ? pattern.length() : portSeparator);
+    final int port;
+    if (portSeparator < 0) {
+      port = DEFAULT_PORT;
+    } else if (WILDCARD.equals(pattern.substring(portSeparator + 1))) {
+      port = ANY_PORT;
+    } else {
+      port = parsePort(pattern, portSeparator + 1);
+      if (port == ANY_PORT) {
+        return false;
+      }
+    }
+
+    final boolean subdomainWildcard = host.startsWith("*.");
+    final String baseHost = subdomainWildcard ? host.substring(2) : host;
+    if (baseHost.isEmpty() || baseHost.indexOf('*') >= 0 || scheme.indexOf('*') >= 0) {
+      return false;
+    }
+
+    NodeBuilder node = rootBuilder;
+    final String[] labels = baseHost.startsWith("[") ? new String[]{baseHost} : baseHost.split("\\.");
+    for (int i = labels.length - 1; i >= 0; i--) {
+      if (labels[i].isEmpty()) {
+        return false;
+      }
+      node = node.children.computeIfAbsent(labels[i], label -> new NodeBuilder());
+    }
+    final Rule rule = new Rule(scheme, port);
+    if (subdomainWildcard) {
+      node.subdomainRules.add(rule);
+    } else {
+      node.hostRules.add(rule);
+    }
+    return true;
+  }
+
+  private record Rule(String scheme, int port) {
+    boolean matches(String origin, int schemeEnd, int requestPort) {
+      return schemeEnd == scheme.length()
+          && origin.regionMatches(true, 0, scheme, 0, schemeEnd)
+          && (port == ANY_PORT || port == requestPort);
+    }
+  }
+
+  private static final class Node {
+    private static final Rule[] NO_RULES = new Rule[0];
+
+    private final String[] labels;
+    private final Node[] children;
+    private final Rule[] hostRules;
+    private final Rule[] subdomainRules;
+
+    private Node(String[] labels, Node[] children, Rule[] hostRules, Rule[] subdomainRules) {
+      this.labels = labels;
+      this.children = children;
+      this.hostRules = hostRules;
+      this.subdomainRules = subdomainRules;
+    }
+
+    // Children are few per node (top level domains, a handful of subdomains), a linear scan with regionMatches avoids
+    // allocating a substring per label.
+    Node child(String origin, int start, int end) {
+      final int length = end - start;
+      for (int i = 0; i < labels.length; i++) {
+        if (labels[i].length() == length && origin.regionMatches(true, start, labels[i], 0, length)) {
+          return children[i];
+        }
+      }
+      return null;
+    }
+
+    boolean matchesHost(String origin, int schemeEnd, int port) {
+      return matchesAny(hostRules, origin, schemeEnd, port);
+    }
+
+    boolean matchesSubdomain(String origin, int schemeEnd, int port) {
+      return matchesAny(subdomainRules, origin, schemeEnd, port);
+    }
+
+    private static boolean matchesAny(Rule[] rules, String origin, int schemeEnd, int port) {
+      for (Rule rule : rules) {
+        if (rule.matches(origin, schemeEnd, port)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private static final class NodeBuilder {
+    private final Map<String, NodeBuilder> children = new LinkedHashMap<>();
+    private final List<Rule> hostRules = new ArrayList<>();
+    private final List<Rule> subdomainRules = new ArrayList<>();
+
+    Node build() {
+      final String[] labels = children.keySet().toArray(new String[0]);
+      final Node[] nodes = new Node[labels.length];
+      for (int i = 0; i < labels.length; i++) {
+        nodes[i] = children.get(labels[i]).build();
+      }
+      return new Node(labels, nodes,
+          hostRules.isEmpty() ? Node.NO_RULES : hostRules.toArray(Node.NO_RULES),
+          subdomainRules.isEmpty() ? Node.NO_RULES : subdomainRules.toArray(Node.NO_RULES));
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package edu.umich.med.michr.track.util;
+
+/**
+ * Extracts the origin ({@code scheme://host[:port]}) from a {@code Referer} header value.
+ * <p>
+ * Browsers send the full page URL as the referer (e.g. {@code https://site.org:443/page?x=1#top}) which would never
+ * equal an authorized origin. This is a single pass scanner over the header value that avoids {@link java.net.URI},
+ * regular expressions and intermediate substrings: when the referer needs no normalization the result is one substring
+ * of it, or the value itself if it already is an origin.
+ * </p>
+ * <p>
+ * Normalization applied: user info ({@code user:password@}) is dropped, the scheme is lowercased and the default port
+ * of the {@code http}/{@code https} schemes ({@code :80}/{@code :443}) is removed.
+ * </p>
+ */
+public final class RefererOriginExtractor {
+  private static final int NO_PORT = -1;
+
+  private RefererOriginExtractor() {}
+
+  /**
+   * @param referer the referer header value
+   * @return the origin of the referer or {@code null} if the value is not an absolute URL with a host
+   */
+  public static String extract(String referer) {
+    if (referer == null) {
+      return null;
+    }
+    final int length = referer.length();
+    final int schemeEnd = scanScheme(referer, length);
+    if (schemeEnd < 0) {
+      return null;
+    }
+
+    final int authorityStart = schemeEnd + 3;
+    int authorityEnd = authorityStart;
+    int userInfoEnd = -1;
+    int lastColon = -1;
+    boolean inIpv6Literal = false;
+    while (authorityEnd < length) {
+      final char c = referer.charAt(authorityEnd);
+      if (c == '/' || c == '?' || c == '#') {
+        break;
+      }
+      if (c == '@') {
+        userInfoEnd = authorityEnd;
+        lastColon = -1;
+      } else if (c == '[') {
+        inIpv6Literal = true;
+      } else if (c == ']') {
+        inIpv6Literal = false;
+      } else if (c == ':' && !inIpv6Literal) {
+        lastColon = authorityEnd;
+      }
+      authorityEnd++;
+    }
+
+    final int hostStart = userInfoEnd < 0 ? authorityStart : userInfoEnd + 1;
+    final int hostEnd = lastColon < 0 ? authorityEnd : lastColon;
+    if (hostEnd <= hostStart) {
+      return null;
+    }
+
+    final int port = lastColon < 0 ? NO_PORT : parsePort(referer, lastColon + 1, authorityEnd);
+    if (port == Integer.MIN_VALUE) {
+      return null;
+    }
+    final boolean dropPort = port == NO_PORT || isDefaultPort(referer, schemeEnd, port);
+    final int originEnd = dropPort ? hostEnd : authorityEnd;
+    final boolean lowercaseScheme = hasUppercase(referer, schemeEnd);
+
+    if (userInfoEnd < 0 && !lowercaseScheme) {
+      return originEnd == length ? referer : referer.substring(0, originEnd);
+    }
+
+    final StringBuilder origin = new StringBuilder(schemeEnd + 3 + originEnd - hostStart);
+    for (int i = 0; i < schemeEnd; i++) {
+      origin.append(Character.toLowerCase(referer.charAt(i)));
+    }
+    return origin.append("://").append(referer, hostStart, originEnd).toString();
+  }
+
+  /**
+   * @return the index of the {@code ://} following a valid scheme, or -1
+   */
+  private static int scanScheme(String value, int length) {
+    if (length == 0 || !isAsciiLetter(value.charAt(0))) {
+      return -1;
+    }
+    for (int i = 1; i < length; i++) {
+      final char c = value.charAt(i);
+      if (c == ':') {
+        return i + 2 < length && value.charAt(i + 1) == '/' && value.charAt(i + 2) == '/' ? i : -1;
+      }
+      if (!isAsciiLetter(c) && !(c >= '0' && c <= '9') && c != '+' && c != '-' && c != '.') {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  private static int parsePort(String value, int start, int end) {
+    if (start == end) {
+      // "host:" is allowed by the URL syntax and means the default port
+      return NO_PORT;
+    }
+    if (end - start > 5) {
+      return Integer.MIN_VALUE;
+    }
+    int port = 0;
+    for (int i = start; i < end; i++) {
+      final char c = value.charAt(i);
+      if (c < '0' || c > '9') {
+        return Integer.MIN_VALUE;
+      }
+      port = port * 10 + (c - '0');
+    }
+    return port > 65535 ? Integer.MIN_VALUE : port;
+  }
+
+  private static boolean isDefaultPort(String value, int schemeEnd, int port) {
+    return (port == 443 && schemeEnd == 5 && value.regionMatches(true, 0, "https", 0, 5))
+        || (port == 80 && schemeEnd == 4 && value.regionMatches(true, 0, "http", 0, 4));
+  }
+
+  private static boolean hasUppercase(String value, int end) {
+    for (int i = 0; i < end; i++) {
+      final char c = value.charAt(i);
+      if (c >= 'A' && c <= 'Z') {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isAsciiLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+}
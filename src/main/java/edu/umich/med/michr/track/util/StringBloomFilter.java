@@ -0,0 +1,99 @@
+package edu.umich.med.michr.track.util;
+
+import java.util.Collection;
+
+/**
+ * Immutable Bloom filter over strings.
+ * <p>
+ * {@link #mightContain(String)} never returns {@code false} for a value the filter was built with, so a negative answer
+ * can be trusted to reject a value without consulting the backing store. A positive answer may be a false positive at
+ * roughly the rate the filter was sized for.
+ * </p>
+ */
+public final class StringBloomFilter {
+  private static final double LN2 = Math.log(2);
+
+  private final long[] bits;
+  private final int bitCount;
+  private final int hashCount;
+
+  private StringBloomFilter(int bitCount, int hashCount) {
+    this.bitCount = bitCount;
+    this.hashCount = hashCount;
+    this.bits = new long[(bitCount + 63) >>> 6];
+  }
+
+  /**
+   * Builds a filter sized for the given values and false positive probability.
+   *
+   * @param values the values to add to the filter
+   * @param falsePositiveRate the desired false positive probability, between 0 and 1 (exclusive)
+   * @return a filter containing all the given values
+   */
+  public static StringBloomFilter of(Collection<String> values, double falsePositiveRate) {
+    if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+    }
+    final int expected = Math.max(1, values.size());
+    final int bitCount = (int) Math.max(64, Math.ceil(-expected * Math.log(falsePositiveRate) / (LN2 * LN2)));
+    final int hashCount = Math.max(1, (int) Math.round((double) bitCount / expected * LN2));
+
+    final StringBloomFilter filter = new StringBloomFilter(bitCount, hashCount);
+    for (String value : values) {
+      filter.put(value);
+    }
+    return filter;
+  }
+
+  /**
+   * Creates a copy of this filter with one more value. The copy keeps the size of this filter, so its false positive
+   * rate slowly grows if many values are added this way instead of building a new filter.
+   *
+   * @param value the value to add
+   * @return a new filter containing the values of this filter and the given value
+   */
+  public StringBloomFilter with(String value) {
+    final StringBloomFilter copy = new StringBloomFilter(bitCount, hashCount);
+    System.arraycopy(bits, 0, copy.bits, 0, bits.length);
+    copy.put(value);
+    return copy;
+  }
+
+  public boolean mightContain(String value) {
+    final long hash = hash64(value);
+    final int h1 = (int) hash;
+    final int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      final int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+      if ((bits[index >>> 6] & (1L << index)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void put(String value) {
+    final long hash = hash64(value);
+    final int h1 = (int) hash;
+    final int h2 = (int) (hash >>> 32);
+    for (int i = 1; i <= hashCount; i++) {
+      final int index = ((h1 + i * h2) & Integer.MAX_VALUE) % bitCount;
+      bits[index >>> 6] |= 1L << index;
+    }
+  }
+
+  // FNV-1a over the UTF-16 code units followed by a murmur3 finalizer to spread the bits over both halves.
+  private static long hash64(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -0,0 +1,284 @@
+package edu.umich.med.michr.track.warmup;
+
+import edu.umich.med.michr.track.config.cors.CorsConfig;
+import edu.umich.med.michr.track.domain.ClientConfiguration;
+import edu.umich.med.michr.track.domain.StandardParameter;
+import edu.umich.med.michr.track.service.ClientConfigurationChangedEvent;
+import edu.umich.med.michr.track.service.ClientConfigurationService;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.boot.web.server.Ssl;
+import org.springframework.boot.web.server.WebServerSslBundle;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManagerFactory;
+import javax.net.ssl.X509ExtendedTrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Sends synthetic tracking requests to the node itself before the application reports ready, so the first real hits
+ * of a new node run compiled code instead of the interpreter.
+ * <p>
+ * Spring Boot only switches the readiness state to {@code ACCEPTING_TRAFFIC} once every {@link ApplicationRunner}
+ * returned, so the readiness probe ({@code /actuator/health/readiness}) keeps failing until the warm-up is over.
+ * </p>
+ * <p>
+ * The requests go over the loopback interface to the tracking endpoint, so the JIT profiles the code with the same
+ * request, filter and service classes real hits use. They belong to a sandbox client that is only added to the client
+ * configurations in memory, the way a change of the admin API is applied, and is gone once the configurations are
+ * refreshed when the application is ready. The {@link WarmUpFilter} runs every request in a transaction that is rolled
+ * back, so the events go through the regular service and sinks but nothing is stored. A failed warm-up is logged and
+ * does not prevent the startup.
+ * </p>
+ * <p>
+ * When the server uses TLS the requests trust the certificates of the server's own key store and nothing else, without
+ * checking the host name, so the certificate does not need to be issued for the loopback address.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "track.warm-up", name = "enabled", havingValue = "true")
+public class IngestWarmUp implements ApplicationRunner {
+  private static final Logger logger = LoggerFactory.getLogger(IngestWarmUp.class);
+
+  static final String SANDBOX_CLIENT_ID = "warm-up-sandbox";
+  static final String SANDBOX_ORIGIN = "https://warm-up.invalid";
+  private static final String LOOPBACK = "127.0.0.1";
+  private static final String[] EVENT_TYPES = {"pageview", "click", "download", "form-submit"};
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+  private final ApplicationContext applicationContext;
+  private final ServerProperties serverProperties;
+  private final SslBundles sslBundles;
+  private final ClientConfigurationService clientConfigurationService;
+  private final WarmUpFilter warmUpFilter;
+  private final WarmUpProperties properties;
+  private final Clock clock;
+
+  @Inject
+  public IngestWarmUp(ApplicationContext applicationContext, ServerProperties serverProperties, SslBundles sslBundles,
+                      ClientConfigurationService clientConfigurationService, WarmUpFilter warmUpFilter,
+                      WarmUpProperties properties, Clock clock) {
+    this.applicationContext = applicationContext;
+    this.serverProperties = serverProperties;
+    this.sslBundles = sslBundles;
+    this.clientConfigurationService = clientConfigurationService;
+    this.warmUpFilter = warmUpFilter;
+    this.properties = properties;
+    this.clock = clock;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    try {
+      warmUp();
+    } catch (RuntimeException e) {
+      logger.warn("Ingest warm-up failed, starting without it", e);
+    }
+  }
+
+  /**
+   * Sends synthetic requests until the configured number of iterations or the time budget is reached.
+   *
+   * @return the number of requests that were accepted
+   */
+  int warmUp() {
+    final URI endpoint = getEndpoint();
+    if (endpoint == null) {
+      logger.warn("No web server is running, skipping the ingest warm-up");
+      return 0;
+    }
+    final HttpClient.Builder clientBuilder = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(TIMEOUT);
+    if ("https".equals(endpoint.getScheme())) {
+      clientBuilder.sslContext(createSslContext());
+    }
+    addSandboxClient();
+    final long start = clock.millis();
+    final long deadline = start + properties.timeBudget().toMillis();
+    int processed = 0;
+    int accepted = 0;
+    warmUpFilter.setActive(true);
+    try (HttpClient client = clientBuilder.build()) {
+      while (processed < properties.iterations() && clock.millis() < deadline) {
+        final HttpResponse<Void> response = client.send(createRequest(endpoint, warmUpFilter.getToken(), processed),
+            HttpResponse.BodyHandlers.discarding());
+        processed++;
+        if (response.statusCode() / 100 == 2) {
+          accepted++;
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while warming up", e);
+    } finally {
+      warmUpFilter.setActive(false);
+    }
+    if (accepted < processed) {
+      logger.warn("{} of {} warm-up requests were rejected", processed - accepted, processed);
+    }
+    logger.info("Warmed up the ingest path with {} synthetic requests in {} ms", processed, clock.millis() - start);
+    return accepted;
+  }
+
+  private URI getEndpoint() {
+    if (!(applicationContext instanceof ServletWebServerApplicationContext context) || context.getWebServer() == null
+        || context.getWebServer().getPort() <= 0) {
+      return null;
+    }
+    final String scheme = Ssl.isEnabled(serverProperties.getSsl()) ? "https" : "http";
+    return URI.create(scheme + "://" + LOOPBACK + ":" + context.getWebServer().getPort()
+        + context.getServletContext().getContextPath() + CorsConfig.TRACKING_ENDPOINT);
+  }
+
+  private SSLContext createSslContext() {
+    try {
+      final KeyStore keyStore = WebServerSslBundle.get(serverProperties.getSsl(), sslBundles).getStores().getKeyStore();
+      final TrustManagerFactory trustManagerFactory =
+          TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+      trustManagerFactory.init(keyStore);
+      final SSLContext sslContext = SSLContext.getInstance("TLS");
+      sslContext.init(null, new X509ExtendedTrustManager[] {
+          new OwnCertificateTrustManager((X509TrustManager) trustManagerFactory.getTrustManagers()[0])}, null);
+      return sslContext;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot trust the server certificate for the warm-up", e);
+    }
+  }
+
+  private void addSandboxClient() {
+    // loads the client ids first, a change is only applied to loaded ones
+    clientConfigurationService.getAllAuthorizedOriginsMatcher();
+    applicationContext.publishEvent(new ClientConfigurationChangedEvent(
+        new ClientConfiguration(SANDBOX_CLIENT_ID, "Warm-up", List.of(SANDBOX_ORIGIN)), List.of()));
+  }
+
+  // cycles through the shapes of real hits: beacons with an Origin header, beacons and pixels with only a Referer, and
+  // pixels in emails authorized by the email id parameter
+  static HttpRequest createRequest(URI endpoint, String token, int iteration) {
+    final String method = iteration % 4 < 2 ? "POST" : "GET";
+    final String form = createForm(method, iteration);
+    final HttpRequest.Builder request = HttpRequest.newBuilder()
+        .timeout(TIMEOUT)
+        .header(WarmUpFilter.TOKEN_HEADER, token)
+        .header(HttpHeaders.USER_AGENT, "Mozilla/5.0 (warm-up " + iteration % 7 + ")")
+        .header(HttpHeaders.ACCEPT_LANGUAGE, iteration % 2 == 0 ? "en-US,en;q=0.9" : "es-MX");
+    if ("POST".equals(method)) {
+      request.uri(endpoint)
+          .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+          .POST(HttpRequest.BodyPublishers.ofString(form));
+    } else {
+      request.uri(URI.create(endpoint + "?" + form)).GET();
+    }
+    switch (iteration % 4) {
+      case 0 -> request.header(HttpHeaders.ORIGIN, SANDBOX_ORIGIN);
+      case 1, 2 -> request.header(HttpHeaders.REFERER, SANDBOX_ORIGIN + "/warm-up/page-" + iteration % 50 + "?ref=" + iteration);
+      default -> { }
+    }
+    if (iteration % 3 == 0) {
+      request.header("X-Forwarded-For", "198.51.100." + (iteration % 254 + 1));
+    }
+    return request.build();
+  }
+
+  private static String createForm(String method, int iteration) {
+    final Map<String, String> parameters = new LinkedHashMap<>();
+    parameters.put(StandardParameter.CLIENT_ID.getName(method), SANDBOX_CLIENT_ID);
+    parameters.put(StandardParameter.USER_ID.getName(method), String.format("00000000-0000-4000-8000-%012d", iteration));
+    parameters.put(StandardParameter.EVENT_TYPE.getName(method), EVENT_TYPES[iteration % EVENT_TYPES.length]);
+    parameters.put(StandardParameter.PAGE.getName(method), "/warm-up/page-" + iteration % 50);
+    parameters.put("campaign", "warm-up-" + iteration % 3);
+    if (iteration % 4 == 3) {
+      parameters.put(StandardParameter.EMAIL_ID.getName(method), SANDBOX_ORIGIN);
+    }
+    return parameters.entrySet().stream()
+        .map(parameter -> encode(parameter.getKey()) + '=' + encode(parameter.getValue()))
+        .collect(Collectors.joining("&"));
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Checks the certificate chain of the server against the server's own key store only. The check of the host name
+   * the JDK adds for HTTPS is left out: the requests only go to the loopback address.
+   */
+  private static final class OwnCertificateTrustManager extends X509ExtendedTrustManager {
+    private final X509TrustManager keyStoreTrustManager;
+
+    private OwnCertificateTrustManager(X509TrustManager keyStoreTrustManager) {
+      this.keyStoreTrustManager = keyStoreTrustManager;
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+      keyStoreTrustManager.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+      checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+        throws CertificateException {
+      checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) throws CertificateException {
+      throw new CertificateException("The warm-up does not accept client connections");
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket) throws CertificateException {
+      checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+        throws CertificateException {
+      checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+      return keyStoreTrustManager.getAcceptedIssuers();
+    }
+  }
+}
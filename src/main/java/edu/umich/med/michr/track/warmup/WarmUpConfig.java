@@ -0,0 +1,32 @@
+package edu.umich.med.michr.track.warmup;
+
+import edu.umich.med.michr.track.config.cors.CorsConfig;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+@ConditionalOnProperty(prefix = "track.warm-up", name = "enabled", havingValue = "true")
+public class WarmUpConfig {
+
+  @Bean
+  public WarmUpFilter warmUpFilter(PlatformTransactionManager transactionManager, EntityManager entityManager,
+                                   WarmUpProperties properties) {
+    return new WarmUpFilter(transactionManager, entityManager, properties.flush());
+  }
+
+  /**
+   * Registers the {@link WarmUpFilter} for the tracking endpoint after the CORS preflight and ingest load filters and
+   * ahead of all others, so the rest of the request runs in its transaction.
+   */
+  @Bean
+  public FilterRegistrationBean<WarmUpFilter> warmUpFilterRegistration(WarmUpFilter warmUpFilter) {
+    FilterRegistrationBean<WarmUpFilter> registration = new FilterRegistrationBean<>(warmUpFilter);
+    registration.addUrlPatterns(CorsConfig.TRACKING_ENDPOINT);
+    registration.setOrder(CorsConfig.WARM_UP_FILTER_ORDER);
+    return registration;
+  }
+}
@@ -0,0 +1,83 @@
+package edu.umich.med.michr.track.warmup;
+
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+/**
+ * Runs the warm-up requests {@link IngestWarmUp} sends to the tracking endpoint in a transaction that is rolled back.
+ * <p>
+ * A request is a warm-up request only while the warm-up runs and only when it carries the {@value #TOKEN_HEADER} header
+ * with the random token of this node. The rest of the filter chain, the controller and the service included, then joins
+ * a rollback-only transaction: the event is saved by the regular service and sinks and, when {@code flush} is set, its
+ * insert is sent to the database before the rollback. Secondary sinks only receive committed events, so they never see
+ * it. Any other request goes on unchanged.
+ * </p>
+ */
+public class WarmUpFilter extends OncePerRequestFilter {
+  static final String TOKEN_HEADER = "X-Warm-Up-Token";
+
+  private final TransactionTemplate rollbackOnlyTransaction;
+  private final EntityManager entityManager;
+  private final boolean flush;
+  private final String token = UUID.randomUUID().toString();
+  private volatile boolean active;
+
+  public WarmUpFilter(PlatformTransactionManager transactionManager, EntityManager entityManager, boolean flush) {
+    this.rollbackOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.entityManager = entityManager;
+    this.flush = flush;
+  }
+
+  String getToken() {
+    return token;
+  }
+
+  void setActive(boolean active) {
+    this.active = active;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !active || !isWarmUpToken(request.getHeader(TOKEN_HEADER));
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    final Exception failure = rollbackOnlyTransaction.execute(status -> {
+      status.setRollbackOnly();
+      try {
+        filterChain.doFilter(request, response);
+      } catch (ServletException | IOException e) {
+        return e;
+      }
+      if (flush) {
+        // runs the insert now, the rollback discards it
+        entityManager.flush();
+      }
+      return null;
+    });
+    if (failure instanceof ServletException e) {
+      throw e;
+    }
+    if (failure instanceof IOException e) {
+      throw e;
+    }
+  }
+
+  private boolean isWarmUpToken(String value) {
+    return value != null && MessageDigest.isEqual(token.getBytes(StandardCharsets.US_ASCII),
+        value.getBytes(StandardCharsets.US_ASCII));
+  }
+}
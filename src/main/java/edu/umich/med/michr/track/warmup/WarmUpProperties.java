@@ -0,0 +1,17 @@
+package edu.umich.med.michr.track.warmup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the ingest warm-up run before the application reports ready.
+ *
+ * @param enabled whether synthetic events are processed before the application accepts traffic
+ * @param iterations the number of synthetic events to process
+ * @param timeBudget the maximum time spent warming up, the warm-up stops early when it is used up
+ * @param flush whether the inserts of the synthetic events are sent to the database before their transaction is rolled
+ *              back, without it the database is only asked for sequence values
+ */
+@ConfigurationProperties(prefix = "track.warm-up")
+public record WarmUpProperties(boolean enabled, int iterations, Duration timeBudget, boolean flush) {}
@@ -0,0 +1,201 @@
+package edu.umich.med.michr.track.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import edu.umich.med.michr.track.TrackApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures how much tracking traffic a single node takes: starts the application on an in-memory H2 database (or uses
+ * a running node), sends a mix of {@link Scenario} requests at a fixed rate and writes a {@link LoadReport}.
+ * <p>
+ * Requests are started on schedule whether or not the previous ones got their response (an open model, like browsers
+ * of independent visitors), each on its own virtual thread. The latency of a request is measured from when it was due,
+ * so a node that falls behind shows it in the latency rather than by slowing down the generator. The scenario of each
+ * request is drawn from a fixed seed, so every run sends the same sequence.
+ * </p>
+ * <p>
+ * The embedded node shares the CPUs of this JVM with the generator; compare runs made on the same machine only.
+ * </p>
+ */
+public final class LoadGenerator {
+  private static final long RANDOM_SEED = 20_240_601L;
+
+  private final LoadTestOptions options;
+  private final Scenario[] scenarioTable;
+
+  LoadGenerator(LoadTestOptions options) {
+    this.options = options;
+    this.scenarioTable = createScenarioTable(options.mix());
+  }
+
+  public static void main(String[] args) throws Exception {
+    final LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+    ConfigurableApplicationContext context = null;
+    try {
+      URI baseUri = options.target();
+      if (baseUri == null) {
+        context = startApplication();
+        baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/");
+      }
+      final LoadReport report = new LoadGenerator(options).run(baseUri);
+      write(report, options);
+      print(report, options);
+    } finally {
+      if (context != null) {
+        context.close();
+      }
+    }
+  }
+
+  /**
+   * Sends the warm-up traffic, then the measured traffic.
+   */
+  LoadReport run(URI baseUri) throws InterruptedException {
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+         HttpClient client = HttpClient.newBuilder()
+             .version(HttpClient.Version.HTTP_1_1)
+             .connectTimeout(options.timeout())
+             .executor(executor)
+             .build()) {
+      final SplittableRandom random = new SplittableRandom(RANDOM_SEED);
+      if (!options.warmUp().isZero()) {
+        System.out.printf("Warming up for %ss at %d requests/s against %s%n", options.warmUp().toSeconds(), options.rate(), baseUri);
+        send(client, executor, baseUri, random, options.warmUp(), createStats());
+      }
+
+      System.out.printf("Measuring for %ss at %d requests/s%n", options.duration().toSeconds(), options.rate());
+      final Map<Scenario, ScenarioStats> stats = createStats();
+      final Instant startedAt = Instant.now();
+      send(client, executor, baseUri, random, options.duration(), stats);
+      return LoadReport.of(options, startedAt, options.duration(), stats.values());
+    }
+  }
+
+  /**
+   * Starts the requests due during the given time, then waits for their responses.
+   */
+  private void send(HttpClient client, ExecutorService executor, URI baseUri, SplittableRandom random, Duration duration,
+                    Map<Scenario, ScenarioStats> stats) throws InterruptedException {
+    final Semaphore inFlight = new Semaphore(options.maxInFlight());
+    final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate();
+    final long count = duration.toNanos() / intervalNanos;
+    final long start = System.nanoTime();
+    for (long sequence = 0; sequence < count; sequence++) {
+      final long due = start + sequence * intervalNanos;
+      for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+        LockSupport.parkNanos(wait);
+      }
+
+      final Scenario scenario = scenarioTable[random.nextInt(scenarioTable.length)];
+      final ScenarioStats scenarioStats = stats.get(scenario);
+      if (!inFlight.tryAcquire()) {
+        scenarioStats.recordDropped();
+        continue;
+      }
+      final HttpRequest request = scenario.createRequest(baseUri, options.clientId(), sequence, options.timeout());
+      executor.execute(() -> {
+        try {
+          final HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+          scenarioStats.recordResponse(response.statusCode(), System.nanoTime() - due);
+        } catch (IOException e) {
+          scenarioStats.recordFailure(e, System.nanoTime() - due);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          inFlight.release();
+        }
+      });
+    }
+    // every request has either a response or timed out by then
+    if (inFlight.tryAcquire(options.maxInFlight(), options.timeout().multipliedBy(2).toMillis(), TimeUnit.MILLISECONDS)) {
+      inFlight.release(options.maxInFlight());
+    }
+  }
+
+  private Map<Scenario, ScenarioStats> createStats() {
+    final Map<Scenario, ScenarioStats> stats = new EnumMap<>(Scenario.class);
+    options.mix().forEach((scenario, weight) -> {
+      if (weight > 0) {
+        stats.put(scenario, new ScenarioStats(scenario));
+      }
+    });
+    return stats;
+  }
+
+  /**
+   * @return a table with each scenario repeated as many times as its weight, a uniformly drawn entry follows the mix
+   */
+  private static Scenario[] createScenarioTable(Map<Scenario, Integer> mix) {
+    return mix.entrySet().stream()
+        .flatMap(entry -> Collections.nCopies(entry.getValue(), entry.getKey()).stream())
+        .toArray(Scenario[]::new);
+  }
+
+  /**
+   * Starts the application on a random port with a private in-memory H2 database and without the per request logging,
+   * which would otherwise be measured along with the request processing.
+   */
+  private static ConfigurableApplicationContext startApplication() {
+    if (System.getProperty("log4j2.isWebapp") == null) {
+      System.setProperty("log4j2.isWebapp", "false");
+    }
+    return new SpringApplicationBuilder(TrackApplication.class).run(
+        "--server.port=0",
+        "--server.ssl.enabled=false",
+        "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=Oracle",
+        "--spring.datasource.driver-class-name=org.h2.Driver",
+        "--spring.datasource.type=com.zaxxer.hikari.HikariDataSource",
+        "--spring.sql.init.mode=embedded",
+        "--spring.h2.console.enabled=false",
+        "--server.tomcat.accesslog.enabled=false",
+        "--track.config-reload.enabled=false",
+        "--logging.level.edu.umich.med.michr.track=WARN",
+        "--logging.level.org.hibernate.orm.jdbc.bind=INFO",
+        "--logging.level.org.springframework.transaction=INFO");
+  }
+
+  private static void write(LoadReport report, LoadTestOptions options) throws IOException {
+    Files.createDirectories(options.output().toAbsolutePath().getParent());
+    new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .enable(SerializationFeature.INDENT_OUTPUT)
+        .writeValue(options.output().toFile(), report);
+  }
+
+  private static void print(LoadReport report, LoadTestOptions options) {
+    System.out.printf("%-15s %9s %9s %8s %8s %9s %9s %9s %9s%n",
+        "scenario", "requests", "req/s", "errors", "dropped", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+    report.scenarios().forEach((key, scenario) -> print(key, scenario));
+    print("total", report.total());
+    System.out.println("Report written to " + options.output().toAbsolutePath());
+  }
+
+  private static void print(String name, LoadReport.ScenarioReport scenario) {
+    System.out.printf("%-15s %9d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f%n", name, scenario.requests(),
+        scenario.throughput(), scenario.errors(), scenario.dropped(), scenario.latencyMillis().p50(),
+        scenario.latencyMillis().p99(), scenario.latencyMillis().p999(), scenario.latencyMillis().max());
+  }
+}
@@ -0,0 +1,88 @@
+package edu.umich.med.michr.track.perf;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The machine readable result of a load test run, written as JSON so runs on different commits can be compared.
+ *
+ * @param commit the commit the run was made on
+ * @param startedAt when the measured part of the run started
+ * @param configuration the settings of the run
+ * @param total the outcome of all the requests
+ * @param scenarios the outcome of the requests of each scenario, by scenario key
+ */
+record LoadReport(String commit, Instant startedAt, Configuration configuration, ScenarioReport total,
+                  Map<String, ScenarioReport> scenarios) {
+
+  /**
+   * @param target the base URI of the loaded node, {@code embedded} for the application started on H2
+   */
+  record Configuration(int rate, long durationSeconds, long warmUpSeconds, int maxInFlight, long timeoutMillis,
+                       Map<String, Integer> mix, String target, int availableProcessors) {}
+
+  /**
+   * @param requests the requests sent, with or without a response
+   * @param throughput the requests sent per second of the measured duration
+   * @param errors the requests without a response or with another status than expected
+   * @param errorRate the errors per request sent
+   * @param dropped the requests not sent because too many were waiting for a response
+   * @param outcomes the requests per status code, or per exception for the requests without a response
+   * @param latencyMillis the time from when a request was due to be sent to its response
+   */
+  record ScenarioReport(long requests, double throughput, long errors, double errorRate, long dropped,
+                        Map<String, Long> outcomes, Latency latencyMillis) {}
+
+  record Latency(double mean, double p50, double p90, double p99, double p999, double max) {
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    static Latency of(Histogram micros) {
+      return new Latency(
+          micros.getMean() / MICROS_PER_MILLI,
+          micros.getValueAtPercentile(50) / MICROS_PER_MILLI,
+          micros.getValueAtPercentile(90) / MICROS_PER_MILLI,
+          micros.getValueAtPercentile(99) / MICROS_PER_MILLI,
+          micros.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+          micros.getMaxValue() / MICROS_PER_MILLI);
+    }
+  }
+
+  static LoadReport of(LoadTestOptions options, Instant startedAt, Duration elapsed, Collection<ScenarioStats> stats) {
+    final Map<String, Integer> mix = new LinkedHashMap<>();
+    options.mix().forEach((scenario, weight) -> mix.put(scenario.getKey(), weight));
+    final Configuration configuration = new Configuration(options.rate(), options.duration().toSeconds(),
+        options.warmUp().toSeconds(), options.maxInFlight(), options.timeout().toMillis(), mix,
+        options.target() == null ? "embedded" : options.target().toString(), Runtime.getRuntime().availableProcessors());
+
+    final Map<String, ScenarioReport> scenarios = new LinkedHashMap<>();
+    final Histogram totalLatency = new Histogram(3);
+    final Map<String, Long> totalOutcomes = new TreeMap<>();
+    long requests = 0;
+    long errors = 0;
+    long dropped = 0;
+    for (ScenarioStats scenario : stats) {
+      scenarios.put(scenario.getScenario().getKey(), toReport(scenario.getRequests(), scenario.getErrors(),
+          scenario.getDropped(), scenario.getOutcomes(), scenario.getLatencyMicros(), elapsed));
+      totalLatency.add(scenario.getLatencyMicros());
+      scenario.getOutcomes().forEach((outcome, count) -> totalOutcomes.merge(outcome, count, Long::sum));
+      requests += scenario.getRequests();
+      errors += scenario.getErrors();
+      dropped += scenario.getDropped();
+    }
+    return new LoadReport(options.commit(), startedAt, configuration,
+        toReport(requests, errors, dropped, totalOutcomes, totalLatency, elapsed), scenarios);
+  }
+
+  private static ScenarioReport toReport(long requests, long errors, long dropped, Map<String, Long> outcomes,
+                                         Histogram latencyMicros, Duration elapsed) {
+    final double seconds = elapsed.toNanos() / 1e9;
+    return new ScenarioReport(requests, requests / seconds, errors, requests == 0 ? 0 : (double) errors / requests,
+        dropped, outcomes, Latency.of(latencyMicros));
+  }
+}
@@ -0,0 +1,78 @@
+package edu.umich.med.michr.track.perf;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, read from {@code load.*} system properties (set by the {@code loadTest} Gradle task from
+ * the {@code -Pload*} project properties).
+ *
+ * @param rate the requests started per second, at a fixed pace whatever the response times (open model)
+ * @param duration how long the measured part of the run lasts
+ * @param warmUp how long the traffic runs before the measurement starts, its results are discarded
+ * @param maxInFlight the maximum number of requests waiting for a response; a request that would exceed it is counted
+ *                    as dropped instead of being sent
+ * @param timeout how long a request may wait for its response before it counts as an error
+ * @param mix the relative weight of each scenario in the traffic
+ * @param target the base URI of a running node to load, or {@code null} to start the application on H2 in this JVM
+ * @param clientId the client id of the tracking requests
+ * @param output the file the JSON report is written to
+ * @param commit the commit the run was made on, reported to tell runs apart
+ */
+record LoadTestOptions(int rate, Duration duration, Duration warmUp, int maxInFlight, Duration timeout,
+                       Map<Scenario, Integer> mix, URI target, String clientId, Path output, String commit) {
+  static final String DEFAULT_MIX = "pixel=50,form-post=30,preflight=10,invalid-origin=10";
+  // the client of the development data in data.sql
+  static final String DEFAULT_CLIENT_ID = "d2c1e4a7-63c5-4dfd-a392-35636f7ce5ac";
+
+  LoadTestOptions {
+    if (rate <= 0 || maxInFlight <= 0) {
+      throw new IllegalArgumentException("The rate and the maximum number of requests in flight must be positive");
+    }
+    if (duration.isNegative() || duration.isZero() || warmUp.isNegative()) {
+      throw new IllegalArgumentException("The duration must be positive and the warm-up may not be negative");
+    }
+    mix = Collections.unmodifiableMap(new EnumMap<>(mix));
+  }
+
+  static LoadTestOptions fromSystemProperties() {
+    final String target = System.getProperty("load.target", "");
+    return new LoadTestOptions(
+        Integer.parseInt(System.getProperty("load.rate", "500")),
+        Duration.parse("PT" + System.getProperty("load.duration", "30s")),
+        Duration.parse("PT" + System.getProperty("load.warmUp", "10s")),
+        Integer.parseInt(System.getProperty("load.maxInFlight", "2000")),
+        Duration.parse("PT" + System.getProperty("load.timeout", "5s")),
+        parseMix(System.getProperty("load.mix", DEFAULT_MIX)),
+        target.isBlank() ? null : URI.create(target.endsWith("/") ? target : target + "/"),
+        System.getProperty("load.clientId", DEFAULT_CLIENT_ID),
+        Path.of(System.getProperty("load.output", "build/reports/load/results.json")),
+        System.getProperty("load.commit", "unknown"));
+  }
+
+  /**
+   * Parses a traffic mix such as {@value #DEFAULT_MIX}; scenarios that are not listed get no traffic.
+   */
+  static Map<Scenario, Integer> parseMix(String mix) {
+    final Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+    for (String entry : mix.split(",")) {
+      final String[] keyAndWeight = entry.trim().split("=");
+      if (keyAndWeight.length != 2) {
+        throw new IllegalArgumentException("Expected <scenario>=<weight> in the traffic mix: " + entry);
+      }
+      final int weight = Integer.parseInt(keyAndWeight[1].trim());
+      if (weight < 0) {
+        throw new IllegalArgumentException("Negative weight in the traffic mix: " + entry);
+      }
+      weights.put(Scenario.fromKey(keyAndWeight[0].trim()), weight);
+    }
+    if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+      throw new IllegalArgumentException("The traffic mix has no traffic: " + mix);
+    }
+    return weights;
+  }
+}
@@ -0,0 +1,241 @@
+package edu.umich.med.michr.track.perf;
+
+import edu.umich.med.michr.track.TrackApplication;
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import edu.umich.med.michr.track.repository.AnalyticsEventRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Compares the ways of writing analytics events, against the application's own mapping and connection pool on an
+ * in-memory H2 database in Oracle mode.
+ * <p>
+ * Every combination of {@link WriteStrategy}, batch size, custom attribute count and thread count runs for a warm-up
+ * period, then for the measured duration. Each thread builds a batch of events, writes and commits it and starts over;
+ * the commit latency is the time of one such write, from the first statement to the end of the commit. The tables are
+ * emptied between the combinations so they all start from the same database size.
+ * </p>
+ * <p>
+ * Settings are read from {@code persistence.*} system properties (set by the {@code persistenceBenchmark} Gradle task
+ * from the {@code -Ppersistence*} project properties).
+ * </p>
+ */
+public final class PersistenceBenchmark {
+  private static final int ATTRIBUTE_VALUE_LENGTH = 24;
+
+  private final WriteStrategy.Resources resources;
+  private final JdbcTemplate jdbcTemplate;
+  private final Duration warmUp;
+  private final Duration duration;
+
+  PersistenceBenchmark(WriteStrategy.Resources resources, Duration warmUp, Duration duration) {
+    this.resources = resources;
+    this.jdbcTemplate = new JdbcTemplate(resources.dataSource());
+    this.warmUp = warmUp;
+    this.duration = duration;
+  }
+
+  public static void main(String[] args) throws Exception {
+    final List<WriteStrategy> strategies = parseList(System.getProperty("persistence.strategies", ""), WriteStrategy::fromKey);
+    final List<Integer> batchSizes = parseList(System.getProperty("persistence.batchSizes", "1,10,100"), Integer::valueOf);
+    final List<Integer> attributeCounts = parseList(System.getProperty("persistence.attributes", "0,10"), Integer::valueOf);
+    final List<Integer> threadCounts = parseList(System.getProperty("persistence.threads", "1,4"), Integer::valueOf);
+    final Duration warmUp = Duration.parse("PT" + System.getProperty("persistence.warmUp", "1s"));
+    final Duration duration = Duration.parse("PT" + System.getProperty("persistence.duration", "3s"));
+    final Path output = Path.of(System.getProperty("persistence.output", "build/reports/persistence/results.txt"));
+
+    try (ConfigurableApplicationContext context = startApplication()) {
+      final PersistenceBenchmark benchmark = new PersistenceBenchmark(new WriteStrategy.Resources(
+          context.getBean(AnalyticsEventRepository.class),
+          new TransactionTemplate(context.getBean(PlatformTransactionManager.class)),
+          context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class),
+          context.getBean(DataSource.class)), warmUp, duration);
+
+      final List<Result> results = new ArrayList<>();
+      System.out.println(Result.HEADER);
+      for (WriteStrategy strategy : strategies.isEmpty() ? List.of(WriteStrategy.values()) : strategies) {
+        // the batch size makes no difference to a strategy writing every event on its own
+        for (int batchSize : strategy.isBatching() ? batchSizes : List.of(1)) {
+          for (int attributes : attributeCounts) {
+            for (int threads : threadCounts) {
+              final Result result = benchmark.run(strategy, batchSize, attributes, threads);
+              System.out.println(result.format());
+              results.add(result);
+            }
+          }
+        }
+      }
+      write(results, output, warmUp, duration);
+    }
+  }
+
+  /**
+   * Runs one combination and empties the tables afterwards.
+   */
+  Result run(WriteStrategy strategy, int batchSize, int attributes, int threads) throws InterruptedException {
+    try {
+      runThreads(strategy, batchSize, attributes, threads, warmUp, new ConcurrentHistogram(3), new LongAdder());
+      final Histogram latencyMicros = new ConcurrentHistogram(3);
+      final LongAdder events = new LongAdder();
+      final long elapsedNanos = runThreads(strategy, batchSize, attributes, threads, duration, latencyMicros, events);
+      return new Result(strategy, batchSize, attributes, threads, events.sum() * 1e9 / elapsedNanos,
+          latencyMicros.getTotalCount(), latencyMicros);
+    } finally {
+      jdbcTemplate.update("delete from ANALYTICS_EVENT_ATTRIBUTE");
+      jdbcTemplate.update("delete from ANALYTICS_EVENT");
+    }
+  }
+
+  private long runThreads(WriteStrategy strategy, int batchSize, int attributes, int threads, Duration runTime,
+                          Histogram latencyMicros, LongAdder events) throws InterruptedException {
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final CountDownLatch ready = new CountDownLatch(threads);
+      final CountDownLatch go = new CountDownLatch(1);
+      final long[] deadline = new long[1];
+      final List<Future<?>> writers = new ArrayList<>();
+      for (int thread = 0; thread < threads; thread++) {
+        final int writer = thread;
+        writers.add(executor.submit(() -> {
+          ready.countDown();
+          go.await();
+          long sequence = 0;
+          while (System.nanoTime() < deadline[0]) {
+            final List<AnalyticsEvent> batch = createEvents(writer, sequence, batchSize, attributes);
+            sequence += batchSize;
+            final long start = System.nanoTime();
+            strategy.write(batch, resources);
+            latencyMicros.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+            events.add(batchSize);
+          }
+          return null;
+        }));
+      }
+      ready.await();
+      final long start = System.nanoTime();
+      deadline[0] = start + runTime.toNanos();
+      go.countDown();
+      for (Future<?> writer : writers) {
+        writer.get();
+      }
+      return System.nanoTime() - start;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(strategy.getKey() + " failed", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static List<AnalyticsEvent> createEvents(int writer, long sequence, int count, int attributes) {
+    final List<AnalyticsEvent> events = new ArrayList<>(count);
+    final Instant now = Instant.now();
+    for (int i = 0; i < count; i++) {
+      final long number = sequence + i;
+      final Map<String, String> customAttributes = new LinkedHashMap<>();
+      for (int attribute = 0; attribute < attributes; attribute++) {
+        customAttributes.put("attribute" + attribute, padValue(writer + "-" + number + "-" + attribute));
+      }
+      events.add(AnalyticsEvent.builder(LoadTestOptions.DEFAULT_CLIENT_ID, "user-" + (number % 5_000), "click",
+              "/articles/" + (number % 50), now)
+          .ipAddress("192.168.1." + (number % 250))
+          .userAgent("Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0 Safari/537.36")
+          .browserLanguage("en-US")
+          .customAttributes(customAttributes)
+          .build());
+    }
+    return events;
+  }
+
+  private static String padValue(String value) {
+    return value.length() >= ATTRIBUTE_VALUE_LENGTH ? value : value + "x".repeat(ATTRIBUTE_VALUE_LENGTH - value.length());
+  }
+
+  /**
+   * Starts the application without a web server, on a private in-memory H2 database in Oracle mode and without the
+   * statement profiler and the per statement logging, which would otherwise be measured along with the writes.
+   */
+  private static ConfigurableApplicationContext startApplication() {
+    return new SpringApplicationBuilder(TrackApplication.class).web(WebApplicationType.NONE).run(
+        "--spring.datasource.url=jdbc:h2:mem:persistence;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=Oracle",
+        "--spring.datasource.driver-class-name=org.h2.Driver",
+        "--spring.datasource.type=com.zaxxer.hikari.HikariDataSource",
+        "--spring.sql.init.mode=embedded",
+        "--spring.h2.console.enabled=false",
+        "--track.jdbc-profiler.enabled=false",
+        "--track.config-reload.enabled=false",
+        "--logging.level.edu.umich.med.michr.track=WARN",
+        "--logging.level.org.hibernate.orm.jdbc.bind=INFO",
+        "--logging.level.org.springframework.transaction=INFO");
+  }
+
+  private static void write(List<Result> results, Path output, Duration warmUp, Duration duration) throws IOException {
+    final List<String> lines = new ArrayList<>();
+    lines.add(String.format("Analytics event writes on H2 (Oracle mode), %ss warm-up and %ss measured per row, %d processors",
+        warmUp.toSeconds(), duration.toSeconds(), Runtime.getRuntime().availableProcessors()));
+    lines.add(Result.HEADER);
+    results.forEach(result -> lines.add(result.format()));
+    Files.createDirectories(output.toAbsolutePath().getParent());
+    Files.write(output, lines);
+    System.out.println("Results written to " + output.toAbsolutePath());
+  }
+
+  private static <T> List<T> parseList(String values, Function<String, T> parser) {
+    return Arrays.stream(values.split(","))
+        .map(String::trim)
+        .filter(value -> !value.isEmpty())
+        .map(parser)
+        .toList();
+  }
+
+  /**
+   * The outcome of one combination.
+   *
+   * @param eventsPerSecond the events committed per second, over all the threads
+   * @param commits the number of writes, each ending with a commit
+   * @param latencyMicros the duration of every write, including its commit
+   */
+  record Result(WriteStrategy strategy, int batchSize, int attributes, int threads, double eventsPerSecond,
+                long commits, Histogram latencyMicros) {
+    static final String HEADER = String.format("%-22s %6s %6s %8s %12s %9s %10s %10s %10s %10s",
+        "strategy", "batch", "attrs", "threads", "events/s", "commits", "p50 ms", "p90 ms", "p99 ms", "max ms");
+
+    String format() {
+      return String.format("%-22s %6d %6d %8d %12.0f %9d %10.3f %10.3f %10.3f %10.3f", strategy.getKey(), batchSize,
+          attributes, threads, eventsPerSecond, commits, millis(latencyMicros.getValueAtPercentile(50)),
+          millis(latencyMicros.getValueAtPercentile(90)), millis(latencyMicros.getValueAtPercentile(99)),
+          millis(latencyMicros.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+      return micros / 1000.0;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package edu.umich.med.michr.track.perf;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+/**
+ * The kinds of traffic a tracking node receives, each with the request a browser would send and the status it should
+ * get back.
+ */
+enum Scenario {
+  /**
+   * An image pixel embedded in a page or an email: a GET with hyphenated parameters and only a Referer header.
+   */
+  PIXEL("pixel", 200) {
+    @Override
+    HttpRequest.Builder createRequest(URI baseUri, String clientId, long sequence) {
+      return HttpRequest.newBuilder(baseUri.resolve(EVENTS_PATH + "?client-id=" + clientId + "&user-id=user-" + (sequence % USERS)
+              + "&event-type=page-view&page=/articles/" + (sequence % PAGES) + "&campaign=spring&source=newsletter"))
+          .header("Referer", AUTHORIZED_ORIGIN + "/articles/" + (sequence % PAGES) + "?utm_source=newsletter")
+          .GET();
+    }
+  },
+  /**
+   * The JavaScript tag posting a form with camel case parameters from an authorized origin.
+   */
+  FORM_POST("form-post", 204) {
+    @Override
+    HttpRequest.Builder createRequest(URI baseUri, String clientId, long sequence) {
+      return formPost(baseUri, clientId, sequence, AUTHORIZED_ORIGIN);
+    }
+  },
+  /**
+   * The CORS preflight a browser sends before the form post when it has no cached answer.
+   */
+  PREFLIGHT("preflight", 200) {
+    @Override
+    HttpRequest.Builder createRequest(URI baseUri, String clientId, long sequence) {
+      return HttpRequest.newBuilder(baseUri.resolve(EVENTS_PATH))
+          .header("Origin", AUTHORIZED_ORIGIN)
+          .header("Access-Control-Request-Method", "POST")
+          .header("Access-Control-Request-Headers", "content-type")
+          .method("OPTIONS", HttpRequest.BodyPublishers.noBody());
+    }
+  },
+  /**
+   * A form post from an origin that is not authorized for the client, rejected before anything is saved.
+   */
+  INVALID_ORIGIN("invalid-origin", 403) {
+    @Override
+    HttpRequest.Builder createRequest(URI baseUri, String clientId, long sequence) {
+      return formPost(baseUri, clientId, sequence, "https://unauthorized-" + (sequence % PAGES) + ".example.org");
+    }
+  };
+
+  static final String AUTHORIZED_ORIGIN = "http://localhost";
+  private static final String EVENTS_PATH = "/analytics/events";
+  private static final int USERS = 5_000;
+  private static final int PAGES = 50;
+
+  private final String key;
+  private final int expectedStatus;
+
+  Scenario(String key, int expectedStatus) {
+    this.key = key;
+    this.expectedStatus = expectedStatus;
+  }
+
+  abstract HttpRequest.Builder createRequest(URI baseUri, String clientId, long sequence);
+
+  HttpRequest createRequest(URI baseUri, String clientId, long sequence, Duration timeout) {
+    return createRequest(baseUri, clientId, sequence).timeout(timeout).build();
+  }
+
+  String getKey() {
+    return key;
+  }
+
+  int getExpectedStatus() {
+    return expectedStatus;
+  }
+
+  /**
+   * @return the scenario with the given key, as used in the traffic mix and the report
+   */
+  static Scenario fromKey(String key) {
+    for (Scenario scenario : values()) {
+      if (scenario.key.equals(key)) {
+        return scenario;
+      }
+    }
+    throw new IllegalArgumentException("Unknown scenario: " + key);
+  }
+
+  private static HttpRequest.Builder formPost(URI baseUri, String clientId, long sequence, String origin) {
+    final String form = "clientId=" + clientId + "&userId=user-" + (sequence % USERS) + "&eventType=click&page=/articles/"
+        + (sequence % PAGES) + "&button=subscribe&position=" + (sequence % 10);
+    return HttpRequest.newBuilder(baseUri.resolve(EVENTS_PATH))
+        .header("Origin", origin)
+        .header("Content-Type", "application/x-www-form-urlencoded")
+        .POST(HttpRequest.BodyPublishers.ofString(form));
+  }
+}
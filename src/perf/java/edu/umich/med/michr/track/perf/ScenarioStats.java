@@ -0,0 +1,91 @@
+package edu.umich.med.michr.track.perf;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The outcome of the requests of one scenario, recorded concurrently by the threads waiting for the responses.
+ */
+class ScenarioStats {
+  // responses slower than this are recorded as this, they are errors long before that anyway
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+  private final Scenario scenario;
+  private final Histogram latencyMicros = new ConcurrentHistogram(1, HIGHEST_TRACKABLE_MICROS, 3);
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+  ScenarioStats(Scenario scenario) {
+    this.scenario = scenario;
+  }
+
+  /**
+   * Records a response, it is an error unless it has the status expected for the scenario.
+   */
+  void recordResponse(int status, long latencyNanos) {
+    requests.increment();
+    if (status != scenario.getExpectedStatus()) {
+      errors.increment();
+    }
+    outcomes.computeIfAbsent(Integer.toString(status), key -> new LongAdder()).increment();
+    recordLatency(latencyNanos);
+  }
+
+  /**
+   * Records a request that got no response, e.g. because it timed out or the connection was refused.
+   */
+  void recordFailure(Throwable failure, long latencyNanos) {
+    requests.increment();
+    errors.increment();
+    outcomes.computeIfAbsent(failure.getClass().getSimpleName(), key -> new LongAdder()).increment();
+    recordLatency(latencyNanos);
+  }
+
+  /**
+   * Records a request that was not sent because too many requests were already waiting for a response.
+   */
+  void recordDropped() {
+    dropped.increment();
+  }
+
+  Scenario getScenario() {
+    return scenario;
+  }
+
+  long getRequests() {
+    return requests.sum();
+  }
+
+  long getErrors() {
+    return errors.sum();
+  }
+
+  long getDropped() {
+    return dropped.sum();
+  }
+
+  /**
+   * @return the number of requests per status code, or per exception for the requests without a response
+   */
+  Map<String, Long> getOutcomes() {
+    final Map<String, Long> counts = new TreeMap<>();
+    outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+    return counts;
+  }
+
+  Histogram getLatencyMicros() {
+    return latencyMicros;
+  }
+
+  private void recordLatency(long latencyNanos) {
+    latencyMicros.recordValue(Math.min(Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos)), HIGHEST_TRACKABLE_MICROS));
+  }
+}
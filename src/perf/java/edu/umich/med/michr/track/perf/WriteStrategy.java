@@ -0,0 +1,219 @@
+package edu.umich.med.michr.track.perf;
+
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import edu.umich.med.michr.track.repository.AnalyticsEventRepository;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A way of writing analytics events and their custom attributes to the database. Every strategy writes the same rows
+ * as the {@link AnalyticsEvent} mapping and commits once per call, except {@link #JPA_SAVE} which commits every event
+ * like the request processing does.
+ */
+enum WriteStrategy {
+  /**
+   * {@code AnalyticsEventRepository.save} in its own transaction for every event, as the request processing does.
+   */
+  JPA_SAVE("jpa-save", false) {
+    @Override
+    void write(List<AnalyticsEvent> events, Resources resources) {
+      for (AnalyticsEvent event : events) {
+        resources.transactionTemplate().executeWithoutResult(status -> resources.repository().save(event));
+      }
+    }
+  },
+  /**
+   * {@code persist} of all the events in one session with Hibernate JDBC batching of the size of the batch.
+   */
+  HIBERNATE_BATCH("hibernate-batch", true) {
+    @Override
+    void write(List<AnalyticsEvent> events, Resources resources) {
+      try (Session session = resources.sessionFactory().openSession()) {
+        session.setJdbcBatchSize(events.size());
+        final Transaction transaction = session.beginTransaction();
+        events.forEach(session::persist);
+        transaction.commit();
+      }
+    }
+  },
+  /**
+   * {@code insert} of the events in a stateless session: no persistence context, no dirty checking and no flush. The
+   * attributes are written along with their event.
+   */
+  STATELESS_SESSION("stateless-session", true) {
+    @Override
+    void write(List<AnalyticsEvent> events, Resources resources) {
+      try (StatelessSession session = resources.sessionFactory().openStatelessSession()) {
+        session.setJdbcBatchSize(events.size());
+        final Transaction transaction = session.beginTransaction();
+        events.forEach(session::insert);
+        transaction.commit();
+      }
+    }
+  },
+  /**
+   * Plain JDBC batches for the events and for their attributes, with one sequence query per event, which is what the
+   * {@code allocationSize = 1} of the mapping makes Hibernate do.
+   */
+  JDBC_BATCH("jdbc-batch", true) {
+    @Override
+    void write(List<AnalyticsEvent> events, Resources resources) throws SQLException {
+      writeWithJdbc(events, resources, WriteStrategy::nextIds);
+    }
+  },
+  /**
+   * Plain JDBC batches, with the ids of the whole batch taken from the sequence in a single query.
+   */
+  JDBC_BATCH_BLOCK_IDS("jdbc-batch-block-ids", true) {
+    @Override
+    void write(List<AnalyticsEvent> events, Resources resources) throws SQLException {
+      writeWithJdbc(events, resources, WriteStrategy::nextIdBlock);
+    }
+  };
+
+  private static final String NEXT_ID = "select next value for ANALYTICS_EVENT_SEQ";
+  private static final String NEXT_ID_BLOCK = "select next value for ANALYTICS_EVENT_SEQ from system_range(1, ?)";
+  private static final String INSERT_EVENT = "insert into ANALYTICS_EVENT (ID, CLIENT_ID, USER_ID, EVENT, PAGE, "
+      + "EVENT_TIME, IP_ADDRESS, USER_AGENT, BROWSER_LANGUAGE) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+  private static final String INSERT_ATTRIBUTE =
+      "insert into ANALYTICS_EVENT_ATTRIBUTE (ANALYTICS_EVENT_ID, ATTRIBUTE_NAME, ATTRIBUTE_VALUE) values (?, ?, ?)";
+
+  private final String key;
+  private final boolean batching;
+
+  WriteStrategy(String key, boolean batching) {
+    this.key = key;
+    this.batching = batching;
+  }
+
+  /**
+   * Writes and commits the events.
+   */
+  abstract void write(List<AnalyticsEvent> events, Resources resources) throws SQLException;
+
+  String getKey() {
+    return key;
+  }
+
+  /**
+   * @return false if the strategy writes every event on its own, so the batch size makes no difference to it
+   */
+  boolean isBatching() {
+    return batching;
+  }
+
+  static WriteStrategy fromKey(String key) {
+    for (WriteStrategy strategy : values()) {
+      if (strategy.key.equals(key)) {
+        return strategy;
+      }
+    }
+    throw new IllegalArgumentException("Unknown write strategy: " + key);
+  }
+
+  /**
+   * What the strategies write with, all from the application context.
+   */
+  record Resources(AnalyticsEventRepository repository, TransactionTemplate transactionTemplate,
+                   SessionFactory sessionFactory, DataSource dataSource) {}
+
+  @FunctionalInterface
+  private interface IdAllocator {
+    long[] allocate(Connection connection, int count) throws SQLException;
+  }
+
+  private static void writeWithJdbc(List<AnalyticsEvent> events, Resources resources, IdAllocator ids)
+      throws SQLException {
+    try (Connection connection = resources.dataSource().getConnection()) {
+      connection.setAutoCommit(false);
+      try {
+        final long[] eventIds = ids.allocate(connection, events.size());
+        insertEvents(connection, events, eventIds);
+        insertAttributes(connection, events, eventIds);
+        connection.commit();
+      } catch (SQLException | RuntimeException e) {
+        connection.rollback();
+        throw e;
+      } finally {
+        connection.setAutoCommit(true);
+      }
+    }
+  }
+
+  private static long[] nextIds(Connection connection, int count) throws SQLException {
+    final long[] ids = new long[count];
+    try (PreparedStatement statement = connection.prepareStatement(NEXT_ID)) {
+      for (int i = 0; i < count; i++) {
+        try (ResultSet resultSet = statement.executeQuery()) {
+          resultSet.next();
+          ids[i] = resultSet.getLong(1);
+        }
+      }
+    }
+    return ids;
+  }
+
+  private static long[] nextIdBlock(Connection connection, int count) throws SQLException {
+    final long[] ids = new long[count];
+    try (PreparedStatement statement = connection.prepareStatement(NEXT_ID_BLOCK)) {
+      statement.setInt(1, count);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        for (int i = 0; i < count && resultSet.next(); i++) {
+          ids[i] = resultSet.getLong(1);
+        }
+      }
+    }
+    return ids;
+  }
+
+  private static void insertEvents(Connection connection, List<AnalyticsEvent> events, long[] ids) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(INSERT_EVENT)) {
+      for (int i = 0; i < ids.length; i++) {
+        final AnalyticsEvent event = events.get(i);
+        statement.setLong(1, ids[i]);
+        statement.setString(2, event.getClientId());
+        statement.setString(3, event.getUserId());
+        statement.setString(4, event.getEventType());
+        statement.setString(5, event.getPage());
+        statement.setObject(6, OffsetDateTime.ofInstant(event.getEventTimestamp(), ZoneOffset.UTC));
+        statement.setString(7, event.getIpAddress());
+        statement.setString(8, event.getUserAgent());
+        statement.setString(9, event.getBrowserLanguage());
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  private static void insertAttributes(Connection connection, List<AnalyticsEvent> events, long[] ids)
+      throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(INSERT_ATTRIBUTE)) {
+      boolean empty = true;
+      for (int i = 0; i < ids.length; i++) {
+        for (Map.Entry<String, String> attribute : events.get(i).getCustomAttributes().entrySet()) {
+          statement.setLong(1, ids[i]);
+          statement.setString(2, attribute.getKey());
+          statement.setString(3, attribute.getValue());
+          statement.addBatch();
+          empty = false;
+        }
+      }
+      if (!empty) {
+        statement.executeBatch();
+      }
+    }
+  }
+}
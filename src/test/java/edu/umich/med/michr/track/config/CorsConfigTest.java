@@ -1,18 +1,19 @@
 package edu.umich.med.michr.track.config;
 
 import edu.umich.med.michr.track.config.cors.CorsConfig;
+import edu.umich.med.michr.track.config.cors.CorsProperties;
 import edu.umich.med.michr.track.service.ClientConfigurationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.Objects;
 import java.util.Set;
@@ -27,7 +28,6 @@ class CorsConfigTest {
   @Mock
   private ClientConfigurationService clientConfigurationService;
 
-  @InjectMocks
   private CorsConfig corsConfig;
 
   private final Set<String> testDomains = Set.of(
@@ -39,6 +39,7 @@ class CorsConfigTest {
 
   @BeforeEach
   void setUp() {
+    corsConfig = new CorsConfig(clientConfigurationService, new CorsProperties(Duration.ofHours(1)));
     when(clientConfigurationService.getAllAuthorizedOrigins()).thenReturn(testDomains);
   }
 
@@ -60,6 +61,7 @@ class CorsConfigTest {
     assertTrue(config.getAllowedMethods().contains("POST"));
     assertTrue(Objects.requireNonNull(config.getAllowedHeaders()).contains("*"));
     assertEquals(Boolean.TRUE, config.getAllowCredentials());
+    assertEquals(3600L, config.getMaxAge());
   }
 
   @Test
@@ -81,5 +83,6 @@ class CorsConfigTest {
         "With no domains, allowed origins should be empty");
     assertTrue(Objects.requireNonNull(config.getAllowedMethods()).contains("GET"));
     assertTrue(config.getAllowedMethods().contains("POST"));
+    assertEquals(Boolean.TRUE, config.getAllowCredentials());
   }
 }
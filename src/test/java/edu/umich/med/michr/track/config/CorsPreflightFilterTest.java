@@ -0,0 +1,146 @@
+package edu.umich.med.michr.track.config;
+
+import edu.umich.med.michr.track.config.cors.CorsPreflightFilter;
+import edu.umich.med.michr.track.config.cors.CorsProperties;
+import edu.umich.med.michr.track.service.ClientConfigurationService;
+import edu.umich.med.michr.track.util.OriginMatcher;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.cors.CorsConfiguration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CorsPreflightFilter Tests")
+class CorsPreflightFilterTest {
+  private static final String ORIGIN = "https://example.com";
+
+  @Mock
+  private ClientConfigurationService clientConfigurationService;
+
+  @Mock
+  private FilterChain filterChain;
+
+  private CorsPreflightFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    final CorsConfiguration corsConfiguration = new CorsConfiguration();
+    corsConfiguration.setAllowedMethods(List.of("GET", "POST"));
+    corsConfiguration.setAllowedHeaders(List.of("*"));
+    corsConfiguration.setAllowCredentials(true);
+    filter = new CorsPreflightFilter(clientConfigurationService, corsConfiguration, new CorsProperties(Duration.ofMinutes(10)));
+  }
+
+  @Test
+  @DisplayName("should answer allowed preflight requests without calling the rest of the chain")
+  void testAllowedPreflight() throws Exception {
+    when(clientConfigurationService.getAllAuthorizedOriginsMatcher()).thenReturn(OriginMatcher.of(Set.of(ORIGIN)));
+    final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(preflight(ORIGIN, "POST"), response, filterChain);
+
+    assertEquals(200, response.getStatus());
+    assertEquals(ORIGIN, response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+    assertEquals("GET,POST", response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS));
+    assertEquals("Content-Type", response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS));
+    assertEquals("true", response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS));
+    assertEquals("600", response.getHeader(HttpHeaders.ACCESS_CONTROL_MAX_AGE));
+    verifyNoInteractions(filterChain);
+  }
+
+  @Test
+  @DisplayName("should reject preflight requests from origins that are not authorized")
+  void testRejectedOrigin() throws Exception {
+    when(clientConfigurationService.getAllAuthorizedOriginsMatcher()).thenReturn(OriginMatcher.of(Set.of(ORIGIN)));
+    final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(preflight("https://evil.com", "GET"), response, filterChain);
+
+    assertEquals(403, response.getStatus());
+    assertNull(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN));
+    verifyNoInteractions(filterChain);
+  }
+
+  @Test
+  @DisplayName("should reject preflight requests for methods that are not allowed")
+  void testRejectedMethod() throws Exception {
+    final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(preflight(ORIGIN, "DELETE"), response, filterChain);
+
+    assertEquals(403, response.getStatus());
+    verifyNoInteractions(clientConfigurationService);
+  }
+
+  @Test
+  @DisplayName("should check the origins of the client when the preflight carries a client id")
+  void testClientIdPreflight() throws Exception {
+    when(clientConfigurationService.getOriginMatcher("client-1")).thenReturn(OriginMatcher.of(Set.of(ORIGIN)));
+    when(clientConfigurationService.getOriginMatcher("unknown")).thenReturn(null);
+
+    final MockHttpServletRequest known = preflight(ORIGIN, "GET");
+    known.setParameter("client-id", "client-1");
+    final MockHttpServletResponse knownResponse = new MockHttpServletResponse();
+    filter.doFilter(known, knownResponse, filterChain);
+
+    final MockHttpServletRequest unknown = preflight(ORIGIN, "POST");
+    unknown.setParameter("clientId", "unknown");
+    final MockHttpServletResponse unknownResponse = new MockHttpServletResponse();
+    filter.doFilter(unknown, unknownResponse, filterChain);
+
+    assertEquals(200, knownResponse.getStatus());
+    assertEquals(403, unknownResponse.getStatus());
+    verify(clientConfigurationService, never()).getAllAuthorizedOriginsMatcher();
+  }
+
+  @Test
+  @DisplayName("should recompute the decision when the client configuration changes")
+  void testDecisionRecomputedAfterConfigurationChange() throws Exception {
+    when(clientConfigurationService.getAllAuthorizedOriginsMatcher())
+        .thenReturn(OriginMatcher.of(Set.of(ORIGIN)))
+        .thenReturn(OriginMatcher.none());
+
+    final MockHttpServletResponse first = new MockHttpServletResponse();
+    filter.doFilter(preflight(ORIGIN, "GET"), first, filterChain);
+    final MockHttpServletResponse second = new MockHttpServletResponse();
+    filter.doFilter(preflight(ORIGIN, "GET"), second, filterChain);
+
+    assertEquals(200, first.getStatus());
+    assertEquals(403, second.getStatus());
+  }
+
+  @Test
+  @DisplayName("should pass requests that are not preflight requests down the chain")
+  void testNonPreflightRequest() throws Exception {
+    final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/analytics/events");
+    request.addHeader(HttpHeaders.ORIGIN, ORIGIN);
+    final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(request, response, filterChain);
+
+    verify(filterChain).doFilter(request, response);
+    verifyNoInteractions(clientConfigurationService);
+  }
+
+  private static MockHttpServletRequest preflight(String origin, String method) {
+    final MockHttpServletRequest request = new MockHttpServletRequest("OPTIONS", "/analytics/events");
+    request.addHeader(HttpHeaders.ORIGIN, origin);
+    request.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, method);
+    request.addHeader(HttpHeaders.ACCESS_CONTROL_REQUEST_HEADERS, "Content-Type");
+    return request;
+  }
+}
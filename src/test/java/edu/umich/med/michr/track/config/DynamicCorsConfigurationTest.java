@@ -2,6 +2,7 @@ package edu.umich.med.michr.track.config;
 
 import edu.umich.med.michr.track.config.cors.DynamicCorsConfiguration;
 import edu.umich.med.michr.track.service.ClientConfigurationService;
+import edu.umich.med.michr.track.util.OriginMatcher;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -34,9 +35,9 @@ class DynamicCorsConfigurationTest {
 
   @Test
   void testCheckOrigin_originAllowed() {
-    when(clientConfigurationService.getAllAuthorizedOrigins()).thenReturn(allowedOrigins);
     String allowedOrigin = "example.com";
     allowedOrigins.add(allowedOrigin);
+    when(clientConfigurationService.getAllAuthorizedOriginsMatcher()).thenReturn(OriginMatcher.of(allowedOrigins));
 
     final String actual = dynamicCorsConfiguration.checkOrigin(allowedOrigin);
 
@@ -46,12 +47,23 @@ class DynamicCorsConfigurationTest {
   @Test
   void testCheckOrigin_originNotAllowed() {
     String notAllowedOrigin = "malicious.com";
+    when(clientConfigurationService.getAllAuthorizedOriginsMatcher()).thenReturn(OriginMatcher.of(Set.of("example.com")));
 
     final String actual = dynamicCorsConfiguration.checkOrigin(notAllowedOrigin);
 
     assertNull(actual, "Should return null if the origin is not allowed");
   }
 
+  @Test
+  void testCheckOrigin_originAllowedIgnoringCaseAndByPattern() {
+    when(clientConfigurationService.getAllAuthorizedOriginsMatcher())
+        .thenReturn(OriginMatcher.of(Set.of("https://Example.com", "https://*.med.umich.edu")));
+
+    assertEquals("https://EXAMPLE.com", dynamicCorsConfiguration.checkOrigin("https://EXAMPLE.com"));
+    assertEquals("https://www.med.umich.edu", dynamicCorsConfiguration.checkOrigin("https://www.med.umich.edu"));
+    assertNull(dynamicCorsConfiguration.checkOrigin("https://med.umich.edu.evil.com"));
+  }
+
   @Test
   void testApplyDefaultSettings_setsAllowedMethods() {
     dynamicCorsConfiguration.applyDefaultSettings();
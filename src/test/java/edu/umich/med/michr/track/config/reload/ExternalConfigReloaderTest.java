@@ -0,0 +1,126 @@
+package edu.umich.med.michr.track.config.reload;
+
+import edu.umich.med.michr.track.config.ExternalConfigEnvironmentPostProcessor;
+import edu.umich.med.michr.track.config.PropertySource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExternalConfigReloader Tests")
+class ExternalConfigReloaderTest {
+  private static final String SOURCE_NAME = "/etc/track/app.properties";
+
+  @Mock
+  private ExternalConfigEnvironmentPostProcessor externalConfigLoader;
+
+  @Mock
+  private RuntimeTunable tunable;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  private StandardEnvironment environment;
+  private ExternalConfigReloader reloader;
+
+  @BeforeEach
+  void setUp() {
+    environment = new StandardEnvironment();
+    environment.getPropertySources().addLast(new PropertiesPropertySource(
+        ExternalConfigEnvironmentPostProcessor.PROPERTY_SOURCE_PREFIX + SOURCE_NAME, properties("pool.size", "10", "name", "track")));
+    reloader = new ExternalConfigReloader(environment, externalConfigLoader, List.of(tunable), eventPublisher,
+        new ConfigReloadProperties(true, Duration.ofMillis(100)));
+  }
+
+  @Test
+  @DisplayName("should replace the external properties, retune affected beans and publish the changes")
+  void testReload_appliesChanges() {
+    when(externalConfigLoader.loadExternalProperties(any()))
+        .thenReturn(List.of(new PropertySource(properties("pool.size", "20", "name", "track", "added", "x"), SOURCE_NAME)));
+    when(tunable.isAffectedBy(anyString())).thenAnswer(invocation -> invocation.getArgument(0).equals("pool.size"));
+
+    assertTrue(reloader.reload());
+
+    assertEquals("20", environment.getProperty("pool.size"));
+    verify(tunable).validate(environment);
+    verify(tunable).apply(environment);
+    final ArgumentCaptor<ExternalConfigChangedEvent> event = ArgumentCaptor.forClass(ExternalConfigChangedEvent.class);
+    verify(eventPublisher).publishEvent(event.capture());
+    assertEquals(Map.of(
+            "pool.size", new ExternalConfigChangedEvent.PropertyChange("10", "20"),
+            "added", new ExternalConfigChangedEvent.PropertyChange(null, "x")),
+        event.getValue().changes());
+  }
+
+  @Test
+  @DisplayName("should not retune or publish anything when no value changed")
+  void testReload_noChanges() {
+    when(externalConfigLoader.loadExternalProperties(any()))
+        .thenReturn(List.of(new PropertySource(properties("pool.size", "10", "name", "track"), SOURCE_NAME)));
+
+    assertTrue(reloader.reload());
+
+    verifyNoInteractions(tunable, eventPublisher);
+  }
+
+  @Test
+  @DisplayName("should restore the previous configuration when a bean rejects the new values")
+  void testReload_rollbackOnInvalidValue() {
+    when(externalConfigLoader.loadExternalProperties(any()))
+        .thenReturn(List.of(new PropertySource(properties("pool.size", "-1"), SOURCE_NAME)));
+    when(tunable.isAffectedBy(anyString())).thenReturn(true);
+    doThrow(new IllegalArgumentException("invalid")).when(tunable).validate(any(Environment.class));
+
+    assertFalse(reloader.reload());
+
+    assertEquals("10", environment.getProperty("pool.size"));
+    assertEquals("track", environment.getProperty("name"));
+    verify(tunable, never()).apply(any());
+    verifyNoInteractions(eventPublisher);
+  }
+
+  @Test
+  @DisplayName("should re-apply the previous values to the beans that already took the new ones")
+  void testReload_rollbackOnFailedApply() {
+    final RuntimeTunable failing = mock(RuntimeTunable.class);
+    reloader = new ExternalConfigReloader(environment, externalConfigLoader, List.of(tunable, failing), eventPublisher,
+        new ConfigReloadProperties(true, Duration.ofMillis(100)));
+    when(externalConfigLoader.loadExternalProperties(any()))
+        .thenReturn(List.of(new PropertySource(properties("pool.size", "20", "name", "track"), SOURCE_NAME)));
+    when(tunable.isAffectedBy(anyString())).thenReturn(true);
+    when(failing.isAffectedBy(anyString())).thenReturn(true);
+    doThrow(new IllegalStateException("failed")).when(failing).apply(any());
+
+    assertFalse(reloader.reload());
+
+    assertEquals("10", environment.getProperty("pool.size"));
+    verify(tunable, times(2)).apply(environment);
+    verifyNoInteractions(eventPublisher);
+  }
+
+  private static Properties properties(String... keysAndValues) {
+    final Properties properties = new Properties();
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      properties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+    }
+    return properties;
+  }
+}
@@ -0,0 +1,65 @@
+package edu.umich.med.michr.track.config.reload;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@DisplayName("HikariPoolTunable Tests")
+class HikariPoolTunableTest {
+
+  private HikariDataSource dataSource;
+  private HikariPoolTunable tunable;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = new HikariDataSource();
+    dataSource.setMaximumPoolSize(12);
+    dataSource.setMinimumIdle(5);
+    dataSource.setMaxLifetime(1200000);
+    tunable = new HikariPoolTunable(dataSource);
+  }
+
+  @Test
+  @DisplayName("should only be affected by the Hikari properties")
+  void testIsAffectedBy() {
+    assertTrue(tunable.isAffectedBy("spring.datasource.hikari.maximum-pool-size"));
+    assertTrue(tunable.isAffectedBy("spring.datasource.hikari.maximumPoolSize"));
+    assertFalse(tunable.isAffectedBy("spring.datasource.url"));
+    assertFalse(new HikariPoolTunable(mock(DataSource.class)).isAffectedBy("spring.datasource.hikari.maximum-pool-size"));
+  }
+
+  @Test
+  @DisplayName("should resize the pool and keep the values that are not set")
+  void testApply() {
+    final MockEnvironment environment = new MockEnvironment()
+        .withProperty("spring.datasource.hikari.maximum-pool-size", "4")
+        .withProperty("spring.datasource.hikari.minimum-idle", "2")
+        .withProperty("spring.datasource.hikari.connection-timeout", "1000");
+
+    tunable.validate(environment);
+    tunable.apply(environment);
+
+    assertEquals(4, dataSource.getMaximumPoolSize());
+    assertEquals(2, dataSource.getMinimumIdle());
+    assertEquals(1000, dataSource.getConnectionTimeout());
+    assertEquals(1200000, dataSource.getMaxLifetime(), "not set, unchanged");
+  }
+
+  @Test
+  @DisplayName("should reject invalid pool settings")
+  void testValidate() {
+    assertThrows(IllegalArgumentException.class, () -> tunable.validate(
+        new MockEnvironment().withProperty("spring.datasource.hikari.maximum-pool-size", "0")));
+    assertThrows(IllegalArgumentException.class, () -> tunable.validate(
+        new MockEnvironment().withProperty("spring.datasource.hikari.minimum-idle", "20")));
+    assertThrows(IllegalArgumentException.class, () -> tunable.validate(
+        new MockEnvironment().withProperty("spring.datasource.hikari.connection-timeout", "10")));
+  }
+}
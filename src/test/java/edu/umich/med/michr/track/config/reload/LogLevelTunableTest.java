@@ -0,0 +1,48 @@
+package edu.umich.med.michr.track.config.reload;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LogLevelTunable Tests")
+class LogLevelTunableTest {
+
+  @Mock
+  private LoggingSystem loggingSystem;
+
+  @Test
+  @DisplayName("should set the configured levels and reset the loggers whose level was removed")
+  void testApply() {
+    final LogLevelTunable tunable = new LogLevelTunable(loggingSystem);
+
+    tunable.apply(new MockEnvironment()
+        .withProperty("logging.level.root", "warn")
+        .withProperty("logging.level.edu.umich.med.michr.track", "DEBUG"));
+    tunable.apply(new MockEnvironment().withProperty("logging.level.root", "info"));
+
+    verify(loggingSystem).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.WARN);
+    verify(loggingSystem).setLogLevel("edu.umich.med.michr.track", LogLevel.DEBUG);
+    verify(loggingSystem).setLogLevel(LoggingSystem.ROOT_LOGGER_NAME, LogLevel.INFO);
+    verify(loggingSystem).setLogLevel("edu.umich.med.michr.track", null);
+  }
+
+  @Test
+  @DisplayName("should reject unknown levels")
+  void testValidate() {
+    final LogLevelTunable tunable = new LogLevelTunable(loggingSystem);
+
+    assertTrue(tunable.isAffectedBy("logging.level.org.hibernate"));
+    assertFalse(tunable.isAffectedBy("logging.pattern.console"));
+    assertThrows(IllegalArgumentException.class,
+        () -> tunable.validate(new MockEnvironment().withProperty("logging.level.root", "LOUD")));
+  }
+}
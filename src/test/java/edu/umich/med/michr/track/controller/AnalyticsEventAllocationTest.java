@@ -0,0 +1,273 @@
+package edu.umich.med.michr.track.controller;
+
+import edu.umich.med.michr.track.config.ClientCacheProperties;
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import edu.umich.med.michr.track.exception.ValidationException;
+import edu.umich.med.michr.track.health.IngestHealthProperties;
+import edu.umich.med.michr.track.health.IngestLoadMonitor;
+import edu.umich.med.michr.track.limiter.WriteConcurrencyLimiter;
+import edu.umich.med.michr.track.limiter.WriteLimiterProperties;
+import edu.umich.med.michr.track.metrics.IngestMetrics;
+import edu.umich.med.michr.track.metrics.IngestMetricsProperties;
+import edu.umich.med.michr.track.metrics.StageTimer;
+import edu.umich.med.michr.track.metrics.StageTimingProperties;
+import edu.umich.med.michr.track.repository.AnalyticsEventRepository;
+import edu.umich.med.michr.track.repository.ClientConfigurationRepository;
+import edu.umich.med.michr.track.service.AnalyticsEventServiceImpl;
+import edu.umich.med.michr.track.service.AuthorizedOriginCount;
+import edu.umich.med.michr.track.service.ClientConfigurationServiceImpl;
+import edu.umich.med.michr.track.service.OriginValidatorImpl;
+import edu.umich.med.michr.track.sink.EventSinkProperties;
+import edu.umich.med.michr.track.sink.EventSinks;
+import edu.umich.med.michr.track.sink.JpaEventSink;
+import edu.umich.med.michr.track.util.AllocationMeter;
+import edu.umich.med.michr.track.util.RequestUtil;
+import edu.umich.med.michr.track.util.TestUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Keeps the garbage produced per tracking request within a budget for each endpoint.
+ * <p>
+ * Requests run in-process from the controller through origin validation, event construction and the service down to a
+ * repository that discards the events, with the real metrics and stage timers; the bytes the thread allocates are
+ * averaged over many requests once the path is compiled. When a budget is exceeded the failure lists what each part of
+ * the path allocates for the same request. Raise a budget only together with the change that needs it.
+ * </p>
+ * <p>
+ * Tagged {@value #TAG} so it runs in a JVM of its own ({@code gradle allocationTest}): after other tests have run the
+ * same code with other types, the JIT can no longer eliminate some of the allocations and the averages depend on the
+ * test order.
+ * </p>
+ */
+@Tag(AnalyticsEventAllocationTest.TAG)
+@DisplayName("Analytics Event Allocation Budget Tests")
+class AnalyticsEventAllocationTest {
+  static final String TAG = "allocation";
+  private static final String CLIENT_ID = "d2c1e4a7-63c5-4dfd-a392-35636f7ce5ac";
+  private static final String ORIGIN = "https://www.example.org";
+
+  // bytes per request, about a quarter above what was measured when they were set (4.7k, 1.9k and 2.2k): the pixel
+  // response headers and the stack trace of the rejection are most of the difference between the endpoints
+  private static final long GET_PIXEL_BUDGET = 6_000;
+  private static final long POST_FORM_BUDGET = 2_500;
+  private static final long REJECTED_ORIGIN_BUDGET = 3_000;
+
+  private final AllocationMeter meter = new AllocationMeter(20_000, 20_000);
+
+  private RequestUtil requestUtil;
+  private OriginValidatorImpl originValidator;
+  private AnalyticsEventServiceImpl service;
+  private AnalyticsEventController controller;
+
+  @BeforeAll
+  static void checkSupport() {
+    assumeTrue(AllocationMeter.isSupported(), "Thread allocation counters are not available in this JVM");
+  }
+
+  @BeforeEach
+  void setUp() {
+    final ClientConfigurationRepository clientRepository = mock(ClientConfigurationRepository.class);
+    when(clientRepository.findAllIds()).thenReturn(List.of(CLIENT_ID));
+    when(clientRepository.countClientsByAuthorizedOrigin()).thenReturn(List.of(new AuthorizedOriginCount(ORIGIN, 1)));
+    when(clientRepository.findAllWithOriginsByIdIn(anyCollection()))
+        .thenReturn(List.of(TestUtils.createClientConfig(CLIENT_ID, "Allocation", ORIGIN)));
+    final ClientConfigurationServiceImpl clientConfigurationService = new ClientConfigurationServiceImpl(clientRepository,
+        new ClientCacheProperties(Duration.ofMinutes(5), 100, 0.01, 100, Duration.ofMinutes(10)), TestUtils.FIXED_CLOCK,
+        new SimpleMeterRegistry());
+
+    final IngestMetrics ingestMetrics = new IngestMetrics(new SimpleMeterRegistry(), new IngestMetricsProperties(10, 10));
+    final StageTimer stageTimer = new StageTimer(new StageTimingProperties(true, Duration.ofSeconds(10), 6,
+        Duration.ofSeconds(60), 2));
+    final IngestLoadMonitor loadMonitor = new IngestLoadMonitor(new DriverManagerDataSource(),
+        new IngestHealthProperties(true, Duration.ofSeconds(1), Duration.ofSeconds(10), Duration.ofSeconds(10),
+            null, null, null, null, null));
+
+    requestUtil = new RequestUtil();
+    originValidator = new OriginValidatorImpl(clientConfigurationService, requestUtil);
+    final EventSinks eventSinks = new EventSinks(List.of(new JpaEventSink(new DiscardingAnalyticsEventRepository())),
+        new EventSinkProperties(JpaEventSink.NAME, null, null, null, null), new SimpleMeterRegistry());
+    service = new AnalyticsEventServiceImpl(eventSinks, requestUtil, TestUtils.FIXED_CLOCK, ingestMetrics, stageTimer);
+    final WriteConcurrencyLimiter writeLimiter = new WriteConcurrencyLimiter(new WriteLimiterProperties(true, 10, 2, 50,
+        1.5, 0.2, 0.9, Duration.ofSeconds(1), 10, Duration.ofMillis(100)), new SimpleMeterRegistry(), new DriverManagerDataSource());
+    controller = new AnalyticsEventController(originValidator, service, loadMonitor, ingestMetrics, stageTimer,
+        writeLimiter);
+  }
+
+  @Test
+  @DisplayName("a GET pixel request should stay within its allocation budget")
+  void testGetPixel() throws Exception {
+    final MockHttpServletRequest request = createRequest("GET");
+    request.addParameter("client-id", CLIENT_ID);
+    request.addParameter("user-id", "user-1");
+    request.addParameter("event-type", "page-view");
+    request.addParameter("page", "/articles/1");
+    request.addHeader(HttpHeaders.REFERER, ORIGIN + "/articles/1?utm_source=newsletter");
+
+    assertWithinBudget("GET pixel", GET_PIXEL_BUDGET, () -> controller.get(request), getBreakdown(request));
+  }
+
+  @Test
+  @DisplayName("a form POST request should stay within its allocation budget")
+  void testPostForm() throws Exception {
+    final MockHttpServletRequest request = createRequest("POST");
+    request.addParameter("clientId", CLIENT_ID);
+    request.addParameter("userId", "user-1");
+    request.addParameter("eventType", "click");
+    request.addParameter("page", "/articles/1");
+    request.addHeader(HttpHeaders.ORIGIN, ORIGIN);
+
+    assertWithinBudget("POST form", POST_FORM_BUDGET, () -> controller.post(request), getBreakdown(request));
+  }
+
+  @Test
+  @DisplayName("a request from an origin that is not allowed should stay within its allocation budget")
+  void testRejectedOrigin() throws Exception {
+    final MockHttpServletRequest request = createRequest("POST");
+    request.addParameter("clientId", CLIENT_ID);
+    request.addParameter("userId", "user-1");
+    request.addParameter("eventType", "click");
+    request.addParameter("page", "/articles/1");
+    request.addHeader(HttpHeaders.ORIGIN, "https://not-allowed.example.org");
+
+    final Map<String, AllocationMeter.Action> breakdown = new LinkedHashMap<>();
+    breakdown.put("origin validation", () -> validateRejected(request));
+    assertWithinBudget("rejected origin", REJECTED_ORIGIN_BUDGET, () -> postRejected(request), breakdown);
+  }
+
+  private static MockHttpServletRequest createRequest(String method) {
+    final MockHttpServletRequest request = new MockHttpServletRequest(method, "/analytics/events");
+    request.addParameter("campaign", "spring");
+    request.addParameter("source", "newsletter");
+    request.addParameter("button", "subscribe");
+    request.addHeader(HttpHeaders.USER_AGENT, "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko)");
+    request.addHeader(HttpHeaders.ACCEPT_LANGUAGE, "en-US,en;q=0.9");
+    request.addHeader("X-Forwarded-For", "192.168.1.10");
+    request.setRemoteAddr("10.0.0.1");
+    return request;
+  }
+
+  /**
+   * The parts of the path an accepted request goes through, each measured on its own.
+   */
+  private Map<String, AllocationMeter.Action> getBreakdown(MockHttpServletRequest request) {
+    final Map<String, AllocationMeter.Action> breakdown = new LinkedHashMap<>();
+    breakdown.put("origin validation", () -> originValidator.validate(request));
+    breakdown.put("custom attribute extraction", () -> requestUtil.extractCustomAttributes(request));
+    breakdown.put("ip address extraction", () -> requestUtil.extractIpAddress(request));
+    breakdown.put("event construction (with extraction)", () -> service.createAnalyticsEvent(request));
+    breakdown.put("event processing and save", () -> service.processAndSaveEvent(request));
+    return breakdown;
+  }
+
+  private void assertWithinBudget(String endpoint, long budget, AllocationMeter.Action request,
+                                  Map<String, AllocationMeter.Action> breakdown) throws Exception {
+    final long allocated = meter.measure(request);
+    if (allocated > budget) {
+      final StringBuilder message = new StringBuilder(String.format(
+          "%s allocated %,d bytes per request, over its budget of %,d bytes. Allocated per request by:%n",
+          endpoint, allocated, budget));
+      meter.measure(breakdown).forEach((part, bytes) -> message.append(String.format("  %-38s %,9d%n", part, bytes)));
+      fail(message.toString());
+    }
+  }
+
+  // not assertThrows, which would add its own allocations to the measurement
+  private void postRejected(MockHttpServletRequest request) {
+    try {
+      controller.post(request);
+      fail("The request should have been rejected");
+    } catch (ValidationException expected) {
+      // rejected
+    }
+  }
+
+  private void validateRejected(MockHttpServletRequest request) {
+    try {
+      originValidator.validate(request);
+      fail("The request should have been rejected");
+    } catch (ValidationException expected) {
+      // rejected
+    }
+  }
+
+  /**
+   * Discards the events: the allocations of the JPA provider and the driver are not part of the budget, and a mock
+   * would allocate for every invocation it records.
+   */
+  private static class DiscardingAnalyticsEventRepository implements AnalyticsEventRepository {
+    @Override
+    public <S extends AnalyticsEvent> S save(S entity) {
+      return entity;
+    }
+
+    @Override
+    public <S extends AnalyticsEvent> Iterable<S> saveAll(Iterable<S> entities) {
+      return entities;
+    }
+
+    @Override
+    public Optional<AnalyticsEvent> findById(Long id) {
+      return Optional.empty();
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+      return false;
+    }
+
+    @Override
+    public Iterable<AnalyticsEvent> findAll() {
+      return List.of();
+    }
+
+    @Override
+    public Iterable<AnalyticsEvent> findAllById(Iterable<Long> ids) {
+      return List.of();
+    }
+
+    @Override
+    public long count() {
+      return 0;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+    }
+
+    @Override
+    public void delete(AnalyticsEvent entity) {
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends Long> ids) {
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends AnalyticsEvent> entities) {
+    }
+
+    @Override
+    public void deleteAll() {
+    }
+  }
+}
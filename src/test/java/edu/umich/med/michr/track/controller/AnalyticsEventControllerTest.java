@@ -1,9 +1,16 @@
 package edu.umich.med.michr.track.controller;
 
 import edu.umich.med.michr.track.exception.GlobalExceptionHandler;
+import edu.umich.med.michr.track.health.IngestLoadMonitor;
+import edu.umich.med.michr.track.exception.RejectionReason;
 import edu.umich.med.michr.track.exception.ValidationException;
+import edu.umich.med.michr.track.limiter.WriteConcurrencyLimiter;
+import edu.umich.med.michr.track.metrics.IngestMetrics;
+import edu.umich.med.michr.track.metrics.IngestStage;
+import edu.umich.med.michr.track.metrics.StageTimer;
 import edu.umich.med.michr.track.service.AnalyticsEventService;
 import edu.umich.med.michr.track.service.OriginValidator;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -19,6 +26,7 @@ import org.springframework.util.MultiValueMap;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasLength;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -39,6 +47,24 @@ class AnalyticsEventControllerTest {
   @MockitoBean
   private AnalyticsEventService analyticsEventService;
 
+  @SuppressWarnings("unused")
+  @MockitoBean
+  private IngestLoadMonitor loadMonitor;
+
+  @MockitoBean
+  private IngestMetrics ingestMetrics;
+
+  @MockitoBean
+  private StageTimer stageTimer;
+
+  @MockitoBean
+  private WriteConcurrencyLimiter writeLimiter;
+
+  @BeforeEach
+  void setUp() {
+    when(writeLimiter.tryAcquire()).thenReturn(true);
+  }
+
   @Nested
   @DisplayName("Success path tests")
   class SuccessPathTests {
@@ -62,6 +88,10 @@ class AnalyticsEventControllerTest {
 
       verify(originValidator).validate(any());
       verify(analyticsEventService).processAndSaveEvent(any());
+      verify(loadMonitor).recordPersistence(anyLong());
+      verify(ingestMetrics).recordPersistence(anyLong());
+      verify(stageTimer).record(eq(IngestStage.ORIGIN_VALIDATION), anyLong());
+      verify(stageTimer).recordSinceMark(IngestStage.COMMIT);
     }
 
     @Test
@@ -122,7 +152,8 @@ class AnalyticsEventControllerTest {
       // Arrange
       String errorMessage = "Invalid origin";
       HttpStatus errorStatus = HttpStatus.FORBIDDEN;
-      doThrow(new ValidationException(errorMessage, errorStatus)).when(originValidator).validate(any());
+      doThrow(new ValidationException(errorMessage, errorStatus, RejectionReason.ORIGIN_NOT_ALLOWED))
+          .when(originValidator).validate(any());
 
       // Act & Assert
       mockMvc.perform(post("/analytics/events")
@@ -133,6 +164,7 @@ class AnalyticsEventControllerTest {
 
       verify(originValidator).validate(any());
       verify(analyticsEventService, never()).processAndSaveEvent(any());
+      verify(ingestMetrics).recordRejection(any(ValidationException.class));
     }
 
     @Test
@@ -194,6 +226,7 @@ class AnalyticsEventControllerTest {
 
       verify(originValidator).validate(any());
       verify(analyticsEventService).processAndSaveEvent(any());
+      verify(writeLimiter).onDropped();
     }
 
     @Test
@@ -215,6 +248,64 @@ class AnalyticsEventControllerTest {
     }
   }
 
+  @Nested
+  @DisplayName("Write limit tests")
+  class WriteLimitTests {
+
+    @Test
+    @DisplayName("should reject the event with 503 Service Unavailable when no write permit is left")
+    void shouldRejectWhenLimitReached() throws Exception {
+      when(writeLimiter.tryAcquire()).thenReturn(false);
+
+      mockMvc.perform(get("/analytics/events")
+              .param("client-id", "test-client"))
+          .andExpect(status().isServiceUnavailable());
+
+      verify(analyticsEventService, never()).processAndSaveEvent(any());
+      verify(ingestMetrics).recordRejection(argThat(e -> e.getReason() == RejectionReason.OVERLOADED));
+      verify(writeLimiter, never()).onSuccess(anyLong());
+    }
+
+    @Test
+    @DisplayName("should return the permit with the latency of a saved event")
+    void shouldReportLatencyOfSavedEvent() throws Exception {
+      mockMvc.perform(get("/analytics/events")
+              .param("client-id", "test-client"))
+          .andExpect(status().isOk());
+
+      verify(writeLimiter).onSuccess(longThat(latency -> latency > 0));
+    }
+
+    @Test
+    @DisplayName("should return the permit as a failed save when the save throws an Error")
+    void shouldReturnPermitOnError() throws Exception {
+      doThrow(new StackOverflowError()).when(analyticsEventService).processAndSaveEvent(any());
+
+      mockMvc.perform(get("/analytics/events")
+              .param("client-id", "test-client"))
+          .andExpect(status().isInternalServerError());
+
+      verify(writeLimiter).onDropped();
+      verify(writeLimiter, never()).onSuccess(anyLong());
+      verify(writeLimiter, never()).onIgnored();
+    }
+
+    @Test
+    @DisplayName("should return the permit without a sample when the request is invalid")
+    void shouldIgnoreInvalidRequests() throws Exception {
+      doThrow(new ValidationException("Required param USER_ID is missing", HttpStatus.BAD_REQUEST))
+          .when(analyticsEventService).processAndSaveEvent(any());
+
+      mockMvc.perform(get("/analytics/events")
+              .param("client-id", "test-client"))
+          .andExpect(status().isBadRequest());
+
+      verify(writeLimiter).onIgnored();
+      verify(writeLimiter, never()).onSuccess(anyLong());
+      verify(writeLimiter, never()).onDropped();
+    }
+  }
+
   @Nested
   @DisplayName("Content type and request validation")
   class ContentTypeAndRequestValidationTests {
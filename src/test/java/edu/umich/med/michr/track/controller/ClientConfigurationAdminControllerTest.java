@@ -0,0 +1,114 @@
+package edu.umich.med.michr.track.controller;
+
+import edu.umich.med.michr.track.config.AdminProperties;
+import edu.umich.med.michr.track.exception.GlobalExceptionHandler;
+import edu.umich.med.michr.track.exception.ValidationException;
+import edu.umich.med.michr.track.metrics.IngestMetrics;
+import edu.umich.med.michr.track.service.ClientConfigurationAdminService;
+import edu.umich.med.michr.track.util.TestUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({ClientConfigurationAdminController.class, GlobalExceptionHandler.class})
+@TestPropertySource(properties = {"track.admin.enabled=true", "track.admin.token=secret"})
+@DisplayName("Client Configuration Admin Controller Tests")
+class ClientConfigurationAdminControllerTest {
+  private static final String TOKEN_HEADER = "X-Admin-Token";
+
+  // configuration properties are not part of the web slice
+  @TestConfiguration
+  @EnableConfigurationProperties(AdminProperties.class)
+  static class AdminPropertiesConfig {}
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private ClientConfigurationAdminService adminService;
+
+  @MockitoBean
+  private IngestMetrics ingestMetrics;
+
+  @Test
+  @DisplayName("Should create a client")
+  void shouldCreateClient() throws Exception {
+    when(adminService.createClient("client1", "Client 1", List.of("https://site.org")))
+        .thenReturn(TestUtils.createClientConfig("client1", "Client 1", "https://site.org"));
+
+    mockMvc.perform(post("/admin/clients")
+            .header(TOKEN_HEADER, "secret")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"id\":\"client1\",\"name\":\"Client 1\",\"authorizedOrigins\":[\"https://site.org\"]}"))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.id").value("client1"))
+        .andExpect(jsonPath("$.authorizedOrigins[0]").value("https://site.org"));
+  }
+
+  @Test
+  @DisplayName("Should update a client and its origins")
+  void shouldUpdateClientAndOrigins() throws Exception {
+    when(adminService.updateClient(eq("client1"), eq("Renamed"), any()))
+        .thenReturn(TestUtils.createClientConfig("client1", "Renamed"));
+
+    mockMvc.perform(put("/admin/clients/client1")
+            .header(TOKEN_HEADER, "secret")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"Renamed\",\"authorizedOrigins\":[]}"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.name").value("Renamed"));
+
+    mockMvc.perform(post("/admin/clients/client1/origins").param("origin", "https://a.org").header(TOKEN_HEADER, "secret"))
+        .andExpect(status().isOk());
+    mockMvc.perform(delete("/admin/clients/client1/origins").param("origin", "https://a.org").header(TOKEN_HEADER, "secret"))
+        .andExpect(status().isOk());
+
+    verify(adminService).addAuthorizedOrigin("client1", "https://a.org");
+    verify(adminService).removeAuthorizedOrigin("client1", "https://a.org");
+  }
+
+  @Test
+  @DisplayName("Should reject requests without the admin token")
+  void shouldRejectRequestsWithoutToken() throws Exception {
+    mockMvc.perform(post("/admin/clients/client1/origins").param("origin", "https://a.org"))
+        .andExpect(status().isUnauthorized());
+    mockMvc.perform(post("/admin/clients/client1/origins").param("origin", "https://a.org").header(TOKEN_HEADER, "wrong"))
+        .andExpect(status().isUnauthorized());
+
+    verifyNoInteractions(adminService);
+  }
+
+  @Test
+  @DisplayName("Should not count admin errors as tracking request rejections")
+  void shouldNotRecordRejections() throws Exception {
+    when(adminService.createClient(any(), any(), any()))
+        .thenThrow(new ValidationException("Client already exists: client1", HttpStatus.CONFLICT));
+
+    mockMvc.perform(post("/admin/clients")
+            .header(TOKEN_HEADER, "secret")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"id\":\"client1\",\"name\":\"Client 1\"}"))
+        .andExpect(status().isConflict());
+    mockMvc.perform(post("/admin/clients/client1/origins").param("origin", "https://a.org"))
+        .andExpect(status().isUnauthorized());
+
+    verifyNoInteractions(ingestMetrics);
+  }
+}
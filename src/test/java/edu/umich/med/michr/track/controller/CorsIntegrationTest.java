@@ -1,6 +1,7 @@
 package edu.umich.med.michr.track.controller;
 
 import edu.umich.med.michr.track.service.ClientConfigurationService;
+import edu.umich.med.michr.track.util.OriginMatcher;
 import edu.umich.med.michr.track.util.TestUtils;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -46,13 +47,17 @@ class CorsIntegrationTest {
       ClientConfigurationService mockService = mock(ClientConfigurationService.class);
 
       // Configure the mock during bean creation
-      when(mockService.getAllAuthorizedOrigins()).thenReturn(Set.of(
+      final Set<String> allAuthorizedOrigins = Set.of(
           "https://example.com",
           "https://test-app.org",
           "https://your-tracked-app.com"
-      ));
+      );
+      when(mockService.getAllAuthorizedOrigins()).thenReturn(allAuthorizedOrigins);
+      when(mockService.getAllAuthorizedOriginsMatcher()).thenReturn(OriginMatcher.of(allAuthorizedOrigins));
       when(mockService.getClientConfiguration(CLIENT_ID))
           .thenReturn(TestUtils.createClientConfig(CLIENT_ID, "Test Client", "https://example.com", "https://test-app.org"));
+      when(mockService.getOriginMatcher(CLIENT_ID))
+          .thenReturn(OriginMatcher.of(Set.of("https://example.com", "https://test-app.org")));
 
       return mockService;
     }
@@ -79,7 +84,25 @@ class CorsIntegrationTest {
         .andExpect(status().isOk())
         .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, ALLOWED_ORIGIN))
         .andExpect(header().exists(HttpHeaders.ACCESS_CONTROL_ALLOW_METHODS))
-        .andExpect(header().exists(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS));
+        .andExpect(header().exists(HttpHeaders.ACCESS_CONTROL_ALLOW_HEADERS))
+        .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_MAX_AGE, "3600"));
+  }
+
+  @Test
+  @DisplayName("Should check preflight requests carrying a client id against the origins of that client")
+  void shouldCheckPreflightRequestsAgainstClientOrigins() throws Exception {
+    mockMvc.perform(options(ENDPOINT)
+            .param("client-id", CLIENT_ID)
+            .header(HttpHeaders.ORIGIN, ALLOWED_ORIGIN)
+            .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, ALLOWED_ORIGIN));
+
+    mockMvc.perform(options(ENDPOINT)
+            .param("client-id", CLIENT_ID)
+            .header(HttpHeaders.ORIGIN, "https://your-tracked-app.com")
+            .header(HttpHeaders.ACCESS_CONTROL_REQUEST_METHOD, "GET"))
+        .andExpect(status().isForbidden());
   }
 
   @Test
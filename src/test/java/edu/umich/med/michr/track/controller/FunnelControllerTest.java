@@ -0,0 +1,125 @@
+package edu.umich.med.michr.track.controller;
+
+import edu.umich.med.michr.track.config.AdminProperties;
+import edu.umich.med.michr.track.domain.Funnel;
+import edu.umich.med.michr.track.domain.FunnelStep;
+import edu.umich.med.michr.track.exception.GlobalExceptionHandler;
+import edu.umich.med.michr.track.exception.ValidationException;
+import edu.umich.med.michr.track.funnel.FunnelReport;
+import edu.umich.med.michr.track.metrics.IngestMetrics;
+import edu.umich.med.michr.track.service.FunnelService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest({FunnelController.class, GlobalExceptionHandler.class})
+@TestPropertySource(properties = {"track.admin.enabled=true", "track.admin.token=secret"})
+@DisplayName("Funnel Controller Tests")
+class FunnelControllerTest {
+  private static final String TOKEN_HEADER = "X-Admin-Token";
+  private static final List<FunnelStep> STEPS = List.of(
+      new FunnelStep(FunnelStep.Kind.PAGE, "/a"),
+      new FunnelStep(FunnelStep.Kind.EVENT, "signup"));
+
+  // configuration properties are not part of the web slice
+  @TestConfiguration
+  @EnableConfigurationProperties(AdminProperties.class)
+  static class AdminPropertiesConfig {}
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private FunnelService funnelService;
+
+  @SuppressWarnings("unused")
+  @MockitoBean
+  private IngestMetrics ingestMetrics;
+
+  @Test
+  @DisplayName("Should create a funnel")
+  void shouldCreateFunnel() throws Exception {
+    when(funnelService.createFunnel("client1", "signup", 30, STEPS))
+        .thenReturn(new Funnel("client1", "signup", 30, STEPS));
+
+    mockMvc.perform(post("/admin/clients/client1/funnels")
+            .header(TOKEN_HEADER, "secret")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"signup\",\"windowMinutes\":30,\"steps\":[{\"kind\":\"PAGE\",\"value\":\"/a\"},"
+                + "{\"kind\":\"EVENT\",\"value\":\"signup\"}]}"))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.name").value("signup"))
+        .andExpect(jsonPath("$.steps[1].kind").value("EVENT"));
+  }
+
+  @Test
+  @DisplayName("Should list and delete the funnels of a client")
+  void shouldListAndDeleteFunnels() throws Exception {
+    when(funnelService.getFunnels("client1")).thenReturn(List.of(new Funnel("client1", "signup", 30, STEPS)));
+
+    mockMvc.perform(get("/admin/clients/client1/funnels").header(TOKEN_HEADER, "secret"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].windowMinutes").value(30));
+    mockMvc.perform(delete("/admin/clients/client1/funnels/7").header(TOKEN_HEADER, "secret"))
+        .andExpect(status().isNoContent());
+
+    verify(funnelService).deleteFunnel("client1", 7L);
+  }
+
+  @Test
+  @DisplayName("Should report the users of every step for the period")
+  void shouldReportFunnel() throws Exception {
+    final Instant from = Instant.parse("2025-03-01T00:00:00Z");
+    final Instant to = Instant.parse("2025-03-02T00:00:00Z");
+    when(funnelService.evaluate("client1", 7L, from, to)).thenReturn(new FunnelReport(7L, "signup", from, to, 30,
+        List.of(new FunnelReport.Step(FunnelStep.Kind.PAGE, "/a", 100, 0, 1, 1),
+            new FunnelReport.Step(FunnelStep.Kind.EVENT, "signup", 25, 75, 0.25, 0.25))));
+
+    mockMvc.perform(get("/admin/clients/client1/funnels/7/report")
+            .param("from", from.toString())
+            .param("to", to.toString())
+            .header(TOKEN_HEADER, "secret"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.steps[1].users").value(25))
+        .andExpect(jsonPath("$.steps[1].dropOff").value(75));
+  }
+
+  @Test
+  @DisplayName("Should return the status of a rejected request")
+  void shouldReturnValidationStatus() throws Exception {
+    when(funnelService.getFunnel("client1", 8L))
+        .thenThrow(new ValidationException("Funnel not found: 8", HttpStatus.NOT_FOUND));
+
+    mockMvc.perform(get("/admin/clients/client1/funnels/8").header(TOKEN_HEADER, "secret"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @DisplayName("Should reject requests without the admin token")
+  void shouldRejectRequestsWithoutToken() throws Exception {
+    mockMvc.perform(get("/admin/clients/client1/funnels"))
+        .andExpect(status().isUnauthorized());
+    mockMvc.perform(get("/admin/clients/client1/funnels").header(TOKEN_HEADER, "wrong"))
+        .andExpect(status().isUnauthorized());
+
+    verifyNoInteractions(funnelService);
+  }
+}
@@ -0,0 +1,180 @@
+package edu.umich.med.michr.track.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.umich.med.michr.track.domain.ClientConfiguration;
+import edu.umich.med.michr.track.service.ClientConfigurationServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "track.datasource.pools.enabled=true",
+    "spring.datasource.url=jdbc:h2:mem:poolsdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=Oracle",
+    "track.datasource.pools.read.maximum-pool-size=3",
+    "track.datasource.pools.read.connection-timeout=250ms",
+    "track.datasource.pools.background.maximum-pool-size=2"
+})
+@DisplayName("Connection Pool Split Integration Tests")
+class DataSourcePoolsIntegrationTest {
+
+  @TestConfiguration
+  static class BackgroundJobConfig {
+    @Bean
+    BackgroundJob backgroundJob(JdbcTemplate jdbcTemplate) {
+      return new BackgroundJob(jdbcTemplate);
+    }
+  }
+
+  @ConnectionPool(PoolRole.BACKGROUND)
+  static class BackgroundJob {
+    private final JdbcTemplate jdbcTemplate;
+
+    BackgroundJob(JdbcTemplate jdbcTemplate) {
+      this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Transactional(readOnly = true)
+    public Map<PoolRole, Integer> run(Supplier<Map<PoolRole, Integer>> activeConnections) {
+      jdbcTemplate.queryForObject("select count(*) from analytics_event", Long.class);
+      return activeConnections.get();
+    }
+  }
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private BackgroundJob backgroundJob;
+
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private ClientConfigurationServiceImpl clientConfigurationService;
+
+  @Test
+  @DisplayName("should run read-write transactions on the ingest pool")
+  void testReadWriteTransaction() {
+    final Map<PoolRole, Integer> active = new TransactionTemplate(transactionManager).execute(status -> {
+      jdbcTemplate.queryForObject("select count(*) from analytics_event", Long.class);
+      return getActiveConnections();
+    });
+
+    assertEquals(Map.of(PoolRole.INGEST, 1, PoolRole.READ, 0, PoolRole.BACKGROUND, 0), active);
+  }
+
+  @Test
+  @DisplayName("should run read-only transactions on the read pool, with read-only connections")
+  void testReadOnlyTransaction() {
+    final TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+
+    final Map<PoolRole, Integer> active = readOnly.execute(status -> {
+      jdbcTemplate.queryForObject("select count(*) from analytics_event", Long.class);
+      return getActiveConnections();
+    });
+
+    assertEquals(Map.of(PoolRole.INGEST, 0, PoolRole.READ, 1, PoolRole.BACKGROUND, 0), active);
+    assertTrue(getPool(PoolRole.READ).isReadOnly());
+  }
+
+  @Test
+  @DisplayName("should run the transactions of a bean annotated with its pool on that pool")
+  void testAnnotatedBean() {
+    assertEquals(Map.of(PoolRole.INGEST, 0, PoolRole.READ, 0, PoolRole.BACKGROUND, 1),
+        backgroundJob.run(this::getActiveConnections));
+  }
+
+  @Test
+  @DisplayName("should load a client missing from the cache with an ingest connection, also in a read-only transaction")
+  void testClientLookupWithExhaustedReadPool() throws SQLException {
+    jdbcTemplate.update("insert into client (id, name) values ('pool-client', 'Pool Client')");
+    jdbcTemplate.update("insert into authorized_client_origin (client_id, authorized_origin) values ('pool-client', 'https://pool.org')");
+    final List<Connection> readConnections = new ArrayList<>();
+    try {
+      clientConfigurationService.refresh();
+      for (int i = 0; i < getPool(PoolRole.READ).getMaximumPoolSize(); i++) {
+        readConnections.add(getPool(PoolRole.READ).getConnection());
+      }
+      final long ingestConnections = getConnectionsAcquired(DataSourcePoolsConfig.INGEST_POOL_NAME);
+
+      // e.g. a report checking the client, its read-only transaction has not taken a connection yet
+      final TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+      readOnly.setReadOnly(true);
+      final ClientConfiguration actual = readOnly.execute(
+          status -> clientConfigurationService.getClientConfiguration("pool-client"));
+
+      assertNotNull(actual);
+      assertEquals(List.of("https://pool.org"), actual.getAuthorizedOrigins());
+      assertTrue(getConnectionsAcquired(DataSourcePoolsConfig.INGEST_POOL_NAME) > ingestConnections);
+    } finally {
+      for (Connection connection : readConnections) {
+        connection.close();
+      }
+      jdbcTemplate.update("delete from authorized_client_origin where client_id = 'pool-client'");
+      jdbcTemplate.update("delete from client where id = 'pool-client'");
+      clientConfigurationService.refresh();
+    }
+  }
+
+  @Test
+  @DisplayName("should size the pools independently and report their metrics under their own names")
+  void testPoolSettingsAndMetrics() throws SQLException {
+    assertSame(getPool(PoolRole.INGEST), dataSource.unwrap(HikariDataSource.class));
+    assertEquals(12, getPool(PoolRole.INGEST).getMaximumPoolSize());
+    assertEquals(3, getPool(PoolRole.READ).getMaximumPoolSize());
+    assertEquals(2, getPool(PoolRole.BACKGROUND).getMaximumPoolSize());
+
+    for (PoolRole role : PoolRole.values()) {
+      PoolRoutingDataSource.runWith(role, () -> jdbcTemplate.queryForObject("select 1", Integer.class));
+    }
+
+    for (String pool : new String[]{DataSourcePoolsConfig.INGEST_POOL_NAME, DataSourcePoolsConfig.READ_POOL_NAME,
+        DataSourcePoolsConfig.BACKGROUND_POOL_NAME}) {
+      assertNotNull(meterRegistry.find("hikaricp.connections.max").tag("pool", pool).gauge(), pool);
+    }
+  }
+
+  private long getConnectionsAcquired(String pool) {
+    return meterRegistry.get("hikaricp.connections.acquire").tag("pool", pool).timer().count();
+  }
+
+  private Map<PoolRole, Integer> getActiveConnections() {
+    return Map.of(
+        PoolRole.INGEST, getPool(PoolRole.INGEST).getHikariPoolMXBean().getActiveConnections(),
+        PoolRole.READ, getPool(PoolRole.READ).getHikariPoolMXBean().getActiveConnections(),
+        PoolRole.BACKGROUND, getPool(PoolRole.BACKGROUND).getHikariPoolMXBean().getActiveConnections());
+  }
+
+  private HikariDataSource getPool(PoolRole role) {
+    try {
+      return (HikariDataSource) dataSource.unwrap(PoolRoutingDataSource.class).getPool(role);
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package edu.umich.med.michr.track.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("PoolRoutingDataSource Tests")
+class PoolRoutingDataSourceTest {
+  // stands in for the pool implementation
+  public interface Pool {}
+
+  private final Map<PoolRole, DataSource> pools = new EnumMap<>(PoolRole.class);
+  private PoolRoutingDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    for (PoolRole role : PoolRole.values()) {
+      final DataSource pool = mock(DataSource.class, withSettings().extraInterfaces(Closeable.class, Pool.class));
+      when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+      pools.put(role, pool);
+    }
+    dataSource = new PoolRoutingDataSource(pools);
+    // known defaults, so no connection is taken to look them up
+    dataSource.setDefaultAutoCommit(true);
+    dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  @Test
+  @DisplayName("should take connections from the ingest pool by default")
+  void testRoute_ingestByDefault() throws SQLException {
+    useConnection();
+
+    assertEquals(PoolRole.INGEST, PoolRoutingDataSource.getCurrentRole());
+    verifyConnectionFrom(PoolRole.INGEST);
+  }
+
+  @Test
+  @DisplayName("should take the connections of read-only transactions from the read pool")
+  void testRoute_readOnlyTransaction() throws SQLException {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    useConnection();
+
+    verifyConnectionFrom(PoolRole.READ);
+  }
+
+  @Test
+  @DisplayName("should choose the pool when the connection is first used, not when it is requested")
+  void testRoute_lazily() throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setReadOnly(true);
+      // a transaction manager marks the transaction read-only after it got the connection
+      TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+      verifyNoInteractions(pools.values().toArray());
+
+      connection.createStatement();
+    }
+
+    verifyConnectionFrom(PoolRole.READ);
+  }
+
+  @Test
+  @DisplayName("should prefer the selected pool to the read-only flag and restore the previous selection")
+  void testRunWith_selectedPool() {
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    PoolRoutingDataSource.runWith(PoolRole.BACKGROUND, () -> {
+      assertEquals(PoolRole.BACKGROUND, PoolRoutingDataSource.getCurrentRole());
+      assertEquals(PoolRole.INGEST, PoolRoutingDataSource.callWith(PoolRole.INGEST, PoolRoutingDataSource::getCurrentRole));
+      assertEquals(PoolRole.BACKGROUND, PoolRoutingDataSource.getCurrentRole());
+      assertDoesNotThrow(this::useConnection);
+    });
+
+    verifyConnectionFrom(PoolRole.BACKGROUND);
+    assertEquals(PoolRole.READ, PoolRoutingDataSource.getCurrentRole());
+  }
+
+  @Test
+  @DisplayName("should unwrap to the ingest pool")
+  void testUnwrap_ingestPool() throws SQLException {
+    final DataSource ingest = pools.get(PoolRole.INGEST);
+    when(ingest.isWrapperFor(Pool.class)).thenReturn(true);
+    when(ingest.unwrap(Pool.class)).thenReturn((Pool) ingest);
+
+    assertTrue(dataSource.isWrapperFor(Pool.class));
+    assertSame(ingest, dataSource.unwrap(Pool.class));
+    assertSame(dataSource, dataSource.unwrap(PoolRoutingDataSource.class));
+  }
+
+  @Test
+  @DisplayName("should close every pool")
+  void testClose() throws Exception {
+    dataSource.close();
+
+    for (DataSource pool : pools.values()) {
+      verify((Closeable) pool).close();
+    }
+  }
+
+  @Test
+  @DisplayName("should need a pool for every role")
+  void testMissingPool() {
+    pools.remove(PoolRole.BACKGROUND);
+
+    assertThrows(IllegalArgumentException.class, () -> new PoolRoutingDataSource(pools));
+  }
+
+  private void useConnection() throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.createStatement();
+    }
+  }
+
+  private void verifyConnectionFrom(PoolRole expected) {
+    for (PoolRole role : PoolRole.values()) {
+      try {
+        verify(pools.get(role), times(role == expected ? 1 : 0)).getConnection();
+      } catch (SQLException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package edu.umich.med.michr.track.funnel;
+
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import edu.umich.med.michr.track.domain.Funnel;
+import edu.umich.med.michr.track.domain.FunnelStep;
+import edu.umich.med.michr.track.repository.AnalyticsEventRepository;
+import edu.umich.med.michr.track.repository.FunnelRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+@ActiveProfiles("test")
+@Sql(scripts = "/cleanup-data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("FunnelEngine Tests")
+class FunnelEngineTest {
+  private static final Instant START = Instant.parse("2025-03-01T10:00:00Z");
+
+  @Autowired
+  private FunnelEngine engine;
+
+  @Autowired
+  private FunnelRepository funnelRepository;
+
+  @Autowired
+  private AnalyticsEventRepository eventRepository;
+
+  @Test
+  @DisplayName("should count the users of every step across all partitions")
+  void testEvaluate() {
+    final List<AnalyticsEvent> events = new ArrayList<>();
+    // 40 users view /a, 30 of them sign up, 20 of those view /c within the window and 5 more view it too late
+    for (int user = 0; user < 40; user++) {
+      events.add(event("client1", "user-" + user, "pageview", "/a", 0));
+      if (user < 30) {
+        events.add(event("client1", "user-" + user, "signup", "/b", 5));
+      }
+      if (user < 20) {
+        events.add(event("client1", "user-" + user, "pageview", "/c", 10));
+      } else if (user < 25) {
+        events.add(event("client1", "user-" + user, "pageview", "/c", 45));
+      }
+    }
+    // users of other clients, outside the period or without the first step do not count
+    events.add(event("client2", "user-0", "pageview", "/a", 0));
+    events.add(event("client1", "user-99", "pageview", "/a", -5));
+    events.add(event("client1", "user-98", "signup", "/b", 5));
+    eventRepository.saveAll(events);
+    final Funnel funnel = funnelRepository.save(new Funnel("client1", "signup", 30, List.of(
+        new FunnelStep(FunnelStep.Kind.PAGE, "/a"),
+        new FunnelStep(FunnelStep.Kind.EVENT, "signup"),
+        new FunnelStep(FunnelStep.Kind.PAGE, "/c"))));
+
+    final FunnelReport report = engine.evaluate(funnel, START, START.plusSeconds(3_600));
+
+    assertEquals(List.of(40L, 30L, 20L), report.steps().stream().map(FunnelReport.Step::users).toList());
+    assertEquals(List.of(0L, 10L, 10L), report.steps().stream().map(FunnelReport.Step::dropOff).toList());
+    assertEquals(0.75, report.steps().get(1).conversionFromPrevious());
+    assertEquals(0.5, report.steps().get(2).conversionFromStart());
+    assertEquals("signup", report.name());
+  }
+
+  @Test
+  @DisplayName("should report zero users when there are no events")
+  void testEvaluate_noEvents() {
+    final Funnel funnel = funnelRepository.save(new Funnel("client1", "empty", 30, List.of(
+        new FunnelStep(FunnelStep.Kind.PAGE, "/a"))));
+
+    final FunnelReport report = engine.evaluate(funnel, START, START.plusSeconds(3_600));
+
+    assertEquals(0, report.steps().getFirst().users());
+    assertEquals(0.0, report.steps().getFirst().conversionFromStart());
+  }
+
+  private static AnalyticsEvent event(String clientId, String userId, String eventType, String page, int minutes) {
+    return AnalyticsEvent.builder(clientId, userId, eventType, page, START.plusSeconds(minutes * 60L)).build();
+  }
+}
@@ -0,0 +1,95 @@
+package edu.umich.med.michr.track.funnel;
+
+import edu.umich.med.michr.track.domain.FunnelStep;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FunnelMatcher Tests")
+class FunnelMatcherTest {
+  private static final long MINUTE = 60_000;
+  // page /a, then a signup event, then page /c
+  private static final List<FunnelStep> STEPS = List.of(
+      new FunnelStep(FunnelStep.Kind.PAGE, "/a"),
+      new FunnelStep(FunnelStep.Kind.EVENT, "signup"),
+      new FunnelStep(FunnelStep.Kind.PAGE, "/c"));
+
+  private final FunnelMatcher matcher = new FunnelMatcher(STEPS, 30 * MINUTE);
+
+  @Test
+  @DisplayName("should follow a user through the steps in order")
+  void testAccept_inOrder() {
+    assertEquals(-1, matcher.getReached());
+    matcher.accept("pageview", "/a", 0);
+    assertEquals(0, matcher.getReached());
+    matcher.accept("pageview", "/b", MINUTE);
+    matcher.accept("signup", "/b", 2 * MINUTE);
+    assertEquals(1, matcher.getReached());
+    matcher.accept("pageview", "/c", 3 * MINUTE);
+
+    assertEquals(2, matcher.getReached());
+    assertTrue(matcher.isComplete());
+  }
+
+  @Test
+  @DisplayName("should not count steps done out of order")
+  void testAccept_outOfOrder() {
+    matcher.accept("signup", "/b", 0);
+    matcher.accept("pageview", "/c", MINUTE);
+    assertEquals(-1, matcher.getReached());
+
+    matcher.accept("pageview", "/a", 2 * MINUTE);
+    matcher.accept("pageview", "/c", 3 * MINUTE);
+
+    assertEquals(0, matcher.getReached());
+  }
+
+  @Test
+  @DisplayName("should not count steps past the window from the first step")
+  void testAccept_window() {
+    matcher.accept("pageview", "/a", 0);
+    matcher.accept("signup", "/b", 20 * MINUTE);
+    matcher.accept("pageview", "/c", 31 * MINUTE);
+
+    assertEquals(1, matcher.getReached());
+  }
+
+  @Test
+  @DisplayName("should use a later start of the funnel when the earlier one ran out of time")
+  void testAccept_laterStart() {
+    matcher.accept("pageview", "/a", 0);
+    matcher.accept("pageview", "/a", 25 * MINUTE);
+    matcher.accept("signup", "/b", 40 * MINUTE);
+    matcher.accept("pageview", "/c", 50 * MINUTE);
+
+    assertEquals(2, matcher.getReached());
+  }
+
+  @Test
+  @DisplayName("should move a chain only one step per event")
+  void testAccept_oneStepPerEvent() {
+    final FunnelMatcher samePage = new FunnelMatcher(List.of(
+        new FunnelStep(FunnelStep.Kind.PAGE, "/a"),
+        new FunnelStep(FunnelStep.Kind.PAGE, "/a")), 30 * MINUTE);
+
+    samePage.accept("pageview", "/a", 0);
+    assertEquals(0, samePage.getReached());
+    samePage.accept("pageview", "/a", MINUTE);
+    assertEquals(1, samePage.getReached());
+  }
+
+  @Test
+  @DisplayName("should forget the previous user on reset")
+  void testReset() {
+    matcher.accept("pageview", "/a", 0);
+    matcher.accept("signup", "/b", MINUTE);
+
+    matcher.reset();
+    matcher.accept("pageview", "/c", 2 * MINUTE);
+
+    assertEquals(-1, matcher.getReached());
+  }
+}
@@ -0,0 +1,135 @@
+package edu.umich.med.michr.track.health;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IngestHealthIndicator Tests")
+class IngestHealthIndicatorTest {
+  private static final IngestLoad IDLE = new IngestLoad(0.1, Duration.ZERO, Duration.ofMillis(10), 1, 0);
+  // above every low threshold, below every high threshold
+  private static final IngestLoad BUSY = new IngestLoad(0.8, Duration.ofMillis(50), Duration.ofMillis(200), 120, 0.1);
+
+  @Mock
+  private IngestLoadMonitor loadMonitor;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  @Mock
+  private ApplicationAvailability applicationAvailability;
+
+  @Mock
+  private Clock clock;
+
+  private IngestHealthIndicator indicator;
+
+  @BeforeEach
+  void setUp() {
+    final IngestHealthProperties properties = new IngestHealthProperties(true, Duration.ofSeconds(1),
+        Duration.ofSeconds(10), Duration.ofSeconds(10),
+        new IngestHealthProperties.Limit(0.95, 0.75),
+        new IngestHealthProperties.DurationLimit(Duration.ofMillis(200), Duration.ofMillis(20)),
+        new IngestHealthProperties.DurationLimit(Duration.ofMillis(500), Duration.ofMillis(100)),
+        new IngestHealthProperties.Limit(180, 100),
+        new IngestHealthProperties.Limit(0.25, 0.05));
+    indicator = new IngestHealthIndicator(loadMonitor, eventPublisher, applicationAvailability, properties, clock);
+  }
+
+  @Test
+  @DisplayName("should stay ready while no signal reaches its high threshold")
+  void testCheck_notSaturated() {
+    when(loadMonitor.getLoad()).thenReturn(BUSY);
+
+    indicator.check();
+
+    assertFalse(indicator.isSaturated());
+    verifyNoInteractions(eventPublisher);
+    assertEquals(Status.UP, indicator.health().getStatus());
+  }
+
+  @Test
+  @DisplayName("should refuse traffic as soon as one signal is high and report it")
+  void testCheck_saturated() {
+    when(loadMonitor.getLoad()).thenReturn(new IngestLoad(1.0, Duration.ofMillis(300), Duration.ofMillis(10), 1, 0));
+
+    indicator.check();
+
+    assertTrue(indicator.isSaturated());
+    assertEquals(ReadinessState.REFUSING_TRAFFIC, publishedStates().getFirst());
+    assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+    assertEquals(List.of("poolUtilization", "poolWait"), indicator.health().getDetails().get("saturatedBy"));
+  }
+
+  @Test
+  @DisplayName("should only accept traffic again after all signals stayed low for the recovery time")
+  void testCheck_hysteresis() {
+    when(loadMonitor.getLoad()).thenReturn(new IngestLoad(0.1, Duration.ZERO, Duration.ofSeconds(1), 1, 0));
+    indicator.check();
+    final AvailabilityChangeEvent<ReadinessState> refused = new AvailabilityChangeEvent<>(indicator, ReadinessState.REFUSING_TRAFFIC);
+    when(applicationAvailability.getLastChangeEvent(ReadinessState.class)).thenReturn(refused);
+
+    // below high but not low yet, still out of service
+    when(loadMonitor.getLoad()).thenReturn(BUSY);
+    indicator.check();
+    assertTrue(indicator.isSaturated());
+
+    when(loadMonitor.getLoad()).thenReturn(IDLE);
+    when(clock.millis()).thenReturn(0L, 5_000L, 6_000L, 16_000L);
+    indicator.check();
+    indicator.check();
+    assertTrue(indicator.isSaturated());
+
+    // a busy check restarts the recovery time
+    when(loadMonitor.getLoad()).thenReturn(BUSY);
+    indicator.check();
+    when(loadMonitor.getLoad()).thenReturn(IDLE);
+    indicator.check();
+    indicator.check();
+
+    assertFalse(indicator.isSaturated());
+    assertEquals(List.of(ReadinessState.REFUSING_TRAFFIC, ReadinessState.ACCEPTING_TRAFFIC), publishedStates());
+  }
+
+  @Test
+  @DisplayName("should not accept traffic again when somebody else refused it since")
+  void testCheck_keepsOtherChanges() {
+    when(loadMonitor.getLoad()).thenReturn(new IngestLoad(0.1, Duration.ZERO, Duration.ZERO, 500, 0));
+    indicator.check();
+    when(applicationAvailability.getLastChangeEvent(ReadinessState.class))
+        .thenReturn(new AvailabilityChangeEvent<>(this, ReadinessState.REFUSING_TRAFFIC));
+    when(loadMonitor.getLoad()).thenReturn(IDLE);
+    when(clock.millis()).thenReturn(0L, 10_000L);
+
+    indicator.check();
+    indicator.check();
+
+    assertFalse(indicator.isSaturated());
+    assertEquals(List.of(ReadinessState.REFUSING_TRAFFIC), publishedStates());
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<ReadinessState> publishedStates() {
+    final ArgumentCaptor<AvailabilityChangeEvent<ReadinessState>> events = ArgumentCaptor.forClass(AvailabilityChangeEvent.class);
+    verify(eventPublisher, atLeastOnce()).publishEvent(events.capture());
+    return events.getAllValues().stream().map(AvailabilityChangeEvent::getState).toList();
+  }
+}
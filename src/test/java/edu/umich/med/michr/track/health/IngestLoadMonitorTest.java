@@ -0,0 +1,75 @@
+package edu.umich.med.michr.track.health;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IngestLoadMonitor Tests")
+class IngestLoadMonitorTest {
+  private HikariDataSource dataSource;
+  private IngestLoadMonitor monitor;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = new HikariDataSource();
+    dataSource.setJdbcUrl("jdbc:h2:mem:ingest-load;DB_CLOSE_DELAY=-1");
+    dataSource.setMaximumPoolSize(4);
+    monitor = new IngestLoadMonitor(dataSource, new IngestHealthProperties(true, Duration.ofSeconds(1),
+        Duration.ofSeconds(10), Duration.ofSeconds(10), null, null, null, null, null));
+    dataSource.setMetricsTrackerFactory(new IngestMetricsTrackerFactory(() -> monitor, null));
+  }
+
+  @AfterEach
+  void tearDown() {
+    dataSource.close();
+  }
+
+  @Test
+  @DisplayName("should report the share of the pool in use and the time to get a connection")
+  void testPoolSignals() throws Exception {
+    assertEquals(0, monitor.getLoad().poolUtilization());
+
+    try (Connection ignored = dataSource.getConnection()) {
+      assertEquals(0.25, monitor.getLoad().poolUtilization());
+      assertTrue(monitor.getLoad().poolWait().toNanos() > 0);
+    }
+    assertEquals(0, monitor.getLoad().poolUtilization());
+  }
+
+  @Test
+  @DisplayName("should count the requests in flight and the share failing with a server error")
+  void testRequestSignals() throws Exception {
+    final IngestLoadFilter filter = new IngestLoadFilter(monitor);
+    final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/analytics/events"), response, (request, chainResponse) -> {
+      assertEquals(1, monitor.getLoad().inFlight());
+      ((MockHttpServletResponse) chainResponse).setStatus(503);
+    });
+
+    assertEquals(0, monitor.getLoad().inFlight());
+    assertEquals(1.0, monitor.getLoad().rejectionRate(), 0.01);
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/analytics/events"), new MockHttpServletResponse(),
+        (request, chainResponse) -> ((MockHttpServletResponse) chainResponse).setStatus(403));
+
+    assertEquals(1 - IngestLoadMonitor.ALPHA, monitor.getLoad().rejectionRate(), 0.01);
+  }
+
+  @Test
+  @DisplayName("should average the persistence latency")
+  void testPersistenceLatency() {
+    monitor.recordPersistence(Duration.ofMillis(100).toNanos());
+
+    assertEquals(100, monitor.getLoad().persistenceLatency().toMillis(), 1);
+  }
+}
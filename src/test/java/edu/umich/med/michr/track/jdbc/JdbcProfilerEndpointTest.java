@@ -0,0 +1,43 @@
+package edu.umich.med.michr.track.jdbc;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:jdbcprofilerdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=Oracle",
+    "track.jdbc-profiler.enabled=true",
+    "management.endpoints.web.exposure.include=jdbc",
+    "track.admin.token=secret"
+})
+@AutoConfigureMockMvc
+@DisplayName("JdbcProfilerEndpoint Tests")
+class JdbcProfilerEndpointTest {
+  private static final String TOKEN_HEADER = "X-Admin-Token";
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  @DisplayName("should serve the profile only with the admin token")
+  void testRequiresAdminToken() throws Exception {
+    mockMvc.perform(get("/actuator/jdbc"))
+        .andExpect(status().isUnauthorized());
+    mockMvc.perform(get("/actuator/jdbc").header(TOKEN_HEADER, "wrong"))
+        .andExpect(status().isUnauthorized());
+    mockMvc.perform(delete("/actuator/jdbc"))
+        .andExpect(status().isUnauthorized());
+
+    mockMvc.perform(get("/actuator/jdbc").header(TOKEN_HEADER, "secret"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.statements").isArray());
+  }
+}
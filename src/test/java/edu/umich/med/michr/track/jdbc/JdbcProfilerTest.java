@@ -0,0 +1,167 @@
+package edu.umich.med.michr.track.jdbc;
+
+import edu.umich.med.michr.track.util.TestUtils;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.StatementType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JdbcProfiler Tests")
+class JdbcProfilerTest {
+  private static final String INSERT = "insert into profiled (id, name) values (?, ?)";
+
+  private JdbcProfiler profiler;
+
+  private DataSource createDataSource(Duration slowThreshold, int maxStatements) {
+    return createDataSource(slowThreshold, maxStatements, false);
+  }
+
+  private DataSource createDataSource(Duration slowThreshold, int maxStatements, boolean captureParameters) {
+    final DataSource h2 = new DriverManagerDataSource("jdbc:h2:mem:jdbc-profiler-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+    profiler = new JdbcProfiler(new JdbcProfilerProperties(true, maxStatements, slowThreshold, 2, 5, captureParameters),
+        TestUtils.FIXED_CLOCK);
+    return JdbcProfilerConfig.createProxy(h2, "h2", profiler);
+  }
+
+  @Test
+  @DisplayName("should record executions, batch sizes and rows affected per statement")
+  void testStatementStats() throws SQLException {
+    final DataSource dataSource = createDataSource(Duration.ofMinutes(1), 100);
+    try (Connection connection = dataSource.getConnection()) {
+      execute(connection, "create table profiled (id int primary key, name varchar(100))");
+      try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+        for (int i = 0; i < 3; i++) {
+          insert.setInt(1, i);
+          insert.setString(2, "name " + i);
+          insert.addBatch();
+        }
+        insert.executeBatch();
+        insert.setInt(1, 10);
+        insert.setString(2, "single");
+        insert.executeUpdate();
+      }
+      assertThrows(SQLException.class, () -> execute(connection, "insert into missing values (1)"));
+    }
+
+    final StatementStats insert = find(INSERT);
+    assertEquals(2, insert.executions());
+    assertEquals(0, insert.errors());
+    assertEquals(1, insert.batchExecutions());
+    assertEquals(3, insert.meanBatchSize());
+    assertEquals(4, insert.rowsAffected());
+    assertTrue(insert.max() >= insert.p50());
+    // measured in nanoseconds by the proxy, an insert into H2 takes well below a millisecond
+    assertTrue(insert.totalTime() > 0);
+    assertEquals(1, find("insert into missing values (?)").errors());
+    assertTrue(profiler.getSlowStatements().isEmpty());
+  }
+
+  @Test
+  @DisplayName("should capture slow statements with their parameters, keeping the latest ones")
+  void testSlowStatements() throws SQLException {
+    final DataSource dataSource = createDataSource(Duration.ZERO, 100, true);
+    try (Connection connection = dataSource.getConnection()) {
+      execute(connection, "create table profiled (id int primary key, name varchar(100))");
+      try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+        insert.setString(2, "a long name");
+        insert.setInt(1, 1);
+        insert.executeUpdate();
+      }
+      execute(connection, "delete from profiled");
+    }
+
+    final List<SlowStatement> slowStatements = profiler.getSlowStatements();
+    assertEquals(2, slowStatements.size());
+    assertEquals("delete from profiled", slowStatements.get(0).sql());
+    assertEquals(INSERT, slowStatements.get(1).sql());
+    assertEquals(List.of(List.of("1", "a lon...")), slowStatements.get(1).parameters());
+    assertEquals(TestUtils.FIXED_INSTANT, slowStatements.get(1).time());
+  }
+
+  @Test
+  @DisplayName("should mask the parameters of slow statements unless they are captured")
+  void testSlowStatements_masked() throws SQLException {
+    final DataSource dataSource = createDataSource(Duration.ZERO, 100);
+    try (Connection connection = dataSource.getConnection()) {
+      execute(connection, "create table profiled (id int primary key, name varchar(100))");
+      try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+        insert.setInt(1, 1);
+        insert.setNull(2, Types.VARCHAR);
+        insert.executeUpdate();
+      }
+    }
+
+    assertEquals(List.of(List.of(JdbcProfiler.MASKED, "null")), profiler.getSlowStatements().get(0).parameters());
+  }
+
+  @Test
+  @DisplayName("should profile the statements past the cap together")
+  void testMaxStatements() throws SQLException {
+    final DataSource dataSource = createDataSource(Duration.ofMinutes(1), 1);
+    try (Connection connection = dataSource.getConnection()) {
+      execute(connection, "select 1");
+      execute(connection, "select 'a', 'b' from dual");
+      execute(connection, "values 1");
+    }
+
+    assertEquals(2, find(JdbcProfiler.OTHER).executions());
+    profiler.reset();
+    assertTrue(profiler.getStatementStats().isEmpty());
+  }
+
+  @Test
+  @DisplayName("should replace the literals of plain statements")
+  void testGetShapeKey() {
+    createDataSource(Duration.ofMinutes(1), 100);
+    assertEquals("select * from t where a = ? and b = ? and c3 = ?",
+        profiler.getShapeKey(StatementType.STATEMENT, List.of(new QueryInfo("select *\n  from t where a = 'it''s' and b = -1.5 and c3 = 42"))));
+    assertEquals("select * from t where a = 1",
+        profiler.getShapeKey(StatementType.PREPARED, List.of(new QueryInfo("select * from t where a = 1"))));
+  }
+
+  @Test
+  @DisplayName("should normalize a plain statement once, for at most the capped number of statements")
+  void testGetShapeKey_cached() {
+    createDataSource(Duration.ofMinutes(1), 1);
+    final List<QueryInfo> first = List.of(new QueryInfo("select * from t where a = 1"));
+    final List<QueryInfo> second = List.of(new QueryInfo("select * from t where a = 2"));
+
+    assertSame(profiler.getShapeKey(StatementType.STATEMENT, first), profiler.getShapeKey(StatementType.STATEMENT, first));
+    final String key = profiler.getShapeKey(StatementType.STATEMENT, second);
+    assertEquals("select * from t where a = ?", key);
+    assertNotSame(key, profiler.getShapeKey(StatementType.STATEMENT, second));
+  }
+
+  @Test
+  @DisplayName("should count the rows reported by the driver")
+  void testGetRowsAffected() {
+    assertEquals(3, JdbcProfiler.getRowsAffected(3));
+    assertEquals(3, JdbcProfiler.getRowsAffected(new int[] {1, Statement.SUCCESS_NO_INFO, 2}));
+    assertEquals(0, JdbcProfiler.getRowsAffected(Boolean.TRUE));
+  }
+
+  private StatementStats find(String sql) {
+    return profiler.getStatementStats().stream()
+        .filter(stats -> stats.sql().equals(sql))
+        .findFirst()
+        .orElseThrow(() -> new AssertionError("not profiled: " + sql + " in " + profiler.getStatementStats()));
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package edu.umich.med.michr.track.jfr;
+
+import io.micrometer.core.instrument.search.Search;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JfrMetricsStream Tests")
+class JfrMetricsStreamTest {
+  // the stream reads the recording about once a second
+  private static final Duration TIMEOUT = Duration.ofSeconds(20);
+
+  private SimpleMeterRegistry registry;
+  private JfrMetricsStream stream;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    stream = new JfrMetricsStream(registry, new JfrProperties(true, Duration.ofMinutes(1)));
+    stream.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    stream.stop();
+  }
+
+  @Test
+  @DisplayName("should turn the ingest flight recorder events into metrics")
+  void testStream() throws InterruptedException {
+    final OriginValidationEvent validation = new OriginValidationEvent();
+    validation.begin();
+    validation.setClientId("client1");
+    validation.setResolvedBy(OriginValidationEvent.RESOLVED_BY_REFERER);
+    validation.setResult(OriginValidationEvent.ACCEPTED);
+    validation.commit();
+
+    final EventConstructionEvent construction = new EventConstructionEvent();
+    construction.begin();
+    construction.setClientId("client1");
+    construction.setAttributeCount(3);
+    construction.setPayloadSize(120);
+    construction.commit();
+
+    final PersistenceEvent persistence = new PersistenceEvent();
+    persistence.begin();
+    persistence.setBatchSize(5);
+    persistence.commitAfterTransaction();
+
+    awaitMeter(registry.find(JfrMetricsStream.ORIGIN_VALIDATION).tags("resolved_by", "referer", "result", "accepted"));
+    awaitMeter(registry.find(JfrMetricsStream.EVENT_ATTRIBUTES));
+    awaitMeter(registry.find(JfrMetricsStream.PERSISTENCE_BATCH));
+
+    assertEquals(1, registry.get(JfrMetricsStream.ORIGIN_VALIDATION).timer().count());
+    assertEquals(3, registry.get(JfrMetricsStream.EVENT_ATTRIBUTES).summary().totalAmount());
+    assertEquals(120, registry.get(JfrMetricsStream.EVENT_PAYLOAD).summary().totalAmount());
+    assertEquals(5, registry.get(JfrMetricsStream.PERSISTENCE_BATCH).summary().totalAmount());
+    assertEquals(1, registry.get(JfrMetricsStream.PERSISTENCE).tag("committed", "true").timer().count());
+  }
+
+  private static void awaitMeter(Search search) throws InterruptedException {
+    await(() -> search.meter() != null);
+  }
+
+  private static void await(BooleanSupplier condition) throws InterruptedException {
+    final long deadline = System.nanoTime() + TIMEOUT.toNanos();
+    while (!condition.getAsBoolean()) {
+      assertTrue(System.nanoTime() < deadline, "timed out waiting for the flight recorder events");
+      Thread.sleep(100);
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package edu.umich.med.michr.track.limiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WriteConcurrencyLimiter Tests")
+class WriteConcurrencyLimiterTest {
+  private static final Duration WINDOW = Duration.ofSeconds(1);
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(2);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+
+  private final AtomicLong now = new AtomicLong();
+  private final AtomicInteger poolSize = new AtomicInteger(100);
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  @DisplayName("should hand out permits up to the limit and take them back")
+  void testTryAcquire_upToLimit() {
+    final WriteConcurrencyLimiter limiter = create(true, 10, 2, 50, Duration.ZERO);
+
+    for (int i = 0; i < 10; i++) {
+      assertTrue(limiter.tryAcquire());
+    }
+    assertFalse(limiter.tryAcquire());
+    assertEquals(10, limiter.getInFlight());
+
+    limiter.onIgnored();
+
+    assertTrue(limiter.tryAcquire());
+  }
+
+  @Test
+  @DisplayName("should let a save wait for a permit until another save finishes, up to the maximum wait")
+  void testTryAcquire_waits() throws Exception {
+    final WriteConcurrencyLimiter limiter = create(true, 2, 1, 10, Duration.ofSeconds(5));
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+
+    final CompletableFuture<Boolean> waiting = CompletableFuture.supplyAsync(limiter::tryAcquire);
+    Thread.sleep(50);
+    assertFalse(waiting.isDone());
+    limiter.onSuccess(FAST);
+
+    assertTrue(waiting.get(5, TimeUnit.SECONDS));
+    assertEquals(2, limiter.getInFlight());
+
+    final WriteConcurrencyLimiter full = create(true, 1, 1, 10, Duration.ofMillis(20));
+    assertTrue(full.tryAcquire());
+    assertFalse(full.tryAcquire());
+  }
+
+  @Test
+  @DisplayName("should raise the limit while the saves use it and the latency stays the same, up to the maximum")
+  void testUpdate_grows() {
+    final WriteConcurrencyLimiter limiter = create(true, 10, 2, 20, Duration.ZERO);
+
+    for (int i = 0; i < 5; i++) {
+      runWindow(limiter, limiter.getLimit(), FAST);
+    }
+    final int raised = limiter.getLimit();
+    for (int i = 0; i < 50; i++) {
+      runWindow(limiter, limiter.getLimit(), FAST);
+    }
+
+    assertTrue(raised > 10, "limit " + raised);
+    assertEquals(20, limiter.getLimit());
+    assertEquals(20, registry.get(WriteConcurrencyLimiter.LIMIT).gauge().value());
+  }
+
+  @Test
+  @DisplayName("should keep the limit at or below the current size of the ingest pool")
+  void testUpdate_followsPoolSize() {
+    poolSize.set(8);
+    final WriteConcurrencyLimiter limiter = create(true, 10, 2, 50, Duration.ZERO);
+    assertEquals(8, limiter.getLimit());
+
+    for (int i = 0; i < 20; i++) {
+      runWindow(limiter, limiter.getLimit(), FAST);
+    }
+    assertEquals(8, limiter.getLimit());
+
+    poolSize.set(30);
+    for (int i = 0; i < 50; i++) {
+      runWindow(limiter, limiter.getLimit(), FAST);
+    }
+    assertEquals(30, limiter.getLimit());
+
+    poolSize.set(4);
+    runWindow(limiter, 1, FAST);
+    assertEquals(4, limiter.getLimit());
+
+    poolSize.set(1);
+    runWindow(limiter, 1, FAST);
+    assertEquals(2, limiter.getLimit(), "the minimum limit still applies");
+  }
+
+  @Test
+  @DisplayName("should keep the limit while fewer than half of the permits are used")
+  void testUpdate_applicationLimited() {
+    final WriteConcurrencyLimiter limiter = create(true, 10, 2, 50, Duration.ZERO);
+
+    for (int i = 0; i < 10; i++) {
+      runWindow(limiter, 4, FAST);
+    }
+
+    assertEquals(10, limiter.getLimit());
+  }
+
+  @Test
+  @DisplayName("should lower the limit while the latency stays above the tolerated latency")
+  void testUpdate_shrinks() {
+    final WriteConcurrencyLimiter limiter = create(true, 20, 5, 50, Duration.ZERO);
+    for (int i = 0; i < 5; i++) {
+      runWindow(limiter, limiter.getLimit(), FAST);
+    }
+    final int before = limiter.getLimit();
+
+    runWindow(limiter, limiter.getLimit(), SLOW);
+    runWindow(limiter, limiter.getLimit(), SLOW);
+    final int after = limiter.getLimit();
+    for (int i = 0; i < 20; i++) {
+      runWindow(limiter, limiter.getLimit(), SLOW);
+    }
+
+    assertTrue(after < before, before + " -> " + after);
+    assertTrue(limiter.getLimit() < before / 2, before + " -> " + limiter.getLimit());
+    assertEquals(0.020, registry.get(WriteConcurrencyLimiter.LATENCY).tag("average", "window").gauge().value(), 1e-9);
+  }
+
+  @Test
+  @DisplayName("should back off after a window with failed saves, down to the minimum")
+  void testUpdate_backsOffOnFailures() {
+    final WriteConcurrencyLimiter limiter = create(true, 20, 2, 50, Duration.ZERO);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(limiter.tryAcquire());
+    }
+    limiter.onSuccess(FAST);
+    limiter.onSuccess(FAST);
+    now.addAndGet(WINDOW.toNanos());
+
+    limiter.onDropped();
+
+    assertEquals(18, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+    for (int i = 0; i < 50; i++) {
+      assertTrue(limiter.tryAcquire());
+      now.addAndGet(WINDOW.toNanos());
+      limiter.onDropped();
+    }
+    assertEquals(2, limiter.getLimit());
+  }
+
+  @Test
+  @DisplayName("should hand out every permit and learn nothing when disabled")
+  void testDisabled() {
+    final WriteConcurrencyLimiter limiter = create(false, 2, 1, 10, Duration.ZERO);
+
+    for (int i = 0; i < 100; i++) {
+      assertTrue(limiter.tryAcquire());
+    }
+    runWindow(limiter, 0, SLOW);
+
+    assertEquals(0, limiter.getInFlight());
+    assertEquals(2, limiter.getLimit());
+  }
+
+  @Test
+  @DisplayName("should reject inconsistent limits")
+  void testInvalidProperties() {
+    assertThrows(IllegalArgumentException.class, () -> create(true, 10, 20, 50, Duration.ZERO));
+    assertThrows(IllegalArgumentException.class, () -> create(true, 60, 2, 50, Duration.ZERO));
+    assertThrows(IllegalArgumentException.class, () -> create(true, 10, 0, 50, Duration.ZERO));
+  }
+
+  private WriteConcurrencyLimiter create(boolean enabled, int initialLimit, int minLimit, int maxLimit, Duration maxWait) {
+    return new WriteConcurrencyLimiter(new WriteLimiterProperties(enabled, initialLimit, minLimit, maxLimit, 1.5, 0.2,
+        0.9, WINDOW, 1, maxWait), registry, poolSize::get, now::get);
+  }
+
+  // the saves all run at the same time, the last one to finish closes the window
+  private void runWindow(WriteConcurrencyLimiter limiter, int concurrent, long latencyNanos) {
+    for (int i = 0; i < concurrent; i++) {
+      assertTrue(limiter.tryAcquire());
+    }
+    for (int i = 0; i < concurrent - 1; i++) {
+      limiter.onSuccess(latencyNanos);
+    }
+    now.addAndGet(WINDOW.toNanos());
+    limiter.onSuccess(latencyNanos);
+  }
+}
@@ -0,0 +1,52 @@
+package edu.umich.med.michr.track.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.async.EventRoute;
+import org.apache.logging.log4j.spi.StandardLevel;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DroppingAsyncQueueFullPolicy Tests")
+class DroppingAsyncQueueFullPolicyTest {
+  private static final long OTHER_THREAD_ID = -1;
+
+  private final DroppingAsyncQueueFullPolicy policy = new DroppingAsyncQueueFullPolicy();
+
+  @Test
+  @DisplayName("should drop and count the events of every level")
+  void testGetRoute_drops() {
+    final long info = DroppingAsyncQueueFullPolicy.getDropCount(StandardLevel.INFO);
+    final long debug = DroppingAsyncQueueFullPolicy.getDropCount(StandardLevel.DEBUG);
+
+    assertEquals(EventRoute.DISCARD, policy.getRoute(OTHER_THREAD_ID, Level.INFO));
+    assertEquals(EventRoute.DISCARD, policy.getRoute(OTHER_THREAD_ID, Level.DEBUG));
+    assertEquals(EventRoute.DISCARD, policy.getRoute(OTHER_THREAD_ID, Level.DEBUG));
+
+    assertEquals(info + 1, DroppingAsyncQueueFullPolicy.getDropCount(StandardLevel.INFO));
+    assertEquals(debug + 2, DroppingAsyncQueueFullPolicy.getDropCount(StandardLevel.DEBUG));
+  }
+
+  @Test
+  @DisplayName("should drop the more severe events too instead of writing them on the calling thread")
+  void testGetRoute_dropsSevereEvents() {
+    final long warn = DroppingAsyncQueueFullPolicy.getDropCount(StandardLevel.WARN);
+    final long error = DroppingAsyncQueueFullPolicy.getDropCount(StandardLevel.ERROR);
+
+    assertEquals(EventRoute.DISCARD, policy.getRoute(OTHER_THREAD_ID, Level.WARN));
+    assertEquals(EventRoute.DISCARD, policy.getRoute(OTHER_THREAD_ID, Level.ERROR));
+
+    assertEquals(warn + 1, DroppingAsyncQueueFullPolicy.getDropCount(StandardLevel.WARN));
+    assertEquals(error + 1, DroppingAsyncQueueFullPolicy.getDropCount(StandardLevel.ERROR));
+  }
+
+  @Test
+  @DisplayName("should never drop the events logged by the background thread")
+  void testGetRoute_backgroundThread() {
+    final long debug = DroppingAsyncQueueFullPolicy.getDropCount(StandardLevel.DEBUG);
+
+    assertEquals(EventRoute.SYNCHRONOUS, policy.getRoute(Thread.currentThread().threadId(), Level.DEBUG));
+    assertEquals(debug, DroppingAsyncQueueFullPolicy.getDropCount(StandardLevel.DEBUG));
+  }
+}
@@ -0,0 +1,112 @@
+package edu.umich.med.michr.track.metrics;
+
+import edu.umich.med.michr.track.exception.RejectionReason;
+import edu.umich.med.michr.track.exception.ValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IngestMetrics Tests")
+class IngestMetricsTest {
+  private SimpleMeterRegistry registry;
+  private IngestMetrics metrics;
+
+  @BeforeEach
+  void setUp() {
+    registry = new SimpleMeterRegistry();
+    metrics = new IngestMetrics(registry, new IngestMetricsProperties(2, 2));
+  }
+
+  @Test
+  @DisplayName("should count events by client and event type and record the custom attributes per event")
+  void testRecordEvent() {
+    metrics.recordEvent("client1", "pageView", 2);
+    metrics.recordEvent("client1", "pageView", 4);
+    metrics.recordEvent("client1", "click", 0);
+
+    assertEquals(2, registry.get(IngestMetrics.EVENTS).tags("client", "client1", "event_type", "pageView").counter().count());
+    assertEquals(1, registry.get(IngestMetrics.EVENTS).tags("client", "client1", "event_type", "click").counter().count());
+    assertEquals(3, registry.get(IngestMetrics.EVENT_ATTRIBUTES).tag("client", "client1").summary().count());
+    assertEquals(6, registry.get(IngestMetrics.EVENT_ATTRIBUTES).tag("client", "client1").summary().totalAmount());
+  }
+
+  @Test
+  @DisplayName("should count clients and event types past the caps as other")
+  void testRecordEvent_capsTagValues() {
+    metrics.recordEvent("client1", "a", 0);
+    metrics.recordEvent("client1", "b", 0);
+    metrics.recordEvent("client1", "c", 0);
+    metrics.recordEvent("client1", "d", 0);
+    metrics.recordEvent("client2", "a", 0);
+    metrics.recordEvent("client3", "a", 0);
+    metrics.recordEvent("client4", "a", 0);
+
+    assertEquals(2, registry.get(IngestMetrics.EVENTS).tags("client", "client1", "event_type", IngestMetrics.OTHER).counter().count());
+    assertNull(registry.find(IngestMetrics.EVENTS).tags("event_type", "c").counter());
+    assertEquals(2, registry.get(IngestMetrics.EVENTS).tags("client", IngestMetrics.OTHER).counter().count());
+    assertNull(registry.find(IngestMetrics.EVENTS).tag("client", "client3").counter());
+    // once a value has its own meters it keeps them
+    metrics.recordEvent("client2", "a", 0);
+    assertEquals(2, registry.get(IngestMetrics.EVENTS).tags("client", "client2", "event_type", "a").counter().count());
+  }
+
+  @Test
+  @DisplayName("should only count an event saved in a transaction once the transaction committed")
+  void testRecordEventAfterCommit() {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      metrics.recordEventAfterCommit("client1", "pageView", 1);
+      metrics.recordEventAfterCommit("client1", "pageView", 1);
+      assertNull(registry.find(IngestMetrics.EVENTS).counter());
+
+      // the first transaction rolls back, the second one commits
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+      TransactionSynchronizationManager.clearSynchronization();
+      TransactionSynchronizationManager.initSynchronization();
+      metrics.recordEventAfterCommit("client1", "pageView", 1);
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    assertEquals(1, registry.get(IngestMetrics.EVENTS).tags("client", "client1", "event_type", "pageView").counter().count());
+  }
+
+  @Test
+  @DisplayName("should count an event saved without a transaction right away")
+  void testRecordEventAfterCommit_noTransaction() {
+    metrics.recordEventAfterCommit("client1", "click", 0);
+
+    assertEquals(1, registry.get(IngestMetrics.EVENTS).tags("client", "client1", "event_type", "click").counter().count());
+  }
+
+  @Test
+  @DisplayName("should count rejections by status and reason")
+  void testRecordRejection() {
+    metrics.recordRejection(new ValidationException("Unknown client", HttpStatus.FORBIDDEN, RejectionReason.UNKNOWN_CLIENT));
+    metrics.recordRejection(new ValidationException("Unknown client", HttpStatus.FORBIDDEN, RejectionReason.UNKNOWN_CLIENT));
+    metrics.recordRejection(new ValidationException("Invalid", HttpStatus.BAD_REQUEST, RejectionReason.MISSING_PARAMETER));
+
+    assertEquals(2, registry.get(IngestMetrics.REJECTIONS).tags("status", "403", "reason", "unknown_client").counter().count());
+    assertEquals(1, registry.get(IngestMetrics.REJECTIONS).tags("status", "400", "reason", "missing_parameter").counter().count());
+  }
+
+  @Test
+  @DisplayName("should record the persistence time")
+  void testRecordPersistence() {
+    metrics.recordPersistence(Duration.ofMillis(5).toNanos());
+
+    assertEquals(1, registry.get(IngestMetrics.PERSISTENCE).timer().count());
+    assertEquals(5, registry.get(IngestMetrics.PERSISTENCE).timer().totalTime(TimeUnit.MILLISECONDS), 0.001);
+  }
+}
@@ -0,0 +1,89 @@
+package edu.umich.med.michr.track.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StageTimer Tests")
+class StageTimerTest {
+  private static final long MILLI = 1_000_000;
+
+  private static StageTimer createTimer(boolean enabled, int windowIntervals) {
+    return new StageTimer(new StageTimingProperties(enabled, Duration.ofSeconds(10), windowIntervals,
+        Duration.ofSeconds(60), 3));
+  }
+
+  @Test
+  @DisplayName("should report the percentiles of the latest interval and of the whole window per stage")
+  void testCollect() {
+    final StageTimer timer = createTimer(true, 3);
+    // three significant digits keep every value within 0.1%, each start is taken right before recording
+    for (int i = 1; i <= 100; i++) {
+      timer.record(IngestStage.PERSIST, System.nanoTime() - i * MILLI);
+    }
+    timer.collect();
+    timer.record(IngestStage.PERSIST, System.nanoTime() - 500 * MILLI);
+    timer.collect();
+
+    final StageTimer.StageSummary latest = timer.getLatestInterval().get("persist");
+    assertEquals(1, latest.count());
+    assertEquals(500, latest.max(), 5);
+    final StageTimer.StageSummary window = timer.getWindow().get("persist");
+    assertEquals(101, window.count());
+    assertEquals(50, window.p50(), 2);
+    assertEquals(100, window.p99(), 3);
+    assertEquals(500, window.max(), 5);
+    assertEquals(0, timer.getWindow().get("commit").count());
+    assertEquals(Duration.ofSeconds(20), timer.getWindowDuration());
+  }
+
+  @Test
+  @DisplayName("should drop the oldest interval once the window is full")
+  void testCollect_slidesWindow() {
+    final StageTimer timer = createTimer(true, 2);
+    timer.record(IngestStage.COMMIT, System.nanoTime() - MILLI);
+    timer.collect();
+    timer.collect();
+    assertEquals(1, timer.getWindow().get("commit").count());
+
+    timer.collect();
+    assertEquals(0, timer.getWindow().get("commit").count());
+    assertEquals(Duration.ofSeconds(20), timer.getWindowDuration());
+  }
+
+  @Test
+  @DisplayName("should record the time since the mark of the same thread once")
+  void testRecordSinceMark() {
+    final StageTimer timer = createTimer(true, 2);
+    timer.recordSinceMark(IngestStage.COMMIT);
+    timer.mark();
+    timer.recordSinceMark(IngestStage.COMMIT);
+    timer.recordSinceMark(IngestStage.COMMIT);
+    timer.collect();
+
+    assertEquals(1, timer.getLatestInterval().get("commit").count());
+  }
+
+  @Test
+  @DisplayName("should cap durations at the highest trackable value")
+  void testRecord_capsLongDurations() {
+    final StageTimer timer = createTimer(true, 2);
+    timer.record(IngestStage.ORIGIN_VALIDATION, System.nanoTime() - Duration.ofMinutes(5).toNanos());
+    timer.collect();
+
+    assertEquals(60_000, timer.getLatestInterval().get("origin_validation").max(), 600);
+  }
+
+  @Test
+  @DisplayName("should not record anything when disabled")
+  void testRecord_disabled() {
+    final StageTimer timer = createTimer(false, 2);
+    timer.record(IngestStage.PERSIST, System.nanoTime() - MILLI);
+    timer.collect();
+
+    assertEquals(0, timer.getLatestInterval().get("persist").count());
+  }
+}
@@ -1,6 +1,7 @@
 package edu.umich.med.michr.track.repository;
 
 import edu.umich.med.michr.track.domain.ClientConfiguration;
+import edu.umich.med.michr.track.service.AuthorizedOriginCount;
 import edu.umich.med.michr.track.util.TestUtils;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,10 +9,12 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -37,7 +40,9 @@ class ClientConfigurationRepositoryTest {
     assertTrue(foundConfig.isPresent(), "ClientConfiguration should be present");
     assertEquals(expectedClientId, foundConfig.get().getId());
     assertEquals(expectedClientName, foundConfig.get().getName());
-    assertEquals(expectedAuthorizedDomains, foundConfig.get().getAuthorizedOrigins());
+    // the origins are loaded lazily, outside of a transaction only with the query that fetches them
+    assertEquals(expectedAuthorizedDomains,
+        clientConfigurationRepository.findAllWithOriginsByIdIn(List.of(expectedClientId)).getFirst().getAuthorizedOrigins());
   }
 
   @Test
@@ -71,4 +76,37 @@ class ClientConfigurationRepositoryTest {
     assertTrue(actual.isPresent(), "Updated ClientConfiguration should be found");
     assertEquals(expectedClientName, actual.get().getName());
   }
+
+  @Test
+  void testFindAllIds() {
+    assertEquals(Set.of("client1", "client2", "client3"), Set.copyOf(clientConfigurationRepository.findAllIds()));
+  }
+
+  @Test
+  void testCountClientsByAuthorizedOrigin() {
+    clientConfigurationRepository.save(TestUtils.createClientConfig("client4", "Client 4", "example1.com"));
+
+    final List<AuthorizedOriginCount> actual = clientConfigurationRepository.countClientsByAuthorizedOrigin();
+
+    assertEquals(Set.of(new AuthorizedOriginCount("example2.com", 1), new AuthorizedOriginCount("test2.org", 1),
+        new AuthorizedOriginCount("example1.com", 2)), Set.copyOf(actual));
+  }
+
+  @Test
+  @Transactional
+  void testFindForUpdateById() {
+    final ClientConfiguration actual = clientConfigurationRepository.findForUpdateById("client2").orElseThrow();
+
+    assertEquals(Set.of("example2.com", "test2.org"), Set.copyOf(actual.getAuthorizedOrigins()));
+    assertTrue(clientConfigurationRepository.findForUpdateById("missing").isEmpty());
+  }
+
+  @Test
+  void testFindAllWithOriginsByIdIn() {
+    final List<ClientConfiguration> actual = clientConfigurationRepository.findAllWithOriginsByIdIn(List.of("client2", "client3", "missing"));
+
+    assertEquals(2, actual.size());
+    final ClientConfiguration client2 = actual.stream().filter(c -> c.getId().equals("client2")).findFirst().orElseThrow();
+    assertEquals(Set.of("example2.com", "test2.org"), Set.copyOf(client2.getAuthorizedOrigins()));
+  }
 }
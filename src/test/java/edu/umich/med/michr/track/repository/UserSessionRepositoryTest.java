@@ -0,0 +1,50 @@
+package edu.umich.med.michr.track.repository;
+
+import edu.umich.med.michr.track.domain.UserSession;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+@ActiveProfiles("test")
+@Sql(scripts = "/cleanup-data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class UserSessionRepositoryTest {
+  private static final Instant DAY = Instant.parse("2025-03-01T00:00:00Z");
+
+  @Autowired
+  private UserSessionRepository repository;
+
+  @Test
+  void testSaveAllAndFindByClientIdAndStartTimeBetween() {
+    repository.saveAll(List.of(
+        session("client1", "user2", DAY.plusSeconds(7_200)),
+        session("client1", "user1", DAY.plusSeconds(3_600)),
+        session("client2", "user1", DAY.plusSeconds(3_600)),
+        session("client1", "user3", DAY.minusSeconds(1)),
+        session("client1", "user4", DAY.plusSeconds(86_400))));
+
+    final List<UserSession> sessions =
+        repository.findByClientIdAndStartTimeBetween("client1", DAY, DAY.plusSeconds(86_400));
+
+    assertEquals(List.of("user1", "user2"), sessions.stream().map(UserSession::getUserId).toList());
+    final UserSession first = sessions.getFirst();
+    assertNotNull(first.getId());
+    assertEquals(DAY.plusSeconds(3_600), first.getStartTime());
+    assertEquals(DAY.plusSeconds(3_900), first.getEndTime());
+    assertEquals("/home", first.getEntryPage());
+    assertEquals("/checkout", first.getExitPage());
+    assertEquals(3, first.getPageCount());
+    assertEquals(5, first.getEventCount());
+  }
+
+  private static UserSession session(String clientId, String userId, Instant start) {
+    return new UserSession(clientId, userId, start, start.plusSeconds(300), "/home", "/checkout", 3, 5);
+  }
+}
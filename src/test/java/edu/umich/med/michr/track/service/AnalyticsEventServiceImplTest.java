@@ -3,7 +3,10 @@ package edu.umich.med.michr.track.service;
 import edu.umich.med.michr.track.domain.AnalyticsEvent;
 import edu.umich.med.michr.track.domain.StandardParameter;
 import edu.umich.med.michr.track.exception.ValidationException;
-import edu.umich.med.michr.track.repository.AnalyticsEventRepository;
+import edu.umich.med.michr.track.metrics.IngestMetrics;
+import edu.umich.med.michr.track.metrics.IngestStage;
+import edu.umich.med.michr.track.metrics.StageTimer;
+import edu.umich.med.michr.track.sink.EventSinks;
 import edu.umich.med.michr.track.util.RequestUtil;
 import edu.umich.med.michr.track.util.TestUtils;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +26,8 @@ import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,11 +35,17 @@ import static org.mockito.Mockito.*;
 class AnalyticsEventServiceImplTest {
 
   @Mock
-  private AnalyticsEventRepository repository;
+  private EventSinks eventSinks;
 
   @Mock
   private RequestUtil requestUtil;
 
+  @Mock
+  private IngestMetrics ingestMetrics;
+
+  @Mock
+  private StageTimer stageTimer;
+
   @Mock
   private HttpServletRequest request;
 
@@ -51,7 +62,7 @@ class AnalyticsEventServiceImplTest {
 
   @BeforeEach
   void setUp() {
-    service = new AnalyticsEventServiceImpl(repository, requestUtil, TestUtils.FIXED_CLOCK);
+    service = new AnalyticsEventServiceImpl(eventSinks, requestUtil, TestUtils.FIXED_CLOCK, ingestMetrics, stageTimer);
   }
 
   @Nested
@@ -161,7 +172,7 @@ class AnalyticsEventServiceImplTest {
       service.processAndSaveEvent(request);
 
       // Assert
-      verify(repository, times(1)).save(eventCaptor.capture());
+      verify(eventSinks, times(1)).write(eventCaptor.capture());
 
       final AnalyticsEvent actual = eventCaptor.getValue();
 
@@ -174,6 +185,9 @@ class AnalyticsEventServiceImplTest {
       assertEquals(ipAddress, actual.getIpAddress());
       assertEquals(customAttributes, actual.getCustomAttributes());
       assertEquals(TestUtils.FIXED_INSTANT, actual.getEventTimestamp());
+      verify(ingestMetrics).recordEventAfterCommit(clientId, eventType, customAttributes.size());
+      verify(stageTimer).record(eq(IngestStage.PERSIST), anyLong());
+      verify(stageTimer).mark();
     }
   }
 }
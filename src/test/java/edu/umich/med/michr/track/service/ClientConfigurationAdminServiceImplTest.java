@@ -0,0 +1,117 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.domain.ClientConfiguration;
+import edu.umich.med.michr.track.exception.ValidationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql(scripts = "/client.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/cleanup-data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("ClientConfigurationAdminService Tests")
+class ClientConfigurationAdminServiceImplTest {
+
+  @Autowired
+  private ClientConfigurationAdminService adminService;
+
+  @Autowired
+  private ClientConfigurationServiceImpl clientConfigurationService;
+
+  @Test
+  @DisplayName("Should make a created client available to lookups once committed")
+  void testCreateClient() {
+    clientConfigurationService.refresh();
+    assertNull(clientConfigurationService.getClientConfiguration("client4"));
+
+    adminService.createClient("client4", "Client 4", List.of(" https://site4.org/ ", "https://site4.org"));
+
+    final ClientConfiguration actual = clientConfigurationService.getClientConfiguration("client4");
+    assertNotNull(actual);
+    assertEquals(List.of("https://site4.org"), actual.getAuthorizedOrigins());
+    assertTrue(clientConfigurationService.getAllAuthorizedOriginsMatcher().matches("https://site4.org"));
+  }
+
+  @Test
+  @DisplayName("Should apply origin changes of an existing client to lookups")
+  void testAddAndRemoveAuthorizedOrigin() {
+    clientConfigurationService.refresh();
+
+    adminService.addAuthorizedOrigin("client1", "https://client1.org");
+    assertTrue(clientConfigurationService.getOriginMatcher("client1").matches("https://client1.org"));
+
+    adminService.removeAuthorizedOrigin("client1", "https://client1.org");
+    assertFalse(clientConfigurationService.getOriginMatcher("client1").matches("https://client1.org"));
+  }
+
+  @Test
+  @DisplayName("Should replace the name and the origins of a client")
+  void testUpdateClient() {
+    clientConfigurationService.refresh();
+
+    adminService.updateClient("client2", "Renamed", List.of("example3.com"));
+
+    final ClientConfiguration actual = clientConfigurationService.getClientConfiguration("client2");
+    assertEquals("Renamed", actual.getName());
+    assertEquals(List.of("example3.com"), actual.getAuthorizedOrigins());
+    assertFalse(clientConfigurationService.getAllAuthorizedOrigins().contains("test2.org"));
+  }
+
+  @Test
+  @DisplayName("Should create a client requested concurrently once and count its origins once")
+  void testCreateClient_concurrent() throws Exception {
+    clientConfigurationService.refresh();
+    final CountDownLatch start = new CountDownLatch(1);
+    final Callable<HttpStatus> create = () -> {
+      start.await();
+      try {
+        adminService.createClient("client4", "Client 4", List.of("https://site4.org"));
+        return HttpStatus.CREATED;
+      } catch (ValidationException e) {
+        return e.getStatus();
+      }
+    };
+
+    final List<HttpStatus> statuses = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+      final List<Future<HttpStatus>> results = List.of(executor.submit(create), executor.submit(create));
+      start.countDown();
+      for (Future<HttpStatus> result : results) {
+        statuses.add(result.get(30, TimeUnit.SECONDS));
+      }
+    }
+
+    assertTrue(statuses.containsAll(List.of(HttpStatus.CREATED, HttpStatus.CONFLICT)), statuses::toString);
+    adminService.removeAuthorizedOrigin("client4", "https://site4.org");
+    assertFalse(clientConfigurationService.getAllAuthorizedOriginsMatcher().matches("https://site4.org"));
+  }
+
+  @Test
+  @DisplayName("Should reject invalid changes")
+  void testInvalidChanges() {
+    assertEquals(HttpStatus.CONFLICT, assertThrows(ValidationException.class,
+        () -> adminService.createClient("client1", "Client 1", List.of())).getStatus());
+    assertEquals(HttpStatus.NOT_FOUND, assertThrows(ValidationException.class,
+        () -> adminService.updateClient("missing", "Missing", List.of())).getStatus());
+    assertEquals(HttpStatus.BAD_REQUEST, assertThrows(ValidationException.class,
+        () -> adminService.addAuthorizedOrigin("client1", " ")).getStatus());
+    assertEquals(HttpStatus.NOT_FOUND, assertThrows(ValidationException.class,
+        () -> adminService.removeAuthorizedOrigin("client1", "https://not-there.org")).getStatus());
+  }
+}
@@ -1,21 +1,41 @@
 package edu.umich.med.michr.track.service;
 
+import edu.umich.med.michr.track.config.ClientCacheProperties;
 import edu.umich.med.michr.track.domain.ClientConfiguration;
 import edu.umich.med.michr.track.repository.ClientConfigurationRepository;
 import edu.umich.med.michr.track.util.TestUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Arrays;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,20 +45,37 @@ class ClientConfigurationServiceImplTest {
   @Mock
   private ClientConfigurationRepository repository;
 
-  @InjectMocks
   private ClientConfigurationServiceImpl service;
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+
+  private final ClientCacheProperties properties =
+      new ClientCacheProperties(Duration.ofMinutes(5), 100, 0.01, 100, Duration.ofMinutes(10));
 
   private final String clientId1 = "client1";
   private final String clientId2 = "client2";
   private final Set<String> authorizedOrigins = Set.of("example1.com", "test1.org", "example2.com", "test2.org");
 
+  // the rows the mocked repository answers from
+  private final Map<String, ClientConfiguration> stored = new LinkedHashMap<>();
+
   @BeforeEach
   void setUp() {
-    final ClientConfiguration clientConfig1 = TestUtils.createClientConfig(clientId1, "Client 1", "example1.com", "test1.org");
-    final ClientConfiguration clientConfig2 = TestUtils.createClientConfig(clientId2, "Client 2", "example2.com", "test2.org");
+    store(TestUtils.createClientConfig(clientId1, "Client 1", "example1.com", "test1.org"));
+    store(TestUtils.createClientConfig(clientId2, "Client 2", "example2.com", "test2.org"));
 
-    final List<ClientConfiguration> clientConfigurations = Arrays.asList(clientConfig1, clientConfig2);
-    when(repository.findAll()).thenReturn(clientConfigurations);
+    lenient().when(repository.findAllIds()).thenAnswer(invocation -> List.copyOf(stored.keySet()));
+    lenient().when(repository.countClientsByAuthorizedOrigin()).thenAnswer(invocation -> stored.values().stream()
+        .flatMap(configuration -> configuration.getAuthorizedOrigins().stream())
+        .collect(Collectors.groupingBy(Function.identity(), LinkedHashMap::new, Collectors.counting()))
+        .entrySet().stream()
+        .map(entry -> new AuthorizedOriginCount(entry.getKey(), entry.getValue()))
+        .toList());
+    lenient().when(repository.findAllWithOriginsByIdIn(anyCollection())).thenAnswer(invocation -> {
+      final Collection<String> ids = invocation.getArgument(0);
+      return ids.stream().map(stored::get).filter(Objects::nonNull).toList();
+    });
+
+    service = new ClientConfigurationServiceImpl(repository, properties, TestUtils.FIXED_CLOCK, registry);
   }
 
   @Test
@@ -52,7 +89,7 @@ class ClientConfigurationServiceImplTest {
     assertEquals(clientId1, actual.getId());
     assertEquals("Client 1", actual.getName());
 
-    verify(repository, times(1)).findAll();
+    verify(repository, times(1)).findAllWithOriginsByIdIn(Set.of(clientId1));
   }
 
   @Test
@@ -64,22 +101,69 @@ class ClientConfigurationServiceImplTest {
     // Assert
     assertNull(actual);
 
-    verify(repository, times(1)).findAll();
+    verify(repository, times(1)).findAllIds();
   }
 
   @Test
   @DisplayName("Should use cache for subsequent calls")
   void testGetClientConfiguration_hitCacheForSubsequentCalls() {
-    // First call to initialize cache
+    // First calls load each client once
     final ClientConfiguration actual1 = service.getClientConfiguration(clientId1);
-
-    // Second call should use cache
     final ClientConfiguration actual2 = service.getClientConfiguration(clientId2);
 
+    // Subsequent calls should use cache
+    assertSame(actual1, service.getClientConfiguration(clientId1));
+    assertSame(actual2, service.getClientConfiguration(clientId2));
+
     assertEquals(clientId1, actual1.getId());
     assertEquals(clientId2, actual2.getId());
 
-    verify(repository, times(1)).findAll();
+    verify(repository, times(1)).findAllIds();
+    verify(repository, times(2)).findAllWithOriginsByIdIn(anyCollection());
+    verify(repository, never()).findAll();
+  }
+
+  @Test
+  @DisplayName("Should load a client only once for concurrent lookups")
+  void testGetClientConfiguration_concurrentLookupsShareOneLoad() throws Exception {
+    final int threads = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Future<ClientConfiguration>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return service.getClientConfiguration(clientId1);
+        }));
+      }
+      start.countDown();
+      for (Future<ClientConfiguration> result : results) {
+        assertEquals(clientId1, result.get(5, TimeUnit.SECONDS).getId());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    verify(repository, times(1)).findAllWithOriginsByIdIn(anyCollection());
+  }
+
+  @Test
+  @DisplayName("Should keep at most the configured number of clients in memory")
+  void testGetClientConfiguration_cacheIsBounded() {
+    for (int i = 0; i < 50; i++) {
+      store(TestUtils.createClientConfig("bulk-" + i, "Bulk " + i, "bulk" + i + ".org"));
+    }
+    final MeterRegistry boundedRegistry = new SimpleMeterRegistry();
+    service = new ClientConfigurationServiceImpl(repository,
+        new ClientCacheProperties(Duration.ofMinutes(5), 100, 0.01, 10, Duration.ofMinutes(10)), TestUtils.FIXED_CLOCK,
+        boundedRegistry);
+
+    for (int i = 0; i < 50; i++) {
+      assertNotNull(service.getClientConfiguration("bulk-" + i));
+    }
+
+    assertThat(boundedRegistry.get(ClientConfigurationServiceImpl.CACHED).gauge().value()).isLessThanOrEqualTo(10);
   }
 
   @Test
@@ -91,6 +175,157 @@ class ClientConfigurationServiceImplTest {
     // Assert
     assertEquals(authorizedOrigins, actual);
 
-    verify(repository, times(1)).findAll();
+    verify(repository, times(1)).countClientsByAuthorizedOrigin();
+    verify(repository, never()).findAllWithOriginsByIdIn(anyCollection());
+  }
+
+  @Test
+  @DisplayName("Should return the compiled origin matcher of a client and null for unknown clients")
+  void testGetOriginMatcher() {
+    assertTrue(service.getOriginMatcher(clientId1).matches("EXAMPLE1.com"));
+    assertFalse(service.getOriginMatcher(clientId1).matches("example2.com"));
+    assertNull(service.getOriginMatcher("non-existing-client"));
+    assertTrue(service.getAllAuthorizedOriginsMatcher().matches("test2.org"));
+  }
+
+  @Test
+  @DisplayName("Should reject repeated unknown client ids without reloading")
+  void testGetClientConfiguration_unknownClientIdsRejectedWithoutReload() {
+    // the ids are in the snapshot, so the membership filter passes every one of them (a Bloom filter has no false
+    // negatives), but their clients are gone by the time they are loaded
+    final List<String> scanIds = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      scanIds.add("scan-" + i);
+    }
+    when(repository.findAllIds()).thenAnswer(invocation -> {
+      final List<String> ids = new ArrayList<>(stored.keySet());
+      ids.addAll(scanIds);
+      return ids;
+    });
+
+    for (String scanId : scanIds) {
+      assertNull(service.getClientConfiguration(scanId));
+    }
+    verify(repository, times(1)).findAllIds();
+    verify(repository, times(50)).findAllWithOriginsByIdIn(anyCollection());
+
+    clearInvocations(repository);
+    for (String scanId : scanIds) {
+      assertNull(service.getClientConfiguration(scanId));
+    }
+    verifyNoMoreInteractions(repository);
+  }
+
+  @Test
+  @DisplayName("Should reload an empty snapshot only after the unknown id time to live elapses")
+  void testGetClientConfiguration_emptySnapshotReloadIsThrottled() {
+    final MutableClock clock = new MutableClock();
+    stored.clear();
+    service = new ClientConfigurationServiceImpl(repository, properties, clock, registry);
+
+    assertNull(service.getClientConfiguration(clientId1));
+    assertNull(service.getClientConfiguration("random-id"));
+    verify(repository, times(1)).findAllIds();
+
+    store(TestUtils.createClientConfig(clientId1, "Client 1", "example1.com"));
+    clock.advance(properties.unknownIdTtl());
+
+    assertNotNull(service.getClientConfiguration(clientId1));
+    verify(repository, times(2)).findAllIds();
+  }
+
+  @Test
+  @DisplayName("Should forget unknown client ids and pick up new clients on refresh")
+  void testRefresh_reloadsSnapshotAndClearsUnknownClientIds() {
+    final String newClientId = "client3";
+    assertNull(service.getClientConfiguration(newClientId));
+
+    assertNotNull(service.getClientConfiguration(clientId1));
+    stored.clear();
+    store(TestUtils.createClientConfig(newClientId, "Client 3", "example3.com"));
+    service.refresh();
+
+    assertEquals(newClientId, service.getClientConfiguration(newClientId).getId());
+    assertEquals(Set.of("example3.com"), service.getAllAuthorizedOrigins());
+    assertNull(service.getClientConfiguration(clientId1), "cached clients that no longer exist are dropped on refresh");
+  }
+
+  @Test
+  @DisplayName("Should patch a changed client into the snapshot without reloading")
+  void testOnClientConfigurationChanged_patchesSnapshot() {
+    final String newClientId = "client3";
+    assertNull(service.getClientConfiguration(newClientId));
+    final var unchangedUnionMatcher = service.getAllAuthorizedOriginsMatcher();
+
+    change(TestUtils.createClientConfig(newClientId, "Client 3", "example1.com"));
+
+    assertEquals(newClientId, service.getClientConfiguration(newClientId).getId());
+    assertTrue(service.getOriginMatcher(newClientId).matches("example1.com"));
+    assertSame(unchangedUnionMatcher, service.getAllAuthorizedOriginsMatcher(), "union of origins did not change");
+
+    change(TestUtils.createClientConfig(clientId1, "Client 1", "example1.com", "new.org"));
+
+    assertTrue(service.getOriginMatcher(clientId1).matches("new.org"));
+    assertTrue(service.getAllAuthorizedOriginsMatcher().matches("new.org"));
+    assertFalse(service.getAllAuthorizedOrigins().contains("test1.org"));
+    verify(repository, times(1)).findAllIds();
+    verify(repository, times(1)).countClientsByAuthorizedOrigin();
+    verify(repository, never()).findAllWithOriginsByIdIn(anyCollection());
+  }
+
+  @Test
+  @DisplayName("Should keep an origin in the union as long as a client is authorized for it")
+  void testOnClientConfigurationChanged_countsSharedOrigins() {
+    service.getAllAuthorizedOrigins();
+    change(TestUtils.createClientConfig("client3", "Client 3", "example1.com"));
+
+    change(TestUtils.createClientConfig(clientId1, "Client 1", "test1.org"));
+    assertTrue(service.getAllAuthorizedOriginsMatcher().matches("example1.com"), "client3 is still authorized for it");
+
+    change(TestUtils.createClientConfig("client3", "Client 3"));
+    assertFalse(service.getAllAuthorizedOriginsMatcher().matches("example1.com"));
+    assertEquals(Set.of("test1.org", "example2.com", "test2.org"), service.getAllAuthorizedOrigins());
+    verify(repository, times(1)).countClientsByAuthorizedOrigin();
+  }
+
+  // stores the changed client and publishes its change with the origins it had before
+  private void change(ClientConfiguration configuration) {
+    final ClientConfiguration previous = stored.get(configuration.getId());
+    store(configuration);
+    service.onClientConfigurationChanged(new ClientConfigurationChangedEvent(configuration,
+        previous == null ? List.of() : previous.getAuthorizedOrigins()));
+  }
+
+  private ClientConfiguration store(ClientConfiguration configuration) {
+    stored.put(configuration.getId(), configuration);
+    return configuration;
+  }
+
+  private static class MutableClock extends Clock {
+    private long millis = TestUtils.FIXED_INSTANT.toEpochMilli();
+
+    void advance(Duration duration) {
+      millis += duration.toMillis();
+    }
+
+    @Override
+    public long millis() {
+      return millis;
+    }
+
+    @Override
+    public Instant instant() {
+      return Instant.ofEpochMilli(millis);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
   }
 }
@@ -0,0 +1,132 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.config.ClientConfigurationSourceProperties;
+import edu.umich.med.michr.track.config.ConfigurationException;
+import edu.umich.med.michr.track.domain.ClientConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FileClientConfigurationService Tests")
+class FileClientConfigurationServiceTest {
+
+  @TempDir
+  Path tempDir;
+
+  private Path file;
+  private FileClientConfigurationService service;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    file = tempDir.resolve("clients.properties");
+    Files.writeString(file, """
+        client.client1.name=Client 1
+        client.client1.origins=https://site1.org, https://*.site1.org
+        client.client2.origins=https://site2.org
+        unrelated.key=value
+        """);
+    service = new FileClientConfigurationService(new ClientConfigurationSourceProperties("file", file.toString()));
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    service.stopWatching();
+  }
+
+  @Test
+  @DisplayName("should serve the clients defined in the file")
+  void testLookups() {
+    final ClientConfiguration client1 = service.getClientConfiguration("client1");
+
+    assertEquals("Client 1", client1.getName());
+    assertEquals(List.of("https://site1.org", "https://*.site1.org"), client1.getAuthorizedOrigins());
+    assertTrue(service.getOriginMatcher("client1").matches("https://www.site1.org"));
+    assertFalse(service.getOriginMatcher("client2").matches("https://site1.org"));
+    assertNull(service.getClientConfiguration("unknown"));
+    assertNull(service.getOriginMatcher(null));
+    assertEquals(Set.of("https://site1.org", "https://*.site1.org", "https://site2.org"), service.getAllAuthorizedOrigins());
+    assertTrue(service.getAllAuthorizedOriginsMatcher().matches("https://site2.org"));
+  }
+
+  @Test
+  @DisplayName("should swap in the new configuration on reload and keep it when the file disappears")
+  void testReload() throws Exception {
+    Files.writeString(file, "client.client3.origins=https://site3.org\n");
+
+    assertTrue(service.reload());
+    assertNull(service.getClientConfiguration("client1"));
+    assertTrue(service.getOriginMatcher("client3").matches("https://site3.org"));
+
+    Files.delete(file);
+
+    assertFalse(service.reload());
+    assertNotNull(service.getClientConfiguration("client3"));
+  }
+
+  @Test
+  @DisplayName("should serve a changed client until the application is ready and the file is loaded again")
+  void testOnClientConfigurationChanged() {
+    service.onClientConfigurationChanged(new ClientConfigurationChangedEvent(
+        new ClientConfiguration("sandbox", "Sandbox", List.of("https://sandbox.invalid")), List.of()));
+
+    assertTrue(service.getOriginMatcher("sandbox").matches("https://sandbox.invalid"));
+    assertTrue(service.getAllAuthorizedOriginsMatcher().matches("https://sandbox.invalid"));
+    assertNotNull(service.getClientConfiguration("client1"));
+
+    service.onApplicationReady();
+
+    assertNull(service.getClientConfiguration("sandbox"));
+    assertFalse(service.getAllAuthorizedOrigins().contains("https://sandbox.invalid"));
+  }
+
+  @Test
+  @DisplayName("should reload the file when it changes")
+  void testWatch() throws Exception {
+    service.startWatching();
+
+    Files.writeString(file, "client.client4.origins=https://site4.org\n");
+
+    final long deadline = System.currentTimeMillis() + 10_000;
+    while (service.getClientConfiguration("client4") == null && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertNotNull(service.getClientConfiguration("client4"));
+  }
+
+  @Test
+  @DisplayName("should fail to start without a readable file")
+  void testMissingFile() {
+    final ClientConfigurationSourceProperties properties =
+        new ClientConfigurationSourceProperties("file", tempDir.resolve("missing.properties").toString());
+
+    assertThrows(ConfigurationException.class, () -> new FileClientConfigurationService(properties));
+  }
+
+  @Test
+  @DisplayName("should ignore entries that do not define a client")
+  void testParse() {
+    final Properties properties = new Properties();
+    properties.setProperty("client..name", "no id");
+    properties.setProperty("client.a.name", "A");
+    properties.setProperty("client.a.other", "ignored");
+    properties.setProperty("client.b.origins", " , https://b.org,https://b.org ");
+
+    final List<ClientConfiguration> actual = FileClientConfigurationService.parse(properties);
+
+    assertEquals(2, actual.size());
+    final ClientConfiguration b = actual.stream().filter(c -> c.getId().equals("b")).findFirst().orElseThrow();
+    assertEquals(List.of("https://b.org"), b.getAuthorizedOrigins());
+    assertNull(b.getName());
+  }
+}
@@ -0,0 +1,95 @@
+package edu.umich.med.michr.track.service;
+
+import edu.umich.med.michr.track.domain.Funnel;
+import edu.umich.med.michr.track.domain.FunnelStep;
+import edu.umich.med.michr.track.exception.ValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Sql(scripts = "/client.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+@Sql(scripts = "/cleanup-data.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("FunnelService Tests")
+class FunnelServiceImplTest {
+  private static final List<FunnelStep> STEPS = List.of(
+      new FunnelStep(FunnelStep.Kind.PAGE, "/a"),
+      new FunnelStep(FunnelStep.Kind.EVENT, "signup"),
+      new FunnelStep(FunnelStep.Kind.PAGE, "/c"));
+
+  @Autowired
+  private FunnelService funnelService;
+
+  @Autowired
+  private ClientConfigurationServiceImpl clientConfigurationService;
+
+  @BeforeEach
+  void setUp() {
+    clientConfigurationService.refresh();
+  }
+
+  @Test
+  @DisplayName("Should create, update and delete the funnels of a client")
+  void testCreateUpdateDelete() {
+    final Funnel created = funnelService.createFunnel("client1", "signup", 30, STEPS);
+    funnelService.createFunnel("client1", "checkout", 10, STEPS.subList(0, 1));
+
+    assertEquals(List.of("checkout", "signup"),
+        funnelService.getFunnels("client1").stream().map(Funnel::getName).toList());
+    assertEquals(STEPS, funnelService.getFunnel("client1", created.getId()).getSteps());
+    assertEquals(List.of(), funnelService.getFunnels("client2"));
+
+    funnelService.updateFunnel("client1", created.getId(), "signup", 60, List.of(STEPS.get(2), STEPS.get(0)));
+    final Funnel updated = funnelService.getFunnel("client1", created.getId());
+    assertEquals(60, updated.getWindowMinutes());
+    assertEquals(List.of(STEPS.get(2), STEPS.get(0)), updated.getSteps());
+
+    funnelService.deleteFunnel("client1", created.getId());
+    assertEquals(HttpStatus.NOT_FOUND, assertThrows(ValidationException.class,
+        () -> funnelService.getFunnel("client1", created.getId())).getStatus());
+  }
+
+  @Test
+  @DisplayName("Should reject invalid funnels, duplicate names and unknown clients")
+  void testCreateFunnel_rejected() {
+    funnelService.createFunnel("client1", "signup", 30, STEPS);
+
+    assertStatus(HttpStatus.CONFLICT, () -> funnelService.createFunnel("client1", "signup", 30, STEPS));
+    assertStatus(HttpStatus.NOT_FOUND, () -> funnelService.createFunnel("unknown", "signup", 30, STEPS));
+    assertStatus(HttpStatus.BAD_REQUEST, () -> funnelService.createFunnel("client1", " ", 30, STEPS));
+    assertStatus(HttpStatus.BAD_REQUEST, () -> funnelService.createFunnel("client1", "other", 0, STEPS));
+    assertStatus(HttpStatus.BAD_REQUEST, () -> funnelService.createFunnel("client1", "other", 30, List.of()));
+    assertStatus(HttpStatus.BAD_REQUEST, () -> funnelService.createFunnel("client1", "other", 30,
+        List.of(new FunnelStep(FunnelStep.Kind.PAGE, ""))));
+  }
+
+  @Test
+  @DisplayName("Should only evaluate a funnel of the client over a valid period")
+  void testEvaluate_rejected() {
+    final Funnel funnel = funnelService.createFunnel("client1", "signup", 30, STEPS);
+    final Instant now = Instant.parse("2025-03-01T00:00:00Z");
+
+    assertStatus(HttpStatus.BAD_REQUEST, () -> funnelService.evaluate("client1", funnel.getId(), now, now));
+    assertStatus(HttpStatus.BAD_REQUEST,
+        () -> funnelService.evaluate("client1", funnel.getId(), now, now.plus(Duration.ofDays(366))));
+    assertStatus(HttpStatus.NOT_FOUND,
+        () -> funnelService.evaluate("client2", funnel.getId(), now, now.plus(Duration.ofDays(1))));
+    assertEquals(3, funnelService.evaluate("client1", funnel.getId(), now, now.plus(Duration.ofDays(1))).steps().size());
+  }
+
+  private static void assertStatus(HttpStatus status, Runnable call) {
+    assertEquals(status, assertThrows(ValidationException.class, call::run).getStatus());
+  }
+}
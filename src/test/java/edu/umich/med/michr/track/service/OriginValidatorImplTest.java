@@ -1,8 +1,8 @@
 package edu.umich.med.michr.track.service;
 
-import edu.umich.med.michr.track.domain.ClientConfiguration;
 import edu.umich.med.michr.track.domain.StandardParameter;
 import edu.umich.med.michr.track.exception.ValidationException;
+import edu.umich.med.michr.track.util.OriginMatcher;
 import edu.umich.med.michr.track.util.RequestUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,12 +19,11 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 
-import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -66,7 +65,7 @@ public class OriginValidatorImplTest {
       String originHeader = "https://example.com";
       when(request.getHeader(HttpHeaders.ORIGIN)).thenReturn(originHeader);
 
-      when(clientConfigurationService.getClientConfiguration(clientId)).thenReturn(null);
+      when(clientConfigurationService.getOriginMatcher(clientId)).thenReturn(null);
 
       ValidationException exception = assertThrows(ValidationException.class,
           () -> originValidator.validate(request));
@@ -81,16 +80,15 @@ public class OriginValidatorImplTest {
     private final String clientId = "client1";
 
     @ParameterizedTest
-    @ValueSource(strings = {"https://referer.com", "https://referer.com/", "https://refEreR.com/", "https://referer.COM"})
+    @ValueSource(strings = {"https://referer.com", "https://referer.com/", "https://refEreR.com/", "https://referer.COM",
+        "https://referer.com/page?x=1", "https://referer.com:443/page#top", "https://user@referer.com/page"})
     public void testValidate_resolvesOriginFromRefererWhenOriginHeaderMissing(String referer) {
       when(requestUtil.getParameterValue(StandardParameter.CLIENT_ID, request)).thenReturn(clientId);
 
       when(request.getHeader(HttpHeaders.ORIGIN)).thenReturn(null);
       when(request.getHeader(HttpHeaders.REFERER)).thenReturn(referer);
 
-      ClientConfiguration config = mock(ClientConfiguration.class);
-      when(config.getAuthorizedOrigins()).thenReturn(Collections.singletonList("https://referer.com"));
-      when(clientConfigurationService.getClientConfiguration(clientId)).thenReturn(config);
+      when(clientConfigurationService.getOriginMatcher(clientId)).thenReturn(OriginMatcher.of(List.of("https://referer.com")));
 
       assertDoesNotThrow(() -> originValidator.validate(request));
     }
@@ -106,9 +104,7 @@ public class OriginValidatorImplTest {
       String emailId = "abc-45-jkf";
       when(requestUtil.getParameterValue(StandardParameter.EMAIL_ID, request)).thenReturn(emailId);
 
-      ClientConfiguration config = mock(ClientConfiguration.class);
-      when(config.getAuthorizedOrigins()).thenReturn(Collections.singletonList(emailId));
-      when(clientConfigurationService.getClientConfiguration(clientId)).thenReturn(config);
+      when(clientConfigurationService.getOriginMatcher(clientId)).thenReturn(OriginMatcher.of(List.of(emailId)));
 
       assertDoesNotThrow(() -> originValidator.validate(request));
     }
@@ -156,14 +152,24 @@ public class OriginValidatorImplTest {
       final String origin = "https://notallowed.com";
       when(request.getHeader(HttpHeaders.ORIGIN)).thenReturn(origin);
 
-      ClientConfiguration config = mock(ClientConfiguration.class);
-      when(config.getAuthorizedOrigins()).thenReturn(Collections.singletonList("https://allowed.com"));
-      when(clientConfigurationService.getClientConfiguration(clientId)).thenReturn(config);
+      when(clientConfigurationService.getOriginMatcher(clientId)).thenReturn(OriginMatcher.of(List.of("https://allowed.com")));
 
       ValidationException exception = assertThrows(ValidationException.class,
           () -> originValidator.validate(request));
       assertEquals("Origin is not allowed", exception.getMessage());
       assertEquals(HttpStatus.FORBIDDEN, exception.getStatus());
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"https://www.med.umich.edu", "https://a.b.MED.umich.edu", "http://localhost:3000", "http://localhost"})
+    public void testValidate_originAllowedByPattern(String origin) {
+      String clientId = "client6";
+      when(requestUtil.getParameterValue(StandardParameter.CLIENT_ID, request)).thenReturn(clientId);
+      when(request.getHeader(HttpHeaders.ORIGIN)).thenReturn(origin);
+      when(clientConfigurationService.getOriginMatcher(clientId))
+          .thenReturn(OriginMatcher.of(List.of("https://*.med.umich.edu", "http://localhost:*")));
+
+      assertDoesNotThrow(() -> originValidator.validate(request));
+    }
   }
 }
@@ -0,0 +1,75 @@
+package edu.umich.med.michr.track.session;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HashedTimingWheel Tests")
+class HashedTimingWheelTest {
+  private static final Duration TICK = Duration.ofMillis(100);
+
+  @Test
+  @DisplayName("should return an item once its deadline passed, never before")
+  void testAdvance_dueAtDeadline() {
+    final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK, 8, 1_000);
+    wheel.schedule("a", 1_250);
+
+    assertEquals(List.of(), wheel.advance(1_200));
+    assertEquals(List.of(), wheel.advance(1_299));
+    assertEquals(List.of("a"), wheel.advance(1_300));
+    assertEquals(List.of(), wheel.advance(1_400));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  @DisplayName("should keep an item with a deadline more than a turn away for the following turns")
+  void testAdvance_multipleTurns() {
+    final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK, 4, 0);
+    wheel.schedule("near", 200);
+    wheel.schedule("far", 1_000);
+
+    assertEquals(List.of("near"), wheel.advance(500));
+    assertEquals(List.of(), wheel.advance(900));
+    assertEquals(1, wheel.size());
+    assertEquals(List.of("far"), wheel.advance(1_000));
+  }
+
+  @Test
+  @DisplayName("should return every due item when advanced past several turns at once")
+  void testAdvance_skipsTurns() {
+    final HashedTimingWheel<Integer> wheel = new HashedTimingWheel<>(TICK, 8, 0);
+    IntStream.range(0, 100).forEach(i -> wheel.schedule(i, i * 50L));
+    wheel.schedule(1_000, 100_000);
+
+    final Set<Integer> due = Set.copyOf(wheel.advance(10_000));
+
+    assertEquals(IntStream.range(0, 100).boxed().collect(Collectors.toSet()), due);
+    assertEquals(1, wheel.size());
+  }
+
+  @Test
+  @DisplayName("should make an item scheduled for a past deadline due on the next advance")
+  void testSchedule_pastDeadline() {
+    final HashedTimingWheel<String> wheel = new HashedTimingWheel<>(TICK, 8, 0);
+    wheel.advance(5_000);
+
+    wheel.schedule("late", 1_000);
+
+    assertEquals(List.of(), wheel.advance(5_050));
+    assertEquals(List.of("late"), wheel.advance(5_100));
+  }
+
+  @Test
+  @DisplayName("should reject a wheel size that is not a power of two")
+  void testConstructor_invalidSize() {
+    assertThrows(IllegalArgumentException.class, () -> new HashedTimingWheel<>(TICK, 10, 0));
+    assertThrows(IllegalArgumentException.class, () -> new HashedTimingWheel<>(Duration.ZERO, 8, 0));
+  }
+}
@@ -0,0 +1,203 @@
+package edu.umich.med.michr.track.session;
+
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import edu.umich.med.michr.track.domain.UserSession;
+import edu.umich.med.michr.track.repository.UserSessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SessionizingEventSink Tests")
+class SessionizingEventSinkTest {
+  private static final Instant START = Instant.parse("2025-03-01T10:00:00Z");
+  private static final Duration TIMEOUT = Duration.ofMinutes(30);
+
+  @Mock
+  private UserSessionRepository repository;
+
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+  private final List<UserSession> saved = new ArrayList<>();
+  private SessionizingEventSink sink;
+
+  @BeforeEach
+  void setUp() {
+    // the batch is reused once saved, keep a copy of what was saved
+    lenient().when(repository.saveAll(anyList())).thenAnswer(invocation -> {
+      final List<UserSession> batch = invocation.getArgument(0);
+      saved.addAll(batch);
+      return List.copyOf(batch);
+    });
+    sink = create(100);
+  }
+
+  @Test
+  @DisplayName("should end a session after the inactivity timeout and save its summary")
+  void testExpire_savesSummary() {
+    sink.write(List.of(
+        event("user1", "/home", 0),
+        event("user1", "/home", 5),
+        event("user1", "/products", 60),
+        event("user1", "/checkout", 300)));
+
+    sink.expire(START.plus(TIMEOUT).plusSeconds(299).toEpochMilli());
+    sink.save();
+    assertEquals(1, sink.getOpenSessionCount());
+    verifyNoInteractions(repository);
+
+    sink.expire(START.plus(TIMEOUT).plusSeconds(301).toEpochMilli());
+    sink.save();
+
+    assertEquals(0, sink.getOpenSessionCount());
+    final UserSession session = getSaved().getFirst();
+    assertEquals("client1", session.getClientId());
+    assertEquals("user1", session.getUserId());
+    assertEquals(START, session.getStartTime());
+    assertEquals(START.plusSeconds(300), session.getEndTime());
+    assertEquals("/home", session.getEntryPage());
+    assertEquals("/checkout", session.getExitPage());
+    assertEquals(3, session.getPageCount());
+    assertEquals(4, session.getEventCount());
+    assertEquals(1, registry.get(SessionizingEventSink.CLOSED).counter().count());
+  }
+
+  @Test
+  @DisplayName("should keep a session open as long as events keep coming within the timeout")
+  void testExpire_extendsSession() {
+    for (int minute = 0; minute <= 120; minute += 20) {
+      sink.write(List.of(event("user1", "/page" + minute, minute * 60)));
+      sink.expire(START.plusSeconds(minute * 60L).toEpochMilli());
+    }
+
+    sink.expire(START.plus(Duration.ofMinutes(149)).toEpochMilli());
+    assertEquals(1, sink.getOpenSessionCount());
+    sink.expire(START.plus(Duration.ofMinutes(151)).toEpochMilli());
+    sink.save();
+
+    final UserSession session = getSaved().getFirst();
+    assertEquals(START.plus(Duration.ofMinutes(120)), session.getEndTime());
+    assertEquals(7, session.getEventCount());
+  }
+
+  @Test
+  @DisplayName("should start a new session when an event comes after the timeout, before the wheel ends the old one")
+  void testWrite_splitsOnGap() {
+    sink.write(List.of(
+        event("user1", "/home", 0),
+        event("user1", "/later", (int) TIMEOUT.toSeconds() + 1)));
+    sink.save();
+
+    assertEquals(1, sink.getOpenSessionCount());
+    assertEquals(1, getSaved().getFirst().getEventCount());
+
+    sink.expire(START.plus(TIMEOUT.multipliedBy(3)).toEpochMilli());
+    sink.save();
+
+    assertEquals(0, sink.getOpenSessionCount());
+    assertEquals(2, saved.size());
+    assertEquals("/later", saved.get(1).getEntryPage());
+  }
+
+  @Test
+  @DisplayName("should keep separate sessions per client and user")
+  void testWrite_separateUsers() {
+    sink.write(List.of(
+        event("client1", "user1", "/a", 0),
+        event("client1", "user2", "/b", 1),
+        event("client2", "user1", "/c", 2)));
+
+    assertEquals(3, sink.getOpenSessionCount());
+    assertEquals(3.0, registry.get(SessionizingEventSink.OPEN).gauge().value());
+  }
+
+  @Test
+  @DisplayName("should use the earliest and latest event for the entry and exit page when events come out of order")
+  void testWrite_outOfOrder() {
+    sink.write(List.of(
+        event("user1", "/second", 10),
+        event("user1", "/first", 0),
+        event("user1", "/third", 20)));
+    sink.expire(START.plus(TIMEOUT).plusSeconds(21).toEpochMilli());
+    sink.save();
+
+    final UserSession session = getSaved().getFirst();
+    assertEquals(START, session.getStartTime());
+    assertEquals("/first", session.getEntryPage());
+    assertEquals("/third", session.getExitPage());
+  }
+
+  @Test
+  @DisplayName("should not open more sessions than allowed and count the events of further users")
+  void testWrite_capacity() {
+    sink = create(2);
+
+    sink.write(List.of(
+        event("user1", "/a", 0),
+        event("user2", "/a", 0),
+        event("user3", "/a", 0),
+        event("user1", "/b", 1)));
+
+    assertEquals(2, sink.getOpenSessionCount());
+    assertEquals(1, registry.get(SessionizingEventSink.DROPPED).tag("reason", "capacity").counter().count());
+  }
+
+  @Test
+  @DisplayName("should save the open sessions when stopped")
+  void testStop_savesOpenSessions() throws InterruptedException {
+    sink.write(List.of(event("user1", "/a", 0), event("user2", "/b", 0)));
+
+    sink.stop();
+
+    assertEquals(0, sink.getOpenSessionCount());
+    assertEquals(2, getSaved().size());
+  }
+
+  @Test
+  @DisplayName("should count the sessions that could not be saved and keep going")
+  void testSave_failure() {
+    when(repository.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+    sink.write(List.of(event("user1", "/a", 0)));
+    sink.expire(START.plus(TIMEOUT).plusSeconds(1).toEpochMilli());
+
+    sink.save();
+
+    assertEquals(1, registry.get(SessionizingEventSink.DROPPED).tag("reason", "failed").counter().count());
+    assertEquals(0, registry.get(SessionizingEventSink.CLOSED).counter().count());
+  }
+
+  private SessionizingEventSink create(int maxOpenSessions) {
+    return new SessionizingEventSink(
+        new SessionProperties(true, TIMEOUT, maxOpenSessions, Duration.ofSeconds(1), 64, 100), repository,
+        Clock.fixed(START, ZoneOffset.UTC), registry);
+  }
+
+  private List<UserSession> getSaved() {
+    saved.sort(Comparator.comparing(UserSession::getStartTime));
+    return saved;
+  }
+
+  private static AnalyticsEvent event(String userId, String page, int secondsAfterStart) {
+    return event("client1", userId, page, secondsAfterStart);
+  }
+
+  private static AnalyticsEvent event(String clientId, String userId, String page, int secondsAfterStart) {
+    return AnalyticsEvent.builder(clientId, userId, "pageview", page, START.plusSeconds(secondsAfterStart)).build();
+  }
+}
@@ -0,0 +1,243 @@
+package edu.umich.med.michr.track.sink;
+
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import edu.umich.med.michr.track.util.TestUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("EventSinks Tests")
+class EventSinksTest {
+  private static final EventSinkProperties.Dispatch DEFAULTS =
+      new EventSinkProperties.Dispatch(100, 10, 3, Duration.ofMillis(1), Duration.ofSeconds(5));
+
+  private final MeterRegistry registry = new SimpleMeterRegistry();
+  private final InMemoryEventSink primary = new InMemoryEventSink(1000);
+  private EventSinks eventSinks;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    if (eventSinks != null) {
+      eventSinks.stop();
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @DisplayName("should write the primary sink right away and the secondary sinks in the background")
+  void testWrite_fansOut() throws InterruptedException {
+    final InMemoryEventSink secondary = new NamedMemorySink("secondary");
+    eventSinks = start(Map.of(), primary, secondary);
+
+    for (int i = 0; i < 25; i++) {
+      eventSinks.write(createEvent(i));
+    }
+
+    assertEquals(25, primary.getEvents().size());
+    awaitTrue(() -> secondary.getEvents().size() == 25);
+    assertEquals(25, registry.get(SinkWorker.WRITTEN).tag("sink", "secondary").counter().count());
+  }
+
+  @Test
+  @DisplayName("should hand the event to the secondary sinks only once the transaction commits")
+  void testWrite_afterCommit() throws InterruptedException {
+    final InMemoryEventSink secondary = new NamedMemorySink("secondary");
+    eventSinks = start(Map.of(), primary, secondary);
+    TransactionSynchronizationManager.initSynchronization();
+
+    eventSinks.write(createEvent(1));
+    eventSinks.write(createEvent(2));
+
+    assertEquals(2, primary.getEvents().size());
+    final List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+    assertEquals(0, eventSinks.getWorkers().get(0).getQueueSize());
+    // the first event is rolled back, the second committed
+    synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+    synchronizations.get(1).afterCommit();
+    awaitTrue(() -> secondary.getEvents().size() == 1);
+    assertEquals("user-2", secondary.getEvents().get(0).getUserId());
+  }
+
+  @Test
+  @DisplayName("should drop the events a blocked secondary sink has no room for without delaying the writes")
+  void testWrite_slowSecondaryDoesNotBlock() throws InterruptedException {
+    final CountDownLatch release = new CountDownLatch(1);
+    final BlockingSink blocked = new BlockingSink(release);
+    final InMemoryEventSink healthy = new NamedMemorySink("healthy");
+    eventSinks = start(Map.of("blocked", new EventSinkProperties.Dispatch(5, 1, null, null, null)),
+        primary, blocked, healthy);
+
+    eventSinks.write(createEvent(0));
+    awaitTrue(() -> blocked.taken.get() == 1);
+    final long start = System.nanoTime();
+    for (int i = 1; i < 50; i++) {
+      eventSinks.write(createEvent(i));
+    }
+    final long elapsed = System.nanoTime() - start;
+
+    assertTrue(elapsed < TimeUnit.SECONDS.toNanos(1), "writes took " + elapsed + " ns");
+    assertEquals(50, primary.getEvents().size());
+    awaitTrue(() -> healthy.getEvents().size() == 50);
+    // one event is being written and 5 are queued, all the others were dropped
+    assertEquals(44, registry.get(SinkWorker.DROPPED).tags("sink", "blocked", "reason", "queue-full").counter().count());
+    release.countDown();
+    awaitTrue(() -> blocked.written.get() == 6);
+  }
+
+  @Test
+  @DisplayName("should retry a failed batch and drop it once the attempts are used up, without affecting other sinks")
+  void testWrite_retriesThenDrops() throws InterruptedException {
+    final FailingSink flaky = new FailingSink("flaky", 2);
+    final FailingSink broken = new FailingSink("broken", Integer.MAX_VALUE);
+    final InMemoryEventSink healthy = new NamedMemorySink("healthy");
+    eventSinks = start(Map.of(), primary, flaky, broken, healthy);
+
+    eventSinks.write(createEvent(1));
+
+    awaitTrue(() -> flaky.written.get() == 1);
+    awaitTrue(() -> registry.get(SinkWorker.DROPPED).tags("sink", "broken", "reason", "failed").counter().count() == 1);
+    assertEquals(3, broken.attempts.get());
+    assertEquals(2, registry.get(SinkWorker.RETRIES).tag("sink", "flaky").counter().count());
+    assertEquals(1, healthy.getEvents().size());
+    assertEquals(1, primary.getEvents().size());
+  }
+
+  @Test
+  @DisplayName("should write the queued events before stopping")
+  void testStop_drainsQueue() throws InterruptedException {
+    final InMemoryEventSink secondary = new NamedMemorySink("secondary");
+    eventSinks = start(Map.of(), primary, secondary);
+    for (int i = 0; i < 100; i++) {
+      eventSinks.write(createEvent(i));
+    }
+
+    eventSinks.stop();
+    eventSinks = null;
+
+    assertEquals(100, secondary.getEvents().size());
+  }
+
+  @Test
+  @DisplayName("should fail to start without the configured primary sink")
+  void testPrimaryMissing() {
+    final EventSinkProperties properties = new EventSinkProperties("jpa", DEFAULTS, Map.of(), null, null);
+
+    final IllegalStateException thrown = assertThrows(IllegalStateException.class,
+        () -> new EventSinks(List.of(primary), properties, registry));
+
+    assertTrue(thrown.getMessage().contains("[memory]"));
+  }
+
+  @Test
+  @DisplayName("should replace only the overridden dispatch settings of a sink")
+  void testGetDispatch_overrides() {
+    final EventSinkProperties properties = new EventSinkProperties("jpa", DEFAULTS,
+        Map.of("file", new EventSinkProperties.Dispatch(null, 500, null, null, null)), null, null);
+
+    assertEquals(new EventSinkProperties.Dispatch(100, 500, 3, Duration.ofMillis(1), Duration.ofSeconds(5)),
+        properties.getDispatch("file"));
+    assertEquals(DEFAULTS, properties.getDispatch("memory"));
+  }
+
+  private EventSinks start(Map<String, EventSinkProperties.Dispatch> overrides, EventSink... sinks) {
+    final EventSinks started = new EventSinks(List.of(sinks),
+        new EventSinkProperties(InMemoryEventSink.NAME, DEFAULTS, overrides, null, null), registry);
+    started.start();
+    return started;
+  }
+
+  private static AnalyticsEvent createEvent(int i) {
+    return AnalyticsEvent.builder("client", "user-" + i, "click", "/page", TestUtils.FIXED_INSTANT).build();
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        fail("Condition not met within 5 seconds");
+      }
+      Thread.sleep(5);
+    }
+  }
+
+  private static class NamedMemorySink extends InMemoryEventSink {
+    private final String name;
+
+    NamedMemorySink(String name) {
+      super(1000);
+      this.name = name;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+  }
+
+  private static class BlockingSink implements EventSink {
+    private final CountDownLatch release;
+    private final AtomicInteger taken = new AtomicInteger();
+    private final AtomicInteger written = new AtomicInteger();
+
+    BlockingSink(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public String getName() {
+      return "blocked";
+    }
+
+    @Override
+    public void write(List<AnalyticsEvent> events) {
+      taken.addAndGet(events.size());
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      written.addAndGet(events.size());
+    }
+  }
+
+  private static class FailingSink implements EventSink {
+    private final String name;
+    private final int failures;
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AtomicInteger written = new AtomicInteger();
+
+    FailingSink(String name, int failures) {
+      this.name = name;
+      this.failures = failures;
+    }
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    @Override
+    public void write(List<AnalyticsEvent> events) {
+      if (attempts.incrementAndGet() <= failures) {
+        throw new IllegalStateException(name + " is down");
+      }
+      written.addAndGet(events.size());
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package edu.umich.med.michr.track.sink;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import edu.umich.med.michr.track.domain.AnalyticsEvent;
+import edu.umich.med.michr.track.util.TestUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RollingFileEventSink Tests")
+class RollingFileEventSinkTest {
+  private final ObjectMapper objectMapper = new ObjectMapper()
+      .registerModule(new JavaTimeModule())
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+  @TempDir
+  private Path directory;
+
+  private RollingFileEventSink sink;
+
+  @AfterEach
+  void tearDown() throws IOException {
+    if (sink != null) {
+      sink.close();
+    }
+  }
+
+  @Test
+  @DisplayName("should append every event as a JSON line")
+  void testWrite_jsonLines() throws IOException {
+    sink = new RollingFileEventSink(directory, 1_000_000, 3, objectMapper, TestUtils.FIXED_CLOCK);
+
+    sink.write(List.of(createEvent(1, Map.of("button", "subscribe")), createEvent(2, Map.of())));
+
+    final List<String> lines = Files.readAllLines(directory.resolve(RollingFileEventSink.CURRENT_FILE));
+    assertEquals(2, lines.size());
+    final JsonNode first = objectMapper.readTree(lines.get(0));
+    assertEquals("client", first.get("clientId").asText());
+    assertEquals("user-1", first.get("userId").asText());
+    assertEquals(TestUtils.FIXED_INSTANT.toString(), first.get("eventTime").asText());
+    assertEquals("subscribe", first.get("attributes").get("button").asText());
+  }
+
+  @Test
+  @DisplayName("should keep appending to the file of a previous run")
+  void testWrite_appends() throws IOException {
+    sink = new RollingFileEventSink(directory, 1_000_000, 3, objectMapper, TestUtils.FIXED_CLOCK);
+    sink.write(List.of(createEvent(1, Map.of())));
+    sink.close();
+
+    sink = new RollingFileEventSink(directory, 1_000_000, 3, objectMapper, TestUtils.FIXED_CLOCK);
+    sink.write(List.of(createEvent(2, Map.of())));
+
+    assertEquals(2, Files.readAllLines(directory.resolve(RollingFileEventSink.CURRENT_FILE)).size());
+  }
+
+  @Test
+  @DisplayName("should roll the file over at the maximum size and keep only the latest rolled over files")
+  void testWrite_rollsOver() throws IOException {
+    final long lineLength = objectMapper.writeValueAsBytes(RollingFileEventSink.EventLine.of(createEvent(1, Map.of()))).length + 1;
+    final TickingClock clock = new TickingClock();
+    // two events per file
+    sink = new RollingFileEventSink(directory, lineLength * 2, 2, objectMapper, clock);
+
+    for (int i = 1; i <= 9; i++) {
+      sink.write(List.of(createEvent(i, Map.of())));
+    }
+
+    final List<Path> rolled;
+    try (Stream<Path> files = Files.list(directory)) {
+      rolled = files.filter(file -> file.getFileName().toString().startsWith(RollingFileEventSink.ROLLED_PREFIX))
+          .sorted()
+          .toList();
+    }
+    assertEquals(2, rolled.size());
+    assertEquals(List.of("user-5", "user-6"), readUserIds(rolled.get(0)));
+    assertEquals(List.of("user-7", "user-8"), readUserIds(rolled.get(1)));
+    assertEquals(List.of("user-9"), readUserIds(directory.resolve(RollingFileEventSink.CURRENT_FILE)));
+  }
+
+  private List<String> readUserIds(Path file) throws IOException {
+    final List<String> userIds = new ArrayList<>();
+    for (String line : Files.readAllLines(file)) {
+      userIds.add(objectMapper.readTree(line).get("userId").asText());
+    }
+    return userIds;
+  }
+
+  private static AnalyticsEvent createEvent(int i, Map<String, String> attributes) {
+    return AnalyticsEvent.builder("client", "user-" + i, "click", "/page", TestUtils.FIXED_INSTANT)
+        .customAttributes(attributes)
+        .build();
+  }
+
+  // a second later on every call, so every rolled over file gets its own name
+  private static class TickingClock extends Clock {
+    private Instant now = TestUtils.FIXED_INSTANT;
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      now = now.plus(Duration.ofSeconds(1));
+      return now;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package edu.umich.med.michr.track.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measures the bytes allocated on the heap by the current thread, through the HotSpot {@code ThreadMXBean}.
+ * <p>
+ * An action is repeated until the JIT compiler has compiled it (allocations it can prove do not escape are then
+ * removed, as they are in production), then measured over many more repetitions and averaged. The counter is exact
+ * for the measuring thread and ignores the allocations of all other threads, so measurements are not disturbed by
+ * anything else running in the JVM.
+ * </p>
+ */
+public final class AllocationMeter {
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private final int warmUpIterations;
+  private final int measuredIterations;
+
+  public AllocationMeter(int warmUpIterations, int measuredIterations) {
+    this.warmUpIterations = warmUpIterations;
+    this.measuredIterations = measuredIterations;
+  }
+
+  /**
+   * @return false if this JVM can not measure the allocations of a thread
+   */
+  public static boolean isSupported() {
+    if (!THREADS.isThreadAllocatedMemorySupported()) {
+      return false;
+    }
+    if (!THREADS.isThreadAllocatedMemoryEnabled()) {
+      THREADS.setThreadAllocatedMemoryEnabled(true);
+    }
+    return true;
+  }
+
+  /**
+   * @return the average number of bytes the action allocates, after warming it up
+   */
+  public long measure(Action action) throws Exception {
+    for (int i = 0; i < warmUpIterations; i++) {
+      action.run();
+    }
+    final long start = THREADS.getCurrentThreadAllocatedBytes();
+    for (int i = 0; i < measuredIterations; i++) {
+      action.run();
+    }
+    return (THREADS.getCurrentThreadAllocatedBytes() - start) / measuredIterations;
+  }
+
+  /**
+   * Measures every action on its own, in order.
+   *
+   * @return the average bytes allocated by each action, by name
+   */
+  public Map<String, Long> measure(Map<String, Action> actions) throws Exception {
+    final Map<String, Long> bytes = new LinkedHashMap<>();
+    for (Map.Entry<String, Action> action : actions.entrySet()) {
+      bytes.put(action.getKey(), measure(action.getValue()));
+    }
+    return bytes;
+  }
+
+  @FunctionalInterface
+  public interface Action {
+    void run() throws Exception;
+  }
+}
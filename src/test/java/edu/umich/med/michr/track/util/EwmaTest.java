@@ -0,0 +1,79 @@
+package edu.umich.med.michr.track.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Ewma Tests")
+class EwmaTest {
+  private final AtomicLong nanoTime = new AtomicLong();
+  private final Ewma ewma = new Ewma(0.5, Duration.ofSeconds(10), nanoTime::get);
+
+  @Test
+  @DisplayName("should start at the first sample and move towards the following ones")
+  void testUpdate() {
+    assertEquals(0, ewma.get());
+
+    ewma.update(100);
+    assertEquals(100, ewma.get());
+
+    ewma.update(200);
+    assertEquals(150, ewma.get());
+  }
+
+  @Test
+  @DisplayName("should halve every half-life without samples")
+  void testDecay() {
+    ewma.update(100);
+
+    nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertEquals(50, ewma.get(), 0.001);
+
+    nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+    ewma.update(25);
+    assertEquals(25, ewma.get(), 0.001);
+  }
+
+  @Test
+  @DisplayName("should not decay the average between samples in close succession")
+  void testUpdate_closeSamples() {
+    ewma.update(100);
+
+    nanoTime.addAndGet(Duration.ofSeconds(10).toNanos() / Ewma.DECAY_STEPS);
+    ewma.update(100);
+
+    assertEquals(100, ewma.get());
+  }
+
+  @Test
+  @DisplayName("should not lose samples taken concurrently")
+  void testUpdate_concurrent() throws InterruptedException {
+    final Ewma average = new Ewma(1, Duration.ofSeconds(10), nanoTime::get);
+    final List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      threads.add(Thread.ofPlatform().start(() -> {
+        for (int sample = 0; sample < 10_000; sample++) {
+          average.update(42);
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(42, average.get());
+  }
+
+  @Test
+  @DisplayName("should reject a weight outside of (0, 1]")
+  void testInvalidAlpha() {
+    assertThrows(IllegalArgumentException.class, () -> new Ewma(0, Duration.ofSeconds(1)));
+    assertThrows(IllegalArgumentException.class, () -> new Ewma(1.5, Duration.ofSeconds(1)));
+  }
+}
@@ -0,0 +1,122 @@
+package edu.umich.med.michr.track.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OriginMatcher Tests")
+class OriginMatcherTest {
+
+  private final OriginMatcher matcher = OriginMatcher.of(List.of(
+      "https://example.com",
+      "http://localhost:3000",
+      "5902f6aa-8ca5-413b-8646-6079ed9265e7",
+      "https://*.med.umich.edu",
+      "http://*.dev.umich.edu:8443",
+      "https://localhost:*",
+      "https://[::1]:*"
+  ));
+
+  @Nested
+  @DisplayName("Exact entries")
+  class ExactEntryTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"https://example.com", "https://EXAMPLE.com", "HTTP://localhost:3000", "5902F6AA-8ca5-413b-8646-6079ed9265e7"})
+    @DisplayName("should match exact entries ignoring case")
+    void testMatches_exactEntries(String origin) {
+      assertTrue(matcher.matches(origin));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"http://example.com", "https://example.com:8443", "http://localhost:3001", "https://example.com.evil.com"})
+    @DisplayName("should not match different scheme, port or host")
+    void testMatches_exactEntriesMismatch(String origin) {
+      assertFalse(matcher.matches(origin));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @DisplayName("should not match null or empty values")
+    void testMatches_nullOrEmpty(String origin) {
+      assertFalse(matcher.matches(origin));
+    }
+  }
+
+  @Nested
+  @DisplayName("Pattern entries")
+  class PatternEntryTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "https://www.med.umich.edu",
+        "https://a.b.c.med.umich.edu",
+        "https://WWW.Med.Umich.Edu",
+        "http://app.dev.umich.edu:8443",
+        "https://localhost",
+        "https://localhost:4200",
+        "https://[::1]:8080"
+    })
+    @DisplayName("should match subdomain and port wildcards")
+    void testMatches_patterns(String origin) {
+      assertTrue(matcher.matches(origin));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "https://med.umich.edu",
+        "http://www.med.umich.edu",
+        "https://www.med.umich.edu:8443",
+        "https://evilmed.umich.edu",
+        "https://www.med.umich.edu.evil.com",
+        "http://app.dev.umich.edu",
+        "http://localhost:4200",
+        "https://localhost:port",
+        "https://[::2]:8080",
+        "not-an-origin"
+    })
+    @DisplayName("should not match outside the patterns")
+    void testMatches_patternsMismatch(String origin) {
+      assertFalse(matcher.matches(origin));
+    }
+
+    @Test
+    @DisplayName("should find patterns among many registered origins")
+    void testMatches_manyOrigins() {
+      final List<String> origins = new ArrayList<>();
+      for (int i = 0; i < 10_000; i++) {
+        origins.add("https://*.site" + i + ".org");
+        origins.add("https://site" + i + ".com");
+      }
+      final OriginMatcher large = OriginMatcher.of(origins);
+
+      assertTrue(large.matches("https://www.site9999.org"));
+      assertTrue(large.matches("https://site42.com"));
+      assertFalse(large.matches("https://site42.org"));
+    }
+  }
+
+  @Test
+  @DisplayName("should match everything when the wildcard origin is authorized")
+  void testMatches_wildcard() {
+    final OriginMatcher all = OriginMatcher.of(List.of("*"));
+
+    assertTrue(all.matches("https://anything.org"));
+    assertTrue(all.matches("null"));
+  }
+
+  @Test
+  @DisplayName("should match nothing when no origins are authorized")
+  void testMatches_none() {
+    assertFalse(OriginMatcher.of(List.of()).matches("https://example.com"));
+    assertFalse(OriginMatcher.none().matches("https://example.com"));
+  }
+}
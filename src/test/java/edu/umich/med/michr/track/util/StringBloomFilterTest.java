@@ -0,0 +1,77 @@
+package edu.umich.med.michr.track.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StringBloomFilter Tests")
+class StringBloomFilterTest {
+
+  @Test
+  @DisplayName("should contain every value it was built with")
+  void testMightContain_noFalseNegatives() {
+    final List<String> values = randomIds(5_000);
+
+    final StringBloomFilter filter = StringBloomFilter.of(values, 0.01);
+
+    values.forEach(value -> assertTrue(filter.mightContain(value), value));
+  }
+
+  @Test
+  @DisplayName("should keep the false positive rate close to the configured rate")
+  void testMightContain_falsePositiveRateWithinBounds() {
+    final StringBloomFilter filter = StringBloomFilter.of(randomIds(5_000), 0.01);
+
+    final long falsePositives = randomIds(20_000).stream().filter(filter::mightContain).count();
+
+    assertThat(falsePositives / 20_000.0).isLessThan(0.03);
+  }
+
+  @Test
+  @DisplayName("should add a value to a copy and leave the original filter unchanged")
+  void testWith() {
+    final List<String> values = randomIds(1_000);
+    final StringBloomFilter filter = StringBloomFilter.of(values, 0.01);
+
+    final StringBloomFilter copy = filter.with("added-client");
+
+    assertTrue(copy.mightContain("added-client"));
+    values.forEach(value -> assertTrue(copy.mightContain(value), value));
+
+    final StringBloomFilter empty = StringBloomFilter.of(Collections.emptyList(), 0.01);
+    assertTrue(empty.with("added-client").mightContain("added-client"));
+    assertFalse(empty.mightContain("added-client"));
+  }
+
+  @Test
+  @DisplayName("should reject everything when built from no values")
+  void testMightContain_emptyFilter() {
+    final StringBloomFilter filter = StringBloomFilter.of(Collections.emptyList(), 0.01);
+
+    assertFalse(filter.mightContain("d2c1e4a7-63c5-4dfd-a392-35636f7ce5ac"));
+  }
+
+  @ParameterizedTest
+  @ValueSource(doubles = {0, 1, -0.5, 1.5})
+  @DisplayName("should refuse false positive rates outside (0, 1)")
+  void testOf_invalidFalsePositiveRate(double falsePositiveRate) {
+    assertThrows(IllegalArgumentException.class, () -> StringBloomFilter.of(List.of("a"), falsePositiveRate));
+  }
+
+  private static List<String> randomIds(int count) {
+    final List<String> ids = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      ids.add(UUID.randomUUID().toString());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,44 @@
+package edu.umich.med.michr.track.warmup;
+
+import edu.umich.med.michr.track.repository.AnalyticsEventRepository;
+import edu.umich.med.michr.track.service.ClientConfigurationServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:warmupdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;MODE=Oracle",
+    "track.warm-up.enabled=true",
+    "track.warm-up.iterations=40",
+    "track.warm-up.flush=true"
+})
+@DisplayName("Ingest Warm-Up Integration Tests")
+class IngestWarmUpIntegrationTest {
+
+  @Autowired
+  private IngestWarmUp warmUp;
+
+  @Autowired
+  private ClientConfigurationServiceImpl clientConfigurationService;
+
+  @Autowired
+  private AnalyticsEventRepository repository;
+
+  @Test
+  @DisplayName("should send the synthetic requests through the tracking endpoint without storing them")
+  void testWarmUp() {
+    assertNull(clientConfigurationService.getClientConfiguration(IngestWarmUp.SANDBOX_CLIENT_ID),
+        "the sandbox client of the startup warm-up is gone once the application is ready");
+
+    try {
+      assertEquals(40, warmUp.warmUp());
+      assertEquals(0, repository.count());
+    } finally {
+      clientConfigurationService.refresh();
+    }
+    assertNull(clientConfigurationService.getClientConfiguration(IngestWarmUp.SANDBOX_CLIENT_ID));
+  }
+}
@@ -0,0 +1,82 @@
+package edu.umich.med.michr.track.warmup;
+
+import edu.umich.med.michr.track.service.ClientConfigurationService;
+import edu.umich.med.michr.track.util.TestUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.ApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IngestWarmUp Tests")
+class IngestWarmUpTest {
+  private static final URI ENDPOINT = URI.create("http://127.0.0.1:8080/analytics/events");
+
+  @Mock
+  private ClientConfigurationService clientConfigurationService;
+
+  @Mock
+  private WarmUpFilter warmUpFilter;
+
+  @Mock
+  private SslBundles sslBundles;
+
+  @Test
+  @DisplayName("should cycle through the request shapes of real hits")
+  void testCreateRequest() {
+    final HttpRequest beacon = IngestWarmUp.createRequest(ENDPOINT, "token", 0);
+    assertEquals("POST", beacon.method());
+    assertEquals(ENDPOINT, beacon.uri());
+    assertEquals(IngestWarmUp.SANDBOX_ORIGIN, beacon.headers().firstValue("Origin").orElseThrow());
+    assertEquals("token", beacon.headers().firstValue(WarmUpFilter.TOKEN_HEADER).orElseThrow());
+
+    assertTrue(IngestWarmUp.createRequest(ENDPOINT, "token", 1).headers().firstValue("Referer").isPresent());
+
+    final HttpRequest pixel = IngestWarmUp.createRequest(ENDPOINT, "token", 3);
+    assertEquals("GET", pixel.method());
+    assertTrue(pixel.uri().getQuery().contains("client-id=" + IngestWarmUp.SANDBOX_CLIENT_ID));
+    assertTrue(pixel.uri().getQuery().contains("email-id=" + IngestWarmUp.SANDBOX_ORIGIN));
+    assertTrue(pixel.headers().firstValue("Origin").isEmpty());
+  }
+
+  @Test
+  @DisplayName("should skip the warm-up without a web server")
+  void testWarmUp_withoutWebServer() {
+    assertEquals(0, createWarmUp(mock(ApplicationContext.class)).warmUp());
+
+    verifyNoInteractions(clientConfigurationService, warmUpFilter);
+  }
+
+  @Test
+  @DisplayName("should let the application start when the warm-up fails")
+  void testRun_failureIsNotFatal() {
+    final ServletWebServerApplicationContext context = mock(ServletWebServerApplicationContext.class, RETURNS_DEEP_STUBS);
+    final WebServer webServer = mock(WebServer.class);
+    when(webServer.getPort()).thenReturn(8080);
+    when(context.getWebServer()).thenReturn(webServer);
+    when(context.getServletContext().getContextPath()).thenReturn("");
+    when(clientConfigurationService.getAllAuthorizedOriginsMatcher()).thenThrow(new IllegalStateException("database down"));
+
+    assertDoesNotThrow(() -> createWarmUp(context).run(new DefaultApplicationArguments()));
+    verify(warmUpFilter, never()).setActive(true);
+  }
+
+  private IngestWarmUp createWarmUp(ApplicationContext context) {
+    return new IngestWarmUp(context, new ServerProperties(), sslBundles, clientConfigurationService, warmUpFilter,
+        new WarmUpProperties(true, 10, Duration.ofMinutes(1), true), TestUtils.FIXED_CLOCK);
+  }
+}
@@ -0,0 +1,87 @@
+package edu.umich.med.michr.track.warmup;
+
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WarmUpFilter Tests")
+class WarmUpFilterTest {
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private FilterChain filterChain;
+
+  private WarmUpFilter filter;
+  private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/analytics/events");
+  private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+  @BeforeEach
+  void setUp() {
+    filter = new WarmUpFilter(transactionManager, entityManager, true);
+  }
+
+  @Test
+  @DisplayName("should run a warm-up request in a transaction that is rolled back after the inserts ran")
+  void testDoFilter_warmUpRequest() throws Exception {
+    when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    filter.setActive(true);
+    request.addHeader(WarmUpFilter.TOKEN_HEADER, filter.getToken());
+
+    filter.doFilter(request, response, filterChain);
+
+    verify(filterChain).doFilter(request, response);
+    verify(entityManager).flush();
+    verify(transactionManager).commit(argThat(TransactionStatus::isRollbackOnly));
+  }
+
+  @Test
+  @DisplayName("should pass other requests on unchanged")
+  void testDoFilter_otherRequests() throws Exception {
+    filter.setActive(true);
+    request.addHeader(WarmUpFilter.TOKEN_HEADER, "guessed");
+    filter.doFilter(request, response, filterChain);
+
+    filter.setActive(false);
+    final MockHttpServletRequest lateRequest = new MockHttpServletRequest("POST", "/analytics/events");
+    lateRequest.addHeader(WarmUpFilter.TOKEN_HEADER, filter.getToken());
+    filter.doFilter(lateRequest, response, filterChain);
+
+    verify(filterChain, times(2)).doFilter(any(), any());
+    verifyNoInteractions(transactionManager, entityManager);
+  }
+
+  @Test
+  @DisplayName("should rethrow a failure of the filter chain after rolling back")
+  void testDoFilter_failure() throws Exception {
+    when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    doThrow(new IOException("connection reset")).when(filterChain).doFilter(request, response);
+    filter.setActive(true);
+    request.addHeader(WarmUpFilter.TOKEN_HEADER, filter.getToken());
+
+    assertThrows(IOException.class, () -> filter.doFilter(request, response, filterChain));
+    verifyNoInteractions(entityManager);
+  }
+}
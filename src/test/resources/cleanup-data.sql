@@ -1,3 +1,6 @@
+DELETE FROM FUNNEL_STEP;
+DELETE FROM FUNNEL;
+DELETE FROM USER_SESSION;
 DELETE FROM ANALYTICS_EVENT_ATTRIBUTE;
 DELETE FROM ANALYTICS_EVENT;
 DELETE FROM AUTHORIZED_CLIENT_ORIGIN;